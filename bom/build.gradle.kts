@@ -32,6 +32,7 @@ dependencies {
     api(project(":nessie-compatibility-jersey"))
     api(project(":nessie-gc-base"))
     api(project(":nessie-gc-repository-jdbc"))
+    api(project(":nessie-gc-storage-connector"))
     api(project(":nessie-model"))
     api(project(":nessie-jaxrs"))
     api(project(":nessie-jaxrs-testextension"))
@@ -27,10 +27,12 @@ dependencies {
   implementation(project(":nessie-events-api"))
   implementation(project(":nessie-events-spi"))
   implementation(project(":nessie-events-service"))
+  implementation(project(":nessie-versioned-storage-common"))
 
   // Quarkus
   implementation(enforcedPlatform(libs.quarkus.bom))
   implementation("io.quarkus:quarkus-vertx")
+  implementation("com.fasterxml.jackson.core:jackson-databind")
 
   // Metrics
   implementation("io.micrometer:micrometer-core")
@@ -15,6 +15,7 @@
  */
 package org.projectnessie.events.quarkus;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import io.quarkus.runtime.ShutdownEvent;
 import io.quarkus.runtime.StartupEvent;
 import io.quarkus.vertx.ConsumeEvent;
@@ -25,12 +26,14 @@ import io.vertx.core.eventbus.Message;
 import io.vertx.core.eventbus.MessageConsumer;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.enterprise.event.Observes;
+import jakarta.enterprise.inject.Instance;
 import jakarta.inject.Inject;
 import jakarta.inject.Named;
 import java.util.Map;
 import org.projectnessie.events.api.Event;
 import org.projectnessie.events.api.EventType;
 import org.projectnessie.events.quarkus.config.EventBusConfigurer;
+import org.projectnessie.events.quarkus.config.QuarkusEventConfig;
 import org.projectnessie.events.quarkus.delivery.EventDelivery;
 import org.projectnessie.events.quarkus.delivery.EventDeliveryFactory;
 import org.projectnessie.events.service.EventConfig;
@@ -38,8 +41,11 @@ import org.projectnessie.events.service.EventFactory;
 import org.projectnessie.events.service.EventService;
 import org.projectnessie.events.service.EventSubscribers;
 import org.projectnessie.events.service.VersionStoreEvent;
+import org.projectnessie.events.service.journal.EventJournal;
+import org.projectnessie.events.service.journal.PersistEventJournal;
 import org.projectnessie.events.spi.EventSubscriber;
 import org.projectnessie.events.spi.EventSubscription;
+import org.projectnessie.versioned.storage.common.persist.Persist;
 
 @ApplicationScoped
 public class QuarkusEventService extends EventService {
@@ -67,7 +73,7 @@ public class QuarkusEventService extends EventService {
   // Mandatory for CDI.
   @SuppressWarnings("unused")
   public QuarkusEventService() {
-    this(null, null, null, null, null, null);
+    this(null, null, null, null, null, null, null);
   }
 
   @Inject
@@ -77,14 +83,38 @@ public class QuarkusEventService extends EventService {
       EventSubscribers subscribers,
       EventBus bus,
       EventDeliveryFactory deliveryFactory,
-      @Named(EventBusConfigurer.EVENTS_DELIVERY_OPTIONS_BEAN_NAME)
-          DeliveryOptions deliveryOptions) {
-    super(config, factory, subscribers);
+      @Named(EventBusConfigurer.EVENTS_DELIVERY_OPTIONS_BEAN_NAME) DeliveryOptions deliveryOptions,
+      Instance<Persist> persist) {
+    super(config, factory, subscribers, journal(config, persist));
     this.bus = bus;
     this.deliveryFactory = deliveryFactory;
     this.deliveryOptions = deliveryOptions;
   }
 
+  private static EventJournal journal(EventConfig config, Instance<Persist> persist) {
+    if (!(config instanceof QuarkusEventConfig)
+        || !((QuarkusEventConfig) config).getJournalConfig().isEnabled()
+        || persist == null
+        || !persist.isResolvable()) {
+      return null;
+    }
+    Persist p = persist.get();
+    if (p == null) {
+      // legacy version store
+      return null;
+    }
+    String instanceId =
+        ((QuarkusEventConfig) config)
+            .getJournalConfig()
+            .getInstanceId()
+            .orElseThrow(
+                () ->
+                    new IllegalStateException(
+                        "The event journal is enabled, but "
+                            + "nessie.version.store.events.journal.instance-id is not set"));
+    return new PersistEventJournal(p, new ObjectMapper(), instanceId);
+  }
+
   public void onStartup(@Observes StartupEvent event) {
     start();
     for (Map.Entry<EventSubscription, EventSubscriber> entry :
@@ -113,7 +143,7 @@ public class QuarkusEventService extends EventService {
   }
 
   @Override
-  protected void fireEvent(Event event) {
+  protected void publishEvent(Event event) {
     // Publish the event to all interested subscribers that are listening to this address.
     String address = NESSIE_EVENTS_SUBSCRIBERS_ADDR_PREFIX + event.getType();
     bus.publish(address, event, deliveryOptions);
@@ -122,7 +152,9 @@ public class QuarkusEventService extends EventService {
   @Override
   protected void deliverEvent(
       Event event, EventSubscriber subscriber, EventSubscription subscription) {
-    EventDelivery delivery = deliveryFactory.create(event, subscriber, subscription);
+    EventDelivery delivery =
+        deliveryFactory.create(
+            event, subscriber, subscription, () -> eventDelivered(event, subscription));
     delivery.start();
   }
 }
@@ -21,6 +21,7 @@ import io.smallrye.config.WithDefault;
 import io.smallrye.config.WithName;
 import java.time.Duration;
 import java.util.Map;
+import java.util.Optional;
 import org.projectnessie.events.service.EventConfig;
 
 @StaticInitSafe
@@ -44,6 +45,76 @@ public interface QuarkusEventConfig extends EventConfig {
   @WithName("retry")
   RetryConfig getRetryConfig();
 
+  @WithName("journal")
+  JournalConfig getJournalConfig();
+
+  @Override
+  default Duration getJournalFlushInterval() {
+    return getJournalConfig().getFlushInterval();
+  }
+
+  @Override
+  default int getJournalMaxBatchSize() {
+    return getJournalConfig().getMaxBatchSize();
+  }
+
+  @Override
+  default Duration getJournalRedeliveryDelay() {
+    return getJournalConfig().getRedeliveryDelay();
+  }
+
+  @Override
+  default int getJournalMaxDeliveryAttempts() {
+    return getJournalConfig().getMaxDeliveryAttempts();
+  }
+
+  interface JournalConfig {
+
+    /**
+     * Whether events are written to a journal in the version store before being delivered, so that
+     * events not yet delivered to all subscribers are delivered again after a restart (disabled by
+     * default). Requires a version store type that uses the Persist storage API.
+     */
+    @WithName("enable")
+    @WithDefault("false")
+    boolean isEnabled();
+
+    /** The maximum time events are collected before being written to the journal. */
+    @WithName("flush-interval")
+    @WithDefault("PT0.1S")
+    Duration getFlushInterval();
+
+    /** The maximum number of events written to the journal at once. */
+    @WithName("max-batch-size")
+    @WithDefault("100")
+    int getMaxBatchSize();
+
+    /**
+     * The time after which a journaled event that has not been delivered to a subscriber yet is
+     * delivered again to that subscriber.
+     */
+    @WithName("redelivery-delay")
+    @WithDefault("PT1M")
+    Duration getRedeliveryDelay();
+
+    /**
+     * The maximum number of attempts to deliver a journaled event to a subscriber, including the
+     * initial delivery. Events that could not be delivered after that many attempts are logged as
+     * dead letters and are not delivered to that subscriber again.
+     */
+    @WithName("max-delivery-attempts")
+    @WithDefault("3")
+    int getMaxDeliveryAttempts();
+
+    /**
+     * The id of this Nessie instance, required if the journal is enabled. Each instance uses its own
+     * journal, so instances sharing the same version store must use distinct ids. The id must be
+     * stable across restarts, otherwise undelivered events are not replayed.
+     */
+    @WithName("instance-id")
+    Optional<String> getInstanceId();
+  }
+
   interface RetryConfig {
 
     /**
@@ -55,6 +55,21 @@ public class EventDeliveryFactory {
 
   public EventDelivery create(
       Event event, EventSubscriber subscriber, EventSubscription subscription) {
+    return newDelivery(event, subscriber, subscription);
+  }
+
+  /** Creates a delivery that invokes {@code onSuccess} once the event has been delivered. */
+  public EventDelivery create(
+      Event event,
+      EventSubscriber subscriber,
+      EventSubscription subscription,
+      Runnable onSuccess) {
+    return new SuccessCallbackEventDelivery(
+        newDelivery(event, subscriber, subscription), onSuccess);
+  }
+
+  private RetriableEventDelivery newDelivery(
+      Event event, EventSubscriber subscriber, EventSubscription subscription) {
     RetriableEventDelivery delivery =
         subscriber.isBlocking()
             ? new BlockingEventDelivery(event, subscriber, config.getRetryConfig(), vertx)
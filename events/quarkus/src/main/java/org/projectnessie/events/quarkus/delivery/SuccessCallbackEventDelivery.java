@@ -0,0 +1,40 @@
+/*
+ * Copyright (C) 2023 Dremio
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.projectnessie.events.quarkus.delivery;
+
+/**
+ * Invokes a callback once the event has been delivered successfully. The callback is not invoked
+ * if the delivery failed after all attempts or if the subscriber rejected the event.
+ */
+class SuccessCallbackEventDelivery extends DelegatingEventDelivery {
+
+  private final Runnable onSuccess;
+
+  SuccessCallbackEventDelivery(RetriableEventDelivery delegate, Runnable onSuccess) {
+    super(delegate);
+    this.onSuccess = onSuccess;
+    setSelf(this);
+  }
+
+  @Override
+  void deliverySuccessful(int lastAttempt) {
+    try {
+      super.deliverySuccessful(lastAttempt);
+    } finally {
+      onSuccess.run();
+    }
+  }
+}
@@ -0,0 +1,50 @@
+/*
+ * Copyright (C) 2023 Dremio
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.projectnessie.events.quarkus.delivery;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verify;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+class TestSuccessCallbackEventDelivery {
+
+  @Mock RetriableEventDelivery delegate;
+
+  @Test
+  void callbackOnlyOnSuccess() {
+    AtomicInteger successes = new AtomicInteger();
+    SuccessCallbackEventDelivery delivery =
+        new SuccessCallbackEventDelivery(delegate, successes::incrementAndGet);
+
+    delivery.deliveryFailed(3, new RuntimeException("failed"));
+    verify(delegate).deliveryFailed(eq(3), any());
+    delivery.deliveryRejected();
+    verify(delegate).deliveryRejected();
+    assertThat(successes).hasValue(0);
+
+    delivery.deliverySuccessful(2);
+    verify(delegate).deliverySuccessful(2);
+    assertThat(successes).hasValue(1);
+  }
+}
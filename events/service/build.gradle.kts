@@ -26,6 +26,7 @@ dependencies {
   implementation(project(":nessie-versioned-spi"))
   implementation(project(":nessie-events-api"))
   implementation(project(":nessie-events-spi"))
+  implementation(project(":nessie-versioned-storage-common"))
 
   implementation(platform(libs.jackson.bom))
   implementation("com.fasterxml.jackson.core:jackson-core")
@@ -44,6 +45,8 @@ dependencies {
   testImplementation(libs.bundles.junit.testing)
   testImplementation(libs.guava)
   testImplementation(libs.logback.classic)
+  testImplementation(project(":nessie-versioned-storage-inmemory"))
+  testImplementation(project(":nessie-versioned-storage-testextension"))
 
   testCompileOnly(libs.microprofile.openapi)
 }
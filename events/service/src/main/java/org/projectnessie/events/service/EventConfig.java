@@ -16,6 +16,7 @@
 package org.projectnessie.events.service;
 
 import java.time.Clock;
+import java.time.Duration;
 import java.util.Collections;
 import java.util.Map;
 import java.util.UUID;
@@ -57,4 +58,40 @@ public interface EventConfig {
   default Clock getClock() {
     return Clock.systemUTC();
   }
+
+  /**
+   * The maximum time events are collected before being written to the {@linkplain
+   * org.projectnessie.events.service.journal.EventJournal event journal}, if one is configured.
+   */
+  default Duration getJournalFlushInterval() {
+    return Duration.ofMillis(100);
+  }
+
+  /**
+   * The maximum number of events written to the {@linkplain
+   * org.projectnessie.events.service.journal.EventJournal event journal} at once, if one is
+   * configured.
+   */
+  default int getJournalMaxBatchSize() {
+    return 100;
+  }
+
+  /**
+   * The time after which a journaled event that has not been delivered to a subscriber yet is
+   * delivered again to that subscriber, if an {@linkplain
+   * org.projectnessie.events.service.journal.EventJournal event journal} is configured.
+   */
+  default Duration getJournalRedeliveryDelay() {
+    return Duration.ofMinutes(1);
+  }
+
+  /**
+   * The maximum number of attempts to deliver a journaled event to a subscriber, including the
+   * initial delivery, if an {@linkplain org.projectnessie.events.service.journal.EventJournal event
+   * journal} is configured. Events that could not be delivered after that many attempts are logged
+   * as dead letters and are not delivered to that subscriber again.
+   */
+  default int getJournalMaxDeliveryAttempts() {
+    return 3;
+  }
 }
@@ -18,15 +18,22 @@ package org.projectnessie.events.service;
 import jakarta.annotation.Nullable;
 import java.security.Principal;
 import java.time.Instant;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.stream.Stream;
 import org.projectnessie.events.api.Content;
 import org.projectnessie.events.api.ContentKey;
 import org.projectnessie.events.api.ContentStoredEvent;
 import org.projectnessie.events.api.Event;
 import org.projectnessie.events.api.EventType;
 import org.projectnessie.events.api.ReferenceCreatedEvent;
+import org.projectnessie.events.service.journal.EventJournal;
+import org.projectnessie.events.service.journal.EventJournalWriter;
+import org.projectnessie.events.service.journal.JournaledEvent;
 import org.projectnessie.events.service.util.ContentMapping;
 import org.projectnessie.events.spi.EventSubscriber;
 import org.projectnessie.events.spi.EventSubscription;
@@ -55,6 +62,13 @@ import org.slf4j.MDC;
  * <p>This class is meant to be used as a singleton. It provides all the required functionality to
  * process and deliver events. Subclasses may override some of the protected methods to add support
  * for tracing, or to implement more sophisticated delivery logic.
+ *
+ * <p>If an {@link EventJournal} is provided, events are written to the journal in batches before
+ * being published, and the delivery of each event to each subscriber is tracked. Events that were
+ * journaled but not delivered to a subscriber, because the delivery failed or the server was
+ * stopped, are delivered again to that subscriber when the service is started, or when the event
+ * has not been delivered within {@link EventConfig#getJournalRedeliveryDelay()}. Subscribers are
+ * identified across restarts by their class name.
  */
 public class EventService implements AutoCloseable {
 
@@ -67,14 +81,28 @@ public class EventService implements AutoCloseable {
   protected final EventFactory factory;
   protected final EventSubscribers subscribers;
 
+  @Nullable private final EventJournal journal;
+
   private volatile boolean started;
   private boolean hasContentSubscribers;
   private boolean hasCommitSubscribers;
 
+  private volatile EventJournalWriter journalWriter;
+  private Map<EventSubscription, String> consumerNames;
+
   public EventService(EventConfig config, EventFactory factory, EventSubscribers subscribers) {
+    this(config, factory, subscribers, null);
+  }
+
+  public EventService(
+      EventConfig config,
+      EventFactory factory,
+      EventSubscribers subscribers,
+      @Nullable EventJournal journal) {
     this.config = config;
     this.factory = factory;
     this.subscribers = subscribers;
+    this.journal = journal;
   }
 
   /** Starts event delivery by activating the subscribers. */
@@ -91,16 +119,91 @@ public class EventService implements AutoCloseable {
               || subscribers.hasSubscribersFor(EventType.CONTENT_REMOVED);
       hasCommitSubscribers =
           hasContentSubscribers || subscribers.hasSubscribersFor(EventType.COMMIT);
+      if (journal != null) {
+        consumerNames = consumerNames();
+        journalWriter =
+            new EventJournalWriter(
+                journal,
+                config.getJournalFlushInterval(),
+                config.getJournalMaxBatchSize(),
+                config.getJournalRedeliveryDelay(),
+                config.getJournalMaxDeliveryAttempts(),
+                this::publishJournaledEvent,
+                this::redeliverJournaledEvent);
+        replayJournal();
+      }
       started = true;
     }
   }
 
-  /** Closes the event service by deactivating the subscribers. */
+  /**
+   * Closes the event service by deactivating the subscribers, after publishing the events that
+   * have not been written to the journal yet.
+   */
   @Override
   public synchronized void close() {
+    if (journalWriter != null) {
+      journalWriter.close();
+    }
     subscribers.close();
   }
 
+  /**
+   * Stable consumer names for the subscriptions: the class name of the subscriber, suffixed with a
+   * sequence number if there are multiple subscribers of the same class.
+   */
+  private Map<EventSubscription, String> consumerNames() {
+    Map<EventSubscriber, String> names = new IdentityHashMap<>();
+    Map<String, Integer> counts = new HashMap<>();
+    for (EventSubscriber subscriber : subscribers.getSubscribers()) {
+      String name = subscriber.getClass().getName();
+      int n = counts.merge(name, 1, Integer::sum);
+      names.put(subscriber, n == 1 ? name : name + "#" + n);
+    }
+    Map<EventSubscription, String> consumerNames = new HashMap<>();
+    for (Map.Entry<EventSubscription, EventSubscriber> entry :
+        subscribers.getSubscriptions().entrySet()) {
+      consumerNames.put(entry.getKey(), names.get(entry.getValue()));
+    }
+    return consumerNames;
+  }
+
+  /** Delivers journaled events that have not been delivered to a subscriber yet. */
+  private void replayJournal() {
+    for (Map.Entry<EventSubscription, EventSubscriber> entry :
+        subscribers.getSubscriptions().entrySet()) {
+      EventSubscription subscription = entry.getKey();
+      EventSubscriber subscriber = entry.getValue();
+      String consumer = consumerNames.get(subscription);
+      long replayed = 0L;
+      try (Stream<JournaledEvent> events = journalWriter.unconsumedEvents(consumer)) {
+        for (Iterator<JournaledEvent> iter = events.iterator(); iter.hasNext(); ) {
+          Event event = iter.next().getEvent();
+          if (subscriber.accepts(event)) {
+            deliverEvent(event, subscriber, subscription);
+            replayed++;
+          } else {
+            journalWriter.delivered(consumer, event.getId());
+          }
+        }
+      }
+      if (replayed > 0L) {
+        LOGGER.info("Replayed {} journaled events to subscriber {}", replayed, consumer);
+      }
+    }
+  }
+
+  /** Delivers a journaled event again, that has not been delivered to the consumer in time. */
+  private void redeliverJournaledEvent(String consumer, JournaledEvent journaledEvent) {
+    for (Map.Entry<EventSubscription, EventSubscriber> entry :
+        subscribers.getSubscriptions().entrySet()) {
+      if (consumer.equals(consumerNames.get(entry.getKey()))) {
+        deliverEvent(journaledEvent.getEvent(), entry.getValue(), entry.getKey());
+        return;
+      }
+    }
+  }
+
   /**
    * Invoked when a result is received from the version store by {@link ResultCollector}, then
    * forwarded to this service for delivery.
@@ -233,6 +336,31 @@ public class EventService implements AutoCloseable {
     }
   }
 
+  /**
+   * Fires the event: publishes the event directly, or, if an {@link EventJournal} is configured,
+   * queues the event to be journaled and published asynchronously.
+   */
+  protected void fireEvent(Event event) {
+    EventJournalWriter writer = journalWriter;
+    if (writer != null) {
+      writer.add(event);
+    } else {
+      publishEvent(event);
+    }
+  }
+
+  private void publishJournaledEvent(JournaledEvent journaledEvent) {
+    Event event = journaledEvent.getEvent();
+    for (Map.Entry<EventSubscription, EventSubscriber> entry :
+        subscribers.getSubscriptions().entrySet()) {
+      // Events rejected by a subscriber are never delivered to it, so they are not tracked
+      if (entry.getValue().accepts(event)) {
+        journalWriter.track(consumerNames.get(entry.getKey()), journaledEvent);
+      }
+    }
+    publishEvent(event);
+  }
+
   /**
    * Forwards the event to all subscribers.
    *
@@ -240,7 +368,7 @@ public class EventService implements AutoCloseable {
    *     by one, synchronously and sequentially. Subclasses may override this method to implement a
    *     more sophisticated delivery mechanism, e.g. using an asynchronous event bus.
    */
-  protected void fireEvent(Event event) {
+  protected void publishEvent(Event event) {
     LOGGER.debug("Firing {} event: {}", event.getType(), event);
     for (Map.Entry<EventSubscription, EventSubscriber> entry :
         subscribers.getSubscriptions().entrySet()) {
@@ -250,6 +378,12 @@ public class EventService implements AutoCloseable {
     }
   }
 
+  /**
+   * Delivers the event to a single subscriber.
+   *
+   * @implSpec Implementations must invoke {@link #eventDelivered(Event, EventSubscription)} once
+   *     the event has been delivered successfully.
+   */
   protected void deliverEvent(
       Event event, EventSubscriber subscriber, EventSubscription subscription) {
     MDC.put(SUBSCRIPTION_ID_MDC_KEY, subscription.getIdAsText());
@@ -259,6 +393,7 @@ public class EventService implements AutoCloseable {
         LOGGER.debug("Delivering event to subscriber {}: {}", subscriber, event);
         subscriber.onEvent(event);
         LOGGER.debug("Event successfully delivered: {}", event);
+        eventDelivered(event, subscription);
       } else {
         LOGGER.debug("Subscriber rejected event: {}", event);
       }
@@ -269,4 +404,16 @@ public class EventService implements AutoCloseable {
       MDC.remove(EVENT_ID_MDC_KEY);
     }
   }
+
+  /**
+   * Records that the event has been delivered successfully to the subscription, so that it is not
+   * replayed from the {@link EventJournal}. Events that failed to be delivered are replayed on the
+   * next start of the service.
+   */
+  protected void eventDelivered(Event event, EventSubscription subscription) {
+    EventJournalWriter writer = journalWriter;
+    if (writer != null) {
+      writer.delivered(consumerNames.get(subscription), event.getId());
+    }
+  }
 }
@@ -0,0 +1,65 @@
+/*
+ * Copyright (C) 2023 Dremio
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.projectnessie.events.service.journal;
+
+import java.util.List;
+import java.util.OptionalLong;
+import java.util.stream.Stream;
+import org.projectnessie.events.api.Event;
+
+/**
+ * A durable, append-only journal of {@link Event}s, used as an outbox so that events that were not
+ * yet delivered to all subscribers can be replayed after a restart.
+ *
+ * <p>Each journaled event is assigned a monotonically increasing offset. Consumers record the
+ * offset up to which all events have been delivered via {@link #commitOffset(String, long)}.
+ *
+ * <p>Implementations must be thread-safe.
+ */
+public interface EventJournal {
+
+  /**
+   * Appends the given events to the journal, in the given order.
+   *
+   * @return the offset assigned to the first event, the following events have consecutive offsets
+   */
+  long append(List<Event> events);
+
+  /**
+   * Returns all journaled events with an offset greater than or equal to the given offset, except
+   * events that have already been {@linkplain #prune(long) pruned}. The events are read lazily,
+   * while the returned stream is consumed.
+   */
+  Stream<JournaledEvent> readFrom(long offset);
+
+  /** Returns the offset of the last journaled event, or {@code -1} if the journal is empty. */
+  long lastOffset();
+
+  /**
+   * Returns the offset up to which (inclusive) all events have been delivered to the given
+   * consumer, or empty if no offset has been committed for the consumer yet.
+   */
+  OptionalLong committedOffset(String consumer);
+
+  /** Records that all events up to (inclusive) the given offset have been delivered. */
+  void commitOffset(String consumer, long offset);
+
+  /**
+   * Removes the events up to (inclusive) the given offset, which have been delivered to all
+   * consumers. Implementations may retain some of these events.
+   */
+  void prune(long offset);
+}
@@ -0,0 +1,329 @@
+/*
+ * Copyright (C) 2023 Dremio
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.projectnessie.events.service.journal;
+
+import static org.projectnessie.events.service.journal.JournaledEvent.NOT_JOURNALED;
+import static org.projectnessie.events.service.journal.JournaledEvent.journaledEvent;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.OptionalLong;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import org.projectnessie.events.api.Event;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Writes events to an {@link EventJournal} in batches, asynchronously, and publishes the events
+ * once they have been journaled.
+ *
+ * <p>Events are collected and written by a background thread, either every {@code flushInterval}
+ * or as soon as {@code maxBatchSize} events are pending. Events are published in the order in
+ * which they were added. If writing to the journal fails, the events are published anyway, but
+ * won't be replayed.
+ *
+ * <p>The writer also tracks the delivery of journaled events per consumer and periodically
+ * commits, for each consumer, the highest offset up to which all events have been delivered.
+ * Events that have been delivered to all consumers are then pruned from the journal.
+ *
+ * <p>An event that has not been delivered to a consumer within {@code redeliveryDelay} is
+ * delivered again to that consumer. After {@code maxDeliveryAttempts} attempts, the event is logged
+ * as a dead letter and treated as delivered, so that a single failing event cannot block the
+ * committed offset of the consumer and the pruning of the journal.
+ */
+public final class EventJournalWriter implements AutoCloseable {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(EventJournalWriter.class);
+
+  private final EventJournal journal;
+  private final int maxBatchSize;
+  private final long redeliveryDelayNanos;
+  private final int maxDeliveryAttempts;
+  private final Consumer<JournaledEvent> publisher;
+  private final BiConsumer<String, JournaledEvent> redeliverer;
+  private final ScheduledExecutorService executor;
+  private final ConcurrentLinkedQueue<Event> pending = new ConcurrentLinkedQueue<>();
+  private final AtomicInteger pendingCount = new AtomicInteger();
+  private final Map<String, ConsumerOffsets> consumers = new ConcurrentHashMap<>();
+  private long pruned = -1L;
+
+  public EventJournalWriter(
+      EventJournal journal,
+      Duration flushInterval,
+      int maxBatchSize,
+      Duration redeliveryDelay,
+      int maxDeliveryAttempts,
+      Consumer<JournaledEvent> publisher,
+      BiConsumer<String, JournaledEvent> redeliverer) {
+    if (maxBatchSize <= 0) {
+      throw new IllegalArgumentException("maxBatchSize must be positive");
+    }
+    if (maxDeliveryAttempts <= 0) {
+      throw new IllegalArgumentException("maxDeliveryAttempts must be positive");
+    }
+    this.journal = journal;
+    this.maxBatchSize = maxBatchSize;
+    this.redeliveryDelayNanos = redeliveryDelay.toNanos();
+    this.maxDeliveryAttempts = maxDeliveryAttempts;
+    this.publisher = publisher;
+    this.redeliverer = redeliverer;
+    this.executor =
+        Executors.newSingleThreadScheduledExecutor(
+            r -> {
+              Thread t = new Thread(r, "nessie-events-journal");
+              t.setDaemon(true);
+              return t;
+            });
+    long intervalMillis = Math.max(1L, flushInterval.toMillis());
+    executor.scheduleWithFixedDelay(
+        this::flush, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+  }
+
+  /** Adds an event to be journaled and published. */
+  public void add(Event event) {
+    pending.add(event);
+    if (pendingCount.incrementAndGet() % maxBatchSize == 0) {
+      try {
+        executor.execute(this::flush);
+      } catch (RejectedExecutionException e) {
+        // closing, pending events are flushed by close()
+      }
+    }
+  }
+
+  /**
+   * Returns the journaled events that have not been delivered to the given consumer yet. The
+   * events are read lazily from the journal, the delivery of each event is tracked when the event
+   * is consumed from the returned stream.
+   *
+   * <p>If no offset has been committed for the consumer yet, the current end of the journal is
+   * committed, and no events are returned.
+   */
+  public Stream<JournaledEvent> unconsumedEvents(String consumer) {
+    ConsumerOffsets offsets = consumerOffsets(consumer);
+    OptionalLong committedOffset = journal.committedOffset(consumer);
+    if (committedOffset.isEmpty()) {
+      long last = journal.lastOffset();
+      journal.commitOffset(consumer, last);
+      offsets.init(last);
+      return Stream.empty();
+    }
+    long committed = committedOffset.getAsLong();
+    offsets.init(committed);
+    return journal
+        .readFrom(committed + 1L)
+        .map(
+            event -> {
+              offsets.track(event, redeliveryDue());
+              return event;
+            });
+  }
+
+  /** Tracks the delivery of a journaled event to a consumer. */
+  public void track(String consumer, JournaledEvent event) {
+    if (event.getOffset() != NOT_JOURNALED) {
+      consumerOffsets(consumer).track(event, redeliveryDue());
+    }
+  }
+
+  /** Marks the event with the given id as delivered to the given consumer. */
+  public void delivered(String consumer, UUID eventId) {
+    ConsumerOffsets offsets = consumers.get(consumer);
+    if (offsets != null) {
+      offsets.delivered(eventId);
+    }
+  }
+
+  /** Journals and publishes all pending events, then commits the consumer offsets. */
+  @Override
+  public void close() {
+    executor.shutdown();
+    try {
+      if (!executor.awaitTermination(1, TimeUnit.MINUTES)) {
+        LOGGER.warn("Timed out waiting for the event journal writer to finish");
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    flush();
+  }
+
+  private ConsumerOffsets consumerOffsets(String consumer) {
+    return consumers.computeIfAbsent(consumer, c -> new ConsumerOffsets());
+  }
+
+  private long redeliveryDue() {
+    return System.nanoTime() + redeliveryDelayNanos;
+  }
+
+  private synchronized void flush() {
+    try {
+      while (true) {
+        List<Event> batch = new ArrayList<>(maxBatchSize);
+        for (Event e; batch.size() < maxBatchSize && (e = pending.poll()) != null; ) {
+          batch.add(e);
+        }
+        if (batch.isEmpty()) {
+          break;
+        }
+        pendingCount.addAndGet(-batch.size());
+        publish(batch);
+      }
+      commitOffsets();
+    } catch (RuntimeException e) {
+      LOGGER.error("Failure in event journal writer", e);
+    }
+  }
+
+  private void publish(List<Event> batch) {
+    long offset;
+    try {
+      offset = journal.append(batch);
+    } catch (RuntimeException e) {
+      LOGGER.error("Could not write {} events to the journal, events won't be replayed", batch, e);
+      offset = NOT_JOURNALED;
+    }
+    for (Event event : batch) {
+      try {
+        publisher.accept(journaledEvent(offset, event));
+      } catch (RuntimeException e) {
+        LOGGER.error("Could not publish event {}", event, e);
+      }
+      if (offset != NOT_JOURNALED) {
+        offset++;
+      }
+    }
+  }
+
+  private void commitOffsets() {
+    if (consumers.isEmpty()) {
+      return;
+    }
+    long allConsumed = Long.MAX_VALUE;
+    for (Map.Entry<String, ConsumerOffsets> entry : consumers.entrySet()) {
+      ConsumerOffsets offsets = entry.getValue();
+      redeliverOverdue(entry.getKey(), offsets);
+      long watermark = offsets.watermark();
+      if (watermark > offsets.committed) {
+        journal.commitOffset(entry.getKey(), watermark);
+        offsets.committed = watermark;
+      }
+      allConsumed = Math.min(allConsumed, offsets.committed);
+    }
+    if (allConsumed > pruned) {
+      journal.prune(allConsumed);
+      pruned = allConsumed;
+    }
+  }
+
+  /**
+   * Delivers the overdue events of a consumer again, or gives up on an event after {@link
+   * #maxDeliveryAttempts} attempts.
+   */
+  private void redeliverOverdue(String consumer, ConsumerOffsets offsets) {
+    long now = System.nanoTime();
+    for (Iterator<InFlight> iter = offsets.inFlight.values().iterator(); iter.hasNext(); ) {
+      InFlight inFlight = iter.next();
+      if (inFlight.due - now > 0L) {
+        continue;
+      }
+      JournaledEvent event = inFlight.event;
+      if (inFlight.attempts >= maxDeliveryAttempts) {
+        LOGGER.error(
+            "Event {} could not be delivered to {} after {} attempts, giving up (dead letter): {}",
+            event.getEvent().getId(),
+            consumer,
+            inFlight.attempts,
+            event.getEvent());
+        offsets.delivered(event.getEvent().getId());
+        continue;
+      }
+      inFlight.attempts++;
+      inFlight.due = now + redeliveryDelayNanos;
+      try {
+        redeliverer.accept(consumer, event);
+      } catch (RuntimeException e) {
+        LOGGER.error("Could not deliver event {} again to {}", event.getEvent(), consumer, e);
+      }
+    }
+  }
+
+  private static final class InFlight {
+    final JournaledEvent event;
+    int attempts = 1;
+    long due;
+
+    InFlight(JournaledEvent event, long due) {
+      this.event = event;
+      this.due = due;
+    }
+  }
+
+  private static final class ConsumerOffsets {
+    private final Map<UUID, InFlight> inFlight = new ConcurrentHashMap<>();
+    private final ConcurrentSkipListSet<Long> undelivered = new ConcurrentSkipListSet<>();
+    private volatile long highest = -1L;
+    private volatile long committed = -1L;
+
+    synchronized void init(long committed) {
+      this.committed = committed;
+      if (highest < committed) {
+        highest = committed;
+      }
+    }
+
+    void track(JournaledEvent event, long due) {
+      long offset = event.getOffset();
+      // add the offset before bumping the highest offset, see watermark()
+      undelivered.add(offset);
+      inFlight.put(event.getEvent().getId(), new InFlight(event, due));
+      synchronized (this) {
+        if (offset > highest) {
+          highest = offset;
+        }
+      }
+    }
+
+    void delivered(UUID eventId) {
+      InFlight removed = inFlight.remove(eventId);
+      if (removed != null) {
+        undelivered.remove(removed.event.getOffset());
+      }
+    }
+
+    /** The highest offset up to which all tracked events have been delivered. */
+    long watermark() {
+      // read the highest offset first, all offsets up to it are already in 'undelivered'
+      long h = highest;
+      Long first = undelivered.ceiling(Long.MIN_VALUE);
+      return first != null ? first - 1L : h;
+    }
+  }
+}
@@ -0,0 +1,287 @@
+/*
+ * Copyright (C) 2023 Dremio
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.projectnessie.events.service.journal;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import org.projectnessie.events.api.CommitEvent;
+import org.projectnessie.events.api.CommitMeta;
+import org.projectnessie.events.api.Content;
+import org.projectnessie.events.api.ContentEvent;
+import org.projectnessie.events.api.ContentKey;
+import org.projectnessie.events.api.ContentStoredEvent;
+import org.projectnessie.events.api.Event;
+import org.projectnessie.events.api.EventType;
+import org.projectnessie.events.api.ImmutableCommitEvent;
+import org.projectnessie.events.api.ImmutableCommitMeta;
+import org.projectnessie.events.api.ImmutableContent;
+import org.projectnessie.events.api.ImmutableContentRemovedEvent;
+import org.projectnessie.events.api.ImmutableContentStoredEvent;
+import org.projectnessie.events.api.ImmutableMergeEvent;
+import org.projectnessie.events.api.ImmutableReference;
+import org.projectnessie.events.api.ImmutableReferenceCreatedEvent;
+import org.projectnessie.events.api.ImmutableReferenceDeletedEvent;
+import org.projectnessie.events.api.ImmutableReferenceUpdatedEvent;
+import org.projectnessie.events.api.ImmutableTransplantEvent;
+import org.projectnessie.events.api.MergeEvent;
+import org.projectnessie.events.api.MultiReferenceEvent;
+import org.projectnessie.events.api.Reference;
+import org.projectnessie.events.api.ReferenceEvent;
+import org.projectnessie.events.api.WithHashAfterEvent;
+import org.projectnessie.events.api.WithHashBeforeEvent;
+
+/**
+ * Serializes {@link Event}s to JSON and back.
+ *
+ * <p>The event API types deliberately do not depend on Jackson, so the mapping is implemented
+ * explicitly for each {@link EventType}.
+ */
+final class EventSerializer {
+
+  private static final TypeReference<Map<String, Object>> OBJECT_MAP_TYPE =
+      new TypeReference<>() {};
+  private static final TypeReference<Map<String, List<String>>> STRING_LIST_MAP_TYPE =
+      new TypeReference<>() {};
+  private static final TypeReference<List<String>> STRING_LIST_TYPE = new TypeReference<>() {};
+
+  private final ObjectMapper mapper;
+
+  EventSerializer(ObjectMapper mapper) {
+    this.mapper = mapper;
+  }
+
+  ObjectNode serialize(Event event) {
+    ObjectNode node = mapper.createObjectNode();
+    node.put("type", event.getType().name());
+    node.put("id", event.getIdAsText());
+    node.put("repositoryId", event.getRepositoryId());
+    node.put("eventCreationTimestamp", event.getEventCreationTimestamp().toString());
+    event.getEventInitiator().ifPresent(i -> node.put("eventInitiator", i));
+    node.set("properties", mapper.valueToTree(event.getProperties()));
+    if (event instanceof ReferenceEvent) {
+      node.set("reference", reference(((ReferenceEvent) event).getReference()));
+    }
+    if (event instanceof MultiReferenceEvent) {
+      MultiReferenceEvent e = (MultiReferenceEvent) event;
+      node.set("sourceReference", reference(e.getSourceReference()));
+      node.set("targetReference", reference(e.getTargetReference()));
+    }
+    if (event instanceof WithHashBeforeEvent) {
+      node.put("hashBefore", ((WithHashBeforeEvent) event).getHashBefore());
+    }
+    if (event instanceof WithHashAfterEvent) {
+      node.put("hashAfter", ((WithHashAfterEvent) event).getHashAfter());
+    }
+    if (event instanceof MergeEvent) {
+      node.put("commonAncestorHash", ((MergeEvent) event).getCommonAncestorHash());
+    }
+    if (event instanceof CommitEvent) {
+      node.set("commitMeta", commitMeta(((CommitEvent) event).getCommitMeta()));
+    }
+    if (event instanceof ContentEvent) {
+      ContentEvent e = (ContentEvent) event;
+      node.put("hash", e.getHash());
+      node.put("commitCreationTimestamp", e.getCommitCreationTimestamp().toString());
+      node.set("contentKey", mapper.valueToTree(e.getContentKey().getElements()));
+    }
+    if (event instanceof ContentStoredEvent) {
+      node.set("content", content(((ContentStoredEvent) event).getContent()));
+    }
+    return node;
+  }
+
+  Event deserialize(JsonNode node) {
+    EventType type = EventType.valueOf(node.get("type").asText());
+    UUID id = UUID.fromString(node.get("id").asText());
+    String repositoryId = node.get("repositoryId").asText();
+    Instant created = Instant.parse(node.get("eventCreationTimestamp").asText());
+    Optional<String> initiator =
+        node.has("eventInitiator")
+            ? Optional.of(node.get("eventInitiator").asText())
+            : Optional.empty();
+    Map<String, Object> properties = mapper.convertValue(node.get("properties"), OBJECT_MAP_TYPE);
+
+    switch (type) {
+      case COMMIT:
+        return ImmutableCommitEvent.builder()
+            .id(id)
+            .repositoryId(repositoryId)
+            .eventCreationTimestamp(created)
+            .eventInitiator(initiator)
+            .properties(properties)
+            .reference(reference(node.get("reference")))
+            .hashBefore(node.get("hashBefore").asText())
+            .hashAfter(node.get("hashAfter").asText())
+            .commitMeta(commitMeta(node.get("commitMeta")))
+            .build();
+      case MERGE:
+        return ImmutableMergeEvent.builder()
+            .id(id)
+            .repositoryId(repositoryId)
+            .eventCreationTimestamp(created)
+            .eventInitiator(initiator)
+            .properties(properties)
+            .sourceReference(reference(node.get("sourceReference")))
+            .targetReference(reference(node.get("targetReference")))
+            .hashBefore(node.get("hashBefore").asText())
+            .hashAfter(node.get("hashAfter").asText())
+            .commonAncestorHash(node.get("commonAncestorHash").asText())
+            .build();
+      case TRANSPLANT:
+        return ImmutableTransplantEvent.builder()
+            .id(id)
+            .repositoryId(repositoryId)
+            .eventCreationTimestamp(created)
+            .eventInitiator(initiator)
+            .properties(properties)
+            .sourceReference(reference(node.get("sourceReference")))
+            .targetReference(reference(node.get("targetReference")))
+            .hashBefore(node.get("hashBefore").asText())
+            .hashAfter(node.get("hashAfter").asText())
+            .build();
+      case REFERENCE_CREATED:
+        return ImmutableReferenceCreatedEvent.builder()
+            .id(id)
+            .repositoryId(repositoryId)
+            .eventCreationTimestamp(created)
+            .eventInitiator(initiator)
+            .properties(properties)
+            .reference(reference(node.get("reference")))
+            .hashAfter(node.get("hashAfter").asText())
+            .build();
+      case REFERENCE_UPDATED:
+        return ImmutableReferenceUpdatedEvent.builder()
+            .id(id)
+            .repositoryId(repositoryId)
+            .eventCreationTimestamp(created)
+            .eventInitiator(initiator)
+            .properties(properties)
+            .reference(reference(node.get("reference")))
+            .hashBefore(node.get("hashBefore").asText())
+            .hashAfter(node.get("hashAfter").asText())
+            .build();
+      case REFERENCE_DELETED:
+        return ImmutableReferenceDeletedEvent.builder()
+            .id(id)
+            .repositoryId(repositoryId)
+            .eventCreationTimestamp(created)
+            .eventInitiator(initiator)
+            .properties(properties)
+            .reference(reference(node.get("reference")))
+            .hashBefore(node.get("hashBefore").asText())
+            .build();
+      case CONTENT_STORED:
+        return ImmutableContentStoredEvent.builder()
+            .id(id)
+            .repositoryId(repositoryId)
+            .eventCreationTimestamp(created)
+            .eventInitiator(initiator)
+            .properties(properties)
+            .reference(reference(node.get("reference")))
+            .hash(node.get("hash").asText())
+            .commitCreationTimestamp(Instant.parse(node.get("commitCreationTimestamp").asText()))
+            .contentKey(contentKey(node.get("contentKey")))
+            .content(content(node.get("content")))
+            .build();
+      case CONTENT_REMOVED:
+        return ImmutableContentRemovedEvent.builder()
+            .id(id)
+            .repositoryId(repositoryId)
+            .eventCreationTimestamp(created)
+            .eventInitiator(initiator)
+            .properties(properties)
+            .reference(reference(node.get("reference")))
+            .hash(node.get("hash").asText())
+            .commitCreationTimestamp(Instant.parse(node.get("commitCreationTimestamp").asText()))
+            .contentKey(contentKey(node.get("contentKey")))
+            .build();
+      default:
+        throw new IllegalArgumentException("Unknown event type: " + type);
+    }
+  }
+
+  private ObjectNode reference(Reference reference) {
+    ObjectNode node = mapper.createObjectNode();
+    node.put("simpleName", reference.getSimpleName());
+    reference.getFullName().ifPresent(n -> node.put("fullName", n));
+    node.put("type", reference.getType());
+    return node;
+  }
+
+  private static Reference reference(JsonNode node) {
+    return ImmutableReference.builder()
+        .simpleName(node.get("simpleName").asText())
+        .fullName(
+            node.has("fullName") ? Optional.of(node.get("fullName").asText()) : Optional.empty())
+        .type(node.get("type").asText())
+        .build();
+  }
+
+  private ObjectNode commitMeta(CommitMeta commitMeta) {
+    ObjectNode node = mapper.createObjectNode();
+    node.put("committer", commitMeta.getCommitter());
+    node.set("authors", mapper.valueToTree(commitMeta.getAuthors()));
+    node.set("allSignedOffBy", mapper.valueToTree(commitMeta.getAllSignedOffBy()));
+    node.put("message", commitMeta.getMessage());
+    node.put("commitTimestamp", commitMeta.getCommitTimestamp().toString());
+    node.put("authorTimestamp", commitMeta.getAuthorTimestamp().toString());
+    node.set("allProperties", mapper.valueToTree(commitMeta.getAllProperties()));
+    return node;
+  }
+
+  private CommitMeta commitMeta(JsonNode node) {
+    return ImmutableCommitMeta.builder()
+        .committer(node.get("committer").asText())
+        .authors(mapper.convertValue(node.get("authors"), STRING_LIST_TYPE))
+        .allSignedOffBy(mapper.convertValue(node.get("allSignedOffBy"), STRING_LIST_TYPE))
+        .message(node.get("message").asText())
+        .commitTimestamp(Instant.parse(node.get("commitTimestamp").asText()))
+        .authorTimestamp(Instant.parse(node.get("authorTimestamp").asText()))
+        .allProperties(mapper.convertValue(node.get("allProperties"), STRING_LIST_MAP_TYPE))
+        .build();
+  }
+
+  private ContentKey contentKey(JsonNode node) {
+    List<String> elements = new ArrayList<>();
+    ((ArrayNode) node).forEach(e -> elements.add(e.asText()));
+    return ContentKey.of(elements);
+  }
+
+  private ObjectNode content(Content content) {
+    ObjectNode node = mapper.createObjectNode();
+    node.put("type", content.getType());
+    node.put("id", content.getId());
+    node.set("properties", mapper.valueToTree(content.getProperties()));
+    return node;
+  }
+
+  private Content content(JsonNode node) {
+    return ImmutableContent.builder()
+        .type(node.get("type").asText())
+        .id(node.get("id").asText())
+        .properties(mapper.convertValue(node.get("properties"), OBJECT_MAP_TYPE))
+        .build();
+  }
+}
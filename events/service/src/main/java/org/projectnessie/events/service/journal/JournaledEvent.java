@@ -0,0 +1,38 @@
+/*
+ * Copyright (C) 2023 Dremio
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.projectnessie.events.service.journal;
+
+import org.immutables.value.Value;
+import org.projectnessie.events.api.Event;
+
+/** An {@link Event} together with its offset in the {@link EventJournal}. */
+@Value.Immutable
+public interface JournaledEvent {
+
+  /** Offset used for events that could not be written to the journal. */
+  long NOT_JOURNALED = -1L;
+
+  /** The offset of the event in the journal, or {@link #NOT_JOURNALED}. */
+  @Value.Parameter(order = 1)
+  long getOffset();
+
+  @Value.Parameter(order = 2)
+  Event getEvent();
+
+  static JournaledEvent journaledEvent(long offset, Event event) {
+    return ImmutableJournaledEvent.of(offset, event);
+  }
+}
@@ -0,0 +1,364 @@
+/*
+ * Copyright (C) 2023 Dremio
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.projectnessie.events.service.journal;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.Collections.singletonList;
+import static org.projectnessie.events.service.journal.JournaledEvent.journaledEvent;
+import static org.projectnessie.versioned.storage.common.objtypes.StringObj.stringData;
+import static org.projectnessie.versioned.storage.common.persist.ObjId.EMPTY_OBJ_ID;
+import static org.projectnessie.versioned.storage.common.persist.Reference.INTERNAL_PREFIX;
+import static org.projectnessie.versioned.storage.common.persist.Reference.reference;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.OptionalLong;
+import java.util.stream.Stream;
+import org.projectnessie.events.api.Event;
+import org.projectnessie.nessie.relocated.protobuf.ByteString;
+import org.projectnessie.versioned.storage.common.exceptions.ObjNotFoundException;
+import org.projectnessie.versioned.storage.common.exceptions.ObjTooLargeException;
+import org.projectnessie.versioned.storage.common.exceptions.RefAlreadyExistsException;
+import org.projectnessie.versioned.storage.common.exceptions.RefConditionFailedException;
+import org.projectnessie.versioned.storage.common.exceptions.RefNotFoundException;
+import org.projectnessie.versioned.storage.common.objtypes.Compression;
+import org.projectnessie.versioned.storage.common.objtypes.StringObj;
+import org.projectnessie.versioned.storage.common.persist.ObjId;
+import org.projectnessie.versioned.storage.common.persist.ObjType;
+import org.projectnessie.versioned.storage.common.persist.Persist;
+import org.projectnessie.versioned.storage.common.persist.Reference;
+
+/**
+ * {@link EventJournal} implementation backed by {@link Persist}.
+ *
+ * <p>The journal is a chain of segments, each segment is a {@link StringObj} containing the JSON
+ * representation of a batch of events and the offset of the first event in the batch. The single
+ * predecessor of a segment is the previous segment. The head of the chain is referenced by the
+ * internal reference {@value #REFS_PREFIX}{@code <instance-id>/journal}, which is updated using a
+ * compare-and-swap operation for each appended segment.
+ *
+ * <p>Committed consumer offsets are stored as {@link StringObj}s, referenced by the internal
+ * references {@value #REFS_PREFIX}{@code <instance-id>/offsets/<consumer>}. The object of the
+ * previously committed offset is deleted when a new offset is committed, so offsets of the same
+ * consumer must not be committed concurrently.
+ *
+ * <p>Each Nessie instance uses its own journal, identified by the instance id, so that events are
+ * only replayed by the instance that produced them.
+ */
+public final class PersistEventJournal implements EventJournal {
+
+  static final String REFS_PREFIX = INTERNAL_PREFIX + "events/";
+  static final String SEGMENT_CONTENT_TYPE = "application/x-nessie-events+json";
+  static final String OFFSET_CONTENT_TYPE = "text/plain";
+
+  private final Persist persist;
+  private final ObjectMapper mapper;
+  private final EventSerializer serializer;
+  private final String journalRefName;
+  private final String offsetsRefPrefix;
+
+  private volatile Segment head;
+
+  public PersistEventJournal(Persist persist, ObjectMapper mapper, String instanceId) {
+    this.persist = persist;
+    this.mapper = mapper;
+    this.serializer = new EventSerializer(mapper);
+    this.journalRefName = REFS_PREFIX + instanceId + "/journal";
+    this.offsetsRefPrefix = REFS_PREFIX + instanceId + "/offsets/";
+  }
+
+  @Override
+  public synchronized long append(List<Event> events) {
+    if (events.isEmpty()) {
+      throw new IllegalArgumentException("No events to append");
+    }
+    while (true) {
+      Reference ref = journalReference();
+      Segment previous = segment(ref.pointer());
+      long firstOffset = previous.nextOffset();
+      StringObj obj;
+      try {
+        obj = segmentObj(previous.id, firstOffset, events);
+        persist.storeObj(obj);
+      } catch (ObjTooLargeException e) {
+        if (events.size() == 1) {
+          throw new IllegalArgumentException("Event too large for the journal", e);
+        }
+        // Split the batch into two segments
+        int half = events.size() / 2;
+        long first = append(events.subList(0, half));
+        append(events.subList(half, events.size()));
+        return first;
+      }
+      try {
+        persist.updateReferencePointer(ref, obj.id());
+        head = new Segment(obj.id(), firstOffset, events.size());
+        return firstOffset;
+      } catch (RefConditionFailedException e) {
+        // concurrently updated, retry
+      } catch (RefNotFoundException e) {
+        throw new IllegalStateException(e);
+      }
+    }
+  }
+
+  /**
+   * Walks the chain of segments back to the segment that contains the given offset, but only
+   * retains the IDs of the segments. The segments are fetched again and deserialized one after the
+   * other, while the returned stream is consumed.
+   */
+  @Override
+  public Stream<JournaledEvent> readFrom(long offset) {
+    List<ObjId> segments = new ArrayList<>();
+    ObjId id = journalReference().pointer();
+    while (!EMPTY_OBJ_ID.equals(id)) {
+      StringObj obj = fetchSegmentIfPresent(id);
+      if (obj == null) {
+        // pruned
+        break;
+      }
+      JsonNode node = parse(obj);
+      long firstOffset = node.get("firstOffset").asLong();
+      int count = node.get("events").size();
+      if (firstOffset + count <= offset) {
+        break;
+      }
+      segments.add(id);
+      if (firstOffset <= offset) {
+        break;
+      }
+      id = previous(obj);
+    }
+
+    Collections.reverse(segments);
+    return segments.stream().flatMap(segmentId -> segmentEvents(segmentId, offset));
+  }
+
+  private Stream<JournaledEvent> segmentEvents(ObjId id, long offset) {
+    StringObj obj = fetchSegmentIfPresent(id);
+    if (obj == null) {
+      // pruned concurrently
+      return Stream.empty();
+    }
+    JsonNode node = parse(obj);
+    long o = node.get("firstOffset").asLong();
+    List<JournaledEvent> events = new ArrayList<>(node.get("events").size());
+    for (JsonNode event : node.get("events")) {
+      if (o >= offset) {
+        events.add(journaledEvent(o, serializer.deserialize(event)));
+      }
+      o++;
+    }
+    return events.stream();
+  }
+
+  @Override
+  public long lastOffset() {
+    return segment(journalReference().pointer()).nextOffset() - 1L;
+  }
+
+  @Override
+  public OptionalLong committedOffset(String consumer) {
+    Reference ref = persist.fetchReference(offsetsRefPrefix + consumer);
+    if (ref == null || EMPTY_OBJ_ID.equals(ref.pointer())) {
+      return OptionalLong.empty();
+    }
+    try {
+      StringObj obj = persist.fetchTypedObj(ref.pointer(), ObjType.STRING, StringObj.class);
+      return OptionalLong.of(Long.parseLong(obj.text().toStringUtf8()));
+    } catch (ObjNotFoundException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  @Override
+  public void commitOffset(String consumer, long offset) {
+    String refName = offsetsRefPrefix + consumer;
+    // The consumer name is part of the object, so that the IDs of the offset objects of different
+    // consumers never collide.
+    StringObj obj =
+        stringData(
+            OFFSET_CONTENT_TYPE,
+            Compression.NONE,
+            consumer,
+            Collections.emptyList(),
+            ByteString.copyFromUtf8(Long.toString(offset)));
+    try {
+      persist.storeObj(obj);
+    } catch (ObjTooLargeException e) {
+      throw new IllegalStateException(e);
+    }
+    while (true) {
+      Reference ref = persist.fetchReference(refName);
+      try {
+        if (ref == null) {
+          persist.addReference(
+              reference(refName, obj.id(), false, persist.config().currentTimeMicros(), null));
+        } else {
+          persist.updateReferencePointer(ref, obj.id());
+          ObjId previous = ref.pointer();
+          if (!EMPTY_OBJ_ID.equals(previous) && !previous.equals(obj.id())) {
+            persist.deleteObj(previous);
+          }
+        }
+        return;
+      } catch (RefAlreadyExistsException | RefConditionFailedException | RefNotFoundException e) {
+        // concurrently updated, retry
+      }
+    }
+  }
+
+  /**
+   * Deletes the segments that only contain events up to (inclusive) the given offset. The head
+   * segment is always retained, because it determines the offset of the next appended event. The
+   * oldest retained segment still refers to its deleted predecessor, so walking the chain stops at
+   * the first segment that does not exist.
+   */
+  @Override
+  public void prune(long offset) {
+    ObjId id = journalReference().pointer();
+    if (EMPTY_OBJ_ID.equals(id)) {
+      return;
+    }
+    List<ObjId> consumed = new ArrayList<>();
+    for (id = previous(fetchSegment(id)); !EMPTY_OBJ_ID.equals(id); ) {
+      StringObj obj = fetchSegmentIfPresent(id);
+      if (obj == null) {
+        // already pruned
+        break;
+      }
+      // offsets increase along the chain, so all segments before a consumed one are consumed, too
+      if (consumed.isEmpty()) {
+        JsonNode node = parse(obj);
+        long lastOffset = node.get("firstOffset").asLong() + node.get("events").size() - 1L;
+        if (lastOffset > offset) {
+          id = previous(obj);
+          continue;
+        }
+      }
+      consumed.add(id);
+      id = previous(obj);
+    }
+    if (!consumed.isEmpty()) {
+      // delete the oldest segments first, a partially pruned chain must not leave unreachable ones
+      Collections.reverse(consumed);
+      for (ObjId segmentId : consumed) {
+        persist.deleteObj(segmentId);
+      }
+    }
+  }
+
+  private Reference journalReference() {
+    while (true) {
+      Reference ref = persist.fetchReference(journalRefName);
+      if (ref != null) {
+        return ref;
+      }
+      try {
+        return persist.addReference(
+            reference(
+                journalRefName, EMPTY_OBJ_ID, false, persist.config().currentTimeMicros(), null));
+      } catch (RefAlreadyExistsException e) {
+        // concurrently created, retry
+      }
+    }
+  }
+
+  private Segment segment(ObjId id) {
+    if (EMPTY_OBJ_ID.equals(id)) {
+      return new Segment(EMPTY_OBJ_ID, 0L, 0);
+    }
+    Segment h = head;
+    if (h != null && h.id.equals(id)) {
+      return h;
+    }
+    StringObj obj = fetchSegment(id);
+    JsonNode node = parse(obj);
+    h = new Segment(id, node.get("firstOffset").asLong(), node.get("events").size());
+    head = h;
+    return h;
+  }
+
+  private StringObj segmentObj(ObjId previous, long firstOffset, List<Event> events) {
+    ObjectNode node = mapper.createObjectNode();
+    node.put("firstOffset", firstOffset);
+    ArrayNode array = node.putArray("events");
+    events.forEach(e -> array.add(serializer.serialize(e)));
+    byte[] json;
+    try {
+      json = mapper.writeValueAsBytes(node);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    return stringData(
+        SEGMENT_CONTENT_TYPE,
+        Compression.NONE,
+        null,
+        EMPTY_OBJ_ID.equals(previous) ? Collections.emptyList() : singletonList(previous),
+        ByteString.copyFrom(json));
+  }
+
+  private StringObj fetchSegment(ObjId id) {
+    try {
+      return persist.fetchTypedObj(id, ObjType.STRING, StringObj.class);
+    } catch (ObjNotFoundException e) {
+      throw new IllegalStateException("Event journal segment " + id + " not found", e);
+    }
+  }
+
+  private StringObj fetchSegmentIfPresent(ObjId id) {
+    try {
+      return persist.fetchTypedObj(id, ObjType.STRING, StringObj.class);
+    } catch (ObjNotFoundException e) {
+      return null;
+    }
+  }
+
+  private JsonNode parse(StringObj obj) {
+    try {
+      return mapper.readTree(obj.text().toString(UTF_8));
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  private static ObjId previous(StringObj obj) {
+    return obj.predecessors().isEmpty() ? EMPTY_OBJ_ID : obj.predecessors().get(0);
+  }
+
+  private static final class Segment {
+    final ObjId id;
+    final long firstOffset;
+    final int count;
+
+    Segment(ObjId id, long firstOffset, int count) {
+      this.id = id;
+      this.firstOffset = firstOffset;
+      this.count = count;
+    }
+
+    long nextOffset() {
+      return firstOffset + count;
+    }
+  }
+}
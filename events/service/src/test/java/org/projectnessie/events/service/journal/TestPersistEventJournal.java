@@ -0,0 +1,372 @@
+/*
+ * Copyright (C) 2023 Dremio
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.projectnessie.events.service.journal;
+
+import static java.util.stream.Collectors.toList;
+import static org.projectnessie.events.service.journal.JournaledEvent.journaledEvent;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.stream.IntStream;
+import org.assertj.core.api.SoftAssertions;
+import org.assertj.core.api.junit.jupiter.InjectSoftAssertions;
+import org.assertj.core.api.junit.jupiter.SoftAssertionsExtension;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.projectnessie.events.api.ContentKey;
+import org.projectnessie.events.api.Event;
+import org.projectnessie.events.api.ImmutableCommitEvent;
+import org.projectnessie.events.api.ImmutableCommitMeta;
+import org.projectnessie.events.api.ImmutableContent;
+import org.projectnessie.events.api.ImmutableContentRemovedEvent;
+import org.projectnessie.events.api.ImmutableContentStoredEvent;
+import org.projectnessie.events.api.ImmutableMergeEvent;
+import org.projectnessie.events.api.ImmutableReference;
+import org.projectnessie.events.api.ImmutableReferenceCreatedEvent;
+import org.projectnessie.events.api.ImmutableReferenceDeletedEvent;
+import org.projectnessie.events.api.ImmutableReferenceUpdatedEvent;
+import org.projectnessie.events.api.ImmutableTransplantEvent;
+import org.projectnessie.events.api.Reference;
+import org.projectnessie.versioned.storage.common.exceptions.ObjNotFoundException;
+import org.projectnessie.versioned.storage.common.persist.ObjId;
+import org.projectnessie.versioned.storage.common.persist.Persist;
+import org.projectnessie.versioned.storage.inmemory.InmemoryBackendTestFactory;
+import org.projectnessie.versioned.storage.testextension.NessieBackend;
+import org.projectnessie.versioned.storage.testextension.NessiePersist;
+import org.projectnessie.versioned.storage.testextension.PersistExtension;
+
+@ExtendWith({PersistExtension.class, SoftAssertionsExtension.class})
+@NessieBackend(InmemoryBackendTestFactory.class)
+public class TestPersistEventJournal {
+  @InjectSoftAssertions SoftAssertions soft;
+
+  @NessiePersist Persist persist;
+
+  private static final ObjectMapper MAPPER = new ObjectMapper();
+  private static final Instant NOW = Instant.parse("2023-08-01T10:00:00Z");
+  private static final Reference BRANCH =
+      ImmutableReference.builder()
+          .simpleName("main")
+          .fullName("refs/heads/main")
+          .type(Reference.BRANCH)
+          .build();
+  private static final Reference TAG =
+      ImmutableReference.builder().simpleName("tag").type(Reference.TAG).build();
+
+  @Test
+  public void serializerRoundTrip() {
+    EventSerializer serializer = new EventSerializer(MAPPER);
+    for (Event event : allEventTypes()) {
+      soft.assertThat(serializer.deserialize(serializer.serialize(event)))
+          .describedAs("%s", event.getType())
+          .isEqualTo(event);
+    }
+  }
+
+  @Test
+  public void appendAndRead() {
+    PersistEventJournal journal = new PersistEventJournal(persist, MAPPER, "instance");
+    soft.assertThat(journal.lastOffset()).isEqualTo(-1L);
+    soft.assertThat(journal.readFrom(0L)).isEmpty();
+
+    List<Event> events = allEventTypes();
+    soft.assertThat(journal.append(events.subList(0, 3))).isEqualTo(0L);
+    soft.assertThat(journal.append(events.subList(3, 4))).isEqualTo(3L);
+    soft.assertThat(journal.append(events.subList(4, events.size()))).isEqualTo(4L);
+    soft.assertThat(journal.lastOffset()).isEqualTo(events.size() - 1);
+
+    soft.assertThat(journal.readFrom(0L))
+        .containsExactlyElementsOf(
+            IntStream.range(0, events.size())
+                .mapToObj(i -> journaledEvent(i, events.get(i)))
+                .collect(toList()));
+    soft.assertThat(journal.readFrom(2L))
+        .extracting(JournaledEvent::getEvent)
+        .containsExactlyElementsOf(events.subList(2, events.size()));
+    soft.assertThat(journal.readFrom(events.size())).isEmpty();
+
+    // A new instance on the same repository continues the same journal
+    PersistEventJournal other = new PersistEventJournal(persist, MAPPER, "instance");
+    soft.assertThat(other.lastOffset()).isEqualTo(events.size() - 1);
+    soft.assertThat(other.append(events.subList(0, 1))).isEqualTo(events.size());
+
+    // Journals of other instances are separate
+    PersistEventJournal otherInstance = new PersistEventJournal(persist, MAPPER, "other");
+    soft.assertThat(otherInstance.lastOffset()).isEqualTo(-1L);
+  }
+
+  @Test
+  public void offsets() {
+    PersistEventJournal journal = new PersistEventJournal(persist, MAPPER, "instance");
+    soft.assertThat(journal.committedOffset("consumer")).isEmpty();
+    journal.commitOffset("consumer", -1L);
+    soft.assertThat(journal.committedOffset("consumer")).hasValue(-1L);
+    journal.commitOffset("consumer", 5L);
+    soft.assertThat(journal.committedOffset("consumer")).hasValue(5L);
+    ObjId previous = offsetObjId("consumer");
+    journal.commitOffset("consumer", 42L);
+    soft.assertThat(journal.committedOffset("consumer")).hasValue(42L);
+    soft.assertThat(journal.committedOffset("other")).isEmpty();
+    // The object of the replaced offset is deleted
+    soft.assertThatThrownBy(() -> persist.fetchObj(previous))
+        .isInstanceOf(ObjNotFoundException.class);
+
+    // The same offset committed for another consumer is a distinct object
+    journal.commitOffset("other", 42L);
+    soft.assertThat(offsetObjId("other")).isNotEqualTo(offsetObjId("consumer"));
+    journal.commitOffset("other", 43L);
+    soft.assertThat(journal.committedOffset("consumer")).hasValue(42L);
+  }
+
+  @Test
+  public void prune() {
+    PersistEventJournal journal = new PersistEventJournal(persist, MAPPER, "instance");
+    journal.prune(10L);
+    soft.assertThat(journal.lastOffset()).isEqualTo(-1L);
+
+    List<Event> events = allEventTypes();
+    journal.append(events.subList(0, 3));
+    journal.append(events.subList(3, 4));
+    journal.append(events.subList(4, events.size()));
+
+    // Only segments that contain no unconsumed events are removed
+    journal.prune(1L);
+    soft.assertThat(journal.readFrom(0L)).extracting(JournaledEvent::getEvent).isEqualTo(events);
+    journal.prune(3L);
+    soft.assertThat(journal.readFrom(0L))
+        .extracting(JournaledEvent::getEvent)
+        .isEqualTo(events.subList(4, events.size()));
+    soft.assertThat(journal.readFrom(5L))
+        .extracting(JournaledEvent::getOffset)
+        .containsExactly(5L, 6L, 7L);
+
+    // The head segment is retained
+    journal.prune(Long.MAX_VALUE);
+    soft.assertThat(journal.lastOffset()).isEqualTo(events.size() - 1);
+    soft.assertThat(journal.readFrom(0L))
+        .extracting(JournaledEvent::getEvent)
+        .isEqualTo(events.subList(4, events.size()));
+    soft.assertThat(journal.append(events.subList(0, 1))).isEqualTo(events.size());
+    journal.prune(Long.MAX_VALUE);
+    soft.assertThat(journal.readFrom(0L))
+        .extracting(JournaledEvent::getEvent)
+        .containsExactly(events.get(0));
+  }
+
+  @Test
+  public void writerReplaysUndeliveredEvents() {
+    // 8 events, one of each type
+    PersistEventJournal journal = new PersistEventJournal(persist, MAPPER, "instance");
+    List<Event> events = allEventTypes();
+
+    List<JournaledEvent> published = new ArrayList<>();
+    try (EventJournalWriter writer =
+        writer(journal, published::add, Duration.ofHours(1), 3, (c, e) -> {})) {
+      // A new consumer starts at the end of the (empty) journal
+      soft.assertThat(writer.unconsumedEvents("consumer")).isEmpty();
+      events.forEach(writer::add);
+    }
+    // Events are published after being journaled, but delivery was not tracked
+    soft.assertThat(published)
+        .extracting(JournaledEvent::getOffset)
+        .containsExactly(0L, 1L, 2L, 3L, 4L, 5L, 6L, 7L);
+    soft.assertThat(published).extracting(JournaledEvent::getEvent).isEqualTo(events);
+    soft.assertThat(journal.committedOffset("consumer")).hasValue(-1L);
+
+    published.clear();
+    try (EventJournalWriter writer =
+        writer(journal, published::add, Duration.ofHours(1), 3, (c, e) -> {})) {
+      // Nothing was tracked, all events are pending for the consumer
+      List<JournaledEvent> unconsumed = writer.unconsumedEvents("consumer").collect(toList());
+      soft.assertThat(unconsumed).extracting(JournaledEvent::getEvent).isEqualTo(events);
+      // Deliver the first 3 and the 5th event
+      for (int i : new int[] {0, 1, 2, 4}) {
+        writer.delivered("consumer", unconsumed.get(i).getEvent().getId());
+      }
+    }
+    soft.assertThat(journal.committedOffset("consumer")).hasValue(2L);
+    // The first segment (3 events) has been delivered to all consumers and is pruned
+    soft.assertThat(journal.readFrom(0L))
+        .extracting(JournaledEvent::getEvent)
+        .isEqualTo(events.subList(3, events.size()));
+
+    try (EventJournalWriter writer =
+        writer(journal, published::add, Duration.ofHours(1), 3, (c, e) -> {})) {
+      soft.assertThat(writer.unconsumedEvents("consumer"))
+          .extracting(JournaledEvent::getEvent)
+          .isEqualTo(events.subList(3, events.size()));
+      // A new consumer starts at the end of the journal
+      soft.assertThat(writer.unconsumedEvents("new-consumer")).isEmpty();
+    }
+    soft.assertThat(journal.committedOffset("new-consumer")).hasValue(events.size() - 1);
+  }
+
+  @Test
+  public void writerGivesUpOnUndeliverableEvents() {
+    PersistEventJournal journal = new PersistEventJournal(persist, MAPPER, "instance");
+    Event event = allEventTypes().get(0);
+    try (EventJournalWriter writer =
+        writer(journal, e -> {}, Duration.ofHours(1), 3, (c, e) -> {})) {
+      soft.assertThat(writer.unconsumedEvents("consumer")).isEmpty();
+      writer.add(event);
+    }
+
+    // The event is delivered again, because it has not been delivered in time
+    List<JournaledEvent> redelivered = new ArrayList<>();
+    try (EventJournalWriter writer =
+        writer(journal, e -> {}, Duration.ZERO, 2, (c, e) -> redelivered.add(e))) {
+      soft.assertThat(writer.unconsumedEvents("consumer"))
+          .extracting(JournaledEvent::getEvent)
+          .containsExactly(event);
+    }
+    soft.assertThat(redelivered).extracting(JournaledEvent::getEvent).containsExactly(event);
+    soft.assertThat(journal.committedOffset("consumer")).hasValue(-1L);
+
+    // After the maximum number of attempts the event is given up, the offset moves past it
+    redelivered.clear();
+    try (EventJournalWriter writer =
+        writer(journal, e -> {}, Duration.ZERO, 1, (c, e) -> redelivered.add(e))) {
+      soft.assertThat(writer.unconsumedEvents("consumer"))
+          .extracting(JournaledEvent::getEvent)
+          .containsExactly(event);
+    }
+    soft.assertThat(redelivered).isEmpty();
+    soft.assertThat(journal.committedOffset("consumer")).hasValue(0L);
+  }
+
+  private static EventJournalWriter writer(
+      EventJournal journal,
+      Consumer<JournaledEvent> publisher,
+      Duration redeliveryDelay,
+      int maxDeliveryAttempts,
+      BiConsumer<String, JournaledEvent> redeliverer) {
+    return new EventJournalWriter(
+        journal,
+        Duration.ofHours(1),
+        3,
+        redeliveryDelay,
+        maxDeliveryAttempts,
+        publisher,
+        redeliverer);
+  }
+
+  private ObjId offsetObjId(String consumer) {
+    return persist
+        .fetchReference(PersistEventJournal.REFS_PREFIX + "instance/offsets/" + consumer)
+        .pointer();
+  }
+
+  private static List<Event> allEventTypes() {
+    ImmutableCommitMeta commitMeta =
+        ImmutableCommitMeta.builder()
+            .committer("committer")
+            .addAuthors("author1", "author2")
+            .addAllSignedOffBy("signer")
+            .message("message")
+            .commitTimestamp(NOW)
+            .authorTimestamp(NOW.minusSeconds(1))
+            .putAllProperties("prop", List.of("v1", "v2"))
+            .build();
+    Map<String, Object> properties = Map.of("static", "value");
+    return List.of(
+        ImmutableCommitEvent.builder()
+            .id(UUID.randomUUID())
+            .repositoryId("repo")
+            .eventCreationTimestamp(NOW)
+            .eventInitiator(Optional.of("alice"))
+            .properties(properties)
+            .reference(BRANCH)
+            .hashBefore("1234")
+            .hashAfter("5678")
+            .commitMeta(commitMeta)
+            .build(),
+        ImmutableMergeEvent.builder()
+            .id(UUID.randomUUID())
+            .repositoryId("repo")
+            .eventCreationTimestamp(NOW)
+            .sourceReference(TAG)
+            .targetReference(BRANCH)
+            .hashBefore("1234")
+            .hashAfter("5678")
+            .commonAncestorHash("0000")
+            .build(),
+        ImmutableTransplantEvent.builder()
+            .id(UUID.randomUUID())
+            .repositoryId("repo")
+            .eventCreationTimestamp(NOW)
+            .eventInitiator(Optional.of("alice"))
+            .sourceReference(TAG)
+            .targetReference(BRANCH)
+            .hashBefore("1234")
+            .hashAfter("5678")
+            .build(),
+        ImmutableReferenceCreatedEvent.builder()
+            .id(UUID.randomUUID())
+            .repositoryId("repo")
+            .eventCreationTimestamp(NOW)
+            .reference(TAG)
+            .hashAfter("5678")
+            .build(),
+        ImmutableReferenceUpdatedEvent.builder()
+            .id(UUID.randomUUID())
+            .repositoryId("repo")
+            .eventCreationTimestamp(NOW)
+            .reference(BRANCH)
+            .hashBefore("1234")
+            .hashAfter("5678")
+            .build(),
+        ImmutableReferenceDeletedEvent.builder()
+            .id(UUID.randomUUID())
+            .repositoryId("repo")
+            .eventCreationTimestamp(NOW)
+            .reference(TAG)
+            .hashBefore("1234")
+            .build(),
+        ImmutableContentStoredEvent.builder()
+            .id(UUID.randomUUID())
+            .repositoryId("repo")
+            .eventCreationTimestamp(NOW)
+            .properties(properties)
+            .reference(BRANCH)
+            .hash("5678")
+            .commitCreationTimestamp(NOW)
+            .contentKey(ContentKey.of("ns", "table"))
+            .content(
+                ImmutableContent.builder()
+                    .type("ICEBERG_TABLE")
+                    .id("content-id")
+                    .properties(Map.of("metadataLocation", "s3://foo", "snapshotId", 42))
+                    .build())
+            .build(),
+        ImmutableContentRemovedEvent.builder()
+            .id(UUID.randomUUID())
+            .repositoryId("repo")
+            .eventCreationTimestamp(NOW)
+            .reference(BRANCH)
+            .hash("5678")
+            .commitCreationTimestamp(NOW)
+            .contentKey(ContentKey.of("ns", "table"))
+            .build());
+  }
+}
@@ -18,6 +18,7 @@ package org.projectnessie.gc.contents.tests;
 import static java.util.Arrays.asList;
 import static java.util.Collections.singletonList;
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.projectnessie.gc.contents.ReferenceCheckpoint.referenceCheckpoint;
 
 import java.net.URI;
 import java.time.Instant;
@@ -38,6 +39,7 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.projectnessie.gc.contents.ContentReference;
 import org.projectnessie.gc.contents.LiveContentSet;
 import org.projectnessie.gc.contents.LiveContentSetNotFoundException;
+import org.projectnessie.gc.contents.ReferenceCheckpoint;
 import org.projectnessie.gc.contents.spi.PersistenceSpi;
 import org.projectnessie.gc.files.FileReference;
 import org.projectnessie.model.ContentKey;
@@ -465,6 +467,65 @@ public abstract class AbstractPersistenceSpi {
     }
   }
 
+  @Test
+  void fetchContentReferencesForCommit() throws Exception {
+    LiveSetVals vals1 = new LiveSetVals();
+    vals1.startIdentify();
+    ContentReference sameCommit =
+        ContentReference.icebergTable(
+            "cid-other", "1234567800", ContentKey.of("other"), "meta-other", 42L);
+    persistenceSpi.addIdentifiedLiveContent(
+        vals1.id, Stream.concat(vals1.refs.stream(), Stream.of(sameCommit)));
+    vals1.finishIdentify();
+
+    LiveSetVals vals2 = new LiveSetVals();
+    vals2.startIdentify();
+    persistenceSpi.addIdentifiedLiveContent(vals2.id, vals2.refs.stream());
+    vals2.finishIdentify();
+
+    try (Stream<ContentReference> refs =
+        persistenceSpi.fetchContentReferencesForCommit(vals1.id, "1234567800")) {
+      soft.assertThat(refs)
+          .containsExactlyInAnyOrder(vals1.refs.get(0), sameCommit)
+          .allSatisfy(r -> assertThat(r.commitId()).isEqualTo("1234567800"));
+    }
+    try (Stream<ContentReference> refs =
+        persistenceSpi.fetchContentReferencesForCommit(vals1.id, "1234567801")) {
+      soft.assertThat(refs).containsExactly(vals1.refs.get(1));
+    }
+    try (Stream<ContentReference> refs =
+        persistenceSpi.fetchContentReferencesForCommit(vals1.id, "no-such-commit")) {
+      soft.assertThat(refs).isEmpty();
+    }
+  }
+
+  @Test
+  void checkpoints() throws Exception {
+    LiveSetVals vals1 = new LiveSetVals();
+    vals1.startIdentify();
+    LiveSetVals vals2 = new LiveSetVals();
+    vals2.startIdentify();
+
+    List<ReferenceCheckpoint> checkpoints =
+        asList(
+            referenceCheckpoint("main", "12345678", "12345670", vals1.identifyStart),
+            referenceCheckpoint("branch", "12345678", "12345678", vals1.identifyStart2),
+            referenceCheckpoint("tag", "87654321", "12345670", vals1.identifyStart),
+            referenceCheckpoint("no-cutoff", "87654321", "12345670", Instant.MAX));
+    checkpoints.forEach(c -> persistenceSpi.addCheckpoint(vals1.id, c));
+
+    try (Stream<ReferenceCheckpoint> fetched = persistenceSpi.fetchCheckpoints(vals1.id)) {
+      soft.assertThat(fetched).containsExactlyInAnyOrderElementsOf(checkpoints);
+    }
+    try (Stream<ReferenceCheckpoint> fetched = persistenceSpi.fetchCheckpoints(vals2.id)) {
+      soft.assertThat(fetched).isEmpty();
+    }
+
+    vals1.finishIdentify();
+    persistenceSpi.getLiveContentSet(vals1.id).delete();
+    assertDeleted(vals1.id);
+  }
+
   @Test
   public void baseLocations() throws Exception {
     LiveSetVals vals1 = new LiveSetVals();
@@ -37,6 +37,10 @@ public interface AddContents extends AutoCloseable {
   long addLiveContent(
       @NotNull @jakarta.validation.constraints.NotNull Stream<ContentReference> contentReference);
 
+  /** Records the checkpoint of a walked reference. */
+  void addCheckpoint(
+      @NotNull @jakarta.validation.constraints.NotNull ReferenceCheckpoint checkpoint);
+
   void finished();
 
   void finishedExceptionally(@NotNull @jakarta.validation.constraints.NotNull Throwable e);
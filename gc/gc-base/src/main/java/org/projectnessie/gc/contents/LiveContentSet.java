@@ -89,6 +89,25 @@ public abstract class LiveContentSet {
     return persistenceSpi().fetchContentReferences(id(), contentId);
   }
 
+  /**
+   * Returns the content references added for the given commit ID, used to carry forward live
+   * contents in incremental identify runs.
+   */
+  @MustBeClosed
+  public Stream<ContentReference> fetchContentReferencesForCommit(
+      @NotNull @jakarta.validation.constraints.NotNull String commitId) {
+    return persistenceSpi().fetchContentReferencesForCommit(id(), commitId);
+  }
+
+  /**
+   * Returns the {@link ReferenceCheckpoint checkpoints} of the references walked by the identify
+   * run that produced this live content set.
+   */
+  @MustBeClosed
+  public Stream<ReferenceCheckpoint> fetchCheckpoints() {
+    return persistenceSpi().fetchCheckpoints(id());
+  }
+
   public void associateBaseLocations(String contentId, Collection<URI> baseLocations) {
     // TODO detect duplicate base locations for different content-IDs
     persistenceSpi().associateBaseLocations(id(), contentId, baseLocations);
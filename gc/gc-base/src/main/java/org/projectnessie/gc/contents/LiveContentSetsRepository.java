@@ -126,6 +126,13 @@ public abstract class LiveContentSetsRepository {
         return persistenceSpi().addIdentifiedLiveContent(id, contentReference);
       }
 
+      @Override
+      public void addCheckpoint(
+          @NotNull @jakarta.validation.constraints.NotNull ReferenceCheckpoint checkpoint) {
+        Preconditions.checkState(!closed, "AddContents instance already closed.");
+        persistenceSpi().addCheckpoint(id, checkpoint);
+      }
+
       @Override
       public void close() {
         if (!finished) {
@@ -0,0 +1,62 @@
+/*
+ * Copyright (C) 2023 Dremio
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.projectnessie.gc.contents;
+
+import java.time.Instant;
+import org.immutables.value.Value;
+import org.projectnessie.gc.identify.IdentifyLiveContents;
+
+/**
+ * Records the range of live commits of a named reference walked by {@link IdentifyLiveContents},
+ * from the reference's HEAD {@link #headCommitId()} to the {@link #lastLiveCommitId() last live
+ * commit} using {@link #cutoffTimestamp()}.
+ *
+ * <p>The live content set contains the contents put by each commit in that range, using the ID of
+ * that commit, plus all contents visible at the last live commit, using the ID of the last live
+ * commit. Incremental identify runs use this to carry forward the live contents of a reference that
+ * still exists, instead of walking the commits in the range again.
+ */
+@Value.Immutable
+public interface ReferenceCheckpoint {
+
+  /** Name of the walked named reference. */
+  @Value.Parameter(order = 1)
+  String referenceName();
+
+  /** The commit ID of the reference's HEAD, at which the walk started. */
+  @Value.Parameter(order = 2)
+  String headCommitId();
+
+  /**
+   * The commit ID of the last live commit, which is either the commit right before the first
+   * non-live commit or the very first commit of the reference.
+   */
+  @Value.Parameter(order = 3)
+  String lastLiveCommitId();
+
+  /**
+   * The cut-off timestamp used to walk the commit log, {@link Instant#MAX} if the walk did not use
+   * a cut-off timestamp.
+   */
+  @Value.Parameter(order = 4)
+  Instant cutoffTimestamp();
+
+  static ReferenceCheckpoint referenceCheckpoint(
+      String referenceName, String headCommitId, String lastLiveCommitId, Instant cutoffTimestamp) {
+    return ImmutableReferenceCheckpoint.of(
+        referenceName, headCommitId, lastLiveCommitId, cutoffTimestamp);
+  }
+}
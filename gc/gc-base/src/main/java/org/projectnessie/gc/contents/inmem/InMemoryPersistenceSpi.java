@@ -39,6 +39,7 @@ import org.projectnessie.gc.contents.ImmutableLiveContentSet;
 import org.projectnessie.gc.contents.LiveContentSet;
 import org.projectnessie.gc.contents.LiveContentSet.Status;
 import org.projectnessie.gc.contents.LiveContentSetNotFoundException;
+import org.projectnessie.gc.contents.ReferenceCheckpoint;
 import org.projectnessie.gc.contents.spi.PersistenceSpi;
 import org.projectnessie.gc.files.FileReference;
 
@@ -55,12 +56,21 @@ public class InMemoryPersistenceSpi implements PersistenceSpi {
     /** Map of content-ID to set of content-references. */
     final Map<String, Set<ContentReference>> contents = new ConcurrentHashMap<>();
 
+    /**
+     * Map of commit-ID to set of content-references, {@link ContentReference#equals(Object)} does
+     * not consider the commit-ID, so {@link #contents} does not retain all commit-IDs.
+     */
+    final Map<String, Set<ContentReference>> commits = new ConcurrentHashMap<>();
+
     final Map<String, Collection<URI>> baseLocations = new ConcurrentHashMap<>();
 
     final AtomicReference<LiveContentSet> liveContentSet;
 
     final Set<FileReference> fileDeletions = new HashSet<>();
 
+    /** Map of reference name to checkpoint. */
+    final Map<String, ReferenceCheckpoint> checkpoints = new ConcurrentHashMap<>();
+
     InMemoryLiveContentSet(LiveContentSet liveContentSet) {
       this.liveContentSet = new AtomicReference<>(liveContentSet);
     }
@@ -70,19 +80,48 @@ public class InMemoryPersistenceSpi implements PersistenceSpi {
   public long addIdentifiedLiveContent(
       @NotNull @jakarta.validation.constraints.NotNull UUID liveSetId,
       @NotNull @jakarta.validation.constraints.NotNull Stream<ContentReference> contentReference) {
+    InMemoryLiveContentSet lcs = get(liveSetId);
     return contentReference
         .mapToLong(
-            ref ->
-                get(liveSetId)
-                        .contents
-                        .computeIfAbsent(
-                            ref.contentId(), x -> Collections.synchronizedSet(new HashSet<>()))
-                        .add(ref)
-                    ? 1L
-                    : 0L)
+            ref -> {
+              lcs.commits
+                  .computeIfAbsent(
+                      ref.commitId(), x -> Collections.synchronizedSet(new HashSet<>()))
+                  .add(ref);
+              return lcs.contents
+                      .computeIfAbsent(
+                          ref.contentId(), x -> Collections.synchronizedSet(new HashSet<>()))
+                      .add(ref)
+                  ? 1L
+                  : 0L;
+            })
         .sum();
   }
 
+  @Override
+  public void addCheckpoint(
+      @NotNull @jakarta.validation.constraints.NotNull UUID liveSetId,
+      @NotNull @jakarta.validation.constraints.NotNull ReferenceCheckpoint checkpoint) {
+    get(liveSetId).checkpoints.put(checkpoint.referenceName(), checkpoint);
+  }
+
+  @Override
+  public Stream<ReferenceCheckpoint> fetchCheckpoints(
+      @NotNull @jakarta.validation.constraints.NotNull UUID liveSetId) {
+    return getOptional(liveSetId)
+        .map(lcs -> lcs.checkpoints.values().stream())
+        .orElse(Stream.empty());
+  }
+
+  @Override
+  public Stream<ContentReference> fetchContentReferencesForCommit(
+      @NotNull @jakarta.validation.constraints.NotNull UUID liveSetId,
+      @NotNull @jakarta.validation.constraints.NotNull String commitId) {
+    return getOptional(liveSetId)
+        .map(lcs -> lcs.commits.getOrDefault(commitId, emptySet()).stream())
+        .orElse(Stream.empty());
+  }
+
   @Override
   public void startIdentifyLiveContents(
       @NotNull @jakarta.validation.constraints.NotNull UUID liveSetId,
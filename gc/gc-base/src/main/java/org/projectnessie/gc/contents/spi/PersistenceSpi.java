@@ -27,6 +27,7 @@ import org.projectnessie.gc.contents.ContentReference;
 import org.projectnessie.gc.contents.LiveContentSet;
 import org.projectnessie.gc.contents.LiveContentSetNotFoundException;
 import org.projectnessie.gc.contents.LiveContentSetsRepository;
+import org.projectnessie.gc.contents.ReferenceCheckpoint;
 import org.projectnessie.gc.files.FileReference;
 
 /**
@@ -49,6 +50,24 @@ public interface PersistenceSpi {
       @NotNull @jakarta.validation.constraints.NotNull UUID liveSetId,
       @NotNull @jakarta.validation.constraints.NotNull Stream<ContentReference> contentReference);
 
+  /** Records a checkpoint of a walked reference, to be returned by {@link #fetchCheckpoints}. */
+  void addCheckpoint(
+      @NotNull @jakarta.validation.constraints.NotNull UUID liveSetId,
+      @NotNull @jakarta.validation.constraints.NotNull ReferenceCheckpoint checkpoint);
+
+  @MustBeClosed
+  Stream<ReferenceCheckpoint> fetchCheckpoints(
+      @NotNull @jakarta.validation.constraints.NotNull UUID liveSetId);
+
+  /**
+   * Returns the identified live content references of the live content set {@code liveSetId} that
+   * have been added with the given commit ID.
+   */
+  @MustBeClosed
+  Stream<ContentReference> fetchContentReferencesForCommit(
+      @NotNull @jakarta.validation.constraints.NotNull UUID liveSetId,
+      @NotNull @jakarta.validation.constraints.NotNull String commitId);
+
   void finishedIdentifyLiveContents(
       @NotNull @jakarta.validation.constraints.NotNull UUID liveSetId,
       @NotNull @jakarta.validation.constraints.NotNull Instant finished,
@@ -0,0 +1,247 @@
+/*
+ * Copyright (C) 2023 Dremio
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.projectnessie.gc.expire;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Stream;
+import org.projectnessie.gc.files.DeleteSummary;
+import org.projectnessie.gc.files.FileReference;
+import org.projectnessie.gc.files.FilesLister;
+import org.projectnessie.gc.files.NessieFileIOException;
+
+/**
+ * Sweeps a single base location: lists all files below the base location, checks each file
+ * against the live files and deletes the files that are not live and older than the max file
+ * modification time.
+ *
+ * <p>Listing and checking happens on the threads of the given executor. If the {@link FilesLister}
+ * supports listing single directories, the directory tree is partitioned down to {@value
+ * #PARTITION_DEPTH} levels below the base location, so the partitions can be listed concurrently.
+ * Expired files are passed via a bounded queue to the calling thread, which deletes the files in
+ * batches of {@link ExpireParameters#deleteBatchSize()} files, respecting the optional {@link
+ * ExpireParameters#fileDeleteRateLimiter() rate limit}. Listing threads block, if the queue is
+ * full.
+ */
+@SuppressWarnings("UnstableApiUsage")
+final class BaseLocationSweep {
+
+  /** Directory levels below a base location, that are listed as separate partitions. */
+  static final int PARTITION_DEPTH = 2;
+
+  private static final Object END = new Object();
+
+  private final ExpireParameters expireParameters;
+  private final LiveFileFilter<URI> liveFiles;
+  private final URI baseLocation;
+  private final URI listingBase;
+  private final ExecutorService executor;
+  private final long maxFileTime;
+
+  private final BlockingQueue<Object> expired;
+  private final AtomicInteger pendingListings = new AtomicInteger();
+  private final AtomicReference<Throwable> failure = new AtomicReference<>();
+  private volatile boolean closed;
+
+  final LongAdder totalFiles = new LongAdder();
+  final LongAdder liveFileCount = new LongAdder();
+  final LongAdder newFiles = new LongAdder();
+  final LongAdder expiredFiles = new LongAdder();
+
+  BaseLocationSweep(
+      ExpireParameters expireParameters,
+      LiveFileFilter<URI> liveFiles,
+      URI baseLocation,
+      ExecutorService executor) {
+    this.expireParameters = expireParameters;
+    this.liveFiles = liveFiles;
+    this.baseLocation = baseLocation;
+    this.listingBase =
+        baseLocation.getPath().endsWith("/") ? baseLocation : URI.create(baseLocation + "/");
+    this.executor = executor;
+    this.maxFileTime = expireParameters.maxFileModificationTime().toEpochMilli();
+    this.expired = new ArrayBlockingQueue<>(2 * expireParameters.deleteBatchSize());
+  }
+
+  DeleteSummary sweep() {
+    try {
+      boolean partitioned = expireParameters.filesLister().supportsListDirectory();
+      submitListing(baseLocation, partitioned ? 0 : PARTITION_DEPTH);
+
+      DeleteSummary summary = DeleteSummary.EMPTY;
+      int batchSize = expireParameters.deleteBatchSize();
+      List<FileReference> batch = new ArrayList<>(batchSize);
+      while (true) {
+        Object next = expired.take();
+        if (next == END || failure.get() != null) {
+          break;
+        }
+        batch.add((FileReference) next);
+        if (batch.size() == batchSize) {
+          summary = summary.add(delete(batch));
+          batch = new ArrayList<>(batchSize);
+        }
+      }
+
+      Throwable f = failure.get();
+      if (f != null) {
+        if (f instanceof RuntimeException) {
+          throw (RuntimeException) f;
+        }
+        if (f instanceof Error) {
+          throw (Error) f;
+        }
+        throw new RuntimeException(f);
+      }
+
+      if (!batch.isEmpty()) {
+        summary = summary.add(delete(batch));
+      }
+      return summary;
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new RuntimeException(e);
+    } finally {
+      close();
+    }
+  }
+
+  private DeleteSummary delete(List<FileReference> batch) {
+    expireParameters.fileDeleteRateLimiter().ifPresent(limiter -> limiter.acquire(batch.size()));
+    return expireParameters.fileDeleter().deleteMultiple(baseLocation, batch.stream());
+  }
+
+  private void submitListing(URI directory, int depth) {
+    pendingListings.incrementAndGet();
+    try {
+      executor.execute(() -> list(directory, depth));
+    } catch (RuntimeException e) {
+      failed(e);
+      listingFinished();
+    }
+  }
+
+  private void list(URI directory, int depth) {
+    try {
+      if (!closed) {
+        if (depth < PARTITION_DEPTH) {
+          List<URI> directories = new ArrayList<>();
+          try (Stream<FileReference> files =
+              expireParameters.filesLister().listDirectory(directory, directories::add)) {
+            check(files);
+          }
+          directories.forEach(d -> submitListing(d, depth + 1));
+        } else {
+          try (Stream<FileReference> files =
+              expireParameters.filesLister().listRecursively(directory)) {
+            check(files);
+          }
+        }
+      }
+    } catch (NessieFileIOException | RuntimeException | Error e) {
+      failed(e);
+    } finally {
+      listingFinished();
+    }
+  }
+
+  /** Checks the listed files and queues the expired files. */
+  private void check(Stream<FileReference> files) {
+    files
+        .map(this::relativeToBaseLocation)
+        .filter(this::isExpired)
+        .forEach(
+            f -> {
+              try {
+                while (!closed) {
+                  if (expired.offer(f, 10, MILLISECONDS)) {
+                    return;
+                  }
+                }
+              } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RuntimeException(e);
+              }
+            });
+  }
+
+  /** Files listed in a partition need to be relative to the base location. */
+  private FileReference relativeToBaseLocation(FileReference f) {
+    if (f.base().equals(listingBase)) {
+      return f;
+    }
+    return FileReference.of(
+        listingBase.relativize(f.absolutePath()), listingBase, f.modificationTimeMillisEpoch());
+  }
+
+  private boolean isExpired(FileReference f) {
+    totalFiles.increment();
+    if (liveFiles.mightContain(f.path())) {
+      liveFileCount.increment();
+      return false;
+    }
+    if (f.modificationTimeMillisEpoch() > maxFileTime) {
+      newFiles.increment();
+      return false;
+    }
+    expiredFiles.increment();
+    return true;
+  }
+
+  private void failed(Throwable e) {
+    if (!failure.compareAndSet(null, e)) {
+      failure.get().addSuppressed(e);
+    }
+    // stop the other listings
+    closed = true;
+  }
+
+  private void listingFinished() {
+    if (pendingListings.decrementAndGet() == 0) {
+      // The sweeping thread consumes the queue until END or clears the queue when it stops
+      try {
+        expired.put(END);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+    }
+  }
+
+  /** Stops all listings and waits until those have finished. */
+  private void close() {
+    closed = true;
+    while (pendingListings.get() > 0) {
+      // unblock listings, that wait for free space in the queue
+      expired.clear();
+      try {
+        Thread.sleep(1L);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        return;
+      }
+    }
+    expired.clear();
+  }
+}
@@ -15,8 +15,15 @@
  */
 package org.projectnessie.gc.expire;
 
+import com.google.common.base.Preconditions;
+import com.google.common.util.concurrent.RateLimiter;
 import com.google.errorprone.annotations.CanIgnoreReturnValue;
+import java.net.URI;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.time.Instant;
+import java.util.Optional;
+import java.util.stream.Stream;
 import org.immutables.value.Value;
 import org.projectnessie.gc.contents.LiveContentSet;
 import org.projectnessie.gc.files.FileDeleter;
@@ -30,6 +37,9 @@ public interface ExpireParameters {
   long DEFAULT_EXPECTED_FILE_COUNT = 1_000_000L;
   double DEFAULT_FALSE_POSITIVE_PROBABILITY = 0.00001d;
   double DEFAULT_ALLOWED_FALSE_POSITIVE_PROBABILITY = 0.0001d;
+  long DEFAULT_MAX_LIVE_FILES_HEAP_BYTES = 128L * 1024L * 1024L;
+  int DEFAULT_LISTING_PARALLELISM = 4;
+  int DEFAULT_DELETE_BATCH_SIZE = 1000;
 
   static Builder builder() {
     return ImmutableExpireParameters.builder();
@@ -40,7 +50,8 @@ public interface ExpireParameters {
     /**
      * The total number of expected live files for a single content, defaults to {@value
      * #DEFAULT_EXPECTED_FILE_COUNT}, used to construct the bloom-filter identifying whether a file
-     * is live, see {@link #falsePositiveProbability(double)}.
+     * is live, see {@link #falsePositiveProbability(double)}. The bloom-filter grows, if more live
+     * files than expected are identified.
      */
     @CanIgnoreReturnValue
     Builder expectedFileCount(long expectedFileCount);
@@ -56,6 +67,45 @@ public interface ExpireParameters {
     @CanIgnoreReturnValue
     Builder allowedFalsePositiveProbability(double allowedFalsePositiveProbability);
 
+    /**
+     * The maximum number of bytes of the bloom-filter identifying whether a file is live that are
+     * held on the Java heap for a single content, defaults to {@value
+     * #DEFAULT_MAX_LIVE_FILES_HEAP_BYTES}. Larger bloom-filters are backed by memory mapped files
+     * in {@link #liveFilesSpillDirectory(Path)}.
+     */
+    @CanIgnoreReturnValue
+    Builder maxLiveFilesHeapBytes(long maxLiveFilesHeapBytes);
+
+    /**
+     * Directory for the memory mapped files of large bloom-filters, defaults to the {@code
+     * java.io.tmpdir} directory.
+     */
+    @CanIgnoreReturnValue
+    Builder liveFilesSpillDirectory(Path liveFilesSpillDirectory);
+
+    /**
+     * Number of threads that list the files below the base locations concurrently, shared by all
+     * contents of an expire run, defaults to {@value #DEFAULT_LISTING_PARALLELISM}. Concurrent
+     * listing requires a {@link FilesLister} that {@link FilesLister#supportsListDirectory()
+     * supports listing single directories}.
+     */
+    @CanIgnoreReturnValue
+    Builder listingParallelism(int listingParallelism);
+
+    /**
+     * Maximum number of files passed to a single {@link FileDeleter#deleteMultiple(URI, Stream)}
+     * invocation, defaults to {@value #DEFAULT_DELETE_BATCH_SIZE}.
+     */
+    @CanIgnoreReturnValue
+    Builder deleteBatchSize(int deleteBatchSize);
+
+    /**
+     * Maximum number of files deleted per second over all contents, defaults to {@code 0}, which
+     * means unlimited.
+     */
+    @CanIgnoreReturnValue
+    Builder maxFileDeletesPerSecond(double maxFileDeletesPerSecond);
+
     /** Function used to recustively list files from a base location. */
     @CanIgnoreReturnValue
     Builder filesLister(FilesLister filesLister);
@@ -97,6 +147,47 @@ public interface ExpireParameters {
     return DEFAULT_ALLOWED_FALSE_POSITIVE_PROBABILITY;
   }
 
+  @Value.Default
+  default long maxLiveFilesHeapBytes() {
+    return DEFAULT_MAX_LIVE_FILES_HEAP_BYTES;
+  }
+
+  @Value.Default
+  default Path liveFilesSpillDirectory() {
+    return Paths.get(System.getProperty("java.io.tmpdir"));
+  }
+
+  @Value.Default
+  default int listingParallelism() {
+    return DEFAULT_LISTING_PARALLELISM;
+  }
+
+  @Value.Default
+  default int deleteBatchSize() {
+    return DEFAULT_DELETE_BATCH_SIZE;
+  }
+
+  @Value.Default
+  default double maxFileDeletesPerSecond() {
+    return 0d;
+  }
+
+  /** Rate limiter for file deletions, shared by all contents. */
+  @SuppressWarnings("UnstableApiUsage")
+  @Value.Lazy
+  default Optional<RateLimiter> fileDeleteRateLimiter() {
+    return maxFileDeletesPerSecond() > 0d
+        ? Optional.of(RateLimiter.create(maxFileDeletesPerSecond()))
+        : Optional.empty();
+  }
+
+  @Value.Check
+  default void verify() {
+    Preconditions.checkArgument(
+        listingParallelism() >= 1, "Listing parallelism must be greater than 0");
+    Preconditions.checkArgument(deleteBatchSize() >= 1, "Delete batch size must be greater than 0");
+  }
+
   FilesLister filesLister();
 
   ContentToFiles contentToFiles();
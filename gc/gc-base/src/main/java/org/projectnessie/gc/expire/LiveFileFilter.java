@@ -0,0 +1,323 @@
+/*
+ * Copyright (C) 2023 Dremio
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.projectnessie.gc.expire;
+
+import static java.nio.file.StandardOpenOption.CREATE_NEW;
+import static java.nio.file.StandardOpenOption.DELETE_ON_CLOSE;
+import static java.nio.file.StandardOpenOption.READ;
+import static java.nio.file.StandardOpenOption.WRITE;
+
+import com.google.common.base.Preconditions;
+import com.google.common.hash.Funnel;
+import com.google.common.hash.HashFunction;
+import com.google.common.hash.Hashing;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Scalable bloom filter, a chain of bloom filters that grows as elements are added, so the
+ * false-positive-probability stays within the configured bound, regardless of the number of
+ * elements.
+ *
+ * <p>The first filter is sized for the expected number of elements, each following filter has
+ * twice the capacity of its predecessor and a false-positive-probability that is half of the one
+ * of its predecessor. The sum of the false-positive-probabilities of all filters does therefore
+ * never exceed the configured false-positive-probability.
+ *
+ * <p>Filters are held on the Java heap until the total size of all filters reaches {@code
+ * maxHeapBytes}, following filters are backed by memory mapped temporary files in {@code
+ * spillDirectory}, which are deleted when this filter is closed.
+ *
+ * <p>Elements are hashed once using 128-bit murmur3, the bit indexes of all filters are derived
+ * from that hash using double hashing, like Guava's {@link com.google.common.hash.BloomFilter}.
+ */
+@SuppressWarnings("UnstableApiUsage")
+final class LiveFileFilter<T> implements AutoCloseable {
+
+  /** Maximum size of a single filter, a single memory mapped region is limited to 2GB. */
+  static final long MAX_FILTER_BITS = 1L << 33;
+
+  private static final HashFunction HASH_FUNCTION = Hashing.murmur3_128();
+
+  private final Funnel<? super T> funnel;
+  private final double falsePositiveProbability;
+  private final long maxHeapBytes;
+  private final Path spillDirectory;
+  private final List<Filter> filters = new ArrayList<>();
+  private long totalBytes;
+  private long elementCount;
+
+  LiveFileFilter(
+      Funnel<? super T> funnel,
+      long expectedElements,
+      double falsePositiveProbability,
+      long maxHeapBytes,
+      Path spillDirectory) {
+    Preconditions.checkArgument(expectedElements > 0, "expectedElements must be positive");
+    Preconditions.checkArgument(
+        falsePositiveProbability > 0d && falsePositiveProbability < 1d,
+        "falsePositiveProbability must be > 0.0 and < 1.0");
+    this.funnel = funnel;
+    this.falsePositiveProbability = falsePositiveProbability;
+    this.maxHeapBytes = maxHeapBytes;
+    this.spillDirectory = spillDirectory;
+    addFilter(expectedElements);
+  }
+
+  synchronized void put(T element) {
+    Filter current = filters.get(filters.size() - 1);
+    if (current.count >= current.capacity) {
+      current = addFilter(current.capacity * 2);
+    }
+    current.put(HASH_FUNCTION.hashObject(element, funnel).asBytes());
+    elementCount++;
+  }
+
+  /** Checks whether the element might have been added, must not be called concurrently to put. */
+  boolean mightContain(T element) {
+    byte[] hash = HASH_FUNCTION.hashObject(element, funnel).asBytes();
+    for (Filter filter : filters) {
+      if (filter.mightContain(hash)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /** The false-positive-probability of this filter, considering the actual number of elements. */
+  synchronized double expectedFpp() {
+    double notFalsePositive = 1d;
+    for (Filter filter : filters) {
+      notFalsePositive *= 1d - filter.expectedFpp();
+    }
+    return 1d - notFalsePositive;
+  }
+
+  synchronized long elementCount() {
+    return elementCount;
+  }
+
+  synchronized int filterCount() {
+    return filters.size();
+  }
+
+  /** Number of filters backed by memory mapped files. */
+  synchronized int spilledFilterCount() {
+    return (int) filters.stream().filter(f -> f.bits instanceof MappedBits).count();
+  }
+
+  @Override
+  public synchronized void close() throws IOException {
+    IOException ex = null;
+    for (Filter filter : filters) {
+      try {
+        filter.bits.close();
+      } catch (IOException e) {
+        if (ex == null) {
+          ex = e;
+        } else {
+          ex.addSuppressed(e);
+        }
+      }
+    }
+    filters.clear();
+    if (ex != null) {
+      throw ex;
+    }
+  }
+
+  private Filter addFilter(long capacity) {
+    // Tighten the false-positive-probability for each filter, so that the sum of all
+    // false-positive-probabilities converges to the configured value.
+    double fpp = falsePositiveProbability / (2L << filters.size());
+    long numBits = optimalNumOfBits(capacity, fpp);
+    while (numBits > MAX_FILTER_BITS) {
+      capacity /= 2;
+      numBits = optimalNumOfBits(capacity, fpp);
+    }
+    // round up to full 64-bit words
+    numBits = (numBits + 63) & ~63L;
+    int numHashFunctions = optimalNumOfHashFunctions(capacity, numBits);
+
+    long bytes = numBits / 8;
+    Bits bits = totalBytes + bytes > maxHeapBytes ? new MappedBits(bytes) : new HeapBits(bytes);
+    totalBytes += bytes;
+
+    Filter filter = new Filter(bits, numBits, numHashFunctions, capacity);
+    filters.add(filter);
+    return filter;
+  }
+
+  static long optimalNumOfBits(long n, double p) {
+    return (long) (-n * Math.log(p) / (Math.log(2) * Math.log(2)));
+  }
+
+  static int optimalNumOfHashFunctions(long n, long m) {
+    return Math.max(1, (int) Math.round((double) m / n * Math.log(2)));
+  }
+
+  private static final class Filter {
+    final Bits bits;
+    final long numBits;
+    final int numHashFunctions;
+    final long capacity;
+    long count;
+
+    Filter(Bits bits, long numBits, int numHashFunctions, long capacity) {
+      this.bits = bits;
+      this.numBits = numBits;
+      this.numHashFunctions = numHashFunctions;
+      this.capacity = capacity;
+    }
+
+    void put(byte[] hash) {
+      long hash1 = lowerEight(hash);
+      long hash2 = upperEight(hash);
+      long combinedHash = hash1;
+      for (int i = 0; i < numHashFunctions; i++) {
+        bits.set((combinedHash & Long.MAX_VALUE) % numBits);
+        combinedHash += hash2;
+      }
+      count++;
+    }
+
+    boolean mightContain(byte[] hash) {
+      long hash1 = lowerEight(hash);
+      long hash2 = upperEight(hash);
+      long combinedHash = hash1;
+      for (int i = 0; i < numHashFunctions; i++) {
+        if (!bits.get((combinedHash & Long.MAX_VALUE) % numBits)) {
+          return false;
+        }
+        combinedHash += hash2;
+      }
+      return true;
+    }
+
+    double expectedFpp() {
+      if (count == 0L) {
+        return 0d;
+      }
+      // same approximation as Guava's BloomFilter.expectedFpp()
+      return Math.pow((double) bits.bitCount() / numBits, numHashFunctions);
+    }
+
+    private static long lowerEight(byte[] bytes) {
+      return longFromBytes(bytes, 7);
+    }
+
+    private static long upperEight(byte[] bytes) {
+      return longFromBytes(bytes, 15);
+    }
+
+    private static long longFromBytes(byte[] bytes, int last) {
+      long l = 0L;
+      for (int i = last; i > last - 8; i--) {
+        l = (l << 8) | (bytes[i] & 0xFF);
+      }
+      return l;
+    }
+  }
+
+  private interface Bits extends AutoCloseable {
+    void set(long index);
+
+    boolean get(long index);
+
+    long bitCount();
+
+    @Override
+    void close() throws IOException;
+  }
+
+  private static final class HeapBits implements Bits {
+    private final long[] data;
+
+    HeapBits(long bytes) {
+      this.data = new long[Math.toIntExact(bytes / 8)];
+    }
+
+    @Override
+    public void set(long index) {
+      data[(int) (index >>> 6)] |= 1L << index;
+    }
+
+    @Override
+    public boolean get(long index) {
+      return (data[(int) (index >>> 6)] & (1L << index)) != 0;
+    }
+
+    @Override
+    public long bitCount() {
+      long count = 0L;
+      for (long word : data) {
+        count += Long.bitCount(word);
+      }
+      return count;
+    }
+
+    @Override
+    public void close() {}
+  }
+
+  private final class MappedBits implements Bits {
+    private final FileChannel channel;
+    private final ByteBuffer data;
+
+    MappedBits(long bytes) {
+      try {
+        Path file = Files.createTempFile(spillDirectory, "nessie-gc-live-files-", ".bloom");
+        // The file is re-created, so it is deleted when the channel is closed.
+        Files.delete(file);
+        this.channel = FileChannel.open(file, CREATE_NEW, READ, WRITE, DELETE_ON_CLOSE);
+        this.data = channel.map(FileChannel.MapMode.READ_WRITE, 0, bytes);
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+    }
+
+    @Override
+    public void set(long index) {
+      int offset = (int) (index >>> 6) << 3;
+      data.putLong(offset, data.getLong(offset) | (1L << index));
+    }
+
+    @Override
+    public boolean get(long index) {
+      return (data.getLong((int) (index >>> 6) << 3) & (1L << index)) != 0;
+    }
+
+    @Override
+    public long bitCount() {
+      long count = 0L;
+      for (int offset = 0; offset < data.capacity(); offset += 8) {
+        count += Long.bitCount(data.getLong(offset));
+      }
+      return count;
+    }
+
+    @Override
+    public void close() throws IOException {
+      channel.close();
+    }
+  }
+}
@@ -15,19 +15,19 @@
  */
 package org.projectnessie.gc.expire;
 
-import com.google.common.hash.BloomFilter;
 import com.google.common.hash.PrimitiveSink;
 import com.google.errorprone.annotations.CanIgnoreReturnValue;
-import com.google.errorprone.annotations.MustBeClosed;
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.net.URI;
 import java.util.HashSet;
 import java.util.Set;
+import java.util.concurrent.ExecutorService;
 import java.util.function.Consumer;
 import java.util.stream.Stream;
 import org.immutables.value.Value;
 import org.projectnessie.gc.files.DeleteSummary;
 import org.projectnessie.gc.files.FileReference;
-import org.projectnessie.gc.files.NessieFileIOException;
 import org.projectnessie.model.Content;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -48,14 +48,26 @@ public abstract class PerContentDeleteExpired {
     @CanIgnoreReturnValue
     Builder contentId(String contentId);
 
+    /**
+     * The executor used to list the base locations of the content, shared by all contents of an
+     * expire run, see {@link ExpireParameters#listingParallelism()}.
+     */
+    @CanIgnoreReturnValue
+    Builder listingExecutor(ExecutorService listingExecutor);
+
     PerContentDeleteExpired build();
   }
 
   /** Returns a stream of files that can be expired. */
-  @SuppressWarnings("UnstableApiUsage")
   public DeleteSummary expire() {
-    BloomFilter<URI> filter = createBloomFilter();
+    try (LiveFileFilter<URI> filter = createLiveFileFilter()) {
+      return expire(filter);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
 
+  private DeleteSummary expire(LiveFileFilter<URI> filter) {
     Set<URI> baseLocations = new HashSet<>();
     Consumer<URI> addBaseLocation =
         l -> {
@@ -73,16 +85,16 @@ public abstract class PerContentDeleteExpired {
     long identifiedLiveFiles = identifyLiveFiles(filter, addBaseLocation);
 
     double expectedFpp = filter.expectedFpp();
-    long approximateElementCount = filter.approximateElementCount();
-    if (filter.expectedFpp() > expireParameters().allowedFalsePositiveProbability()) {
+    long elementCount = filter.elementCount();
+    if (expectedFpp > expireParameters().allowedFalsePositiveProbability()) {
       LOGGER.warn(
           "live-set#{} content#{}: Aborting expire - expected FPP {} is higher than the allowed "
-              + "FPP {}. Approximate files count is {}, expected is {}, real is {} live (probably less).",
+              + "FPP {}. Files count is {}, expected is {}, real is {} live (probably less).",
           expireParameters().liveContentSet().id(),
           contentId(),
           expectedFpp,
           expireParameters().allowedFalsePositiveProbability(),
-          approximateElementCount,
+          elementCount,
           expireParameters().expectedFileCount(),
           identifiedLiveFiles);
       return DeleteSummary.EMPTY;
@@ -91,14 +103,7 @@ public abstract class PerContentDeleteExpired {
     expireParameters().liveContentSet().associateBaseLocations(contentId(), baseLocations);
 
     return baseLocations.stream()
-        .map(
-            baseLocation -> {
-              try (Stream<FileReference> fileObjects = identifyExpiredFiles(filter, baseLocation)) {
-                return expireParameters().fileDeleter().deleteMultiple(baseLocation, fileObjects);
-              } catch (NessieFileIOException e) {
-                throw new RuntimeException(e);
-              }
-            })
+        .map(baseLocation -> sweepBaseLocation(filter, baseLocation, listingExecutor()))
         .reduce(DeleteSummary.EMPTY, DeleteSummary::add, DeleteSummary::add);
   }
 
@@ -106,8 +111,7 @@ public abstract class PerContentDeleteExpired {
    * First part of {@link #expire()} to identify all files that are referenced by all live {@link
    * Content} objects.
    */
-  @SuppressWarnings("UnstableApiUsage")
-  private long identifyLiveFiles(BloomFilter<URI> filter, Consumer<URI> addBaseLocation) {
+  private long identifyLiveFiles(LiveFileFilter<URI> filter, Consumer<URI> addBaseLocation) {
     LOGGER.debug(
         "live-set#{} content#{}: Start collecting files and base locations, max file modification time: {}.",
         expireParameters().liveContentSet().id(),
@@ -135,79 +139,59 @@ public abstract class PerContentDeleteExpired {
 
     LOGGER.debug(
         "live-set#{} content#{}: Identified {} live files (configured: {}), with an expected "
-            + "false-positive-probability of {} (configured: {}).",
+            + "false-positive-probability of {} (configured: {}), using {} bloom filters, "
+            + "{} of those memory mapped.",
         expireParameters().liveContentSet().id(),
         contentId(),
         liveFileCount,
         expireParameters().expectedFileCount(),
         filter.expectedFpp(),
-        expireParameters().falsePositiveProbability());
+        expireParameters().falsePositiveProbability(),
+        filter.filterCount(),
+        filter.spilledFilterCount());
 
     return liveFileCount;
   }
 
   /**
-   * Second part of {@link #expire()} to walk all base locations and identify the files that are not
-   * referenced by any live content object.
+   * Second part of {@link #expire()} to walk a base location, identify the files that are not
+   * referenced by any live content object and delete those.
    */
-  @SuppressWarnings("UnstableApiUsage")
-  @MustBeClosed
-  private Stream<FileReference> identifyExpiredFiles(BloomFilter<URI> filter, URI baseLocation)
-      throws NessieFileIOException {
-    ExpireStats expireStats = new ExpireStats();
-    long maxFileTime = expireParameters().maxFileModificationTime().toEpochMilli();
-
+  private DeleteSummary sweepBaseLocation(
+      LiveFileFilter<URI> filter, URI baseLocation, ExecutorService executor) {
     LOGGER.debug(
         "live-set#{} content#{}: Start walking base location {}.",
         expireParameters().liveContentSet().id(),
         contentId(),
         baseLocation);
 
-    @SuppressWarnings("MustBeClosedChecker")
-    Stream<FileReference> list = expireParameters().filesLister().listRecursively(baseLocation);
-    return list.filter(
-            f -> {
-              expireStats.totalFiles++;
-              if (filter.mightContain(f.path())) {
-                expireStats.liveFiles++;
-                return false;
-              }
-              if (f.modificationTimeMillisEpoch() > maxFileTime) {
-                expireStats.newFiles++;
-                return false;
-              }
-              expireStats.expiredFiles++;
-              return true;
-            })
-        .onClose(
-            () ->
-                LOGGER.info(
-                    "live-set#{} content#{}: Found {} total files in base location {}, "
-                        + "{} files considered expired, "
-                        + "{} files considered live, "
-                        + "{} files are newer than max-file-modification-time.",
-                    expireParameters().liveContentSet().id(),
-                    contentId(),
-                    expireStats.totalFiles,
-                    baseLocation,
-                    expireStats.expiredFiles,
-                    expireStats.liveFiles,
-                    expireStats.newFiles));
-  }
-
-  private static final class ExpireStats {
-    long totalFiles = 0;
-    long expiredFiles = 0;
-    long liveFiles = 0;
-    long newFiles = 0;
+    BaseLocationSweep sweep =
+        new BaseLocationSweep(expireParameters(), filter, baseLocation, executor);
+    try {
+      return sweep.sweep();
+    } finally {
+      LOGGER.info(
+          "live-set#{} content#{}: Found {} total files in base location {}, "
+              + "{} files considered expired, "
+              + "{} files considered live, "
+              + "{} files are newer than max-file-modification-time.",
+          expireParameters().liveContentSet().id(),
+          contentId(),
+          sweep.totalFiles.sum(),
+          baseLocation,
+          sweep.expiredFiles.sum(),
+          sweep.liveFileCount.sum(),
+          sweep.newFiles.sum());
+    }
   }
 
-  @SuppressWarnings("UnstableApiUsage")
-  BloomFilter<URI> createBloomFilter() {
-    return BloomFilter.create(
+  LiveFileFilter<URI> createLiveFileFilter() {
+    return new LiveFileFilter<>(
         PerContentDeleteExpired::funnel,
         expireParameters().expectedFileCount(),
-        expireParameters().falsePositiveProbability());
+        expireParameters().falsePositiveProbability(),
+        expireParameters().maxLiveFilesHeapBytes(),
+        expireParameters().liveFilesSpillDirectory());
   }
 
   /**
@@ -236,4 +220,6 @@ public abstract class PerContentDeleteExpired {
   abstract ExpireParameters expireParameters();
 
   abstract String contentId();
+
+  abstract ExecutorService listingExecutor();
 }
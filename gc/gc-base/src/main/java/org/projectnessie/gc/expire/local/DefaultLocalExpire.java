@@ -17,10 +17,13 @@ package org.projectnessie.gc.expire.local;
 
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Preconditions;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import com.google.errorprone.annotations.CanIgnoreReturnValue;
 import java.time.Clock;
 import java.time.Duration;
 import java.time.Instant;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.concurrent.ForkJoinPool;
 import java.util.concurrent.ForkJoinTask;
 import java.util.stream.Stream;
@@ -68,9 +71,14 @@ public abstract class DefaultLocalExpire implements Expire {
     expireParameters().liveContentSet().startExpireContents(started);
 
     ForkJoinPool forkJoinPool = new ForkJoinPool(parallelism());
+    // The base locations of all contents are listed using the same threads.
+    ExecutorService listingExecutor =
+        Executors.newFixedThreadPool(
+            expireParameters().listingParallelism(),
+            new ThreadFactoryBuilder().setDaemon(true).setNameFormat("nessie-gc-sweep-%d").build());
     try {
       DeleteSummary deleteSummary =
-          forkJoinPool.invoke(ForkJoinTask.adapt(this::expireInForkJoinPool));
+          forkJoinPool.invoke(ForkJoinTask.adapt(() -> expireInForkJoinPool(listingExecutor)));
       LOGGER.info(
           "live-set#{}: Expiry finished, took {}, deletion summary: {}.",
           expireParameters().liveContentSet().id(),
@@ -80,19 +88,20 @@ public abstract class DefaultLocalExpire implements Expire {
     } finally {
       expireParameters().liveContentSet().finishedExpireContents(clock().instant(), null);
       forkJoinPool.shutdown();
+      listingExecutor.shutdown();
     }
   }
 
-  private DeleteSummary expireInForkJoinPool() {
+  private DeleteSummary expireInForkJoinPool(ExecutorService listingExecutor) {
     try (Stream<String> contentIds = expireParameters().liveContentSet().fetchContentIds()) {
       return contentIds
           .parallel()
-          .map(this::expireSingleContent)
+          .map(contentId -> expireSingleContent(contentId, listingExecutor))
           .reduce(DeleteSummary.EMPTY, DeleteSummary::add);
     }
   }
 
-  private DeleteSummary expireSingleContent(String contentId) {
+  private DeleteSummary expireSingleContent(String contentId, ExecutorService listingExecutor) {
     LOGGER.debug(
         "live-set#{}: Expiring content ID {}.",
         expireParameters().liveContentSet().id(),
@@ -100,6 +109,7 @@ public abstract class DefaultLocalExpire implements Expire {
     return PerContentDeleteExpired.builder()
         .expireParameters(expireParameters())
         .contentId(contentId)
+        .listingExecutor(listingExecutor)
         .build()
         .expire();
   }
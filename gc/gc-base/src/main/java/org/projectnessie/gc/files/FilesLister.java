@@ -17,6 +17,7 @@ package org.projectnessie.gc.files;
 
 import com.google.errorprone.annotations.MustBeClosed;
 import java.net.URI;
+import java.util.function.Consumer;
 import java.util.stream.Stream;
 
 /** Function to list files recursively. */
@@ -29,4 +30,26 @@ public interface FilesLister {
    */
   @MustBeClosed
   Stream<FileReference> listRecursively(URI path) throws NessieFileIOException;
+
+  /**
+   * Whether this implementation supports {@link #listDirectory(URI, Consumer)}, which allows
+   * listing the files below a base location concurrently.
+   */
+  default boolean supportsListDirectory() {
+    return false;
+  }
+
+  /**
+   * Returns a {@link Stream} of {@link FileReference} directly contained in the given {@code path},
+   * not recursively. The directories directly contained in {@code path} are passed to {@code
+   * directories} while the returned stream is consumed. The returned {@link FileReference}s have
+   * their {@link FileReference#base()} set to the {@code path} argument.
+   *
+   * <p>Only supported, if {@link #supportsListDirectory()} returns {@code true}.
+   */
+  @MustBeClosed
+  default Stream<FileReference> listDirectory(URI path, Consumer<URI> directories)
+      throws NessieFileIOException {
+    throw new UnsupportedOperationException("Listing a single directory is not supported");
+  }
 }
@@ -24,6 +24,7 @@ import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.nio.file.attribute.BasicFileAttributeView;
 import java.util.AbstractMap;
+import java.util.function.Consumer;
 import java.util.stream.Stream;
 import org.projectnessie.gc.files.DeleteResult;
 import org.projectnessie.gc.files.FileDeleter;
@@ -71,6 +72,47 @@ public class LocalFiles implements FilesLister, FileDeleter {
     }
   }
 
+  @Override
+  public boolean supportsListDirectory() {
+    return true;
+  }
+
+  @Override
+  @MustBeClosed
+  public Stream<FileReference> listDirectory(URI path, Consumer<URI> directories)
+      throws NessieFileIOException {
+    URI basePath = ensureTrailingSlash(path);
+    try {
+      return Files.list(Paths.get(basePath))
+          .map(
+              p -> {
+                try {
+                  return new AbstractMap.SimpleEntry<>(
+                      p.toUri(),
+                      Files.getFileAttributeView(p, BasicFileAttributeView.class).readAttributes());
+                } catch (IOException e) {
+                  throw new RuntimeException(e);
+                }
+              })
+          .filter(
+              e -> {
+                if (e.getValue().isDirectory()) {
+                  directories.accept(ensureTrailingSlash(e.getKey()));
+                  return false;
+                }
+                return e.getValue().isRegularFile();
+              })
+          .map(
+              e ->
+                  FileReference.of(
+                      basePath.relativize(e.getKey()),
+                      basePath,
+                      e.getValue().lastModifiedTime().toMillis()));
+    } catch (IOException e) {
+      throw new NessieFileIOException(e);
+    }
+  }
+
   @Override
   public DeleteResult delete(FileReference fileReference) {
     try {
@@ -0,0 +1,262 @@
+/*
+ * Copyright (C) 2023 Dremio
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.projectnessie.gc.identify;
+
+import static org.projectnessie.gc.identify.CutoffPolicy.NO_TIMESTAMP;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Stream;
+import javax.annotation.Nullable;
+import org.projectnessie.error.NessieNotFoundException;
+import org.projectnessie.gc.contents.AddContents;
+import org.projectnessie.gc.contents.ContentReference;
+import org.projectnessie.gc.contents.ImmutableContentReference;
+import org.projectnessie.gc.contents.LiveContentSet;
+import org.projectnessie.gc.contents.ReferenceCheckpoint;
+import org.projectnessie.gc.repository.RepositoryConnector;
+import org.projectnessie.model.CommitMeta;
+import org.projectnessie.model.ContentKey;
+import org.projectnessie.model.Detached;
+import org.projectnessie.model.LogResponse;
+import org.projectnessie.model.Operation;
+import org.projectnessie.model.Reference;
+
+/**
+ * Carries forward the live contents of named references from the {@link
+ * IdentifyLiveContents#previousLiveContentSet() previous live content set} of an incremental
+ * identify run.
+ *
+ * <p>The previous identify run recorded a {@link ReferenceCheckpoint checkpoint} for each walked
+ * reference: the range of live commits from the reference's HEAD <em>H0</em> down to the last live
+ * commit <em>L0</em>, walked using the cut-off timestamp <em>T0</em>. The previous live content set
+ * contains the contents put by each commit in that range plus all contents visible at <em>L0</em>.
+ *
+ * <p>When the commit log walk of the same reference, using the cut-off timestamp <em>T1</em>,
+ * reaches <em>H0</em> as a live commit <em>AND</em> {@code T0 <= T1}, the remaining live commits
+ * are a prefix of the previous range, ending at the new last live commit <em>L1</em>. These commits
+ * are identified using the commit log without operations. The contents put by the commits before
+ * <em>L1</em> are copied from the previous live content set. The contents visible at <em>L1</em>
+ * are computed from the operations of the commits between <em>L1</em> and <em>L0</em> plus the
+ * contents visible at <em>L0</em>. Contents that were only live because of commits that fell
+ * behind the cut-off timestamp since the previous run are therefore not carried forward.
+ *
+ * <p>Only references that are walked, which are the references that still exist, are carried
+ * forward.
+ */
+final class CarryForward {
+
+  private final LiveContentSet previous;
+  private final RepositoryConnector repositoryConnector;
+  private final ContentTypeFilter contentTypeFilter;
+  private final ContentToContentReference contentToContentReference;
+
+  /** Checkpoints of the previous live content set by reference name. */
+  private final Map<String, ReferenceCheckpoint> checkpoints = new HashMap<>();
+
+  CarryForward(
+      LiveContentSet previous,
+      RepositoryConnector repositoryConnector,
+      ContentTypeFilter contentTypeFilter,
+      ContentToContentReference contentToContentReference) {
+    this.previous = previous;
+    this.repositoryConnector = repositoryConnector;
+    this.contentTypeFilter = contentTypeFilter;
+    this.contentToContentReference = contentToContentReference;
+    try (Stream<ReferenceCheckpoint> previousCheckpoints = previous.fetchCheckpoints()) {
+      previousCheckpoints.forEach(c -> checkpoints.put(c.referenceName(), c));
+    }
+  }
+
+  LiveContentSet previous() {
+    return previous;
+  }
+
+  int checkpointCount() {
+    return checkpoints.size();
+  }
+
+  /**
+   * Returns the checkpoint of the given reference, if the reference has been walked by the previous
+   * identify run using a cut-off timestamp that is equal to or older than the given cut-off
+   * timestamp.
+   */
+  @Nullable
+  @jakarta.annotation.Nullable
+  ReferenceCheckpoint checkpoint(Reference reference, Instant cutoffTimestamp) {
+    if (cutoffTimestamp.equals(NO_TIMESTAMP)) {
+      return null;
+    }
+    ReferenceCheckpoint checkpoint = checkpoints.get(reference.getName());
+    if (checkpoint == null
+        || checkpoint.cutoffTimestamp().equals(NO_TIMESTAMP)
+        || checkpoint.cutoffTimestamp().isAfter(cutoffTimestamp)) {
+      return null;
+    }
+    return checkpoint;
+  }
+
+  /**
+   * Adds the live contents of the given checkpoint's range to {@code addContents}, starting at the
+   * checkpoint's HEAD commit, which is live commit number {@code numCommits} of the current commit
+   * log walk.
+   *
+   * @return the result or {@code null}, if the commit log does not match the checkpoint, in which
+   *     case nothing has been added
+   */
+  @Nullable
+  @jakarta.annotation.Nullable
+  Carried carry(
+      AddContents addContents,
+      ReferenceCheckpoint checkpoint,
+      CutoffPolicy cutoffPolicy,
+      int numCommits)
+      throws NessieNotFoundException {
+    String previousLastLive = checkpoint.lastLiveCommitId();
+
+    List<String> liveCommits = new ArrayList<>();
+    int walked = 0;
+    try (Stream<LogResponse.LogEntry> commits =
+        repositoryConnector.commitLogMetadata(Detached.of(checkpoint.headCommitId()))) {
+      Iterator<LogResponse.LogEntry> logEntries = commits.iterator();
+      boolean foundEnd = false;
+      while (logEntries.hasNext()) {
+        CommitMeta commitMeta = logEntries.next().getCommitMeta();
+        String commitHash = commitMeta.getHash();
+        walked++;
+        if (liveCommits.isEmpty()) {
+          if (!checkpoint.headCommitId().equals(commitHash)) {
+            return null;
+          }
+        } else if (cutoffPolicy.isCutoff(commitMeta.getCommitTime(), numCommits + walked - 1)) {
+          foundEnd = true;
+          break;
+        }
+        liveCommits.add(commitHash);
+        if (previousLastLive.equals(commitHash)) {
+          foundEnd = true;
+          break;
+        }
+      }
+      if (!foundEnd) {
+        // The previous last live commit is not in the commit log, or the commit log has no entries.
+        return null;
+      }
+    }
+
+    String lastLive = liveCommits.get(liveCommits.size() - 1);
+    long numContents = 0L;
+    // If a commit is also the last live commit of another reference, the previous live content set
+    // contains all contents visible at that commit. Those are live anyway, because each of them is
+    // either put by a later live commit or still visible at the new last live commit.
+    List<String> copiedCommits =
+        lastLive.equals(previousLastLive)
+            ? liveCommits
+            : liveCommits.subList(0, liveCommits.size() - 1);
+    for (String commitId : copiedCommits) {
+      try (Stream<ContentReference> contents =
+          previous.fetchContentReferencesForCommit(commitId)) {
+        numContents += addContents.addLiveContent(contents);
+      }
+    }
+    if (!lastLive.equals(previousLastLive)) {
+      numContents += addVisibleContents(addContents, lastLive, previousLastLive);
+    }
+
+    return new Carried(lastLive, walked, numContents);
+  }
+
+  /**
+   * Adds all contents visible at the given commit, using the operations of the commits down to the
+   * previous last live commit and the contents visible at the previous last live commit.
+   */
+  private long addVisibleContents(
+      AddContents addContents, String commitId, String previousLastLive)
+      throws NessieNotFoundException {
+    Set<ContentKey> seenKeys = new HashSet<>();
+    List<ContentReference> contents = new ArrayList<>();
+    boolean reachedPreviousLastLive = false;
+    try (Stream<LogResponse.LogEntry> commits =
+        repositoryConnector.commitLog(Detached.of(commitId))) {
+      Iterator<LogResponse.LogEntry> logEntries = commits.iterator();
+      while (logEntries.hasNext()) {
+        LogResponse.LogEntry logEntry = logEntries.next();
+        if (previousLastLive.equals(logEntry.getCommitMeta().getHash())) {
+          reachedPreviousLastLive = true;
+          break;
+        }
+        List<Operation> operations = logEntry.getOperations();
+        if (operations == null) {
+          continue;
+        }
+        for (Operation operation : operations) {
+          // Only the most recent operation of a content key is relevant
+          if ((operation instanceof Operation.Put || operation instanceof Operation.Delete)
+              && seenKeys.add(operation.getKey())
+              && operation instanceof Operation.Put) {
+            Operation.Put put = (Operation.Put) operation;
+            if (contentTypeFilter.test(put.getContent().getType())) {
+              contents.add(
+                  contentToContentReference.contentToReference(
+                      put.getContent(), commitId, put.getKey()));
+            }
+          }
+        }
+      }
+    }
+
+    if (!reachedPreviousLastLive) {
+      try (Stream<ContentReference> allContents =
+          repositoryConnector
+              .allContents(Detached.of(commitId), contentTypeFilter.validTypes())
+              .map(
+                  e ->
+                      contentToContentReference.contentToReference(
+                          e.getValue(), commitId, e.getKey()))) {
+        return addContents.addLiveContent(allContents);
+      }
+    }
+
+    try (Stream<ContentReference> previousContents =
+        previous.fetchContentReferencesForCommit(previousLastLive)) {
+      return addContents.addLiveContent(
+          Stream.concat(
+              contents.stream(),
+              previousContents
+                  .filter(c -> !seenKeys.contains(c.contentKey()))
+                  .map(c -> ImmutableContentReference.copyOf(c).withCommitId(commitId))));
+    }
+  }
+
+  /** Result of {@link #carry(AddContents, ReferenceCheckpoint, CutoffPolicy, int)}. */
+  static final class Carried {
+    final String lastLiveCommitId;
+    final int numCommits;
+    final long numContents;
+
+    Carried(String lastLiveCommitId, int numCommits, long numContents) {
+      this.lastLiveCommitId = lastLiveCommitId;
+      this.numCommits = numCommits;
+      this.numContents = numContents;
+    }
+  }
+}
@@ -0,0 +1,106 @@
+/*
+ * Copyright (C) 2023 Dremio
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.projectnessie.gc.identify;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import org.projectnessie.model.LogResponse.LogEntry;
+
+/**
+ * Consumes a commit log in a background thread, up to a bounded number of log entries ahead of the
+ * consumer, so that fetching and decoding the next log entries overlaps with processing the current
+ * ones.
+ */
+final class CommitLogReadAhead implements Iterator<LogEntry>, AutoCloseable {
+  private static final Object END = new Object();
+
+  private final BlockingQueue<Object> queue;
+  private final CountDownLatch producerDone = new CountDownLatch(1);
+  private volatile boolean closed;
+  private Object next;
+
+  CommitLogReadAhead(Iterator<LogEntry> commitLog, int readAhead, ExecutorService executor) {
+    this.queue = new ArrayBlockingQueue<>(readAhead);
+    executor.execute(() -> produce(commitLog));
+  }
+
+  private void produce(Iterator<LogEntry> commitLog) {
+    try {
+      Object last = END;
+      try {
+        while (!closed && commitLog.hasNext()) {
+          queue.put(commitLog.next());
+        }
+      } catch (RuntimeException | Error e) {
+        last = e;
+      }
+      queue.put(last);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    } finally {
+      producerDone.countDown();
+    }
+  }
+
+  @Override
+  public boolean hasNext() {
+    if (next == null) {
+      try {
+        next = queue.take();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new RuntimeException(e);
+      }
+    }
+    if (next instanceof RuntimeException) {
+      throw (RuntimeException) next;
+    }
+    if (next instanceof Error) {
+      throw (Error) next;
+    }
+    return next != END;
+  }
+
+  @Override
+  public LogEntry next() {
+    if (!hasNext()) {
+      throw new NoSuchElementException();
+    }
+    LogEntry logEntry = (LogEntry) next;
+    next = null;
+    return logEntry;
+  }
+
+  /** Stops the background thread and waits until it finished using the commit log. */
+  @Override
+  public void close() {
+    closed = true;
+    try {
+      while (!producerDone.await(10, MILLISECONDS)) {
+        // unblock the producer, if it waits for free space in the queue
+        queue.clear();
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+}
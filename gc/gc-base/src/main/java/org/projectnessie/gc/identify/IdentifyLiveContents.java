@@ -15,25 +15,36 @@
  */
 package org.projectnessie.gc.identify;
 
+import static org.projectnessie.gc.contents.ReferenceCheckpoint.referenceCheckpoint;
+
 import com.google.common.base.Preconditions;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import com.google.errorprone.annotations.CanIgnoreReturnValue;
 import java.time.Clock;
 import java.time.Duration;
 import java.time.Instant;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Optional;
-import java.util.Spliterator;
 import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.concurrent.ForkJoinPool;
 import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.Semaphore;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.function.Function;
 import java.util.stream.Stream;
 import javax.annotation.Nullable;
 import org.immutables.value.Value;
 import org.projectnessie.error.NessieNotFoundException;
 import org.projectnessie.gc.contents.AddContents;
+import org.projectnessie.gc.contents.ContentReference;
+import org.projectnessie.gc.contents.LiveContentSet;
 import org.projectnessie.gc.contents.LiveContentSetsRepository;
+import org.projectnessie.gc.contents.ReferenceCheckpoint;
 import org.projectnessie.gc.repository.RepositoryConnector;
 import org.projectnessie.model.CommitMeta;
 import org.projectnessie.model.Content;
@@ -63,15 +74,29 @@ import org.slf4j.LoggerFactory;
  *   <li>A consumer via {@link #liveContentSetsRepository()} for the identified live content
  *       objects}.
  *   <li>The desired number of named-references being walked concurrently.
+ *   <li>The number of commit log entries that are {@link #commitLogReadAhead() read ahead} for a
+ *       single named-reference.
  *   <li>A {@link #visitedDeduplicator() de-duplication functionality} to prevent walking the same
  *       commit(s) with compatible cut-off timestamps.
+ *   <li>An optional {@link #previousLiveContentSet() previous live content set} for incremental
+ *       identify runs.
  * </ul>
+ *
+ * <p>Each identify run records a {@link ReferenceCheckpoint checkpoint} for every completely walked
+ * named reference, which is the range of live commits of that reference. An incremental identify
+ * run walks the commits that have been added to a reference since the previous run with all
+ * operations. When it reaches the HEAD of the reference's checkpoint and the cut-off timestamp is
+ * not older than the checkpoint's one, the live contents of the remaining live commits are carried
+ * forward from the previous live content set. Only the contents visible at the new last live commit
+ * are computed from the operations of the commits that fell behind the cut-off timestamp since the
+ * previous run. An incremental run therefore identifies the same live contents as a full run.
  */
 @Value.Immutable
 public abstract class IdentifyLiveContents {
   private static final Logger LOGGER = LoggerFactory.getLogger(IdentifyLiveContents.class);
 
   public static final int DEFAULT_PARALLELISM = 4;
+  public static final int DEFAULT_COMMIT_LOG_READ_AHEAD = 100;
 
   private final AtomicBoolean executed = new AtomicBoolean();
 
@@ -147,6 +172,27 @@ public abstract class IdentifyLiveContents {
     @CanIgnoreReturnValue
     Builder parallelism(int parallelism);
 
+    /**
+     * Configures the number of commit log entries of a single reference that are fetched ahead of
+     * processing, default is {@value #DEFAULT_COMMIT_LOG_READ_AHEAD}.
+     *
+     * <p>With a positive value, the commit log of each reference is fetched in a background thread
+     * and the identified live contents of up to {@link #parallelism(int)} commits of that reference
+     * are added concurrently. This lets the walk of a single, long reference make use of more than
+     * one thread. A value of {@code 0} walks each reference sequentially in a single thread.
+     */
+    @CanIgnoreReturnValue
+    Builder commitLogReadAhead(int commitLogReadAhead);
+
+    /**
+     * Enables the incremental mode, using the {@link ReferenceCheckpoint checkpoints} and live
+     * contents of the given live content set, which must have been produced by a successful
+     * identify run against the same Nessie repository. Not set by default, which means that all
+     * commit logs are walked.
+     */
+    @CanIgnoreReturnValue
+    Builder previousLiveContentSet(LiveContentSet previousLiveContentSet);
+
     IdentifyLiveContents build();
   }
 
@@ -164,16 +210,29 @@ public abstract class IdentifyLiveContents {
     }
 
     ForkJoinPool forkJoinPool = new ForkJoinPool(parallelism());
+    ExecutorService pipelineExecutor =
+        commitLogReadAhead() > 0
+            ? Executors.newCachedThreadPool(
+                new ThreadFactoryBuilder()
+                    .setDaemon(true)
+                    .setNameFormat("nessie-gc-identify-%d")
+                    .build())
+            : null;
     try {
-      return forkJoinPool.invoke(ForkJoinTask.adapt(this::walkAllReferences));
+      return forkJoinPool.invoke(ForkJoinTask.adapt(() -> walkAllReferences(pipelineExecutor)));
     } finally {
       forkJoinPool.shutdown();
+      if (pipelineExecutor != null) {
+        pipelineExecutor.shutdown();
+      }
     }
   }
 
-  private UUID walkAllReferences() {
+  private UUID walkAllReferences(ExecutorService pipelineExecutor) {
     try (AddContents addContents = liveContentSetsRepository().newAddContents()) {
       try {
+        CarryForward carryForward = carryForward(addContents);
+
         Stream<Reference> refs = repositoryConnector().allReferences();
 
         // If a Reference comparator is configured, then apply it to the stream of references.
@@ -186,13 +245,19 @@ public abstract class IdentifyLiveContents {
 
         Optional<ReferencesWalkResult> result =
             refs.parallel()
-                .map(ref -> identifyContentsForReference(addContents, ref))
+                .map(
+                    ref ->
+                        identifyContentsForReference(
+                            addContents, carryForward, ref, pipelineExecutor))
                 .reduce(ReferencesWalkResult::add);
 
+        Duration took = Duration.between(addContents.created(), clock().instant());
+        long numContents = result.map(r -> r.numContents).orElse(0L);
         LOGGER.info(
-            "live-set#{}: Finished walking all named references, took {}: {}.",
+            "live-set#{}: Finished walking all named references, took {}, {} contents/s: {}.",
             addContents.id(),
-            Duration.between(addContents.created(), clock().instant()),
+            took,
+            took.toMillis() > 0 ? numContents * 1000L / took.toMillis() : numContents,
             result.isPresent() ? result.get() : "<no result>");
 
         addContents.finished();
@@ -210,8 +275,30 @@ public abstract class IdentifyLiveContents {
     }
   }
 
+  @Nullable
+  @jakarta.annotation.Nullable
+  private CarryForward carryForward(AddContents addContents) {
+    LiveContentSet previous = previousLiveContentSet();
+    if (previous == null) {
+      return null;
+    }
+
+    CarryForward carryForward =
+        new CarryForward(
+            previous, repositoryConnector(), contentTypeFilter(), contentToContentReference());
+    LOGGER.info(
+        "live-set#{}: Incremental identify using {} checkpoints of live-set#{}.",
+        addContents.id(),
+        carryForward.checkpointCount(),
+        previous.id());
+    return carryForward;
+  }
+
   private ReferencesWalkResult identifyContentsForReference(
-      AddContents addContents, Reference namedReference) {
+      AddContents addContents,
+      @Nullable @jakarta.annotation.Nullable CarryForward carryForward,
+      Reference namedReference,
+      @Nullable @jakarta.annotation.Nullable ExecutorService pipelineExecutor) {
     CutoffPolicy cutoffPolicy = cutOffPolicySupplier().get(namedReference);
 
     if (visitedDeduplicator().alreadyVisited(cutoffPolicy.timestamp(), namedReference.getHash())) {
@@ -231,20 +318,30 @@ public abstract class IdentifyLiveContents {
         namedReference,
         cutoffPolicy);
 
+    ReferenceCheckpoint checkpoint =
+        carryForward != null
+            ? carryForward.checkpoint(namedReference, cutoffPolicy.timestamp())
+            : null;
+
     int numCommits = 0;
     long numContents = 0;
 
-    try (Stream<LogResponse.LogEntry> commits = repositoryConnector().commitLog(namedReference)) {
+    try (Stream<LogResponse.LogEntry> commits = repositoryConnector().commitLog(namedReference);
+        LiveContentAdder adder = new LiveContentAdder(addContents, pipelineExecutor);
+        CommitLogReadAhead readAhead =
+            pipelineExecutor != null
+                ? new CommitLogReadAhead(commits.iterator(), commitLogReadAhead(), pipelineExecutor)
+                : null) {
 
-      LogEntryHolder holder = new LogEntryHolder();
+      Iterator<LogResponse.LogEntry> logEntries =
+          readAhead != null ? readAhead : commits.iterator();
       String lastCommitId = null;
 
-      for (Spliterator<LogResponse.LogEntry> spliterator = commits.spliterator();
-          spliterator.tryAdvance(holder::set); ) {
+      while (logEntries.hasNext()) {
 
         numCommits++;
 
-        LogResponse.LogEntry logEntry = holder.logEntry;
+        LogResponse.LogEntry logEntry = logEntries.next();
         CommitMeta commitMeta = logEntry.getCommitMeta();
         Instant commitTime = commitMeta.getCommitTime();
         String commitHash = commitMeta.getHash();
@@ -268,12 +365,41 @@ public abstract class IdentifyLiveContents {
               cutoffPolicy,
               numCommits,
               commitHash);
-          return ReferencesWalkResult.singleShortCircuit(numCommits, numContents);
+          return ReferencesWalkResult.singleShortCircuit(numCommits, numContents + adder.added());
         }
 
         // The HEAD commit is always live, consult cutoff-policy for all other commits
         if (lastCommitId == null || !cutoffPolicy.isCutoff(commitTime, numCommits)) {
           // commit is "live"
+          if (checkpoint != null && checkpoint.headCommitId().equals(commitHash)) {
+            CarryForward.Carried carried =
+                carryForward.carry(addContents, checkpoint, cutoffPolicy, numCommits);
+            if (carried != null) {
+              numCommits += carried.numCommits - 1;
+              LOGGER.info(
+                  "live-set#{}: Finished walking the commit log of {} using {} after {} commits, "
+                      + "carried forward {} live contents of live-set#{} from commit {}.",
+                  addContents.id(),
+                  namedReference,
+                  cutoffPolicy,
+                  numCommits,
+                  carried.numContents,
+                  carryForward.previous().id(),
+                  commitHash);
+              addCheckpoint(
+                  addContents, namedReference, cutoffPolicy, carried.lastLiveCommitId);
+              return ReferencesWalkResult.single(
+                  numCommits, numContents + adder.added() + carried.numContents);
+            }
+            LOGGER.warn(
+                "live-set#{}: Commit log of {} does not match the checkpoint {} of live-set#{}, "
+                    + "walking all live commits.",
+                addContents.id(),
+                namedReference,
+                checkpoint,
+                carryForward.previous().id());
+          }
+
           LOGGER.debug(
               "live-set#{}: Checking commit {} with {} operations via {}.",
               addContents.id(),
@@ -281,28 +407,27 @@ public abstract class IdentifyLiveContents {
               operations.size(),
               namedReference);
           lastCommitId = commitHash;
-          numContents +=
-              addContents.addLiveContent(
-                  operations.stream()
-                      .filter(operation -> operation instanceof Operation.Put)
-                      .filter(
-                          operation ->
-                              contentTypeFilter()
-                                  .test(((Operation.Put) operation).getContent().getType()))
-                      .map(
-                          operation -> {
-                            Operation.Put put = (Operation.Put) operation;
-                            Content content = put.getContent();
-
-                            LOGGER.debug(
-                                "live-set#{}: Adding content reference for {} from commit {}.",
-                                addContents.id(),
-                                put,
-                                commitHash);
-
-                            return contentToContentReference()
-                                .contentToReference(content, commitHash, put.getKey());
-                          }));
+          adder.add(
+              operations.stream()
+                  .filter(operation -> operation instanceof Operation.Put)
+                  .filter(
+                      operation ->
+                          contentTypeFilter()
+                              .test(((Operation.Put) operation).getContent().getType()))
+                  .map(
+                      operation -> {
+                        Operation.Put put = (Operation.Put) operation;
+                        Content content = put.getContent();
+
+                        LOGGER.debug(
+                            "live-set#{}: Adding content reference for {} from commit {}.",
+                            addContents.id(),
+                            put,
+                            commitHash);
+
+                        return contentToContentReference()
+                            .contentToReference(content, commitHash, put.getKey());
+                      }));
         } else {
           // 1st non-live commit
           try {
@@ -318,20 +443,39 @@ public abstract class IdentifyLiveContents {
               cutoffPolicy,
               numCommits,
               commitHash);
-          return ReferencesWalkResult.single(numCommits, numContents);
+          addCheckpoint(addContents, namedReference, cutoffPolicy, lastCommitId);
+          return ReferencesWalkResult.single(numCommits, numContents + adder.added());
         }
       }
+
+      LOGGER.info(
+          "live-set#{}: Finished walking the commit log of {} using {} after {} commits, no more commits.",
+          addContents.id(),
+          namedReference,
+          cutoffPolicy,
+          numCommits);
+      if (lastCommitId != null) {
+        addCheckpoint(addContents, namedReference, cutoffPolicy, lastCommitId);
+      }
+      return ReferencesWalkResult.single(numCommits, numContents + adder.added());
     } catch (NessieNotFoundException e) {
       throw new RuntimeException(
           "GC-run#" + addContents.id() + ": Could not find reference " + namedReference, e);
     }
-    LOGGER.info(
-        "live-set#{}: Finished walking the commit log of {} using {} after {} commits, no more commits.",
-        addContents.id(),
-        namedReference,
-        cutoffPolicy,
-        numCommits);
-    return ReferencesWalkResult.single(numCommits, numContents);
+  }
+
+  /** Allows the next incremental identify run to carry forward the walked live commits. */
+  private static void addCheckpoint(
+      AddContents addContents,
+      Reference namedReference,
+      CutoffPolicy cutoffPolicy,
+      String lastLiveCommitId) {
+    addContents.addCheckpoint(
+        referenceCheckpoint(
+            namedReference.getName(),
+            namedReference.getHash(),
+            lastLiveCommitId,
+            cutoffPolicy.timestamp()));
   }
 
   private long collectAllKeys(AddContents addContents, Detached ref)
@@ -388,11 +532,77 @@ public abstract class IdentifyLiveContents {
     }
   }
 
-  private static final class LogEntryHolder {
-    LogResponse.LogEntry logEntry;
+  /**
+   * Adds the live contents of the commits of a single reference, either directly or, if a pipeline
+   * executor is available, asynchronously with up to {@link #parallelism()} concurrent additions.
+   */
+  private final class LiveContentAdder implements AutoCloseable {
+    private final AddContents addContents;
+    private final ExecutorService executor;
+    private final Semaphore inFlight;
+    private final LongAdder added = new LongAdder();
+    private final AtomicReference<Throwable> failure = new AtomicReference<>();
+
+    LiveContentAdder(
+        AddContents addContents, @Nullable @jakarta.annotation.Nullable ExecutorService executor) {
+      this.addContents = addContents;
+      this.executor = executor;
+      this.inFlight = new Semaphore(parallelism());
+    }
 
-    void set(LogResponse.LogEntry logEntry) {
-      this.logEntry = logEntry;
+    void add(Stream<ContentReference> contentReferences) {
+      if (executor == null) {
+        added.add(addContents.addLiveContent(contentReferences));
+        return;
+      }
+      checkFailure();
+      inFlight.acquireUninterruptibly();
+      try {
+        executor.execute(
+            () -> {
+              try {
+                added.add(addContents.addLiveContent(contentReferences));
+              } catch (Throwable e) {
+                failure.compareAndSet(null, e);
+              } finally {
+                inFlight.release();
+              }
+            });
+      } catch (RuntimeException e) {
+        inFlight.release();
+        throw e;
+      }
+    }
+
+    /** Waits for all pending additions and returns the number of added live contents. */
+    long added() {
+      awaitPending();
+      checkFailure();
+      return added.sum();
+    }
+
+    private void awaitPending() {
+      inFlight.acquireUninterruptibly(parallelism());
+      inFlight.release(parallelism());
+    }
+
+    private void checkFailure() {
+      Throwable e = failure.get();
+      if (e instanceof RuntimeException) {
+        throw (RuntimeException) e;
+      }
+      if (e instanceof Error) {
+        throw (Error) e;
+      }
+      if (e != null) {
+        // checked exception thrown sneakily
+        throw new RuntimeException(e);
+      }
+    }
+
+    @Override
+    public void close() {
+      awaitPending();
     }
   }
 
@@ -425,8 +635,26 @@ public abstract class IdentifyLiveContents {
     return DEFAULT_PARALLELISM;
   }
 
+  @Value.Default
+  int commitLogReadAhead() {
+    return DEFAULT_COMMIT_LOG_READ_AHEAD;
+  }
+
+  @Nullable
+  @jakarta.annotation.Nullable
+  abstract LiveContentSet previousLiveContentSet();
+
   @Value.Check
   void verify() {
     Preconditions.checkArgument(parallelism() >= 1, "Parallelism must be greater than 0");
+    Preconditions.checkArgument(
+        commitLogReadAhead() >= 0, "Commit log read-ahead must not be negative");
+    LiveContentSet previous = previousLiveContentSet();
+    Preconditions.checkArgument(
+        previous == null
+            || (previous.status() != LiveContentSet.Status.IDENTIFY_IN_PROGRESS
+                && previous.status() != LiveContentSet.Status.IDENTIFY_FAILED),
+        "Previous live content set must be the result of a successful identify run, but is %s",
+        previous != null ? previous.status() : null);
   }
 }
@@ -58,6 +58,12 @@ public final class NessieRepositoryConnector implements RepositoryConnector {
     return api.getCommitLog().reference(ref).fetch(FetchOption.ALL).stream();
   }
 
+  @Override
+  public Stream<LogResponse.LogEntry> commitLogMetadata(Reference ref)
+      throws NessieNotFoundException {
+    return api.getCommitLog().reference(ref).stream();
+  }
+
   @Override
   public Stream<Entry<ContentKey, Content>> allContents(Detached ref, Set<Content.Type> types) {
     return StreamSupport.stream(new BatchContentSplit(ref, types), false);
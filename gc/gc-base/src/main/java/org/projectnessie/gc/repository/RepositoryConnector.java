@@ -34,6 +34,16 @@ public interface RepositoryConnector extends AutoCloseable {
   /** Retrieve the commit log of a single reference returned via {@link #allReferences()}. */
   Stream<LogResponse.LogEntry> commitLog(Reference ref) throws NessieNotFoundException;
 
+  /**
+   * Retrieve the commit log of the given reference, the returned log entries only need to contain
+   * the {@link LogResponse.LogEntry#getCommitMeta() commit meta}. Defaults to {@link
+   * #commitLog(Reference)}.
+   */
+  default Stream<LogResponse.LogEntry> commitLogMetadata(Reference ref)
+      throws NessieNotFoundException {
+    return commitLog(ref);
+  }
+
   /**
    * Retrieves all remaining contents at the last live commit (the commit right before the first
    * non-live commit).
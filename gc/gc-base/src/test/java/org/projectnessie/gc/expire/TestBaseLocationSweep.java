@@ -0,0 +1,139 @@
+/*
+ * Copyright (C) 2023 Dremio
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.projectnessie.gc.expire;
+
+import static org.mockito.Mockito.mock;
+
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import org.assertj.core.api.SoftAssertions;
+import org.assertj.core.api.junit.jupiter.InjectSoftAssertions;
+import org.assertj.core.api.junit.jupiter.SoftAssertionsExtension;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.projectnessie.gc.contents.LiveContentSet;
+import org.projectnessie.gc.files.DeleteResult;
+import org.projectnessie.gc.files.DeleteSummary;
+import org.projectnessie.gc.files.FileDeleter;
+import org.projectnessie.gc.files.FileReference;
+import org.projectnessie.gc.files.FilesLister;
+import org.projectnessie.gc.files.local.LocalFiles;
+
+@ExtendWith(SoftAssertionsExtension.class)
+public class TestBaseLocationSweep {
+  @InjectSoftAssertions SoftAssertions soft;
+
+  @TempDir Path baseDir;
+
+  @ParameterizedTest
+  @CsvSource({"1,true", "4,true", "4,false"})
+  public void sweep(int parallelism, boolean listDirectory) throws Exception {
+    int deleteBatchSize = 7;
+    LocalFiles localFiles = new LocalFiles();
+    URI base = baseDir.toUri();
+
+    Set<URI> live = new HashSet<>();
+    Set<URI> expired = new HashSet<>();
+    List<String> dirs = new ArrayList<>();
+    dirs.add("");
+    dirs.add("metadata/");
+    for (int p = 0; p < 5; p++) {
+      dirs.add("data/p" + p + "/");
+      dirs.add("data/p" + p + "/sub/");
+    }
+    for (String dir : dirs) {
+      Files.createDirectories(baseDir.resolve(dir));
+      for (int i = 0; i < 10; i++) {
+        String file = dir + "file-" + i;
+        Files.createFile(baseDir.resolve(file));
+        (i % 3 == 0 ? live : expired).add(URI.create(file));
+      }
+    }
+
+    FilesLister lister =
+        listDirectory
+            ? localFiles
+            : path -> {
+              @SuppressWarnings("MustBeClosedChecker")
+              Stream<FileReference> files = localFiles.listRecursively(path);
+              return files;
+            };
+    List<Integer> batchSizes = Collections.synchronizedList(new ArrayList<>());
+    FileDeleter deleter =
+        new FileDeleter() {
+          @Override
+          public DeleteResult delete(FileReference fileReference) {
+            return localFiles.delete(fileReference);
+          }
+
+          @Override
+          public DeleteSummary deleteMultiple(URI baseUri, Stream<FileReference> fileObjects) {
+            List<FileReference> files = fileObjects.collect(Collectors.toList());
+            batchSizes.add(files.size());
+            return localFiles.deleteMultiple(baseUri, files.stream());
+          }
+        };
+
+    ExpireParameters expireParameters =
+        ExpireParameters.builder()
+            .filesLister(lister)
+            .fileDeleter(deleter)
+            .contentToFiles(c -> Stream.empty())
+            .liveContentSet(mock(LiveContentSet.class))
+            .maxFileModificationTime(Instant.now().plusSeconds(3600))
+            .listingParallelism(parallelism)
+            .deleteBatchSize(deleteBatchSize)
+            .build();
+
+    ExecutorService executor = Executors.newFixedThreadPool(parallelism);
+    try (LiveFileFilter<URI> liveFiles =
+        new LiveFileFilter<>(
+            (uri, sink) -> sink.putUnencodedChars(uri.toString()),
+            100,
+            0.00001d,
+            Long.MAX_VALUE,
+            baseDir)) {
+      live.forEach(liveFiles::put);
+
+      BaseLocationSweep sweep = new BaseLocationSweep(expireParameters, liveFiles, base, executor);
+      DeleteSummary summary = sweep.sweep();
+
+      soft.assertThat(summary).isEqualTo(DeleteSummary.of(expired.size(), 0));
+      soft.assertThat(sweep.totalFiles.sum()).isEqualTo(live.size() + expired.size());
+      soft.assertThat(sweep.liveFileCount.sum()).isEqualTo(live.size());
+      soft.assertThat(batchSizes).allMatch(s -> s <= deleteBatchSize);
+    } finally {
+      executor.shutdown();
+    }
+
+    try (Stream<FileReference> files = localFiles.listRecursively(base)) {
+      soft.assertThat(files.map(FileReference::path)).containsExactlyInAnyOrderElementsOf(live);
+    }
+  }
+}
@@ -0,0 +1,86 @@
+/*
+ * Copyright (C) 2023 Dremio
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.projectnessie.gc.expire;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import com.google.common.hash.Funnels;
+import java.nio.file.Path;
+import org.assertj.core.api.SoftAssertions;
+import org.assertj.core.api.junit.jupiter.InjectSoftAssertions;
+import org.assertj.core.api.junit.jupiter.SoftAssertionsExtension;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+
+@ExtendWith(SoftAssertionsExtension.class)
+public class TestLiveFileFilter {
+  @InjectSoftAssertions SoftAssertions soft;
+
+  @TempDir Path spillDir;
+
+  @Test
+  public void growsBeyondExpectedElements() throws Exception {
+    double fpp = 0.001d;
+    int numElements = 100_000;
+    try (LiveFileFilter<CharSequence> filter =
+        new LiveFileFilter<>(Funnels.stringFunnel(UTF_8), 1000, fpp, Long.MAX_VALUE, spillDir)) {
+      for (int i = 0; i < numElements; i++) {
+        filter.put("live-" + i);
+      }
+
+      soft.assertThat(filter.elementCount()).isEqualTo(numElements);
+      soft.assertThat(filter.filterCount()).isGreaterThan(1);
+      soft.assertThat(filter.spilledFilterCount()).isEqualTo(0);
+      soft.assertThat(filter.expectedFpp()).isLessThanOrEqualTo(fpp);
+
+      soft.assertThat(missing(filter, numElements)).isEqualTo(0);
+      int falsePositives = 0;
+      for (int i = 0; i < numElements; i++) {
+        if (filter.mightContain("expired-" + i)) {
+          falsePositives++;
+        }
+      }
+      soft.assertThat(falsePositives).isLessThanOrEqualTo((int) (numElements * fpp * 2));
+    }
+  }
+
+  @Test
+  public void spillToMemoryMappedFiles() throws Exception {
+    int numElements = 50_000;
+    try (LiveFileFilter<CharSequence> filter =
+        new LiveFileFilter<>(Funnels.stringFunnel(UTF_8), 1000, 0.0001d, 8192, spillDir)) {
+      for (int i = 0; i < numElements; i++) {
+        filter.put("live-" + i);
+      }
+
+      soft.assertThat(filter.spilledFilterCount()).isGreaterThan(0);
+      soft.assertThat(spillDir).isNotEmptyDirectory();
+      soft.assertThat(missing(filter, numElements)).isEqualTo(0);
+    }
+    soft.assertThat(spillDir).isEmptyDirectory();
+  }
+
+  private static int missing(LiveFileFilter<CharSequence> filter, int numElements) {
+    int missing = 0;
+    for (int i = 0; i < numElements; i++) {
+      if (!filter.mightContain("live-" + i)) {
+        missing++;
+      }
+    }
+    return missing;
+  }
+}
@@ -15,26 +15,46 @@
  */
 package org.projectnessie.gc.identify;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.projectnessie.gc.contents.ReferenceCheckpoint.referenceCheckpoint;
 import static org.projectnessie.jaxrs.ext.NessieJaxRsExtension.jaxRsExtension;
 
 import java.time.Instant;
+import java.util.AbstractMap.SimpleEntry;
+import java.util.HashSet;
+import java.util.Map.Entry;
 import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.junit.jupiter.api.extension.RegisterExtension;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
 import org.projectnessie.client.api.NessieApiV1;
 import org.projectnessie.client.ext.NessieClientFactory;
 import org.projectnessie.gc.contents.ContentReference;
+import org.projectnessie.gc.contents.LiveContentSet;
 import org.projectnessie.gc.contents.LiveContentSetsRepository;
 import org.projectnessie.gc.contents.inmem.InMemoryPersistenceSpi;
 import org.projectnessie.gc.repository.NessieRepositoryConnector;
 import org.projectnessie.gc.repository.RepositoryConnector;
 import org.projectnessie.jaxrs.ext.NessieJaxRsExtension;
+import org.projectnessie.model.Branch;
+import org.projectnessie.model.CommitMeta;
 import org.projectnessie.model.Content;
+import org.projectnessie.model.ContentKey;
+import org.projectnessie.model.Detached;
 import org.projectnessie.model.IcebergTable;
+import org.projectnessie.model.LogResponse.LogEntry;
+import org.projectnessie.model.Operation;
+import org.projectnessie.model.Reference;
 import org.projectnessie.versioned.storage.common.persist.Persist;
 import org.projectnessie.versioned.storage.inmemory.InmemoryBackendTestFactory;
 import org.projectnessie.versioned.storage.testextension.NessieBackend;
@@ -100,6 +120,312 @@ public class TestIdentifyLiveContents {
     }
   }
 
+  @ParameterizedTest
+  @ValueSource(ints = {0, 1, 10, 1000})
+  public void commitLogReadAhead(int readAhead) throws Exception {
+    int numCommits = 500;
+    RepositoryConnector connector = singleReferenceConnector(numCommits, -1);
+
+    LiveContentSetsRepository repository =
+        LiveContentSetsRepository.builder().persistenceSpi(new InMemoryPersistenceSpi()).build();
+    UUID id = identify(connector, repository, readAhead).identifyLiveContents();
+
+    LiveContentSet liveContentSet = repository.getLiveContentSet(id);
+    assertThat(liveContentSet.status()).isEqualTo(LiveContentSet.Status.IDENTIFY_SUCCESS);
+    assertThat(liveContentSet.fetchContentIds())
+        .containsExactlyInAnyOrderElementsOf(
+            IntStream.range(0, numCommits).mapToObj(i -> "cid-" + i).collect(Collectors.toList()));
+  }
+
+  @ParameterizedTest
+  @ValueSource(ints = {0, 10})
+  public void commitLogReadAheadFailure(int readAhead) {
+    RepositoryConnector connector = singleReferenceConnector(500, 123);
+
+    LiveContentSetsRepository repository =
+        LiveContentSetsRepository.builder().persistenceSpi(new InMemoryPersistenceSpi()).build();
+    IdentifyLiveContents identify = identify(connector, repository, readAhead);
+
+    assertThatThrownBy(identify::identifyLiveContents)
+        .isInstanceOf(RuntimeException.class)
+        .hasMessageContaining("commit log failure");
+  }
+
+  @Test
+  public void incremental() throws Exception {
+    AtomicInteger numCommits = new AtomicInteger(100);
+    // Commit log read-ahead is disabled, so the number of consumed log entries is deterministic
+    AtomicInteger walkedCommits = new AtomicInteger();
+    RepositoryConnector connector = growingReferenceConnector(numCommits, walkedCommits);
+    LiveContentSetsRepository repository =
+        LiveContentSetsRepository.builder().persistenceSpi(new InMemoryPersistenceSpi()).build();
+    Instant cutoff = Instant.EPOCH.minusSeconds(1);
+
+    // Full run
+    LiveContentSet full =
+        repository.getLiveContentSet(
+            identifyBuilder(connector, repository, 0)
+                .cutOffPolicySupplier(r -> CutoffPolicy.atTimestamp(cutoff))
+                .build()
+                .identifyLiveContents());
+    assertThat(walkedCommits).hasValue(100);
+    assertThat(full.fetchCheckpoints())
+        .containsExactly(referenceCheckpoint("main", commitId(99), commitId(0), cutoff));
+    assertThat(full.fetchContentIds()).hasSize(100);
+
+    // Incremental run walks only the new commits with their operations, up to the checkpoint
+    numCommits.set(110);
+    walkedCommits.set(0);
+    LiveContentSet incremental =
+        repository.getLiveContentSet(
+            identifyBuilder(connector, repository, 0)
+                .cutOffPolicySupplier(r -> CutoffPolicy.atTimestamp(cutoff))
+                .previousLiveContentSet(full)
+                .build()
+                .identifyLiveContents());
+    assertThat(incremental.status()).isEqualTo(LiveContentSet.Status.IDENTIFY_SUCCESS);
+    assertThat(walkedCommits).hasValue(11);
+    assertThat(incremental.fetchCheckpoints())
+        .containsExactly(referenceCheckpoint("main", commitId(109), commitId(0), cutoff));
+    assertThat(incremental.fetchContentIds())
+        .containsExactlyInAnyOrderElementsOf(
+            IntStream.range(0, 110).mapToObj(i -> "cid-" + i).collect(Collectors.toList()));
+
+    // Incremental run without new commits only walks the HEAD commit
+    walkedCommits.set(0);
+    LiveContentSet unchanged =
+        repository.getLiveContentSet(
+            identifyBuilder(connector, repository, 0)
+                .cutOffPolicySupplier(r -> CutoffPolicy.atTimestamp(cutoff))
+                .previousLiveContentSet(incremental)
+                .build()
+                .identifyLiveContents());
+    assertThat(walkedCommits).hasValue(1);
+    assertThat(contentReferences(unchanged)).isEqualTo(contentReferences(incremental));
+
+    // An older cut-off timestamp cannot use checkpoints of a newer cut-off timestamp
+    walkedCommits.set(0);
+    LiveContentSet older =
+        repository.getLiveContentSet(
+            identifyBuilder(connector, repository, 0)
+                .cutOffPolicySupplier(r -> CutoffPolicy.atTimestamp(cutoff.minusSeconds(1)))
+                .previousLiveContentSet(unchanged)
+                .build()
+                .identifyLiveContents());
+    assertThat(walkedCommits).hasValue(110);
+    assertThat(older.fetchContentIds()).hasSize(110);
+
+    // Moving the cut-off timestamp forward yields the same live contents as a full run, the
+    // contents visible at the new last live commit are attributed to that commit
+    Instant movedCutoff = Instant.EPOCH.plusSeconds(50);
+    LiveContentSet moved =
+        repository.getLiveContentSet(
+            identifyBuilder(connector, repository, 0)
+                .cutOffPolicySupplier(r -> CutoffPolicy.atTimestamp(movedCutoff))
+                .previousLiveContentSet(older)
+                .build()
+                .identifyLiveContents());
+    LiveContentSet movedFull =
+        repository.getLiveContentSet(
+            identifyBuilder(connector, repository, 0)
+                .cutOffPolicySupplier(r -> CutoffPolicy.atTimestamp(movedCutoff))
+                .build()
+                .identifyLiveContents());
+    assertThat(moved.fetchCheckpoints())
+        .containsExactly(referenceCheckpoint("main", commitId(109), commitId(50), movedCutoff));
+    assertThat(contentReferences(moved)).isEqualTo(contentReferences(movedFull));
+
+    // Checkpoints without a cut-off timestamp are recorded, but not used
+    LiveContentSet none =
+        repository.getLiveContentSet(identify(connector, repository, 0).identifyLiveContents());
+    assertThat(none.fetchCheckpoints())
+        .containsExactly(
+            referenceCheckpoint("main", commitId(109), commitId(0), CutoffPolicy.NO_TIMESTAMP));
+    walkedCommits.set(0);
+    repository.getLiveContentSet(
+        identifyBuilder(connector, repository, 0)
+            .previousLiveContentSet(none)
+            .build()
+            .identifyLiveContents());
+    assertThat(walkedCommits).hasValue(110);
+  }
+
+  @Test
+  public void incrementalFromFailedLiveContentSet() {
+    RepositoryConnector connector = singleReferenceConnector(10, 5);
+    LiveContentSetsRepository repository =
+        LiveContentSetsRepository.builder().persistenceSpi(new InMemoryPersistenceSpi()).build();
+    assertThatThrownBy(identify(connector, repository, 0)::identifyLiveContents)
+        .isInstanceOf(RuntimeException.class);
+
+    LiveContentSet failed;
+    try (Stream<LiveContentSet> all = repository.getAllLiveContents()) {
+      failed = all.findFirst().orElseThrow(IllegalStateException::new);
+    }
+    assertThatThrownBy(
+            () -> identifyBuilder(connector, repository, 0).previousLiveContentSet(failed).build())
+        .isInstanceOf(IllegalArgumentException.class)
+        .hasMessageContaining("must be the result of a successful identify run");
+  }
+
+  private static IdentifyLiveContents identify(
+      RepositoryConnector connector, LiveContentSetsRepository repository, int readAhead) {
+    return identifyBuilder(connector, repository, readAhead).build();
+  }
+
+  private static IdentifyLiveContents.Builder identifyBuilder(
+      RepositoryConnector connector, LiveContentSetsRepository repository, int readAhead) {
+    return IdentifyLiveContents.builder()
+        .contentTypeFilter(
+            new ContentTypeFilter() {
+              @Override
+              public boolean test(Content.Type type) {
+                return true;
+              }
+
+              @Override
+              public Set<Content.Type> validTypes() {
+                throw new UnsupportedOperationException();
+              }
+            })
+        .cutOffPolicySupplier(r -> CutoffPolicy.NONE)
+        .contentToContentReference(
+            (content, commitId, key) ->
+                ContentReference.icebergTable(
+                    content.getId(),
+                    commitId,
+                    key,
+                    ((IcebergTable) content).getMetadataLocation(),
+                    ((IcebergTable) content).getSnapshotId()))
+        .liveContentSetsRepository(repository)
+        .repositoryConnector(connector)
+        .commitLogReadAhead(readAhead);
+  }
+
+  /**
+   * Connector for a single branch with {@code numCommits} commits, each putting a new table, that
+   * fails at commit {@code failAt}.
+   */
+  private static RepositoryConnector singleReferenceConnector(int numCommits, int failAt) {
+    return new RepositoryConnector() {
+      @Override
+      public Stream<Reference> allReferences() {
+        return Stream.of(Branch.of("main", "cafebabe"));
+      }
+
+      @Override
+      public Stream<LogEntry> commitLog(Reference ref) {
+        return IntStream.range(0, numCommits)
+            .mapToObj(
+                i -> {
+                  if (i == failAt) {
+                    throw new IllegalStateException("commit log failure");
+                  }
+                  return LogEntry.builder()
+                      .commitMeta(
+                          CommitMeta.builder()
+                              .message("commit " + i)
+                              .hash(String.format("%08x", i))
+                              .commitTime(Instant.EPOCH.plusSeconds(numCommits - i))
+                              .build())
+                      .addOperations(
+                          Operation.Put.of(
+                              ContentKey.of("table-" + i),
+                              IcebergTable.of("meta-" + i, 42, 43, 44, 45, "cid-" + i)))
+                      .build();
+                });
+      }
+
+      @Override
+      public Stream<Entry<ContentKey, Content>> allContents(
+          Detached ref, Set<Content.Type> types) {
+        return Stream.empty();
+      }
+
+      @Override
+      public void close() {}
+    };
+  }
+
+  private static String commitId(int i) {
+    return String.format("%08x", i);
+  }
+
+  /** Returns the content IDs of the given live content set with the commit IDs they refer to. */
+  private static Set<String> contentReferences(LiveContentSet liveContentSet) {
+    Set<String> contentReferences = new HashSet<>();
+    try (Stream<String> contentIds = liveContentSet.fetchContentIds()) {
+      contentIds.forEach(
+          contentId -> {
+            try (Stream<ContentReference> refs = liveContentSet.fetchContentReferences(contentId)) {
+              refs.forEach(r -> contentReferences.add(r.contentId() + "@" + r.commitId()));
+            }
+          });
+    }
+    return contentReferences;
+  }
+
+  /**
+   * Connector for a single branch with {@code numCommits} commits, each putting a new table, counts
+   * the commit log entries with operations consumed by the identify run in {@code walkedCommits}.
+   */
+  private static RepositoryConnector growingReferenceConnector(
+      AtomicInteger numCommits, AtomicInteger walkedCommits) {
+    return new RepositoryConnector() {
+      @Override
+      public Stream<Reference> allReferences() {
+        return Stream.of(Branch.of("main", commitId(numCommits.get() - 1)));
+      }
+
+      @Override
+      public Stream<LogEntry> commitLog(Reference ref) {
+        return commits(ref)
+            .map(
+                i -> {
+                  walkedCommits.incrementAndGet();
+                  return LogEntry.builder()
+                      .from(logEntry(i))
+                      .addOperations(Operation.Put.of(ContentKey.of("table-" + i), table(i)))
+                      .build();
+                });
+      }
+
+      @Override
+      public Stream<LogEntry> commitLogMetadata(Reference ref) {
+        return commits(ref).map(this::logEntry);
+      }
+
+      @Override
+      public Stream<Entry<ContentKey, Content>> allContents(
+          Detached ref, Set<Content.Type> types) {
+        return commits(ref).map(i -> new SimpleEntry<>(ContentKey.of("table-" + i), table(i)));
+      }
+
+      private Stream<Integer> commits(Reference ref) {
+        int head = Integer.parseInt(ref.getHash(), 16);
+        return IntStream.rangeClosed(0, head).mapToObj(n -> head - n);
+      }
+
+      private LogEntry logEntry(int i) {
+        return LogEntry.builder()
+            .commitMeta(
+                CommitMeta.builder()
+                    .message("commit " + i)
+                    .hash(commitId(i))
+                    .commitTime(Instant.EPOCH.plusSeconds(i))
+                    .build())
+            .build();
+      }
+
+      private Content table(int i) {
+        return IcebergTable.of("meta-" + i, 42, 43, 44, 45, "cid-" + i);
+      }
+
+      @Override
+      public void close() {}
+    };
+  }
+
   @Test
   public void preventMultipleUsages() throws Exception {
     try (RepositoryConnector nessie = NessieRepositoryConnector.nessie(nessieApi)) {
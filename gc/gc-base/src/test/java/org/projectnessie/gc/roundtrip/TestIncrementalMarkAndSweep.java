@@ -0,0 +1,328 @@
+/*
+ * Copyright (C) 2023 Dremio
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.projectnessie.gc.roundtrip;
+
+import static java.util.Collections.singleton;
+import static org.projectnessie.model.Content.Type.ICEBERG_TABLE;
+
+import com.google.common.collect.AbstractIterator;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Streams;
+import java.net.URI;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+import org.assertj.core.api.SoftAssertions;
+import org.assertj.core.api.junit.jupiter.InjectSoftAssertions;
+import org.assertj.core.api.junit.jupiter.SoftAssertionsExtension;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.projectnessie.gc.contents.ContentReference;
+import org.projectnessie.gc.contents.LiveContentSet;
+import org.projectnessie.gc.contents.LiveContentSetsRepository;
+import org.projectnessie.gc.contents.inmem.InMemoryPersistenceSpi;
+import org.projectnessie.gc.expire.ExpireParameters;
+import org.projectnessie.gc.expire.local.DefaultLocalExpire;
+import org.projectnessie.gc.files.DeleteResult;
+import org.projectnessie.gc.files.FileReference;
+import org.projectnessie.gc.identify.ContentTypeFilter;
+import org.projectnessie.gc.identify.CutoffPolicy;
+import org.projectnessie.gc.identify.IdentifyLiveContents;
+import org.projectnessie.gc.repository.RepositoryConnector;
+import org.projectnessie.model.Branch;
+import org.projectnessie.model.CommitMeta;
+import org.projectnessie.model.Content;
+import org.projectnessie.model.ContentKey;
+import org.projectnessie.model.Detached;
+import org.projectnessie.model.IcebergTable;
+import org.projectnessie.model.LogResponse.LogEntry;
+import org.projectnessie.model.Operation;
+import org.projectnessie.model.Operation.Delete;
+import org.projectnessie.model.Operation.Put;
+import org.projectnessie.model.Reference;
+
+/**
+ * Verifies that an incremental identify run leads to the same deleted files as a full identify
+ * run, after a reference has been deleted and the cut-off timestamp has moved forward.
+ */
+@ExtendWith(SoftAssertionsExtension.class)
+public class TestIncrementalMarkAndSweep {
+
+  @InjectSoftAssertions protected SoftAssertions soft;
+
+  @Test
+  public void incrementalDeletesSameFilesAsFullRun() {
+    SimulatedRepository repo = new SimulatedRepository();
+
+    Put a1 = repo.put("a");
+    Put b1 = repo.put("b");
+    Put c1 = repo.put("c");
+    repo.commit("main", a1, b1, c1);
+    Put a2 = repo.put("a");
+    repo.commit("main", a2);
+    Put b3 = repo.put("b");
+    String m3 = repo.commit("main", b3);
+    repo.commit("main", Delete.of(ContentKey.of("c")));
+    Put a5 = repo.put("a");
+    String m5 = repo.commit("main", a5);
+    for (int i = 6; i <= 20; i++) {
+      repo.commit("main", repo.put(i % 2 == 0 ? "a" : "b"));
+    }
+    repo.branch("feature", "main");
+    Put featureA = repo.put("a");
+    repo.commit("feature", featureA);
+    Put featureC = repo.put("c");
+    repo.commit("feature", featureC);
+    repo.commit("feature", Delete.of(ContentKey.of("b")));
+    for (int i = 21; i <= 40; i++) {
+      repo.commit("main", repo.put(i == 30 ? "c" : i % 2 == 0 ? "a" : "b"));
+    }
+
+    LiveContentSetsRepository repository =
+        LiveContentSetsRepository.builder().persistenceSpi(new InMemoryPersistenceSpi()).build();
+
+    LiveContentSet previous = identify(repo, repository, repo.commitTime(m3), null);
+    soft.assertThat(previous.fetchCheckpoints()).hasSize(2);
+
+    // New commits, a deleted reference and a cut-off timestamp that moved forward
+    for (int i = 41; i <= 45; i++) {
+      if (i == 43) {
+        repo.commit("main", Delete.of(ContentKey.of("c")));
+      } else {
+        repo.commit("main", repo.put(i % 2 == 0 ? "a" : "b"));
+      }
+    }
+    repo.references.remove("feature");
+    Instant cutoff = repo.commitTime(m5);
+
+    repo.walkedCommits.set(0);
+    LiveContentSet full = identify(repo, repository, cutoff, null);
+    // 41 live commits plus the first non-live commit
+    soft.assertThat(repo.walkedCommits.getAndSet(0)).isEqualTo(42);
+
+    LiveContentSet incremental = identify(repo, repository, cutoff, previous);
+    // 5 new commits plus the previous HEAD, the new and the previous last live commit plus the
+    // commit in between
+    soft.assertThat(repo.walkedCommits.get()).isEqualTo(9);
+
+    Set<URI> deletedByFull = expire(repo, full);
+    Set<URI> deletedByIncremental = expire(repo, incremental);
+
+    soft.assertThat(deletedByIncremental).isEqualTo(deletedByFull);
+    // Snapshots only referenced by the deleted reference or by commits behind the new cut-off
+    soft.assertThat(deletedByFull)
+        .contains(
+            repo.metadataLocation(a1),
+            repo.metadataLocation(b1),
+            repo.metadataLocation(c1),
+            repo.metadataLocation(a2),
+            repo.metadataLocation(featureA),
+            repo.metadataLocation(featureC))
+        .doesNotContain(repo.metadataLocation(b3), repo.metadataLocation(a5));
+  }
+
+  private static LiveContentSet identify(
+      SimulatedRepository repo,
+      LiveContentSetsRepository repository,
+      Instant cutoff,
+      LiveContentSet previous) {
+    return repository.getLiveContentSet(
+        IdentifyLiveContents.builder()
+            .contentTypeFilter(
+                new ContentTypeFilter() {
+                  @Override
+                  public boolean test(Content.Type type) {
+                    return ICEBERG_TABLE == type;
+                  }
+
+                  @Override
+                  public Set<Content.Type> validTypes() {
+                    return singleton(ICEBERG_TABLE);
+                  }
+                })
+            .cutOffPolicySupplier(r -> CutoffPolicy.atTimestamp(cutoff))
+            .contentToContentReference(
+                (content, commitId, key) ->
+                    ContentReference.icebergTable(
+                        content.getId(),
+                        commitId,
+                        key,
+                        ((IcebergTable) content).getMetadataLocation(),
+                        ((IcebergTable) content).getSnapshotId()))
+            .liveContentSetsRepository(repository)
+            .repositoryConnector(repo)
+            .commitLogReadAhead(0)
+            .previousLiveContentSet(previous)
+            .build()
+            .identifyLiveContents());
+  }
+
+  private static Set<URI> expire(SimulatedRepository repo, LiveContentSet liveContentSet) {
+    Set<URI> deleted = ConcurrentHashMap.newKeySet();
+    DefaultLocalExpire.builder()
+        .expireParameters(
+            ExpireParameters.builder()
+                .liveContentSet(liveContentSet)
+                .filesLister(
+                    path ->
+                        repo.metadataFiles.getOrDefault(path, Collections.emptyList()).stream()
+                            .map(file -> FileReference.of(path.relativize(file), path, 123L)))
+                .fileDeleter(
+                    file -> {
+                      deleted.add(file.absolutePath());
+                      return DeleteResult.SUCCESS;
+                    })
+                .expectedFileCount(100)
+                .contentToFiles(
+                    contentReference -> {
+                      URI base = repo.baseLocation(contentReference.contentId());
+                      URI metadata = URI.create(contentReference.metadataLocation());
+                      return Stream.of(FileReference.of(base.relativize(metadata), base, -1L));
+                    })
+                .maxFileModificationTime(Instant.now())
+                .build())
+        .build()
+        .expire();
+    return deleted;
+  }
+
+  /**
+   * A repository with branches, each commit has a single parent. Every {@link #put(String) put}
+   * writes a new metadata file for the content ID of the table.
+   */
+  static final class SimulatedRepository implements RepositoryConnector {
+    final URI basePath = URI.create("meep://host-and-port/data/lake/");
+    final Map<String, LogEntry> commits = new HashMap<>();
+    final Map<String, String> references = new LinkedHashMap<>();
+    final Map<URI, List<URI>> metadataFiles = new HashMap<>();
+    /** Number of consumed commit log entries with operations. */
+    final AtomicInteger walkedCommits = new AtomicInteger();
+    int clock;
+    int snapshot;
+
+    URI baseLocation(String contentId) {
+      return basePath.resolve(contentId + "/");
+    }
+
+    Put put(String table) {
+      String contentId = "cid-" + table;
+      URI metadata = baseLocation(contentId).resolve("metadata-" + ++snapshot + ".json");
+      metadataFiles.computeIfAbsent(baseLocation(contentId), x -> new ArrayList<>()).add(metadata);
+      return Put.of(
+          ContentKey.of(table), IcebergTable.of(metadata.toString(), snapshot, 1, 2, 3, contentId));
+    }
+
+    URI metadataLocation(Put put) {
+      return URI.create(((IcebergTable) put.getContent()).getMetadataLocation());
+    }
+
+    String commit(String reference, Operation... operations) {
+      String hash = String.format("%08x", ++clock);
+      commits.put(
+          hash,
+          LogEntry.builder()
+              .commitMeta(
+                  CommitMeta.builder()
+                      .commitTime(Instant.EPOCH.plusSeconds(clock))
+                      .hash(hash)
+                      .message("commit " + clock)
+                      .build())
+              .parentCommitHash(references.get(reference))
+              .addOperations(operations)
+              .build());
+      references.put(reference, hash);
+      return hash;
+    }
+
+    void branch(String reference, String from) {
+      references.put(reference, references.get(from));
+    }
+
+    Instant commitTime(String hash) {
+      return commits.get(hash).getCommitMeta().getCommitTime();
+    }
+
+    @Override
+    public Stream<Reference> allReferences() {
+      return references.entrySet().stream().map(e -> Branch.of(e.getKey(), e.getValue()));
+    }
+
+    @Override
+    public Stream<LogEntry> commitLog(Reference ref) {
+      return log(ref.getHash()).peek(e -> walkedCommits.incrementAndGet());
+    }
+
+    @Override
+    public Stream<LogEntry> commitLogMetadata(Reference ref) {
+      return log(ref.getHash())
+          .map(
+              e ->
+                  LogEntry.builder()
+                      .commitMeta(e.getCommitMeta())
+                      .parentCommitHash(e.getParentCommitHash())
+                      .build());
+    }
+
+    @Override
+    public Stream<Map.Entry<ContentKey, Content>> allContents(
+        Detached ref, Set<Content.Type> types) {
+      List<LogEntry> log = new ArrayList<>();
+      log(ref.getHash()).forEach(log::add);
+      Collections.reverse(log);
+      Map<ContentKey, Content> contents = new LinkedHashMap<>();
+      for (LogEntry logEntry : log) {
+        for (Operation operation : logEntry.getOperations()) {
+          if (operation instanceof Put) {
+            contents.put(operation.getKey(), ((Put) operation).getContent());
+          } else {
+            contents.remove(operation.getKey());
+          }
+        }
+      }
+      return contents.entrySet().stream()
+          .filter(e -> types.contains(e.getValue().getType()))
+          .map(e -> Maps.immutableEntry(e.getKey(), e.getValue()));
+    }
+
+    private Stream<LogEntry> log(String hash) {
+      return Streams.stream(
+          new AbstractIterator<LogEntry>() {
+            private String next = hash;
+
+            @Override
+            protected LogEntry computeNext() {
+              if (next == null) {
+                return endOfData();
+              }
+              LogEntry logEntry = commits.get(next);
+              next = logEntry.getParentCommitHash();
+              return logEntry;
+            }
+          });
+    }
+
+    @Override
+    public void close() {}
+  }
+}
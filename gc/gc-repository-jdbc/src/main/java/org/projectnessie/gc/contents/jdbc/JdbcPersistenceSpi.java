@@ -16,22 +16,28 @@
 package org.projectnessie.gc.contents.jdbc;
 
 import static org.projectnessie.gc.contents.jdbc.JdbcHelper.isIntegrityConstraintViolation;
-import static org.projectnessie.gc.contents.jdbc.SqlDmlDdl.ADD_CONTENT;
+import static org.projectnessie.gc.contents.jdbc.SqlDmlDdl.DELETE_CHECKPOINTS;
 import static org.projectnessie.gc.contents.jdbc.SqlDmlDdl.DELETE_FILE_DELETIONS;
 import static org.projectnessie.gc.contents.jdbc.SqlDmlDdl.DELETE_LIVE_CONTENTS;
 import static org.projectnessie.gc.contents.jdbc.SqlDmlDdl.DELETE_LIVE_CONTENT_SET;
 import static org.projectnessie.gc.contents.jdbc.SqlDmlDdl.DELETE_LIVE_SET_LOCATIONS;
 import static org.projectnessie.gc.contents.jdbc.SqlDmlDdl.ERROR_LENGTH;
+import static org.projectnessie.gc.contents.jdbc.SqlDmlDdl.FILE_DELETIONS_COLUMNS;
+import static org.projectnessie.gc.contents.jdbc.SqlDmlDdl.FILE_DELETIONS_TABLE;
 import static org.projectnessie.gc.contents.jdbc.SqlDmlDdl.FINISH_EXPIRE;
 import static org.projectnessie.gc.contents.jdbc.SqlDmlDdl.FINISH_IDENTIFY;
+import static org.projectnessie.gc.contents.jdbc.SqlDmlDdl.INSERT_CHECKPOINT;
 import static org.projectnessie.gc.contents.jdbc.SqlDmlDdl.INSERT_CONTENT_LOCATION;
-import static org.projectnessie.gc.contents.jdbc.SqlDmlDdl.INSERT_FILE_DELETIONS;
+import static org.projectnessie.gc.contents.jdbc.SqlDmlDdl.LIVE_SET_CONTENTS_COLUMNS;
+import static org.projectnessie.gc.contents.jdbc.SqlDmlDdl.LIVE_SET_CONTENTS_TABLE;
 import static org.projectnessie.gc.contents.jdbc.SqlDmlDdl.SELECT_ALL_LIVE_CONTENT_SETS;
+import static org.projectnessie.gc.contents.jdbc.SqlDmlDdl.SELECT_CHECKPOINTS;
 import static org.projectnessie.gc.contents.jdbc.SqlDmlDdl.SELECT_CONTENT_COUNT;
 import static org.projectnessie.gc.contents.jdbc.SqlDmlDdl.SELECT_CONTENT_IDS;
 import static org.projectnessie.gc.contents.jdbc.SqlDmlDdl.SELECT_CONTENT_LOCATION;
 import static org.projectnessie.gc.contents.jdbc.SqlDmlDdl.SELECT_CONTENT_LOCATION_ALL;
 import static org.projectnessie.gc.contents.jdbc.SqlDmlDdl.SELECT_CONTENT_REFERENCES;
+import static org.projectnessie.gc.contents.jdbc.SqlDmlDdl.SELECT_CONTENT_REFERENCES_FOR_COMMIT;
 import static org.projectnessie.gc.contents.jdbc.SqlDmlDdl.SELECT_FILE_DELETIONS;
 import static org.projectnessie.gc.contents.jdbc.SqlDmlDdl.SELECT_LIVE_CONTENT_SET;
 import static org.projectnessie.gc.contents.jdbc.SqlDmlDdl.START_EXPIRE;
@@ -63,6 +69,7 @@ import org.intellij.lang.annotations.Language;
 import org.projectnessie.gc.contents.ContentReference;
 import org.projectnessie.gc.contents.LiveContentSet;
 import org.projectnessie.gc.contents.LiveContentSetNotFoundException;
+import org.projectnessie.gc.contents.ReferenceCheckpoint;
 import org.projectnessie.gc.contents.jdbc.JdbcHelper.FromRow;
 import org.projectnessie.gc.contents.jdbc.JdbcHelper.Prepare;
 import org.projectnessie.gc.contents.jdbc.JdbcHelper.ResultSetSplit;
@@ -80,13 +87,46 @@ public abstract class JdbcPersistenceSpi implements PersistenceSpi {
     return ImmutableJdbcPersistenceSpi.builder();
   }
 
+  public static final int DEFAULT_BATCH_SIZE = 100;
+
+  /** How rows are inserted into the live-content-set and file-deletion tables. */
+  public enum InsertMode {
+    /**
+     * One single-row {@code INSERT} per row, sent to the database using JDBC batches. Returned row
+     * counts include ignored duplicate rows, if the JDBC driver does not report update counts for
+     * batched statements.
+     */
+    BATCH,
+    /**
+     * One {@code INSERT} statement with multiple {@code VALUES} per batch of rows. The number of
+     * rows per statement is limited to 65535 bind parameters, as supported by PostgreSQL.
+     */
+    MULTI_ROW,
+    /**
+     * PostgreSQL {@code COPY} into a temporary table, falls back to {@link #BATCH} for other
+     * databases.
+     */
+    COPY
+  }
+
   @SuppressWarnings({"UnusedReturnValue", "unused"})
   public interface Builder {
     Builder dataSource(DataSource dataSource);
 
+    /** Number of rows sent to the database at once, defaults to {@value #DEFAULT_BATCH_SIZE}. */
+    Builder batchSize(int batchSize);
+
+    /** How rows are inserted, defaults to {@link InsertMode#BATCH}. */
+    Builder insertMode(InsertMode insertMode);
+
     JdbcPersistenceSpi build();
   }
 
+  @Value.Check
+  protected void verify() {
+    Preconditions.checkArgument(batchSize() > 0, "batchSize must be positive");
+  }
+
   @Override
   public void startIdentifyLiveContents(UUID liveSetId, Instant created) {
     singleStatement(
@@ -208,42 +248,82 @@ public abstract class JdbcPersistenceSpi implements PersistenceSpi {
 
   @Override
   public long addIdentifiedLiveContent(UUID liveSetId, Stream<ContentReference> contentReference) {
-    return singleStatement(
-        ADD_CONTENT,
+    String id = liveSetId.toString();
+    return insertRows(
+        LIVE_SET_CONTENTS_TABLE,
+        LIVE_SET_CONTENTS_COLUMNS,
+        contentReference.map(ref -> contentReferenceRow(id, ref)).iterator());
+  }
+
+  @Override
+  public void addCheckpoint(UUID liveSetId, ReferenceCheckpoint checkpoint) {
+    singleStatement(
+        INSERT_CHECKPOINT,
         (conn, stmt) -> {
           stmt.setString(1, liveSetId.toString());
-          long count = 0L;
-          for (Iterator<ContentReference> iter = contentReference.iterator(); iter.hasNext(); ) {
-            ContentReference ref = iter.next();
-            stmt.setString(2, ref.contentId());
-            stmt.setString(3, ref.commitId());
-            stmt.setString(4, ref.contentKey().toPathString());
-            stmt.setString(5, ref.contentType().name());
-            if (ref.contentType().equals(Content.Type.ICEBERG_TABLE)) {
-              stmt.setString(
-                  6,
-                  Objects.requireNonNull(
-                      ref.metadataLocation(),
-                      "Illegal null metadataLocation in ContentReference for ICEBERG_TABLE"));
-              stmt.setLong(
-                  7,
-                  Objects.requireNonNull(
-                      ref.snapshotId(),
-                      "Illegal null snapshotId in ContentReference for ICEBERG_TABLE"));
-            } else {
-              throw new UnsupportedOperationException(
-                  "Unsupported content type " + ref.contentType());
-            }
-            // TODO add batch updates
-            if (stmt.executeUpdate() != 0) {
-              count++;
-            }
+          stmt.setString(2, checkpoint.referenceName());
+          stmt.setString(3, checkpoint.headCommitId());
+          stmt.setString(4, checkpoint.lastLiveCommitId());
+          if (checkpoint.cutoffTimestamp().equals(Instant.MAX)) {
+            // Walked without a cut-off timestamp
+            stmt.setNull(5, Types.TIMESTAMP);
+          } else {
+            stmt.setTimestamp(5, Timestamp.from(checkpoint.cutoffTimestamp()));
           }
-          return count;
+          stmt.executeUpdate();
+          return null;
         },
         true);
   }
 
+  @Override
+  @MustBeClosed
+  public Stream<ReferenceCheckpoint> fetchCheckpoints(UUID liveSetId) {
+    return streamingResult(
+        SELECT_CHECKPOINTS,
+        stmt -> stmt.setString(1, liveSetId.toString()),
+        rs -> {
+          Timestamp cutoffTimestamp = rs.getTimestamp(4);
+          return ReferenceCheckpoint.referenceCheckpoint(
+              rs.getString(1),
+              rs.getString(2),
+              rs.getString(3),
+              cutoffTimestamp != null ? cutoffTimestamp.toInstant() : Instant.MAX);
+        });
+  }
+
+  @Override
+  @MustBeClosed
+  public Stream<ContentReference> fetchContentReferencesForCommit(
+      UUID liveSetId, String commitId) {
+    return streamingResult(
+        SELECT_CONTENT_REFERENCES_FOR_COMMIT,
+        stmt -> {
+          stmt.setString(1, liveSetId.toString());
+          stmt.setString(2, commitId);
+        },
+        JdbcPersistenceSpi::contentReference);
+  }
+
+  private static Object[] contentReferenceRow(String liveSetId, ContentReference ref) {
+    if (ref.contentType().equals(Content.Type.ICEBERG_TABLE)) {
+      return new Object[] {
+        liveSetId,
+        ref.contentId(),
+        ref.commitId(),
+        ref.contentKey().toPathString(),
+        ref.contentType().name(),
+        Objects.requireNonNull(
+            ref.metadataLocation(),
+            "Illegal null metadataLocation in ContentReference for ICEBERG_TABLE"),
+        Objects.requireNonNull(
+            ref.snapshotId(), "Illegal null snapshotId in ContentReference for ICEBERG_TABLE")
+      };
+    } else {
+      throw new UnsupportedOperationException("Unsupported content type " + ref.contentType());
+    }
+  }
+
   @Override
   @MustBeClosed
   public Stream<ContentReference> fetchContentReferences(UUID liveSetId, String contentId) {
@@ -305,6 +385,10 @@ public abstract class JdbcPersistenceSpi implements PersistenceSpi {
             stmt2.setString(1, liveSetId.toString());
             stmt2.executeUpdate();
           }
+          try (PreparedStatement stmt2 = conn.prepareStatement(DELETE_CHECKPOINTS)) {
+            stmt2.setString(1, liveSetId.toString());
+            stmt2.executeUpdate();
+          }
           try (PreparedStatement stmt2 = conn.prepareStatement(DELETE_LIVE_CONTENTS)) {
             stmt2.setString(1, liveSetId.toString());
             stmt2.executeUpdate();
@@ -357,23 +441,17 @@ public abstract class JdbcPersistenceSpi implements PersistenceSpi {
 
   @Override
   public long addFileDeletions(UUID liveSetId, Stream<FileReference> files) {
-    return singleStatement(
-        INSERT_FILE_DELETIONS,
-        (conn, stmt) -> {
-          long count = 0L;
-          for (Iterator<FileReference> iter = files.iterator(); iter.hasNext(); ) {
-            FileReference f = iter.next();
-            stmt.setString(1, liveSetId.toString());
-            stmt.setString(2, f.base().toString());
-            stmt.setString(3, f.path().toString());
-            stmt.setLong(4, f.modificationTimeMillisEpoch());
-            if (stmt.executeUpdate() != 0) {
-              count++;
-            }
-          }
-          return count;
-        },
-        true);
+    String id = liveSetId.toString();
+    return insertRows(
+        FILE_DELETIONS_TABLE,
+        FILE_DELETIONS_COLUMNS,
+        files
+            .map(
+                f ->
+                    new Object[] {
+                      id, f.base().toString(), f.path().toString(), f.modificationTimeMillisEpoch()
+                    })
+            .iterator());
   }
 
   @Override
@@ -448,6 +526,25 @@ public abstract class JdbcPersistenceSpi implements PersistenceSpi {
     }
   }
 
+  private long insertRows(String table, List<String> columns, Iterator<Object[]> rows) {
+    RowInserter inserter = new RowInserter(table, columns, insertMode(), batchSize());
+    try (Connection conn = connection()) {
+      boolean failed = true;
+      try {
+        long count = inserter.insert(conn, rows);
+        conn.commit();
+        failed = false;
+        return count;
+      } finally {
+        if (failed) {
+          conn.rollback();
+        }
+      }
+    } catch (SQLException e) {
+      throw new RuntimeException(e);
+    }
+  }
+
   <R> Stream<R> streamingResult(@Language("SQL") String sql, Prepare prepare, FromRow<R> fromRow) {
     List<AutoCloseable> closeables = new ArrayList<>();
 
@@ -468,4 +565,14 @@ public abstract class JdbcPersistenceSpi implements PersistenceSpi {
   }
 
   abstract DataSource dataSource();
+
+  @Value.Default
+  int batchSize() {
+    return DEFAULT_BATCH_SIZE;
+  }
+
+  @Value.Default
+  InsertMode insertMode() {
+    return InsertMode.BATCH;
+  }
 }
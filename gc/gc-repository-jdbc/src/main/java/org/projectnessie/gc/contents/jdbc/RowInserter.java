@@ -0,0 +1,227 @@
+/*
+ * Copyright (C) 2023 Dremio
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.projectnessie.gc.contents.jdbc;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.projectnessie.gc.contents.jdbc.SqlDmlDdl.copyFromStdin;
+import static org.projectnessie.gc.contents.jdbc.SqlDmlDdl.createCopyTable;
+import static org.projectnessie.gc.contents.jdbc.SqlDmlDdl.insertFromCopyTable;
+import static org.projectnessie.gc.contents.jdbc.SqlDmlDdl.insertRows;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Iterator;
+import java.util.List;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyIn;
+import org.projectnessie.gc.contents.jdbc.JdbcPersistenceSpi.InsertMode;
+
+/**
+ * Inserts rows into one of the tables, ignoring rows that already exist, using the configured
+ * {@link InsertMode}.
+ *
+ * <p>Rows are given as arrays of column values, either {@link String}s or {@link Long}s.
+ */
+final class RowInserter {
+  /**
+   * Maximum number of bind parameters per statement supported by PostgreSQL (the number is sent as
+   * a 16 bit unsigned integer in the wire protocol), also a safe limit for other databases.
+   */
+  static final int MAX_BIND_PARAMETERS = 65535;
+
+  private final String table;
+  private final List<String> columns;
+  private final InsertMode insertMode;
+  private final int batchSize;
+
+  RowInserter(String table, List<String> columns, InsertMode insertMode, int batchSize) {
+    this.table = table;
+    this.columns = columns;
+    this.insertMode = insertMode;
+    this.batchSize = batchSize;
+  }
+
+  /**
+   * Inserts the given rows, returns the number of inserted rows, not counting ignored rows.
+   *
+   * <p>For {@link InsertMode#BATCH}, JDBC drivers may report {@link Statement#SUCCESS_NO_INFO}
+   * instead of the actual update count of a batched statement. Such statements are counted as
+   * inserted rows, so the returned number can include ignored rows in that case.
+   */
+  long insert(Connection conn, Iterator<Object[]> rows) throws SQLException {
+    switch (insertMode) {
+      case COPY:
+        if (conn.isWrapperFor(PGConnection.class)) {
+          return copy(conn, rows);
+        }
+        return batch(conn, rows);
+      case MULTI_ROW:
+        return multiRow(conn, rows);
+      case BATCH:
+        return batch(conn, rows);
+      default:
+        throw new IllegalStateException("Unknown insert mode " + insertMode);
+    }
+  }
+
+  private long batch(Connection conn, Iterator<Object[]> rows) throws SQLException {
+    long count = 0L;
+    try (PreparedStatement stmt = conn.prepareStatement(insertRows(table, columns, 1))) {
+      int inBatch = 0;
+      while (rows.hasNext()) {
+        bind(stmt, 0, rows.next());
+        stmt.addBatch();
+        if (++inBatch == batchSize) {
+          count += updateCount(stmt.executeBatch());
+          inBatch = 0;
+        }
+      }
+      if (inBatch > 0) {
+        count += updateCount(stmt.executeBatch());
+      }
+    }
+    return count;
+  }
+
+  private static long updateCount(int[] updateCounts) {
+    long count = 0L;
+    for (int updateCount : updateCounts) {
+      // Statement.SUCCESS_NO_INFO is counted as an inserted row, see insert()
+      if (updateCount != 0) {
+        count++;
+      }
+    }
+    return count;
+  }
+
+  private long multiRow(Connection conn, Iterator<Object[]> rows) throws SQLException {
+    int rowsPerStatement = rowsPerStatement(batchSize, columns.size());
+    long count = 0L;
+    Object[][] chunk = new Object[rowsPerStatement][];
+    try (PreparedStatement fullChunk =
+        conn.prepareStatement(insertRows(table, columns, rowsPerStatement))) {
+      while (rows.hasNext()) {
+        int n = 0;
+        while (n < rowsPerStatement && rows.hasNext()) {
+          chunk[n++] = rows.next();
+        }
+        if (n == rowsPerStatement) {
+          count += insertChunk(fullChunk, chunk, n);
+        } else {
+          try (PreparedStatement lastChunk =
+              conn.prepareStatement(insertRows(table, columns, n))) {
+            count += insertChunk(lastChunk, chunk, n);
+          }
+        }
+      }
+    }
+    return count;
+  }
+
+  /**
+   * Number of rows per multi-row {@code INSERT} statement, the batch size clamped so that the
+   * statement does not exceed {@link #MAX_BIND_PARAMETERS}.
+   */
+  static int rowsPerStatement(int batchSize, int columnCount) {
+    return Math.max(1, Math.min(batchSize, MAX_BIND_PARAMETERS / columnCount));
+  }
+
+  private int insertChunk(PreparedStatement stmt, Object[][] chunk, int n) throws SQLException {
+    for (int i = 0; i < n; i++) {
+      bind(stmt, i * columns.size(), chunk[i]);
+    }
+    return stmt.executeUpdate();
+  }
+
+  /**
+   * PostgreSQL fast path: {@code COPY} the rows into a temporary table, which does not support
+   * ignoring existing rows, then move the rows into the target table using {@code INSERT ...
+   * SELECT ... ON CONFLICT DO NOTHING}.
+   */
+  private long copy(Connection conn, Iterator<Object[]> rows) throws SQLException {
+    try (Statement st = conn.createStatement()) {
+      st.execute(createCopyTable(table));
+    }
+
+    CopyIn copyIn =
+        conn.unwrap(PGConnection.class).getCopyAPI().copyIn(copyFromStdin(table, columns));
+    try {
+      StringBuilder line = new StringBuilder();
+      while (rows.hasNext()) {
+        line.setLength(0);
+        Object[] row = rows.next();
+        for (int i = 0; i < row.length; i++) {
+          if (i > 0) {
+            line.append('\t');
+          }
+          appendCopyValue(line, row[i]);
+        }
+        byte[] bytes = line.append('\n').toString().getBytes(UTF_8);
+        copyIn.writeToCopy(bytes, 0, bytes.length);
+      }
+      copyIn.endCopy();
+    } finally {
+      if (copyIn.isActive()) {
+        copyIn.cancelCopy();
+      }
+    }
+
+    try (Statement st = conn.createStatement()) {
+      return st.executeUpdate(insertFromCopyTable(table, columns));
+    }
+  }
+
+  private static void appendCopyValue(StringBuilder line, Object value) {
+    if (value == null) {
+      line.append("\\N");
+      return;
+    }
+    String s = value.toString();
+    for (int i = 0; i < s.length(); i++) {
+      char c = s.charAt(i);
+      switch (c) {
+        case '\\':
+          line.append("\\\\");
+          break;
+        case '\t':
+          line.append("\\t");
+          break;
+        case '\n':
+          line.append("\\n");
+          break;
+        case '\r':
+          line.append("\\r");
+          break;
+        default:
+          line.append(c);
+          break;
+      }
+    }
+  }
+
+  private static void bind(PreparedStatement stmt, int offset, Object[] row) throws SQLException {
+    for (int i = 0; i < row.length; i++) {
+      Object value = row[i];
+      if (value instanceof Long) {
+        stmt.setLong(offset + i + 1, (Long) value);
+      } else {
+        stmt.setString(offset + i + 1, (String) value);
+      }
+    }
+  }
+}
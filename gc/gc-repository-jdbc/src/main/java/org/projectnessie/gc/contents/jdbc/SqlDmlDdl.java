@@ -15,6 +15,8 @@
  */
 package org.projectnessie.gc.contents.jdbc;
 
+import static java.util.stream.Collectors.joining;
+
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
@@ -70,10 +72,25 @@ final class SqlDmlDdl {
           + "    PRIMARY KEY (live_set_id, base_uri, path_uri))";
 
   @Language("SQL")
-  static final String INSERT_FILE_DELETIONS =
-      "INSERT INTO gc_file_deletions \n"
-          + "    (live_set_id, base_uri, path_uri, modification_timestamp) VALUES (?, ?, ?, ?) \n"
-          + "    ON CONFLICT DO NOTHING";
+  static final String CREATE_LIVE_SET_CHECKPOINTS =
+      "CREATE TABLE gc_live_set_checkpoints (\n"
+          + "    live_set_id VARCHAR(40), \n"
+          + "    ref_name VARCHAR(500), \n"
+          + "    head_commit_id VARCHAR(100), \n"
+          + "    last_live_commit_id VARCHAR(100), \n"
+          + "    cutoff_timestamp TIMESTAMP, \n"
+          + "    PRIMARY KEY (live_set_id, ref_name))";
+
+  @Language("SQL")
+  static final String CREATE_LIVE_SET_CONTENTS_COMMIT_INDEX =
+      "CREATE INDEX gc_live_set_contents_commits \n"
+          + "    ON gc_live_set_contents (live_set_id, commit_id)";
+
+  static final String FILE_DELETIONS_TABLE = "gc_file_deletions";
+
+  static final List<String> FILE_DELETIONS_COLUMNS =
+      Collections.unmodifiableList(
+          Arrays.asList("live_set_id", "base_uri", "path_uri", "modification_timestamp"));
 
   @Language("SQL")
   static final String SELECT_FILE_DELETIONS =
@@ -156,26 +173,57 @@ final class SqlDmlDdl {
           + "    SET expire_finished = ?, set_status = ?, error_message = ? \n"
           + "    WHERE live_set_id = ? AND set_status = ?";
 
+  static final String LIVE_SET_CONTENTS_TABLE = "gc_live_set_contents";
+
+  static final List<String> LIVE_SET_CONTENTS_COLUMNS =
+      Collections.unmodifiableList(
+          Arrays.asList(
+              "live_set_id",
+              "content_id",
+              "commit_id",
+              "content_key",
+              "content_type",
+              "metadata_location",
+              "snapshot_id"));
+
   @Language("SQL")
-  static final String ADD_CONTENT =
-      "INSERT INTO gc_live_set_contents \n"
-          + "    (live_set_id, content_id, commit_id, content_key, content_type, metadata_location, snapshot_id) \n"
-          + "    VALUES (?, ?, ?, ?, ?, ?, ?) \n"
+  static final String INSERT_CHECKPOINT =
+      "INSERT INTO gc_live_set_checkpoints \n"
+          + "    (live_set_id, ref_name, head_commit_id, last_live_commit_id, cutoff_timestamp) \n"
+          + "    VALUES (?, ?, ?, ?, ?) \n"
           + "    ON CONFLICT DO NOTHING";
 
+  @Language("SQL")
+  static final String SELECT_CHECKPOINTS =
+      "SELECT ref_name, head_commit_id, last_live_commit_id, cutoff_timestamp \n"
+          + "    FROM gc_live_set_checkpoints \n"
+          + "    WHERE live_set_id = ?";
+
+  @Language("SQL")
+  static final String DELETE_CHECKPOINTS =
+      "DELETE FROM gc_live_set_checkpoints WHERE live_set_id = ?";
+
   @Language("SQL")
   static final String SELECT_CONTENT_REFERENCES =
       "SELECT content_id, commit_id, content_key, content_type, metadata_location, snapshot_id \n"
           + "    FROM gc_live_set_contents \n"
           + "    WHERE live_set_id = ? AND content_id = ?";
 
+  @Language("SQL")
+  static final String SELECT_CONTENT_REFERENCES_FOR_COMMIT =
+      "SELECT content_id, commit_id, content_key, content_type, metadata_location, snapshot_id \n"
+          + "    FROM gc_live_set_contents \n"
+          + "    WHERE live_set_id = ? AND commit_id = ?";
+
   static final List<String> ALL_CREATES =
       Collections.unmodifiableList(
           Arrays.asList(
               CREATE_LIVE_SETS,
               CREATE_LIVE_SET_CONTENTS,
               CREATE_LIVE_SET_LOCATIONS,
-              CREATE_FILE_DELETIONS));
+              CREATE_FILE_DELETIONS,
+              CREATE_LIVE_SET_CHECKPOINTS,
+              CREATE_LIVE_SET_CONTENTS_COMMIT_INDEX));
 
   static final List<String> ALL_TABLE_NAMES =
       Collections.unmodifiableList(
@@ -183,5 +231,60 @@ final class SqlDmlDdl {
               "gc_live_set_content_locations",
               "gc_live_set_contents",
               "gc_live_sets",
-              "gc_file_deletions"));
+              "gc_file_deletions",
+              "gc_live_set_checkpoints"));
+
+  /** {@code INSERT} statement for {@code rows} rows, ignoring rows that already exist. */
+  @Language("SQL")
+  static String insertRows(String table, List<String> columns, int rows) {
+    String values = columns.stream().map(c -> "?").collect(joining(", ", "(", ")"));
+    return "INSERT INTO "
+        + table
+        + " \n"
+        + "    ("
+        + String.join(", ", columns)
+        + ") \n"
+        + "    VALUES "
+        + String.join(", ", Collections.nCopies(rows, values))
+        + " \n"
+        + "    ON CONFLICT DO NOTHING";
+  }
+
+  /** Name of the temporary table used to {@code COPY} rows into {@code table}. */
+  static String copyTable(String table) {
+    return table + "_copy";
+  }
+
+  @Language("PostgreSQL")
+  static String createCopyTable(String table) {
+    return "CREATE TEMPORARY TABLE IF NOT EXISTS "
+        + copyTable(table)
+        + " \n"
+        + "    (LIKE "
+        + table
+        + ") \n"
+        + "    ON COMMIT DELETE ROWS";
+  }
+
+  @Language("PostgreSQL")
+  static String copyFromStdin(String table, List<String> columns) {
+    return "COPY " + copyTable(table) + " (" + String.join(", ", columns) + ") FROM STDIN";
+  }
+
+  @Language("PostgreSQL")
+  static String insertFromCopyTable(String table, List<String> columns) {
+    String cols = String.join(", ", columns);
+    return "INSERT INTO "
+        + table
+        + " \n"
+        + "    ("
+        + cols
+        + ") \n"
+        + "    SELECT "
+        + cols
+        + " FROM "
+        + copyTable(table)
+        + " \n"
+        + "    ON CONFLICT DO NOTHING";
+  }
 }
@@ -0,0 +1,37 @@
+/*
+ * Copyright (C) 2023 Dremio
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.projectnessie.gc.contents.jdbc;
+
+import org.junit.jupiter.api.BeforeAll;
+
+public class TestJdbcPersistenceSpiMultiRow extends AbstractJdbcPersistenceSpi {
+
+  @BeforeAll
+  static void createDataSource() throws Exception {
+    initDataSource("jdbc:h2:mem:nessie_multi_row;MODE=PostgreSQL");
+  }
+
+  @Override
+  protected JdbcPersistenceSpi.InsertMode insertMode() {
+    return JdbcPersistenceSpi.InsertMode.MULTI_ROW;
+  }
+
+  @Override
+  protected int batchSize() {
+    // small batch size to exercise both full and partial batches
+    return 3;
+  }
+}
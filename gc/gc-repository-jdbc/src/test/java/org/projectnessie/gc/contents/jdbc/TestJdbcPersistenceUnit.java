@@ -18,6 +18,8 @@ package org.projectnessie.gc.contents.jdbc;
 import static com.google.common.base.Strings.repeat;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.projectnessie.gc.contents.jdbc.JdbcPersistenceSpi.trimError;
+import static org.projectnessie.gc.contents.jdbc.RowInserter.MAX_BIND_PARAMETERS;
+import static org.projectnessie.gc.contents.jdbc.RowInserter.rowsPerStatement;
 import static org.projectnessie.gc.contents.jdbc.SqlDmlDdl.ERROR_LENGTH;
 
 import org.junit.jupiter.api.Test;
@@ -34,4 +36,12 @@ public class TestJdbcPersistenceUnit {
         .endsWith(" ... (truncated)")
         .hasSize(ERROR_LENGTH);
   }
+
+  @Test
+  void multiRowBindParameterLimit() {
+    assertThat(rowsPerStatement(100, 5)).isEqualTo(100);
+    assertThat(rowsPerStatement(100_000, 5)).isEqualTo(MAX_BIND_PARAMETERS / 5);
+    assertThat(rowsPerStatement(100_000, 5) * 5).isLessThanOrEqualTo(MAX_BIND_PARAMETERS);
+    assertThat(rowsPerStatement(1, 100_000)).isEqualTo(1);
+  }
 }
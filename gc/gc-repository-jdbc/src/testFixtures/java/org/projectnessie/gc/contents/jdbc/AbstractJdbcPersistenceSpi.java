@@ -52,7 +52,19 @@ public abstract class AbstractJdbcPersistenceSpi extends AbstractPersistenceSpi
 
   @Override
   protected PersistenceSpi createPersistenceSpi() {
-    return JdbcPersistenceSpi.builder().dataSource(dataSource).build();
+    return JdbcPersistenceSpi.builder()
+        .dataSource(dataSource)
+        .insertMode(insertMode())
+        .batchSize(batchSize())
+        .build();
+  }
+
+  protected JdbcPersistenceSpi.InsertMode insertMode() {
+    return JdbcPersistenceSpi.InsertMode.BATCH;
+  }
+
+  protected int batchSize() {
+    return JdbcPersistenceSpi.DEFAULT_BATCH_SIZE;
   }
 
   @BeforeEach
@@ -0,0 +1,305 @@
+/*
+ * Copyright (C) 2023 Dremio
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.projectnessie.gc.repository.storage;
+
+import static java.util.Collections.emptyIterator;
+import static java.util.Objects.requireNonNull;
+import static org.projectnessie.versioned.storage.common.logic.CommitLogQuery.commitLogQuery;
+import static org.projectnessie.versioned.storage.common.logic.Logics.commitLogic;
+import static org.projectnessie.versioned.storage.common.logic.Logics.indexesLogic;
+import static org.projectnessie.versioned.storage.common.logic.Logics.referenceLogic;
+import static org.projectnessie.versioned.storage.common.logic.ReferencesQuery.referencesQuery;
+import static org.projectnessie.versioned.storage.common.persist.ObjId.EMPTY_OBJ_ID;
+import static org.projectnessie.versioned.storage.common.persist.ObjId.objIdFromString;
+import static org.projectnessie.versioned.storage.versionstore.RefMapping.REFS;
+import static org.projectnessie.versioned.storage.versionstore.RefMapping.REFS_HEADS;
+import static org.projectnessie.versioned.storage.versionstore.RefMapping.REFS_TAGS;
+import static org.projectnessie.versioned.storage.versionstore.TypeMapping.storeKeyToKey;
+import static org.projectnessie.versioned.storage.versionstore.TypeMapping.toCommitMeta;
+import static org.projectnessie.versioned.store.DefaultStoreWorker.contentTypeForPayload;
+
+import com.google.common.collect.AbstractIterator;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Streams;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map.Entry;
+import java.util.Set;
+import java.util.stream.Stream;
+import org.projectnessie.error.NessieNotFoundException;
+import org.projectnessie.error.NessieReferenceNotFoundException;
+import org.projectnessie.gc.repository.RepositoryConnector;
+import org.projectnessie.model.Branch;
+import org.projectnessie.model.Content;
+import org.projectnessie.model.ContentKey;
+import org.projectnessie.model.Detached;
+import org.projectnessie.model.LogResponse.LogEntry;
+import org.projectnessie.model.Operation;
+import org.projectnessie.model.Reference;
+import org.projectnessie.model.Tag;
+import org.projectnessie.versioned.StoreWorker;
+import org.projectnessie.versioned.storage.common.exceptions.ObjNotFoundException;
+import org.projectnessie.versioned.storage.common.indexes.StoreIndex;
+import org.projectnessie.versioned.storage.common.indexes.StoreIndexElement;
+import org.projectnessie.versioned.storage.common.logic.IndexesLogic;
+import org.projectnessie.versioned.storage.common.objtypes.CommitObj;
+import org.projectnessie.versioned.storage.common.objtypes.CommitOp;
+import org.projectnessie.versioned.storage.common.objtypes.ContentValueObj;
+import org.projectnessie.versioned.storage.common.persist.Obj;
+import org.projectnessie.versioned.storage.common.persist.ObjId;
+import org.projectnessie.versioned.storage.common.persist.Persist;
+import org.projectnessie.versioned.store.DefaultStoreWorker;
+
+/**
+ * {@link RepositoryConnector} that reads a Nessie repository directly via {@link Persist}, without
+ * going through the Nessie REST API.
+ *
+ * <p>Commits are read in batches following the commit log, the content values of the operations of
+ * {@value #COMMIT_BATCH_SIZE} commits are fetched together using a single bulk fetch. Content
+ * values are decoded directly from the stored {@link ContentValueObj}s.
+ *
+ * <p>The given {@link Persist} instance is not closed by this connector, the caller is responsible
+ * to close the backend.
+ */
+public final class StorageRepositoryConnector implements RepositoryConnector {
+
+  static final int COMMIT_BATCH_SIZE = 20;
+  static final int CONTENT_BATCH_SIZE = 250;
+
+  private static final StoreWorker STORE_WORKER = DefaultStoreWorker.instance();
+
+  private final Persist persist;
+
+  private StorageRepositoryConnector(Persist persist) {
+    this.persist = persist;
+  }
+
+  public static RepositoryConnector storage(Persist persist) {
+    return new StorageRepositoryConnector(persist);
+  }
+
+  @Override
+  public Stream<Reference> allReferences() {
+    return Streams.stream(referenceLogic(persist).queryReferences(referencesQuery(REFS)))
+        .filter(ref -> !ref.deleted())
+        .map(StorageRepositoryConnector::toReference);
+  }
+
+  private static Reference toReference(
+      org.projectnessie.versioned.storage.common.persist.Reference reference) {
+    String name = reference.name();
+    String hash = reference.pointer().toString();
+    if (name.startsWith(REFS_HEADS)) {
+      return Branch.of(name.substring(REFS_HEADS.length()), hash);
+    }
+    if (name.startsWith(REFS_TAGS)) {
+      return Tag.of(name.substring(REFS_TAGS.length()), hash);
+    }
+    throw new IllegalArgumentException("Unexpected reference name " + name);
+  }
+
+  @Override
+  public Stream<LogEntry> commitLog(Reference ref) throws NessieNotFoundException {
+    return Streams.stream(new LogEntryIter(commits(ref)));
+  }
+
+  @Override
+  public Stream<LogEntry> commitLogMetadata(Reference ref) throws NessieNotFoundException {
+    // No need to fetch the content values of the operations
+    return Streams.stream(commits(ref))
+        .map(
+            commit ->
+                LogEntry.builder()
+                    .commitMeta(toCommitMeta(commit))
+                    .parentCommitHash(commit.directParent().toString())
+                    .build());
+  }
+
+  private Iterator<CommitObj> commits(Reference ref) throws NessieNotFoundException {
+    ObjId head = objIdFromString(requireNonNull(ref.getHash(), "Reference without hash"));
+    if (EMPTY_OBJ_ID.equals(head)) {
+      return emptyIterator();
+    }
+    try {
+      if (commitLogic(persist).fetchCommit(head) == null) {
+        throw new NessieReferenceNotFoundException("Commit " + head + " not found");
+      }
+    } catch (ObjNotFoundException e) {
+      throw new NessieReferenceNotFoundException(e.getMessage(), e);
+    }
+    return commitLogic(persist).commitLog(commitLogQuery(head));
+  }
+
+  @Override
+  public Stream<Entry<ContentKey, Content>> allContents(Detached ref, Set<Content.Type> types)
+      throws NessieNotFoundException {
+    CommitObj commit;
+    try {
+      commit = commitLogic(persist).fetchCommit(objIdFromString(ref.getHash()));
+    } catch (ObjNotFoundException e) {
+      throw new NessieReferenceNotFoundException(e.getMessage(), e);
+    }
+    StoreIndex<CommitOp> index = indexesLogic(persist).buildCompleteIndexOrEmpty(commit);
+    return Streams.stream(new ContentsIter(index.iterator(null, null, true), types));
+  }
+
+  @Override
+  public void close() {}
+
+  private Obj[] fetchValues(List<ObjId> ids) {
+    try {
+      return persist.fetchObjs(ids.toArray(new ObjId[0]));
+    } catch (ObjNotFoundException e) {
+      throw new RuntimeException(e);
+    }
+  }
+
+  private static Content toContent(Obj obj) {
+    ContentValueObj contentValue = (ContentValueObj) obj;
+    return STORE_WORKER.valueFromStore(contentValue.payload(), contentValue.data());
+  }
+
+  /**
+   * Produces the log entries for the commits in batches of {@value #COMMIT_BATCH_SIZE} commits,
+   * fetching the content values of all commits in a batch at once.
+   */
+  private final class LogEntryIter extends AbstractIterator<LogEntry> {
+    private final Iterator<CommitObj> commits;
+    private Iterator<LogEntry> batch = emptyIterator();
+
+    LogEntryIter(Iterator<CommitObj> commits) {
+      this.commits = commits;
+    }
+
+    @Override
+    protected LogEntry computeNext() {
+      while (!batch.hasNext()) {
+        if (!commits.hasNext()) {
+          return endOfData();
+        }
+        List<CommitObj> commitBatch = new ArrayList<>(COMMIT_BATCH_SIZE);
+        while (commitBatch.size() < COMMIT_BATCH_SIZE && commits.hasNext()) {
+          commitBatch.add(commits.next());
+        }
+        batch = toLogEntries(commitBatch).iterator();
+      }
+      return batch.next();
+    }
+
+    private List<LogEntry> toLogEntries(List<CommitObj> commitBatch) {
+      IndexesLogic indexesLogic = indexesLogic(persist);
+
+      List<List<Operation>> operations = new ArrayList<>(commitBatch.size());
+      List<ObjId> valueIds = new ArrayList<>();
+      List<ContentKey> putKeys = new ArrayList<>();
+      List<List<Operation>> putTargets = new ArrayList<>();
+      for (CommitObj commit : commitBatch) {
+        List<Operation> commitOperations = new ArrayList<>();
+        operations.add(commitOperations);
+        for (StoreIndexElement<CommitOp> op : indexesLogic.commitOperations(commit)) {
+          ContentKey key = storeKeyToKey(op.key());
+          // Note: key==null, if not the "main universe" or not a "content" discriminator
+          if (key == null) {
+            continue;
+          }
+          CommitOp c = op.content();
+          if (c.action().exists()) {
+            valueIds.add(requireNonNull(c.value(), "Required value pointer is null"));
+            putKeys.add(key);
+            putTargets.add(commitOperations);
+          } else {
+            commitOperations.add(Operation.Delete.of(key));
+          }
+        }
+      }
+
+      if (!valueIds.isEmpty()) {
+        Obj[] values = fetchValues(valueIds);
+        for (int i = 0; i < values.length; i++) {
+          putTargets.get(i).add(Operation.Put.of(putKeys.get(i), toContent(values[i])));
+        }
+      }
+
+      List<LogEntry> entries = new ArrayList<>(commitBatch.size());
+      for (int i = 0; i < commitBatch.size(); i++) {
+        CommitObj commit = commitBatch.get(i);
+        entries.add(
+            LogEntry.builder()
+                .commitMeta(toCommitMeta(commit))
+                .parentCommitHash(commit.directParent().toString())
+                .operations(operations.get(i))
+                .build());
+      }
+      return entries;
+    }
+  }
+
+  /**
+   * Produces the contents of a complete index, fetching the content values in batches of {@value
+   * #CONTENT_BATCH_SIZE}.
+   */
+  private final class ContentsIter extends AbstractIterator<Entry<ContentKey, Content>> {
+    private final Iterator<StoreIndexElement<CommitOp>> elements;
+    private final Set<Content.Type> types;
+    private Iterator<Entry<ContentKey, Content>> batch = emptyIterator();
+
+    ContentsIter(Iterator<StoreIndexElement<CommitOp>> elements, Set<Content.Type> types) {
+      this.elements = elements;
+      this.types = types;
+    }
+
+    @Override
+    protected Entry<ContentKey, Content> computeNext() {
+      while (!batch.hasNext()) {
+        List<ObjId> valueIds = new ArrayList<>(CONTENT_BATCH_SIZE);
+        List<ContentKey> keys = new ArrayList<>(CONTENT_BATCH_SIZE);
+        while (valueIds.size() < CONTENT_BATCH_SIZE && elements.hasNext()) {
+          StoreIndexElement<CommitOp> element = elements.next();
+          CommitOp op = element.content();
+          if (!op.action().exists()) {
+            continue;
+          }
+          ContentKey key = storeKeyToKey(element.key());
+          if (key == null) {
+            continue;
+          }
+          // Payload 0 is only used by old, migrated repositories, check the type after decoding
+          if (op.payload() != 0 && !types.contains(contentTypeForPayload(op.payload()))) {
+            continue;
+          }
+          valueIds.add(requireNonNull(op.value(), "Required value pointer is null"));
+          keys.add(key);
+        }
+
+        if (valueIds.isEmpty()) {
+          return endOfData();
+        }
+
+        Obj[] values = fetchValues(valueIds);
+        List<Entry<ContentKey, Content>> contents = new ArrayList<>(values.length);
+        for (int i = 0; i < values.length; i++) {
+          Content content = toContent(values[i]);
+          if (types.contains(content.getType())) {
+            contents.add(Maps.immutableEntry(keys.get(i), content));
+          }
+        }
+        batch = contents.iterator();
+      }
+      return batch.next();
+    }
+  }
+}
@@ -0,0 +1,183 @@
+/*
+ * Copyright (C) 2023 Dremio
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.projectnessie.gc.repository.storage;
+
+import static java.util.Collections.singleton;
+import static org.projectnessie.jaxrs.ext.NessieJaxRsExtension.jaxRsExtension;
+
+import java.time.Instant;
+import java.util.AbstractMap.SimpleEntry;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map.Entry;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import org.assertj.core.api.SoftAssertions;
+import org.assertj.core.api.junit.jupiter.InjectSoftAssertions;
+import org.assertj.core.api.junit.jupiter.SoftAssertionsExtension;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.projectnessie.client.api.NessieApiV1;
+import org.projectnessie.client.ext.NessieClientFactory;
+import org.projectnessie.error.NessieNotFoundException;
+import org.projectnessie.gc.repository.NessieRepositoryConnector;
+import org.projectnessie.gc.repository.RepositoryConnector;
+import org.projectnessie.jaxrs.ext.NessieJaxRsExtension;
+import org.projectnessie.model.Branch;
+import org.projectnessie.model.CommitMeta;
+import org.projectnessie.model.Content;
+import org.projectnessie.model.ContentKey;
+import org.projectnessie.model.Detached;
+import org.projectnessie.model.IcebergTable;
+import org.projectnessie.model.IcebergView;
+import org.projectnessie.model.LogResponse.LogEntry;
+import org.projectnessie.model.Operation;
+import org.projectnessie.model.Reference;
+import org.projectnessie.model.Tag;
+import org.projectnessie.versioned.storage.common.persist.Persist;
+import org.projectnessie.versioned.storage.inmemory.InmemoryBackendTestFactory;
+import org.projectnessie.versioned.storage.testextension.NessieBackend;
+import org.projectnessie.versioned.storage.testextension.NessiePersist;
+import org.projectnessie.versioned.storage.testextension.PersistExtension;
+
+/** Verifies that {@link StorageRepositoryConnector} yields the same results as the REST API. */
+@ExtendWith({PersistExtension.class, SoftAssertionsExtension.class})
+@NessieBackend(InmemoryBackendTestFactory.class)
+public class TestStorageRepositoryConnector {
+  @InjectSoftAssertions SoftAssertions soft;
+
+  @NessiePersist static Persist persist;
+
+  @RegisterExtension static NessieJaxRsExtension server = jaxRsExtension(() -> persist);
+
+  private NessieApiV1 nessieApi;
+
+  @BeforeEach
+  public void setUp(NessieClientFactory clientFactory) {
+    nessieApi = clientFactory.make();
+  }
+
+  @AfterEach
+  public void tearDown() {
+    nessieApi.close();
+  }
+
+  @Test
+  public void sameAsNessieApi() throws Exception {
+    Branch defaultBranch = nessieApi.getDefaultBranch();
+    Branch branch =
+        (Branch)
+            nessieApi
+                .createReference()
+                .reference(Branch.of("branch", defaultBranch.getHash()))
+                .sourceRefName(defaultBranch.getName())
+                .create();
+    nessieApi
+        .createReference()
+        .reference(Branch.of("empty", defaultBranch.getHash()))
+        .sourceRefName(defaultBranch.getName())
+        .create();
+
+    // More commits than fit into one batch of commits
+    for (int i = 0; i < StorageRepositoryConnector.COMMIT_BATCH_SIZE + 5; i++) {
+      branch =
+          nessieApi
+              .commitMultipleOperations()
+              .commitMeta(CommitMeta.fromMessage("commit-" + i))
+              .branch(branch)
+              .operation(
+                  Operation.Put.of(
+                      ContentKey.of("table-" + i), IcebergTable.of("meta-" + i, 42, 43, 44, 45)))
+              .operation(
+                  Operation.Put.of(
+                      ContentKey.of("view-" + i),
+                      IcebergView.of("meta-" + i, 42, 43, "dialect", "sql")))
+              .commit();
+      if (i == 3) {
+        nessieApi
+            .createReference()
+            .reference(Tag.of("tag", branch.getHash()))
+            .sourceRefName(branch.getName())
+            .create();
+      }
+    }
+    branch =
+        nessieApi
+            .commitMultipleOperations()
+            .commitMeta(CommitMeta.fromMessage("delete"))
+            .branch(branch)
+            .operation(Operation.Delete.of(ContentKey.of("table-1")))
+            .commit();
+
+    try (RepositoryConnector nessie = NessieRepositoryConnector.nessie(nessieApi);
+        RepositoryConnector storage = StorageRepositoryConnector.storage(persist)) {
+
+      List<Reference> references = nessie.allReferences().collect(Collectors.toList());
+      soft.assertThat(storage.allReferences()).containsExactlyInAnyOrderElementsOf(references);
+
+      for (Reference reference : references) {
+        soft.assertThat(commitLog(storage, reference))
+            .describedAs("commit log of %s", reference)
+            .containsExactlyElementsOf(commitLog(nessie, reference));
+        soft.assertThat(commitLogMetadata(storage, reference))
+            .describedAs("commit log metadata of %s", reference)
+            .containsExactlyElementsOf(commitLogMetadata(nessie, reference));
+      }
+
+      Detached head = Detached.of(branch.getHash());
+      for (Content.Type type : List.of(Content.Type.ICEBERG_TABLE, Content.Type.ICEBERG_VIEW)) {
+        try (Stream<Entry<ContentKey, Content>> expected =
+                nessie.allContents(head, singleton(type));
+            Stream<Entry<ContentKey, Content>> actual =
+                storage.allContents(head, singleton(type))) {
+          soft.assertThat(actual)
+              .describedAs("contents of type %s", type)
+              .containsExactlyInAnyOrderElementsOf(expected.collect(Collectors.toList()));
+        }
+      }
+    }
+  }
+
+  private static List<Entry<String, List<Operation>>> commitLog(
+      RepositoryConnector connector, Reference reference) throws NessieNotFoundException {
+    try (Stream<LogEntry> log = connector.commitLog(reference)) {
+      return log.map(
+              e ->
+                  new SimpleEntry<String, List<Operation>>(
+                      e.getCommitMeta().getHash(),
+                      e.getOperations() != null
+                          ? e.getOperations().stream()
+                              .sorted(Comparator.comparing(Operation::getKey))
+                              .collect(Collectors.toList())
+                          : List.of()))
+          .collect(Collectors.toList());
+    }
+  }
+
+  private static List<Entry<String, Instant>> commitLogMetadata(
+      RepositoryConnector connector, Reference reference) throws NessieNotFoundException {
+    try (Stream<LogEntry> log = connector.commitLogMetadata(reference)) {
+      return log.map(
+              e ->
+                  new SimpleEntry<>(
+                      e.getCommitMeta().getHash(), e.getCommitMeta().getCommitTime()))
+          .collect(Collectors.toList());
+    }
+  }
+}
@@ -33,6 +33,9 @@ dependencies {
   implementation(nessieProject("nessie-gc-iceberg"))
   implementation(nessieProject("nessie-gc-iceberg-files"))
   implementation(nessieProject("nessie-gc-repository-jdbc"))
+  implementation(nessieProject("nessie-gc-storage-connector"))
+  implementation(nessieProject("nessie-versioned-storage-common"))
+  implementation(nessieProject("nessie-versioned-storage-jdbc"))
 
   compileOnly(libs.errorprone.annotations)
   compileOnly(libs.immutables.value.annotations)
@@ -27,6 +27,7 @@ import java.time.Instant;
 import java.time.ZoneId;
 import java.time.format.DateTimeFormatter;
 import java.time.temporal.ChronoUnit;
+import java.util.Comparator;
 import java.util.UUID;
 import java.util.stream.Stream;
 import org.apache.hadoop.conf.Configuration;
@@ -164,6 +165,15 @@ public abstract class BaseRepositoryCommand extends BaseCommand {
     RepositoryConnector repositoryConnector =
         markOptions.getNessie().createRepositoryConnector(closeables);
 
+    LiveContentSet previousLiveContentSet = null;
+    if (markOptions.isIncremental()) {
+      previousLiveContentSet = previousLiveContentSet(liveContentSetsRepository);
+      out.println(
+          previousLiveContentSet != null
+              ? "Incremental identify based on live-content-set ID " + previousLiveContentSet.id()
+              : "No previous successful live-content-set found, walking all commits.");
+    }
+
     IdentifyLiveContents identify =
         IdentifyLiveContents.builder()
             .liveContentSetsRepository(liveContentSetsRepository)
@@ -172,6 +182,8 @@ public abstract class BaseRepositoryCommand extends BaseCommand {
             .repositoryConnector(repositoryConnector)
             .contentToContentReference(IcebergContentToContentReference.INSTANCE)
             .parallelism(markOptions.getParallelism())
+            .commitLogReadAhead(markOptions.getCommitLogReadAhead())
+            .previousLiveContentSet(previousLiveContentSet)
             .build();
 
     UUID liveContentSetId = identify.identifyLiveContents();
@@ -207,6 +219,20 @@ public abstract class BaseRepositoryCommand extends BaseCommand {
     return liveContentSet;
   }
 
+  /** Returns the most recently created live content set of a successful identify run. */
+  private static LiveContentSet previousLiveContentSet(
+      LiveContentSetsRepository liveContentSetsRepository) {
+    try (Stream<LiveContentSet> liveContentSets = liveContentSetsRepository.getAllLiveContents()) {
+      return liveContentSets
+          .filter(
+              lcs ->
+                  lcs.status() != LiveContentSet.Status.IDENTIFY_IN_PROGRESS
+                      && lcs.status() != LiveContentSet.Status.IDENTIFY_FAILED)
+          .max(Comparator.comparing(LiveContentSet::created))
+          .orElse(null);
+    }
+  }
+
   protected int expire(
       LiveContentSetsRepository liveContentSetsRepository,
       LiveContentSet liveContentSet,
@@ -229,7 +255,7 @@ public abstract class BaseRepositoryCommand extends BaseCommand {
       FileDeleter fileDeleter =
           sweepOptions.isDeferDeletes() ? liveContentSet.fileDeleter() : icebergFiles;
 
-      ExpireParameters expireParameters =
+      ExpireParameters.Builder expireParametersBuilder =
           ExpireParameters.builder()
               .fileDeleter(fileDeleter)
               .filesLister(icebergFiles)
@@ -240,7 +266,14 @@ public abstract class BaseRepositoryCommand extends BaseCommand {
               .falsePositiveProbability(sweepOptions.getFalsePositiveProbability())
               .expectedFileCount(sweepOptions.getExpectedFileCount())
               .allowedFalsePositiveProbability(sweepOptions.getAllowedFalsePositiveProbability())
-              .build();
+              .maxLiveFilesHeapBytes(sweepOptions.getMaxLiveFilesHeapBytes())
+              .listingParallelism(sweepOptions.getListingParallelism())
+              .deleteBatchSize(sweepOptions.getDeleteBatchSize())
+              .maxFileDeletesPerSecond(sweepOptions.getMaxFileDeletesPerSecond());
+      if (sweepOptions.getLiveFilesSpillDirectory() != null) {
+        expireParametersBuilder.liveFilesSpillDirectory(sweepOptions.getLiveFilesSpillDirectory());
+      }
+      ExpireParameters expireParameters = expireParametersBuilder.build();
 
       Expire expire =
           DefaultLocalExpire.builder()
@@ -15,11 +15,14 @@
  */
 package org.projectnessie.gc.tool.cli.options;
 
+import static org.projectnessie.gc.contents.jdbc.JdbcPersistenceSpi.DEFAULT_BATCH_SIZE;
+
 import java.sql.SQLException;
 import java.util.HashMap;
 import java.util.Map;
 import javax.sql.DataSource;
 import org.projectnessie.gc.contents.jdbc.AgroalJdbcDataSourceProvider;
+import org.projectnessie.gc.contents.jdbc.JdbcPersistenceSpi.InsertMode;
 import picocli.CommandLine;
 
 public class JdbcOptions {
@@ -51,6 +54,24 @@ public class JdbcOptions {
       description = "JDBC password used to authenticate the database access.")
   String password;
 
+  @CommandLine.Option(
+      names = "--jdbc-batch-size",
+      description =
+          "Number of rows inserted into the database at once, defaults to "
+              + DEFAULT_BATCH_SIZE
+              + ".",
+      defaultValue = "" + DEFAULT_BATCH_SIZE)
+  int batchSize;
+
+  @CommandLine.Option(
+      names = "--jdbc-insert-mode",
+      description =
+          "How rows are inserted into the database, one of BATCH, MULTI_ROW or COPY, defaults to "
+              + "BATCH. COPY uses PostgreSQL's COPY FROM STDIN and falls back to BATCH for other "
+              + "databases.",
+      defaultValue = "BATCH")
+  InsertMode insertMode;
+
   public DataSource createDataSource() throws SQLException {
     AgroalJdbcDataSourceProvider.Builder jdbcDsBuilder =
         AgroalJdbcDataSourceProvider.builder()
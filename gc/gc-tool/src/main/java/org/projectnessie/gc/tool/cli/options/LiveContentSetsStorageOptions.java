@@ -78,6 +78,10 @@ public class LiveContentSetsStorageOptions {
   private PersistenceSpi createJdbcPersistenceSpi(Closeables closeables, JdbcOptions jdbc)
       throws Exception {
     DataSource dataSource = closeables.maybeAdd(jdbc.createDataSource());
-    return JdbcPersistenceSpi.builder().dataSource(dataSource).build();
+    return JdbcPersistenceSpi.builder()
+        .dataSource(dataSource)
+        .batchSize(jdbc.batchSize)
+        .insertMode(jdbc.insertMode)
+        .build();
   }
 }
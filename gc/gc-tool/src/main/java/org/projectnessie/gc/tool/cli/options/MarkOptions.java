@@ -81,6 +81,24 @@ public class MarkOptions {
       description = "Number of Nessie references that can be walked in parallel.")
   int parallelism;
 
+  @CommandLine.Option(
+      names = "--identify-commit-log-read-ahead",
+      defaultValue = "100",
+      description = {
+        "Number of commit log entries of a Nessie reference that are fetched ahead of processing.",
+        "A value of 0 walks each reference sequentially in a single thread."
+      })
+  int commitLogReadAhead;
+
+  @CommandLine.Option(
+      names = "--incremental",
+      description = {
+        "Only walk the commits that have been added since the most recent successful identify run",
+        "with all operations and carry forward the live contents of the references that still",
+        "exist from that run. Identifies the same live contents as a run without this option."
+      })
+  boolean incremental;
+
   @CommandLine.Spec CommandSpec commandSpec;
 
   public NessieOptions getNessie() {
@@ -91,6 +109,14 @@ public class MarkOptions {
     return parallelism;
   }
 
+  public int getCommitLogReadAhead() {
+    return commitLogReadAhead;
+  }
+
+  public boolean isIncremental() {
+    return incremental;
+  }
+
   public Path getLiveSetIdFile() {
     return liveSetIdFile;
   }
@@ -17,15 +17,24 @@ package org.projectnessie.gc.tool.cli.options;
 
 import java.lang.reflect.InvocationTargetException;
 import java.net.URI;
+import java.sql.SQLException;
 import java.util.HashMap;
 import java.util.Map;
+import javax.sql.DataSource;
 import org.projectnessie.client.NessieClientBuilder;
 import org.projectnessie.client.api.NessieApiV1;
 import org.projectnessie.client.api.NessieApiV2;
 import org.projectnessie.client.http.HttpClientBuilder;
+import org.projectnessie.gc.contents.jdbc.AgroalJdbcDataSourceProvider;
 import org.projectnessie.gc.repository.NessieRepositoryConnector;
 import org.projectnessie.gc.repository.RepositoryConnector;
+import org.projectnessie.gc.repository.storage.StorageRepositoryConnector;
 import org.projectnessie.gc.tool.cli.Closeables;
+import org.projectnessie.versioned.storage.common.config.StoreConfig;
+import org.projectnessie.versioned.storage.common.persist.Backend;
+import org.projectnessie.versioned.storage.common.persist.Persist;
+import org.projectnessie.versioned.storage.jdbc.JdbcBackendConfig;
+import org.projectnessie.versioned.storage.jdbc.JdbcBackendFactory;
 import picocli.CommandLine;
 
 public class NessieOptions {
@@ -49,10 +58,66 @@ public class NessieOptions {
       arity = "0..*")
   Map<String, String> nessieOptions = new HashMap<>();
 
+  @CommandLine.Option(
+      names = "--nessie-storage-jdbc-url",
+      description = {
+        "JDBC URL of the database used by Nessie to store the repository.",
+        "If specified, the live contents are identified by reading the Nessie repository "
+            + "directly from the database instead of using the Nessie API."
+      })
+  String storageJdbcUrl;
+
+  @CommandLine.Option(
+      names = "--nessie-storage-jdbc-properties",
+      description = "JDBC parameters for the database used by Nessie.",
+      arity = "0..*",
+      split = ",")
+  Map<String, String> storageJdbcProperties = new HashMap<>();
+
+  @CommandLine.Option(
+      names = "--nessie-storage-jdbc-user",
+      description = "JDBC user name used to authenticate the access to the Nessie database.")
+  String storageJdbcUser;
+
+  @CommandLine.Option(
+      names = "--nessie-storage-jdbc-password",
+      description = "JDBC password used to authenticate the access to the Nessie database.")
+  String storageJdbcPassword;
+
+  @CommandLine.Option(
+      names = "--nessie-storage-jdbc-repository-id",
+      description = "Nessie repository ID in the Nessie database, defaults to the empty string.")
+  String storageRepositoryId = "";
+
   public RepositoryConnector createRepositoryConnector(Closeables closeables) {
+    if (storageJdbcUrl != null) {
+      return StorageRepositoryConnector.storage(createStoragePersist(closeables));
+    }
     return NessieRepositoryConnector.nessie(closeables.add(createNessieApi()));
   }
 
+  Persist createStoragePersist(Closeables closeables) {
+    AgroalJdbcDataSourceProvider.Builder jdbcDsBuilder =
+        AgroalJdbcDataSourceProvider.builder()
+            .jdbcUrl(storageJdbcUrl)
+            .usernamePasswordCredentials(storageJdbcUser, storageJdbcPassword);
+    storageJdbcProperties.forEach(jdbcDsBuilder::putJdbcProperties);
+    DataSource dataSource;
+    try {
+      dataSource = closeables.maybeAdd(jdbcDsBuilder.build().dataSource());
+    } catch (SQLException e) {
+      throw new RuntimeException(e);
+    }
+
+    Backend backend =
+        closeables.add(
+            new JdbcBackendFactory()
+                .buildBackend(JdbcBackendConfig.builder().dataSource(dataSource).build()));
+    return backend
+        .createFactory()
+        .newPersist(StoreConfig.Adjustable.empty().withRepositoryId(storageRepositoryId));
+  }
+
   NessieApiV1 createNessieApi() {
     try {
       NessieClientBuilder<?> clientBuilder;
@@ -16,9 +16,13 @@
 package org.projectnessie.gc.tool.cli.options;
 
 import static org.projectnessie.gc.expire.ExpireParameters.DEFAULT_ALLOWED_FALSE_POSITIVE_PROBABILITY;
+import static org.projectnessie.gc.expire.ExpireParameters.DEFAULT_DELETE_BATCH_SIZE;
 import static org.projectnessie.gc.expire.ExpireParameters.DEFAULT_EXPECTED_FILE_COUNT;
 import static org.projectnessie.gc.expire.ExpireParameters.DEFAULT_FALSE_POSITIVE_PROBABILITY;
+import static org.projectnessie.gc.expire.ExpireParameters.DEFAULT_LISTING_PARALLELISM;
+import static org.projectnessie.gc.expire.ExpireParameters.DEFAULT_MAX_LIVE_FILES_HEAP_BYTES;
 
+import java.nio.file.Path;
 import java.time.Instant;
 import picocli.CommandLine;
 
@@ -67,6 +71,50 @@ public class SweepOptions {
       defaultValue = "" + DEFAULT_ALLOWED_FALSE_POSITIVE_PROBABILITY)
   double allowedFalsePositiveProbability;
 
+  @CommandLine.Option(
+      names = "--max-live-files-heap-bytes",
+      description =
+          "The maximum size in bytes of the bloom-filter identifying whether a file is live "
+              + "that is held on the Java heap for a single content, larger bloom-filters are "
+              + "backed by memory mapped files, defaults to "
+              + DEFAULT_MAX_LIVE_FILES_HEAP_BYTES
+              + ".",
+      defaultValue = "" + DEFAULT_MAX_LIVE_FILES_HEAP_BYTES)
+  long maxLiveFilesHeapBytes;
+
+  @CommandLine.Option(
+      names = "--live-files-spill-dir",
+      description =
+          "Directory for the memory mapped files of large bloom-filters, defaults to the "
+              + "system's temporary directory.")
+  Path liveFilesSpillDirectory;
+
+  @CommandLine.Option(
+      names = "--listing-parallelism",
+      description =
+          "Number of threads that list the files of the contents concurrently, defaults to "
+              + DEFAULT_LISTING_PARALLELISM
+              + ".",
+      defaultValue = "" + DEFAULT_LISTING_PARALLELISM)
+  int listingParallelism;
+
+  @CommandLine.Option(
+      names = "--delete-batch-size",
+      description =
+          "Maximum number of files deleted using a single bulk delete request, defaults to "
+              + DEFAULT_DELETE_BATCH_SIZE
+              + ".",
+      defaultValue = "" + DEFAULT_DELETE_BATCH_SIZE)
+  int deleteBatchSize;
+
+  @CommandLine.Option(
+      names = "--max-file-deletes-per-second",
+      description =
+          "Maximum number of files deleted per second, 0 means unlimited. Use this option to "
+              + "stay below the request rate limits of an object store, defaults to 0.",
+      defaultValue = "0")
+  double maxFileDeletesPerSecond;
+
   @CommandLine.Option(
       names = "--defer-deletes",
       negatable = true,
@@ -92,6 +140,26 @@ public class SweepOptions {
     return allowedFalsePositiveProbability;
   }
 
+  public long getMaxLiveFilesHeapBytes() {
+    return maxLiveFilesHeapBytes;
+  }
+
+  public Path getLiveFilesSpillDirectory() {
+    return liveFilesSpillDirectory;
+  }
+
+  public int getListingParallelism() {
+    return listingParallelism;
+  }
+
+  public int getDeleteBatchSize() {
+    return deleteBatchSize;
+  }
+
+  public double getMaxFileDeletesPerSecond() {
+    return maxFileDeletesPerSecond;
+  }
+
   public int getParallelism() {
     return parallelism;
   }
@@ -50,6 +50,7 @@ public class ExportRepository extends BaseCommand {
   static final String SINGLE_BRANCH = "--single-branch-current-content";
   static final String CONTENT_BATCH_SIZE = "--content-batch-size";
   static final String COMMIT_BATCH_SIZE = "--commit-batch-size";
+  static final String EXPORT_PARALLELISM = "--export-parallelism";
 
   enum Format {
     ZIP,
@@ -127,6 +128,15 @@ public class ExportRepository extends BaseCommand {
               + ".")
   private Integer commitBatchSize;
 
+  @CommandLine.Option(
+      names = EXPORT_PARALLELISM,
+      description =
+          "Number of threads that fetch the contents of and serialize commits, only applies to "
+              + "the new Nessie storage model, defaults to "
+              + ExportImportConstants.DEFAULT_EXPORT_PARALLELISM
+              + ".")
+  private Integer exportParallelism;
+
   @Override
   protected Integer callWithDatabaseAdapter() throws Exception {
     return export(
@@ -179,6 +189,9 @@ public class ExportRepository extends BaseCommand {
       if (commitBatchSize != null) {
         builder.commitBatchSize(commitBatchSize);
       }
+      if (exportParallelism != null) {
+        builder.exportParallelism(exportParallelism);
+      }
 
       PrintWriter out = spec.commandLine().getOut();
 
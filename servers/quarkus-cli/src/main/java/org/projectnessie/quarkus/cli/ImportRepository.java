@@ -58,6 +58,7 @@ public class ImportRepository extends BaseCommand {
   static final String NO_OPTIMIZE = "--no-optimize";
   static final String INPUT_BUFFER_SIZE = "--input-buffer-size";
   static final String COMMIT_BATCH_SIZE = "--commit-batch-size";
+  static final String IMPORT_PARALLELISM = "--import-parallelism";
 
   @CommandLine.Option(
       names = {"-p", PATH},
@@ -77,6 +78,15 @@ public class ImportRepository extends BaseCommand {
               + ".")
   private Integer commitBatchSize;
 
+  @CommandLine.Option(
+      names = IMPORT_PARALLELISM,
+      description =
+          "Number of threads that write batches of commits and complete commit indexes, only "
+              + "applies to the new Nessie storage model, defaults to "
+              + ExportImportConstants.DEFAULT_IMPORT_PARALLELISM
+              + ".")
+  private Integer importParallelism;
+
   @CommandLine.Option(
       names = INPUT_BUFFER_SIZE,
       description =
@@ -183,6 +193,9 @@ public class ImportRepository extends BaseCommand {
       if (commitBatchSize != null) {
         builder.commitBatchSize(commitBatchSize);
       }
+      if (importParallelism != null) {
+        builder.importParallelism(importParallelism);
+      }
 
       if (erase) {
         spec.commandLine().getOut().println("Erasing repository...");
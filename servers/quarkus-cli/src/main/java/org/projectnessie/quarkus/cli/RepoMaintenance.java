@@ -21,12 +21,15 @@ import java.io.PrintWriter;
 import java.time.Duration;
 import java.util.Map;
 import org.projectnessie.versioned.persist.adapter.RepoMaintenanceParams;
+import org.projectnessie.versioned.storage.versionstore.CommitTimeIndex;
 import picocli.CommandLine.Command;
 
 @Command(
     name = "maintenance",
     mixinStandardHelpOptions = true,
-    description = "Database adapter maintenance")
+    description =
+        "Repository maintenance, builds missing commit time index checkpoints for the new Nessie "
+            + "storage")
 public class RepoMaintenance extends BaseCommand {
 
   @Override
@@ -59,10 +62,19 @@ public class RepoMaintenance extends BaseCommand {
   }
 
   @Override
-  protected Integer callWithPersist() {
-    spec.commandLine()
-        .getOut()
-        .println("New Nessie storage does not need/provide any maintenance operations.");
+  protected Integer callWithPersist() throws Exception {
+    warnOnInMemory();
+
+    PrintWriter out = spec.commandLine().getOut();
+
+    out.println("Building missing commit time index checkpoints...");
+
+    long t0 = System.nanoTime();
+    long built = CommitTimeIndex.backfillCheckpoints(persist);
+    Duration duration = Duration.ofNanos(System.nanoTime() - t0);
+
+    out.printf("Built %d commit time index checkpoints, finished after %s%n", built, duration);
+
     return 0;
   }
 }
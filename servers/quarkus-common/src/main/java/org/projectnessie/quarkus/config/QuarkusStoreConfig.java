@@ -21,6 +21,11 @@ import io.smallrye.config.ConfigMapping;
 import io.smallrye.config.WithConverter;
 import io.smallrye.config.WithDefault;
 import io.smallrye.config.WithName;
+import java.util.List;
+import java.util.Optional;
+import java.util.OptionalInt;
+import org.projectnessie.versioned.storage.cache.CacheConfig;
+import org.projectnessie.versioned.storage.cache.CacheMode;
 import org.projectnessie.versioned.storage.common.config.StoreConfig;
 
 @StaticInitSafe
@@ -61,6 +66,26 @@ public interface QuarkusStoreConfig extends StoreConfig {
   @Override
   long retryMaxSleepMillis();
 
+  @WithName(CONFIG_COMMIT_ADMISSION_PERMITS)
+  @WithDefault("" + DEFAULT_COMMIT_ADMISSION_PERMITS)
+  @Override
+  int commitAdmissionPermits();
+
+  @WithName(CONFIG_GROUP_COMMIT_WINDOW_MILLIS)
+  @WithDefault("" + DEFAULT_GROUP_COMMIT_WINDOW_MILLIS)
+  @Override
+  long groupCommitWindowMillis();
+
+  @WithName(CONFIG_GROUP_COMMIT_MAX_COMMITS)
+  @WithDefault("" + DEFAULT_GROUP_COMMIT_MAX_COMMITS)
+  @Override
+  int groupCommitMaxCommits();
+
+  @WithName(CONFIG_GET_KEYS_CONTENT_READ_AHEAD)
+  @WithDefault("" + DEFAULT_GET_KEYS_CONTENT_READ_AHEAD)
+  @Override
+  int getKeysContentReadAhead();
+
   @WithName(CONFIG_PARENTS_PER_COMMIT)
   @WithDefault("" + DEFAULT_PARENTS_PER_COMMIT)
   @Override
@@ -97,4 +122,44 @@ public interface QuarkusStoreConfig extends StoreConfig {
   @WithName(CONFIG_CACHE_CAPACITY_MB)
   @WithDefault("" + DEFAULT_CACHE_CAPACITY_MB)
   int cacheCapacityMB();
+
+  String CONFIG_CACHE_MODE = "cache-mode";
+
+  @WithName(CONFIG_CACHE_MODE)
+  @WithDefault("SERIALIZED")
+  CacheMode cacheMode();
+
+  String CONFIG_CACHE_OBJECTS_TIER_PERCENT = "cache-objects-tier-percent";
+
+  @WithName(CONFIG_CACHE_OBJECTS_TIER_PERCENT)
+  @WithDefault("" + CacheConfig.DEFAULT_OBJECTS_TIER_PERCENT)
+  int cacheObjectsTierPercent();
+
+  String CONFIG_CACHE_REFERENCE_TTL_MILLIS = "cache-reference-ttl-millis";
+  long DEFAULT_CACHE_REFERENCE_TTL_MILLIS = 0L;
+
+  @WithName(CONFIG_CACHE_REFERENCE_TTL_MILLIS)
+  @WithDefault("" + DEFAULT_CACHE_REFERENCE_TTL_MILLIS)
+  long cacheReferenceTtlMillis();
+
+  String CONFIG_CACHE_INVALIDATION_PORT = "cache-invalidation-port";
+
+  /**
+   * UDP port to exchange cache invalidations with other Nessie instances, cache invalidations are
+   * not exchanged if not set.
+   */
+  @WithName(CONFIG_CACHE_INVALIDATION_PORT)
+  OptionalInt cacheInvalidationPort();
+
+  String CONFIG_CACHE_INVALIDATION_MULTICAST_GROUP = "cache-invalidation-multicast-group";
+
+  /** Multicast group to join and send cache invalidations to. */
+  @WithName(CONFIG_CACHE_INVALIDATION_MULTICAST_GROUP)
+  Optional<String> cacheInvalidationMulticastGroup();
+
+  String CONFIG_CACHE_INVALIDATION_PEERS = "cache-invalidation-peers";
+
+  /** Other Nessie instances to send cache invalidations to, as {@code host:port} pairs. */
+  @WithName(CONFIG_CACHE_INVALIDATION_PEERS)
+  Optional<List<String>> cacheInvalidationPeers();
 }
@@ -0,0 +1,92 @@
+/*
+ * Copyright (C) 2023 Dremio
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.projectnessie.quarkus.providers.storage;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import javax.annotation.Nonnull;
+import org.projectnessie.versioned.storage.common.logic.CommitContention;
+import org.projectnessie.versioned.storage.common.logic.CommitContention.ReferenceContention;
+
+/** Exposes the per-reference commit contention statistics as Micrometer meters. */
+final class CommitContentionMetrics implements CommitContention.Listener {
+
+  private final MeterRegistry registry;
+  private final Map<ReferenceContention, List<Meter>> meters = new ConcurrentHashMap<>();
+
+  CommitContentionMetrics(MeterRegistry registry) {
+    this.registry = registry;
+  }
+
+  @Override
+  public void added(@Nonnull @jakarta.annotation.Nonnull ReferenceContention contention) {
+    Tags tags =
+        Tags.of("repository", contention.repositoryId(), "reference", contention.reference());
+    List<Meter> referenceMeters =
+        List.of(
+            FunctionCounter.builder(
+                    "nessie.storage.commit.attempts", contention, ReferenceContention::attempts)
+                .description("Commit attempts against a reference")
+                .tags(tags)
+                .register(registry),
+            FunctionCounter.builder(
+                    "nessie.storage.commit.conflicts", contention, ReferenceContention::conflicts)
+                .description("Commit attempts that lost against a concurrent update of a reference")
+                .tags(tags)
+                .register(registry),
+            FunctionCounter.builder(
+                    "nessie.storage.commit.retries", contention, ReferenceContention::retries)
+                .description("Retried commit attempts against a reference")
+                .tags(tags)
+                .register(registry),
+            FunctionCounter.builder(
+                    "nessie.storage.commit.retry-sleep", contention, c -> c.sleepMillis() / 1000d)
+                .description("Time spent sleeping before retrying a commit attempt")
+                .baseUnit("seconds")
+                .tags(tags)
+                .register(registry),
+            FunctionCounter.builder(
+                    "nessie.storage.commit.admission-wait",
+                    contention,
+                    c -> c.admissionWaitNanos() / 1e9d)
+                .description("Time spent waiting for the turn to commit to a reference")
+                .baseUnit("seconds")
+                .tags(tags)
+                .register(registry),
+            Gauge.builder(
+                    "nessie.storage.commit.conflict-rate",
+                    contention,
+                    ReferenceContention::conflictRate)
+                .description("Recent rate of commit attempts that lost against a concurrent update")
+                .tags(tags)
+                .register(registry));
+    meters.put(contention, referenceMeters);
+  }
+
+  @Override
+  public void removed(@Nonnull @jakarta.annotation.Nonnull ReferenceContention contention) {
+    List<Meter> referenceMeters = meters.remove(contention);
+    if (referenceMeters != null) {
+      referenceMeters.forEach(registry::remove);
+    }
+  }
+}
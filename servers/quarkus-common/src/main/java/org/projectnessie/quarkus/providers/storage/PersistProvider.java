@@ -15,10 +15,13 @@
  */
 package org.projectnessie.quarkus.providers.storage;
 
+import static org.projectnessie.versioned.storage.common.logic.CommitContention.commitContention;
 import static org.projectnessie.versioned.storage.common.logic.Logics.repositoryLogic;
 
+import io.micrometer.core.instrument.MeterRegistry;
 import io.quarkus.runtime.Startup;
 import io.quarkus.runtime.annotations.RegisterForReflection;
+import jakarta.annotation.PreDestroy;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.enterprise.inject.Any;
 import jakarta.enterprise.inject.Default;
@@ -27,6 +30,13 @@ import jakarta.enterprise.inject.Instance;
 import jakarta.enterprise.inject.Produces;
 import jakarta.inject.Inject;
 import jakarta.inject.Singleton;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.UnknownHostException;
+import java.time.Duration;
+import java.util.List;
+import java.util.OptionalInt;
+import java.util.stream.Collectors;
 import org.projectnessie.quarkus.config.QuarkusStoreConfig;
 import org.projectnessie.quarkus.config.VersionStoreConfig;
 import org.projectnessie.quarkus.config.VersionStoreConfig.VersionStoreType;
@@ -35,7 +45,11 @@ import org.projectnessie.quarkus.providers.WIthInitializedRepository;
 import org.projectnessie.quarkus.providers.versionstore.StoreType.Literal;
 import org.projectnessie.services.config.ServerConfig;
 import org.projectnessie.versioned.storage.cache.CacheBackend;
+import org.projectnessie.versioned.storage.cache.CacheConfig;
+import org.projectnessie.versioned.storage.cache.CacheInvalidationBus;
+import org.projectnessie.versioned.storage.cache.CacheMode;
 import org.projectnessie.versioned.storage.cache.PersistCaches;
+import org.projectnessie.versioned.storage.cache.UdpCacheInvalidationBus;
 import org.projectnessie.versioned.storage.common.persist.Backend;
 import org.projectnessie.versioned.storage.common.persist.Persist;
 import org.projectnessie.versioned.storage.common.persist.PersistFactory;
@@ -46,7 +60,9 @@ import org.slf4j.LoggerFactory;
 @RegisterForReflection(
     classNames = {
       "com.github.benmanes.caffeine.cache.SSSMW",
-      "com.github.benmanes.caffeine.cache.PSMW"
+      "com.github.benmanes.caffeine.cache.PSMW",
+      "com.github.benmanes.caffeine.cache.SSSMSW",
+      "com.github.benmanes.caffeine.cache.PSWMS"
     })
 public class PersistProvider {
   private static final Logger LOGGER = LoggerFactory.getLogger(PersistProvider.class);
@@ -56,6 +72,9 @@ public class PersistProvider {
   private final VersionStoreConfig versionStoreConfig;
   private final ServerConfig serverConfig;
   private final QuarkusStoreConfig storeConfig;
+  private final Instance<MeterRegistry> meterRegistry;
+  private CacheInvalidationBus cacheInvalidationBus;
+  private CacheBackend cacheBackend;
 
   @Inject
   public PersistProvider(
@@ -63,12 +82,14 @@ public class PersistProvider {
       @Any Instance<Backend> backend,
       VersionStoreConfig versionStoreConfig,
       QuarkusStoreConfig storeConfig,
-      ServerConfig serverConfig) {
+      ServerConfig serverConfig,
+      @Any Instance<MeterRegistry> meterRegistry) {
     this.backendBuilder = backendBuilder;
     this.backend = backend;
     this.versionStoreConfig = versionStoreConfig;
     this.storeConfig = storeConfig;
     this.serverConfig = serverConfig;
+    this.meterRegistry = meterRegistry;
   }
 
   @Produces
@@ -107,6 +128,10 @@ public class PersistProvider {
       return null;
     }
     repositoryLogic(persist).initialize(serverConfig.getDefaultBranch());
+    // Commit contention is tracked per Persist instance, this is the one used by the version store
+    if (meterRegistry.isResolvable()) {
+      commitContention(persist).setListener(new CommitContentionMetrics(meterRegistry.get()));
+    }
     return persist;
   }
 
@@ -140,9 +165,19 @@ public class PersistProvider {
     String cacheInfo;
     int cacheCapacityMB = storeConfig.cacheCapacityMB();
     if (cacheCapacityMB > 0) {
-      CacheBackend cacheBackend = PersistCaches.newBackend(1024L * 1024L * cacheCapacityMB);
+      CacheMode cacheMode = storeConfig.cacheMode();
+      cacheBackend =
+          PersistCaches.newBackend(
+              CacheConfig.builder()
+                  .capacity(1024L * 1024L * cacheCapacityMB)
+                  .mode(cacheMode)
+                  .objectsTierPercent(storeConfig.cacheObjectsTierPercent())
+                  .referenceTtl(Duration.ofMillis(storeConfig.cacheReferenceTtlMillis()))
+                  .invalidationBus(createCacheInvalidationBus())
+                  .meterRegistry(meterRegistry.isResolvable() ? meterRegistry.get() : null)
+                  .build());
       persist = cacheBackend.wrap(persist);
-      cacheInfo = "with " + cacheCapacityMB + " MB objects cache";
+      cacheInfo = "with " + cacheCapacityMB + " MB objects cache (" + cacheMode + ")";
     } else {
       cacheInfo = "without objects cache";
     }
@@ -151,4 +186,54 @@ public class PersistProvider {
 
     return persist;
   }
+
+  private CacheInvalidationBus createCacheInvalidationBus() {
+    OptionalInt port = storeConfig.cacheInvalidationPort();
+    if (port.isEmpty()) {
+      return null;
+    }
+
+    InetAddress multicastGroup;
+    try {
+      multicastGroup =
+          storeConfig.cacheInvalidationMulticastGroup().isPresent()
+              ? InetAddress.getByName(storeConfig.cacheInvalidationMulticastGroup().get())
+              : null;
+    } catch (UnknownHostException e) {
+      throw new IllegalArgumentException(
+          "Invalid cache invalidation multicast group "
+              + storeConfig.cacheInvalidationMulticastGroup().get(),
+          e);
+    }
+    List<InetSocketAddress> peers =
+        storeConfig.cacheInvalidationPeers().orElse(List.of()).stream()
+            .map(
+                peer -> {
+                  int colon = peer.lastIndexOf(':');
+                  return colon > 0
+                      ? new InetSocketAddress(
+                          peer.substring(0, colon), Integer.parseInt(peer.substring(colon + 1)))
+                      : new InetSocketAddress(peer, port.getAsInt());
+                })
+            .collect(Collectors.toList());
+
+    LOGGER.info(
+        "Exchanging cache invalidations via UDP port {}, multicast group: {}, peers: {}",
+        port.getAsInt(),
+        multicastGroup,
+        peers);
+
+    cacheInvalidationBus = new UdpCacheInvalidationBus(port.getAsInt(), multicastGroup, peers);
+    return cacheInvalidationBus;
+  }
+
+  @PreDestroy
+  void closeCache() {
+    if (cacheBackend != null) {
+      cacheBackend.close();
+    }
+    if (cacheInvalidationBus != null) {
+      cacheInvalidationBus.close();
+    }
+  }
 }
@@ -15,6 +15,7 @@
  */
 package org.projectnessie.quarkus.providers.versionstore;
 
+import jakarta.annotation.PreDestroy;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.enterprise.inject.Any;
 import jakarta.enterprise.inject.Instance;
@@ -51,6 +52,7 @@ public class ConfigurableVersionStoreFactory {
   private final Instance<DatabaseAdapter> databaseAdapter;
   private final Instance<Persist> persist;
   private final Instance<Consumer<Result>> resultConsumer;
+  private VersionStoreImpl persistVersionStore;
 
   /**
    * Configurable version store factory.
@@ -98,7 +100,8 @@ public class ConfigurableVersionStoreFactory {
     try {
       Persist p = persist.select(WIthInitializedRepository.Literal.INSTANCE).get();
 
-      return new VersionStoreImpl(p);
+      persistVersionStore = new VersionStoreImpl(p);
+      return persistVersionStore;
     } catch (RuntimeException | IOError e) {
       LOGGER.error(
           "Failed to configure/start {} version store", storeConfig.getVersionStoreType(), e);
@@ -106,6 +109,13 @@ public class ConfigurableVersionStoreFactory {
     }
   }
 
+  @PreDestroy
+  void closeVersionStore() {
+    if (persistVersionStore != null) {
+      persistVersionStore.close();
+    }
+  }
+
   private VersionStore databaseAdapterVersionStore() {
     try {
       DatabaseAdapter da = databaseAdapter.select(WIthInitializedRepository.Literal.INSTANCE).get();
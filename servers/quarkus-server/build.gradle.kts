@@ -64,6 +64,7 @@ dependencies {
   implementation(platform(libs.cel.bom))
   implementation("org.projectnessie.cel:cel-tools")
   implementation("org.projectnessie.cel:cel-jackson")
+  implementation("com.github.ben-manes.caffeine:caffeine")
 
   if (project.hasProperty("k8s")) {
     /*
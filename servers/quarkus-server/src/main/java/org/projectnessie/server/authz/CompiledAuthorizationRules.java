@@ -17,12 +17,21 @@ package org.projectnessie.server.authz;
 
 import static org.projectnessie.services.authz.Check.CheckType.VIEW_REFERENCE;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.google.common.annotations.VisibleForTesting;
 import com.google.common.collect.ImmutableMap;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
 import io.quarkus.runtime.Startup;
+import io.quarkus.runtime.annotations.RegisterForReflection;
 import jakarta.inject.Inject;
 import jakarta.inject.Singleton;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Objects;
+import java.util.regex.Pattern;
 import org.projectnessie.cel.tools.Script;
 import org.projectnessie.cel.tools.ScriptException;
 import org.projectnessie.server.config.QuarkusNessieAuthorizationConfig;
@@ -31,20 +40,60 @@ import org.projectnessie.services.cel.CELUtil;
 /**
  * Compiles the authorization rules from {@link QuarkusNessieAuthorizationConfig} at startup and
  * provides access to them via {@link CompiledAuthorizationRules#getRules()}.
+ *
+ * <p>Authorization decisions are memoized in a bounded cache, keyed by the rule arguments, which
+ * include the role. Rules that do not reference the {@code path} argument are evaluated without the
+ * path, so all content checks with the same role, operation, reference and content type share the
+ * same decision for those rules.
  */
 @Singleton
 @Startup
+@RegisterForReflection(
+    classNames = {
+      "com.github.benmanes.caffeine.cache.SSSMS",
+      "com.github.benmanes.caffeine.cache.PSMS"
+    })
 public class CompiledAuthorizationRules {
   private final QuarkusNessieAuthorizationConfig config;
   private final Map<String, Script> compiledRules;
+  private final Map<String, Script> pathIndependentRules;
+  private final Map<String, Script> pathDependentRules;
+  private final Cache<DecisionKey, Boolean> decisionCache;
+  private final Counter evaluations;
   private static final String ALLOW_VIEWING_ALL_REFS_ID = "__ALLOW_VIEWING_REF_ID";
   private static final String ALLOW_VIEWING_ALL_REFS =
       String.format("op=='%s' && ref.matches('.*')", VIEW_REFERENCE);
+  private static final String PATH = "path";
+  private static final Pattern PATH_REFERENCE = Pattern.compile("\\b" + PATH + "\\b");
 
   @Inject
   public CompiledAuthorizationRules(QuarkusNessieAuthorizationConfig config) {
     this.config = config;
     this.compiledRules = compileAuthorizationRules();
+
+    ImmutableMap.Builder<String, Script> pathIndependent = ImmutableMap.builder();
+    ImmutableMap.Builder<String, Script> pathDependent = ImmutableMap.builder();
+    // The map key is the rule's expression. A rule that mentions 'path' anywhere (even in a
+    // string literal) is conservatively treated as depending on the path.
+    compiledRules.forEach(
+        (expression, script) ->
+            (PATH_REFERENCE.matcher(expression).find() ? pathDependent : pathIndependent)
+                .put(expression, script));
+    this.pathIndependentRules = pathIndependent.build();
+    this.pathDependentRules = pathDependent.build();
+
+    this.evaluations =
+        Counter.builder("nessie.authz.rule.evaluations")
+            .description("Number of evaluated authorization rules")
+            .register(Metrics.globalRegistry);
+
+    int cacheSize = config.decisionCacheMaxSize();
+    if (cacheSize > 0) {
+      this.decisionCache = Caffeine.newBuilder().maximumSize(cacheSize).recordStats().build();
+      CaffeineCacheMetrics.monitor(Metrics.globalRegistry, decisionCache, "nessie-authz-decisions");
+    } else {
+      this.decisionCache = null;
+    }
   }
 
   /**
@@ -89,4 +138,90 @@ public class CompiledAuthorizationRules {
   public Map<String, Script> getRules() {
     return compiledRules;
   }
+
+  /**
+   * Checks whether any authorization rule allows the operation described by the given arguments.
+   *
+   * @param arguments the arguments for the CEL expressions
+   * @return {@code true} if at least one rule evaluates to {@code true}
+   */
+  public boolean isAllowed(Map<String, Object> arguments) {
+    Map<String, Object> pathIndependentArguments = arguments;
+    Object path = arguments.get(PATH);
+    if (path != null && !"".equals(path)) {
+      Map<String, Object> withoutPath = new HashMap<>(arguments);
+      withoutPath.put(PATH, "");
+      pathIndependentArguments = withoutPath;
+    }
+
+    return decide(false, pathIndependentRules, pathIndependentArguments)
+        || decide(true, pathDependentRules, arguments);
+  }
+
+  private boolean decide(
+      boolean pathDependent, Map<String, Script> rules, Map<String, Object> arguments) {
+    if (rules.isEmpty()) {
+      return false;
+    }
+    Cache<DecisionKey, Boolean> cache = decisionCache;
+    if (cache == null) {
+      return evaluate(rules, arguments);
+    }
+    return cache.get(
+        new DecisionKey(pathDependent, arguments), k -> evaluate(rules, k.arguments));
+  }
+
+  private boolean evaluate(Map<String, Script> rules, Map<String, Object> arguments) {
+    for (Map.Entry<String, Script> entry : rules.entrySet()) {
+      evaluations.increment();
+      try {
+        if (entry.getValue().execute(Boolean.class, arguments)) {
+          return true;
+        }
+      } catch (ScriptException e) {
+        throw new RuntimeException(
+            String.format(
+                "Failed to execute authorization rule with id '%s' due to: %s",
+                entry.getKey(), e.getMessage()),
+            e);
+      }
+    }
+    return false;
+  }
+
+  @VisibleForTesting
+  Map<String, Script> getPathIndependentRules() {
+    return pathIndependentRules;
+  }
+
+  private static final class DecisionKey {
+    final boolean pathDependent;
+    final Map<String, Object> arguments;
+    final int hash;
+
+    DecisionKey(boolean pathDependent, Map<String, Object> arguments) {
+      this.pathDependent = pathDependent;
+      this.arguments = arguments;
+      this.hash = 31 * Boolean.hashCode(pathDependent) + arguments.hashCode();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (!(o instanceof DecisionKey)) {
+        return false;
+      }
+      DecisionKey that = (DecisionKey) o;
+      return hash == that.hash
+          && pathDependent == that.pathDependent
+          && Objects.equals(arguments, that.arguments);
+    }
+
+    @Override
+    public int hashCode() {
+      return hash;
+    }
+  }
 }
@@ -42,4 +42,13 @@ public interface QuarkusNessieAuthorizationConfig {
    *     expression.
    */
   Map<String, String> rules();
+
+  /**
+   * Maximum number of memoized authorization decisions, {@code 0} disables memoization.
+   *
+   * @return Maximum number of memoized authorization decisions.
+   */
+  @WithName("decision-cache-max-size")
+  @WithDefault("10000")
+  int decisionCacheMaxSize();
 }
@@ -0,0 +1,92 @@
+/*
+ * Copyright (C) 2023 Dremio
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.projectnessie.server.authz;
+
+import com.google.common.collect.ImmutableMap;
+import java.util.Map;
+import org.assertj.core.api.SoftAssertions;
+import org.assertj.core.api.junit.jupiter.InjectSoftAssertions;
+import org.assertj.core.api.junit.jupiter.SoftAssertionsExtension;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.projectnessie.server.config.QuarkusNessieAuthorizationConfig;
+
+@ExtendWith(SoftAssertionsExtension.class)
+public class TestCompiledAuthorizationRules {
+  @InjectSoftAssertions protected SoftAssertions soft;
+
+  @ParameterizedTest
+  @ValueSource(ints = {0, 100})
+  public void decisions(int cacheSize) {
+    CompiledAuthorizationRules rules =
+        new CompiledAuthorizationRules(
+            config(
+                cacheSize,
+                ImmutableMap.of(
+                    "allow_branch",
+                    "op=='READ_ENTITY_VALUE' && role=='alice' && ref=='main'",
+                    "allow_path",
+                    "op=='READ_ENTITY_VALUE' && role=='bob' && path.startsWith('public.')")));
+
+    soft.assertThat(rules.getPathIndependentRules())
+        .containsOnlyKeys(
+            "op=='READ_ENTITY_VALUE' && role=='alice' && ref=='main'",
+            // default rule to view all references
+            "op=='VIEW_REFERENCE' && ref.matches('.*')");
+
+    for (int i = 0; i < 3; i++) {
+      soft.assertThat(rules.isAllowed(args("alice", "main", "any.table" + i))).isTrue();
+      soft.assertThat(rules.isAllowed(args("alice", "dev", "any.table" + i))).isFalse();
+      soft.assertThat(rules.isAllowed(args("bob", "main", "public.table" + i))).isTrue();
+      soft.assertThat(rules.isAllowed(args("bob", "main", "private.table" + i))).isFalse();
+    }
+  }
+
+  private static Map<String, Object> args(String role, String ref, String path) {
+    return ImmutableMap.of(
+        "ref",
+        ref,
+        "path",
+        path,
+        "role",
+        role,
+        "op",
+        "READ_ENTITY_VALUE",
+        "contentType",
+        "ICEBERG_TABLE");
+  }
+
+  private static QuarkusNessieAuthorizationConfig config(
+      int cacheSize, Map<String, String> ruleExpressions) {
+    return new QuarkusNessieAuthorizationConfig() {
+      @Override
+      public boolean enabled() {
+        return true;
+      }
+
+      @Override
+      public Map<String, String> rules() {
+        return ruleExpressions;
+      }
+
+      @Override
+      public int decisionCacheMaxSize() {
+        return cacheSize;
+      }
+    };
+  }
+}
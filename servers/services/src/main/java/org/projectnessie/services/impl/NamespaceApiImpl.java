@@ -20,7 +20,6 @@ import static java.util.stream.StreamSupport.stream;
 import static org.projectnessie.error.ContentKeyErrorDetails.contentKeyErrorDetails;
 import static org.projectnessie.model.Validation.validateHash;
 import static org.projectnessie.services.impl.RefUtil.toReference;
-import static org.projectnessie.versioned.VersionStore.KeyRestrictions.NO_KEY_RESTRICTIONS;
 
 import com.google.common.base.Preconditions;
 import com.google.errorprone.annotations.MustBeClosed;
@@ -32,6 +31,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.function.BiPredicate;
 import java.util.function.Predicate;
 import java.util.function.Supplier;
 import java.util.stream.Stream;
@@ -132,15 +132,9 @@ public class NamespaceApiImpl extends BaseApiImpl implements NamespaceService {
       Namespace namespace = getNamespace(namespaceToDelete, refWithHash.getHash());
       Delete delete = Delete.of(namespace.toContentKey());
 
-      try (PaginationIterator<KeyEntry> keys =
-          getStore().getKeys(refWithHash.getHash(), null, false, NO_KEY_RESTRICTIONS)) {
-        while (keys.hasNext()) {
-          KeyEntry k = keys.next();
-          if (Namespace.of(k.getKey().contentKey().getElements())
-                  .isSameOrSubElementOf(namespaceToDelete)
-              && !Content.Type.NAMESPACE.equals(k.getKey().type())) {
-            throw namespaceNotEmptyException(namespaceToDelete);
-          }
+      try {
+        if (hasContentUnderNamespace(namespaceToDelete, refWithHash.getHash())) {
+          throw namespaceNotEmptyException(namespaceToDelete);
         }
       } catch (Exception e) {
         throw new RuntimeException(e);
@@ -286,19 +280,51 @@ public class NamespaceApiImpl extends BaseApiImpl implements NamespaceService {
     }
   }
 
+  /**
+   * Checks whether there is any non-namespace content below the given namespace. Only iterates the
+   * keys starting with the namespace's key and stops at the first matching key.
+   */
+  private boolean hasContentUnderNamespace(Namespace namespace, Hash hash)
+      throws ReferenceNotFoundException {
+    try (PaginationIterator<KeyEntry> keys =
+        getStore()
+            .getKeys(
+                hash,
+                null,
+                false,
+                namespaceKeyRestrictions(
+                    namespace, (key, type) -> !Content.Type.NAMESPACE.equals(type)))) {
+      return keys.hasNext();
+    }
+  }
+
   @MustBeClosed
   private Stream<KeyEntry> getNamespacesKeyStream(
       @Nullable @jakarta.annotation.Nullable Namespace namespace,
       Hash hash,
       Predicate<KeyEntry> earlyFilterPredicate)
       throws ReferenceNotFoundException {
-    PaginationIterator<KeyEntry> iter = getStore().getKeys(hash, null, false, NO_KEY_RESTRICTIONS);
+    PaginationIterator<KeyEntry> iter =
+        getStore().getKeys(hash, null, false, namespaceKeyRestrictions(namespace, null));
     return stream(spliteratorUnknownSize(iter, 0), false)
         .onClose(iter::close)
         .filter(earlyFilterPredicate)
         .filter(k -> null == namespace || namespaceFromType(k).isSameOrSubElementOf(namespace));
   }
 
+  /**
+   * Restricts the keys to the ones starting with the namespace's elements, so that only the parts
+   * of the key index that cover the namespace need to be read.
+   */
+  private static VersionStore.KeyRestrictions namespaceKeyRestrictions(
+      @Nullable @jakarta.annotation.Nullable Namespace namespace,
+      @Nullable @jakarta.annotation.Nullable BiPredicate<ContentKey, Content.Type> predicate) {
+    return VersionStore.KeyRestrictions.builder()
+        .prefixKey(namespace != null && !namespace.isEmpty() ? namespace.toContentKey() : null)
+        .contentKeyPredicate(predicate)
+        .build();
+  }
+
   /**
    * If the {@link Content.Type} is an actual {@link Content.Type#NAMESPACE}, then we're returning
    * its name without modification as a {@link Namespace} instance. If the {@link Content.Type} is
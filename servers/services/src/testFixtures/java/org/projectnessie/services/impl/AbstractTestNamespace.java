@@ -199,6 +199,32 @@ public abstract class AbstractTestNamespace extends BaseTestServiceImpl {
     }
   }
 
+  @Test
+  public void testNamespaceDeletionWithSimilarlyNamedSibling()
+      throws BaseNessieClientServerException {
+    Namespace ab = Namespace.parse("a.b");
+    Namespace abc = Namespace.parse("a.bc");
+    ContentKey tableKey = ContentKey.of("a", "bc", "table");
+    Branch init = ensureNamespacesForKeysExist(createBranch("similarSibling"), tableKey);
+    namespaceApi().createNamespace(init.getName(), ab);
+    Branch branch =
+        commit(
+                (Branch) getReference(init.getName()),
+                fromMessage("add table"),
+                Put.of(tableKey, IcebergTable.of("t", 42, 42, 42, 42)))
+            .getTargetBranch();
+
+    soft.assertThat(namespaceApi().getNamespaces(branch.getName(), null, ab).getNamespaces())
+        .extracting(Namespace::getElements)
+        .containsExactly(ab.getElements());
+
+    soft.assertThatThrownBy(() -> namespaceApi().deleteNamespace(branch.getName(), abc))
+        .cause()
+        .isInstanceOf(NessieNamespaceNotEmptyException.class);
+    soft.assertThatCode(() -> namespaceApi().deleteNamespace(branch.getName(), ab))
+        .doesNotThrowAnyException();
+  }
+
   @Test
   public void testNamespaceMerge() throws BaseNessieClientServerException {
     assumeThat(databaseAdapter).isNotNull();
@@ -550,18 +550,27 @@ public class PersistVersionStore implements VersionStore {
       throws ReferenceNotFoundException {
     checkArgument(pagingToken == null, "Paging not supported by the storage model in use");
     checkArgument(
-        keyRestrictions.minKey() == null
-            && keyRestrictions.maxKey() == null
-            && keyRestrictions.prefixKey() == null,
+        keyRestrictions.minKey() == null && keyRestrictions.maxKey() == null,
         "Key ranges not supported by the storage model in use");
     Hash hash = refToHash(ref);
 
     BiPredicate<ContentKey, Content.Type> contentKeyPredicate =
         keyRestrictions.contentKeyPredicate();
-    KeyFilterPredicate keyPred =
-        contentKeyPredicate != null
-            ? (k, c, t) -> contentKeyPredicate.test(k, contentTypeForPayload(t))
-            : KeyFilterPredicate.ALLOW_ALL;
+    // The database adapter cannot seek to a key, so the prefix is only applied as a filter.
+    ContentKey prefixKey = keyRestrictions.prefixKey();
+    KeyFilterPredicate keyPred;
+    if (prefixKey != null) {
+      keyPred =
+          contentKeyPredicate != null
+              ? (k, c, t) ->
+                  k.startsWith(prefixKey) && contentKeyPredicate.test(k, contentTypeForPayload(t))
+              : (k, c, t) -> k.startsWith(prefixKey);
+    } else {
+      keyPred =
+          contentKeyPredicate != null
+              ? (k, c, t) -> contentKeyPredicate.test(k, contentTypeForPayload(t))
+              : KeyFilterPredicate.ALLOW_ALL;
+    }
 
     @SuppressWarnings("MustBeClosedChecker")
     Stream<KeyListEntry> source = databaseAdapter.keys(hash, keyPred);
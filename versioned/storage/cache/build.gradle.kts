@@ -17,6 +17,7 @@
 plugins {
   id("nessie-conventions-server")
   id("nessie-jacoco")
+  alias(libs.plugins.jmh)
 }
 
 extra["maven.name"] = "Nessie - Storage - Cache"
@@ -26,6 +27,7 @@ description = "Provides caching functionality, bounded by heap pressure."
 dependencies {
   implementation(project(":nessie-versioned-storage-common"))
   implementation(project(":nessie-versioned-storage-common-serialize"))
+  implementation(project(path = ":nessie-protobuf-relocated", configuration = "shadow"))
 
   // javax/jakarta
   compileOnly(libs.jakarta.validation.api)
@@ -37,6 +39,8 @@ dependencies {
 
   implementation(libs.guava)
   implementation(libs.caffeine)
+  api(libs.micrometer.core)
+  implementation(libs.slf4j.api)
 
   compileOnly(libs.immutables.builder)
   compileOnly(libs.immutables.value.annotations)
@@ -48,5 +52,14 @@ dependencies {
 
   testImplementation(platform(libs.junit.bom))
   testImplementation(libs.bundles.junit.testing)
+  testImplementation(libs.awaitility)
   testRuntimeOnly(libs.logback.classic)
+
+  jmhImplementation(libs.jmh.core)
+  jmhImplementation(project(":nessie-versioned-storage-common-tests"))
+  jmhAnnotationProcessor(libs.jmh.generator.annprocess)
 }
+
+tasks.named("processJmhJandexIndex").configure { enabled = false }
+
+jmh { jmhVersion.set(libs.versions.jmh.get()) }
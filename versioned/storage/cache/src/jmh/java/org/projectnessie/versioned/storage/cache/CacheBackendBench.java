@@ -0,0 +1,96 @@
+/*
+ * Copyright (C) 2023 Dremio
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.projectnessie.versioned.storage.cache;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.stream.Collectors;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.projectnessie.versioned.storage.common.persist.Obj;
+import org.projectnessie.versioned.storage.common.persist.ObjId;
+import org.projectnessie.versioned.storage.common.persist.ObjType;
+import org.projectnessie.versioned.storage.commontests.AbstractBasePersistTests;
+
+/**
+ * Compares cache-hit latency of the {@link CacheMode cache modes}.
+ *
+ * <p>Run with {@code -prof gc} to also compare the allocation rate, which is dominated by
+ * deserialization for {@link CacheMode#SERIALIZED}.
+ */
+@Warmup(iterations = 2, time = 2000, timeUnit = MILLISECONDS)
+@Measurement(iterations = 3, time = 1000, timeUnit = MILLISECONDS)
+@Fork(1)
+@Threads(4)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(NANOSECONDS)
+public class CacheBackendBench {
+  private static final String REPO_ID = "repo";
+
+  @State(Scope.Benchmark)
+  public static class BenchmarkParam {
+
+    @Param({"SERIALIZED", "OBJECTS", "TIERED", "OFF_HEAP"})
+    public CacheMode mode;
+
+    @Param({"COMMIT", "INDEX_SEGMENTS", "VALUE"})
+    public ObjType objType;
+
+    private CacheBackend backend;
+    private ObjId[] ids;
+
+    @Setup
+    public void init() {
+      backend =
+          PersistCaches.newBackend(
+              CacheConfig.builder().capacity(64L * 1024L * 1024L).mode(mode).build());
+
+      List<Obj> objs =
+          AbstractBasePersistTests.allObjectTypeSamples()
+              .filter(o -> o.type() == objType)
+              .collect(Collectors.toList());
+      objs.forEach(o -> backend.put(REPO_ID, o));
+      ids = objs.stream().map(Obj::id).toArray(ObjId[]::new);
+    }
+
+    ObjId randomId() {
+      return ids[ThreadLocalRandom.current().nextInt(ids.length)];
+    }
+  }
+
+  @Benchmark
+  public Obj getHit(BenchmarkParam param) {
+    return param.backend.get(REPO_ID, param.randomId());
+  }
+
+  @Benchmark
+  public Obj getMiss(BenchmarkParam param) {
+    return param.backend.get(REPO_ID, ObjId.randomObjId());
+  }
+}
@@ -0,0 +1,87 @@
+/*
+ * Copyright (C) 2023 Dremio
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.projectnessie.versioned.storage.cache;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import org.projectnessie.versioned.storage.common.persist.Reference;
+
+/**
+ * Base class for {@link CacheBackend}s that cache objects themselves, and delegate caching of
+ * references to an optional {@link ReferenceCache}.
+ */
+abstract class AbstractCacheBackend implements CacheBackend {
+
+  /** The cache for references, or {@code null}, if references are not cached. */
+  @Nullable
+  @jakarta.annotation.Nullable
+  abstract ReferenceCache referenceCache();
+
+  /** Removes the cached references of the given repository, called by {@link #clear(String)}. */
+  void clearReferences(String repositoryId) {
+    ReferenceCache refs = referenceCache();
+    if (refs != null) {
+      refs.clear(repositoryId);
+    }
+  }
+
+  @Override
+  public Reference getReference(
+      @Nonnull @jakarta.annotation.Nonnull String repositoryId,
+      @Nonnull @jakarta.annotation.Nonnull String name) {
+    ReferenceCache refs = referenceCache();
+    return refs != null ? refs.get(repositoryId, name) : null;
+  }
+
+  @Override
+  public void putReference(
+      @Nonnull @jakarta.annotation.Nonnull String repositoryId,
+      @Nonnull @jakarta.annotation.Nonnull Reference reference) {
+    ReferenceCache refs = referenceCache();
+    if (refs != null) {
+      refs.put(repositoryId, reference);
+    }
+  }
+
+  @Override
+  public void removeReference(
+      @Nonnull @jakarta.annotation.Nonnull String repositoryId,
+      @Nonnull @jakarta.annotation.Nonnull String name) {
+    ReferenceCache refs = referenceCache();
+    if (refs != null) {
+      refs.remove(repositoryId, name);
+    }
+  }
+
+  @Override
+  public long referenceGeneration(
+      @Nonnull @jakarta.annotation.Nonnull String repositoryId,
+      @Nonnull @jakarta.annotation.Nonnull String name) {
+    ReferenceCache refs = referenceCache();
+    return refs != null ? refs.generation(repositoryId, name) : 0L;
+  }
+
+  @Override
+  public void putFetchedReference(
+      @Nonnull @jakarta.annotation.Nonnull String repositoryId,
+      @Nonnull @jakarta.annotation.Nonnull Reference reference,
+      long generation) {
+    ReferenceCache refs = referenceCache();
+    if (refs != null) {
+      refs.putFetched(repositoryId, reference, generation);
+    }
+  }
+}
@@ -20,6 +20,7 @@ import org.projectnessie.versioned.storage.common.persist.Backend;
 import org.projectnessie.versioned.storage.common.persist.Obj;
 import org.projectnessie.versioned.storage.common.persist.ObjId;
 import org.projectnessie.versioned.storage.common.persist.Persist;
+import org.projectnessie.versioned.storage.common.persist.Reference;
 
 /**
  * Provides the cache primitives for a caching {@link Persist} facade, suitable for multiple
@@ -40,5 +41,43 @@ public interface CacheBackend {
 
   void clear(@Nonnull @jakarta.annotation.Nonnull String repositoryId);
 
+  /**
+   * Returns the cached reference with the given name, or {@code null} if the reference is not
+   * cached or if reference caching is not enabled.
+   */
+  Reference getReference(
+      @Nonnull @jakarta.annotation.Nonnull String repositoryId,
+      @Nonnull @jakarta.annotation.Nonnull String name);
+
+  void putReference(
+      @Nonnull @jakarta.annotation.Nonnull String repositoryId,
+      @Nonnull @jakarta.annotation.Nonnull Reference reference);
+
+  void removeReference(
+      @Nonnull @jakarta.annotation.Nonnull String repositoryId,
+      @Nonnull @jakarta.annotation.Nonnull String name);
+
+  /**
+   * Returns the current generation of the cache entry for the given reference, must be retrieved
+   * before fetching the reference from the database and passed to {@link
+   * #putFetchedReference(String, Reference, long)}.
+   */
+  long referenceGeneration(
+      @Nonnull @jakarta.annotation.Nonnull String repositoryId,
+      @Nonnull @jakarta.annotation.Nonnull String name);
+
+  /**
+   * Caches a reference that has been fetched from the database, unless the cache entry for the
+   * reference has been updated or removed since {@link #referenceGeneration(String, String)}
+   * returned the given generation, in which case the fetched reference might be outdated.
+   */
+  void putFetchedReference(
+      @Nonnull @jakarta.annotation.Nonnull String repositoryId,
+      @Nonnull @jakarta.annotation.Nonnull Reference reference,
+      long generation);
+
   Persist wrap(@Nonnull @jakarta.annotation.Nonnull Persist perist);
+
+  /** Releases resources held by this backend, for example metrics registered by the backend. */
+  default void close() {}
 }
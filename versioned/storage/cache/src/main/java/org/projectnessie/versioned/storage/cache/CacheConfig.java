@@ -0,0 +1,112 @@
+/*
+ * Copyright (C) 2023 Dremio
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.projectnessie.versioned.storage.cache;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Duration;
+import javax.annotation.Nullable;
+import org.immutables.value.Value;
+
+/** Configuration for a {@link CacheBackend}, see {@link PersistCaches#newBackend(CacheConfig)}. */
+@Value.Immutable
+public interface CacheConfig {
+
+  int DEFAULT_OBJECTS_TIER_PERCENT = 10;
+  long DEFAULT_REFERENCE_CACHE_MAX_SIZE = 10_000L;
+  int DEFAULT_OFF_HEAP_SLAB_SIZE = OffHeapCacheBackend.DEFAULT_SLAB_SIZE;
+
+  static ImmutableCacheConfig.Builder builder() {
+    return ImmutableCacheConfig.builder();
+  }
+
+  /** The total capacity of the cache in bytes, shared by all tiers. */
+  long capacity();
+
+  @Value.Default
+  default CacheMode mode() {
+    return CacheMode.SERIALIZED;
+  }
+
+  /**
+   * Percentage of {@link #capacity()} used for the tier holding deserialized objects, only used
+   * for {@link CacheMode#TIERED}.
+   */
+  @Value.Default
+  default int objectsTierPercent() {
+    return DEFAULT_OBJECTS_TIER_PERCENT;
+  }
+
+  /**
+   * Size of the direct memory slabs in bytes, only used for {@link CacheMode#OFF_HEAP}. Objects
+   * that are bigger than a slab are not cached.
+   */
+  @Value.Default
+  default int offHeapSlabSize() {
+    return DEFAULT_OFF_HEAP_SLAB_SIZE;
+  }
+
+  /**
+   * Time-to-live of cached references, references are not cached if zero, which is the default.
+   *
+   * <p>{@link org.projectnessie.versioned.storage.common.persist.Reference}s are mutable. Reference
+   * updates performed by the same Nessie instance update the cached references immediately, but
+   * updates performed by other Nessie instances sharing the same database will only become visible
+   * after the TTL expired. Conditional reference pointer updates are not affected, because a
+   * failing update removes the stale reference from the cache, so the retry sees the current
+   * reference.
+   */
+  @Value.Default
+  default Duration referenceTtl() {
+    return Duration.ZERO;
+  }
+
+  /** Maximum number of cached references, only used if {@link #referenceTtl()} is positive. */
+  @Value.Default
+  default long referenceCacheMaxSize() {
+    return DEFAULT_REFERENCE_CACHE_MAX_SIZE;
+  }
+
+  /**
+   * Optional bus to exchange cache invalidations with other Nessie instances sharing the same
+   * backend database. Objects and references removed from the local cache, because they have been
+   * changed, are also evicted from the caches of the other instances.
+   */
+  @Nullable
+  @jakarta.annotation.Nullable
+  CacheInvalidationBus invalidationBus();
+
+  /**
+   * Optional registry for the metrics of the cache backend, currently only used for {@link
+   * CacheMode#OFF_HEAP}. The metrics are removed from the registry when the backend is {@linkplain
+   * CacheBackend#close() closed}.
+   */
+  @Nullable
+  @jakarta.annotation.Nullable
+  MeterRegistry meterRegistry();
+
+  @Value.Check
+  default void check() {
+    checkArgument(capacity() >= 0L, "Cache capacity must not be negative");
+    checkArgument(
+        objectsTierPercent() > 0 && objectsTierPercent() < 100,
+        "Objects tier percentage must be between 1 and 99");
+    checkArgument(offHeapSlabSize() > 0, "Off-heap slab size must be positive");
+    checkArgument(!referenceTtl().isNegative(), "Reference TTL must not be negative");
+    checkArgument(referenceCacheMaxSize() > 0L, "Reference cache max size must be positive");
+  }
+}
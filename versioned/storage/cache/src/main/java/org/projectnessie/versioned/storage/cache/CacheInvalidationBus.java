@@ -0,0 +1,58 @@
+/*
+ * Copyright (C) 2023 Dremio
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.projectnessie.versioned.storage.cache;
+
+import javax.annotation.Nonnull;
+import org.projectnessie.versioned.storage.common.persist.ObjId;
+
+/**
+ * Distributes cache invalidations between multiple Nessie instances that share the same backend
+ * database, so that mutable objects and references cached by one instance are evicted when they
+ * are changed by another instance.
+ *
+ * <p>Invalidations are best-effort, implementations may lose messages.
+ */
+public interface CacheInvalidationBus extends AutoCloseable {
+
+  /** Receives invalidations sent by other Nessie instances. */
+  interface Receiver {
+    void objInvalidated(
+        @Nonnull @jakarta.annotation.Nonnull String repositoryId,
+        @Nonnull @jakarta.annotation.Nonnull ObjId id);
+
+    void referenceInvalidated(
+        @Nonnull @jakarta.annotation.Nonnull String repositoryId,
+        @Nonnull @jakarta.annotation.Nonnull String name);
+
+    void repositoryInvalidated(@Nonnull @jakarta.annotation.Nonnull String repositoryId);
+  }
+
+  /** Sets the receiver of invalidations sent by other instances, replaces a previous receiver. */
+  void receiver(@Nonnull @jakarta.annotation.Nonnull Receiver receiver);
+
+  void sendObjInvalidation(
+      @Nonnull @jakarta.annotation.Nonnull String repositoryId,
+      @Nonnull @jakarta.annotation.Nonnull ObjId id);
+
+  void sendReferenceInvalidation(
+      @Nonnull @jakarta.annotation.Nonnull String repositoryId,
+      @Nonnull @jakarta.annotation.Nonnull String name);
+
+  void sendRepositoryInvalidation(@Nonnull @jakarta.annotation.Nonnull String repositoryId);
+
+  @Override
+  void close();
+}
@@ -0,0 +1,47 @@
+/*
+ * Copyright (C) 2023 Dremio
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.projectnessie.versioned.storage.cache;
+
+import org.projectnessie.versioned.storage.common.persist.Obj;
+
+/** Defines how a {@link CacheBackend} holds cached objects. */
+public enum CacheMode {
+  /**
+   * Objects are held in their serialized form and deserialized on every cache hit. This is the
+   * most heap-efficient mode.
+   */
+  SERIALIZED,
+
+  /**
+   * Deserialized, immutable {@link Obj} instances are held directly, cache hits do not need to
+   * deserialize. Deserialized objects retain more heap than their serialized form, so the same
+   * capacity holds fewer objects.
+   */
+  OBJECTS,
+
+  /**
+   * A small tier holding deserialized {@link Obj} instances in front of a larger tier holding
+   * serialized objects, see {@link CacheConfig#objectsTierPercent()}.
+   */
+  TIERED,
+
+  /**
+   * Objects are held in their serialized form in direct (off-heap) memory and deserialized on every
+   * cache hit. Allows large caches without increasing the Java heap and GC pauses. The capacity is
+   * bounded by the JVM's {@code -XX:MaxDirectMemorySize} option.
+   */
+  OFF_HEAP
+}
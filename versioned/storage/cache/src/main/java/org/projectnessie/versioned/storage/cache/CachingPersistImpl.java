@@ -254,7 +254,15 @@ class CachingPersistImpl implements Persist {
   @jakarta.annotation.Nonnull
   public Reference addReference(@Nonnull @jakarta.annotation.Nonnull Reference reference)
       throws RefAlreadyExistsException {
-    return persist.addReference(reference);
+    Reference r;
+    try {
+      r = persist.addReference(reference);
+    } catch (RefAlreadyExistsException e) {
+      cache.removeReference(reference.name());
+      throw e;
+    }
+    referenceChanged(r);
+    return r;
   }
 
   @Override
@@ -262,13 +270,25 @@ class CachingPersistImpl implements Persist {
   @jakarta.annotation.Nonnull
   public Reference markReferenceAsDeleted(@Nonnull @jakarta.annotation.Nonnull Reference reference)
       throws RefNotFoundException, RefConditionFailedException {
-    return persist.markReferenceAsDeleted(reference);
+    Reference r;
+    try {
+      r = persist.markReferenceAsDeleted(reference);
+    } catch (RefNotFoundException | RefConditionFailedException e) {
+      cache.removeReference(reference.name());
+      throw e;
+    }
+    referenceChanged(r);
+    return r;
   }
 
   @Override
   public void purgeReference(@Nonnull @jakarta.annotation.Nonnull Reference reference)
       throws RefNotFoundException, RefConditionFailedException {
-    persist.purgeReference(reference);
+    try {
+      persist.purgeReference(reference);
+    } finally {
+      cache.removeReference(reference.name());
+    }
   }
 
   @Override
@@ -278,18 +298,79 @@ class CachingPersistImpl implements Persist {
       @Nonnull @jakarta.annotation.Nonnull Reference reference,
       @Nonnull @jakarta.annotation.Nonnull ObjId newPointer)
       throws RefNotFoundException, RefConditionFailedException {
-    return persist.updateReferencePointer(reference, newPointer);
+    Reference r;
+    try {
+      r = persist.updateReferencePointer(reference, newPointer);
+    } catch (RefNotFoundException | RefConditionFailedException e) {
+      // The cached reference might be stale, which is likely the reason why the conditional update
+      // failed. Remove it, so that a retry sees the current state.
+      cache.removeReference(reference.name());
+      throw e;
+    }
+    referenceChanged(r);
+    return r;
+  }
+
+  private void referenceChanged(Reference reference) {
+    // Removing the reference from the cache also notifies other Nessie instances, if the cache
+    // backend uses a CacheInvalidationBus.
+    cache.removeReference(reference.name());
+    cache.putReference(reference);
   }
 
   @Override
   public Reference fetchReference(@Nonnull @jakarta.annotation.Nonnull String name) {
-    return persist.fetchReference(name);
+    Reference r = cache.getReference(name);
+    if (r == null) {
+      // Obtain the generation before fetching, so that a reference updated concurrently is not
+      // overwritten in the cache with the outdated one fetched here.
+      long generation = cache.referenceGeneration(name);
+      r = persist.fetchReference(name);
+      if (r != null) {
+        cache.putFetchedReference(r, generation);
+      }
+    }
+    return r;
   }
 
   @Override
   @Nonnull
   @jakarta.annotation.Nonnull
   public Reference[] fetchReferences(@Nonnull @jakarta.annotation.Nonnull String[] names) {
-    return persist.fetchReferences(names);
+    String[] backendNames = null;
+    long[] generations = null;
+    Reference[] r = new Reference[names.length];
+
+    for (int i = 0; i < names.length; i++) {
+      String name = names[i];
+      if (name == null) {
+        continue;
+      }
+      Reference ref = cache.getReference(name);
+      if (ref != null) {
+        r[i] = ref;
+      } else {
+        if (backendNames == null) {
+          backendNames = new String[names.length];
+          generations = new long[names.length];
+        }
+        backendNames[i] = name;
+        generations[i] = cache.referenceGeneration(name);
+      }
+    }
+
+    if (backendNames == null) {
+      return r;
+    }
+
+    Reference[] backendResult = persist.fetchReferences(backendNames);
+    for (int i = 0; i < backendResult.length; i++) {
+      Reference ref = backendResult[i];
+      if (ref != null) {
+        r[i] = ref;
+        cache.putFetchedReference(ref, generations[i]);
+      }
+    }
+    return r;
   }
 }
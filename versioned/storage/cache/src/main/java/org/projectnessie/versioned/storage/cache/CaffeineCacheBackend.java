@@ -28,7 +28,7 @@ import org.projectnessie.versioned.storage.common.persist.Persist;
 import org.projectnessie.versioned.storage.serialize.ProtoSerialization;
 
 @Value.Immutable
-abstract class CaffeineCacheBackend implements CacheBackend {
+abstract class CaffeineCacheBackend extends AbstractCacheBackend {
 
   public static final int JAVA_OBJ_HEADER = 32;
 
@@ -94,47 +94,10 @@ abstract class CaffeineCacheBackend implements CacheBackend {
   @Override
   public void clear(@Nonnull @jakarta.annotation.Nonnull String repositoryId) {
     cache().asMap().keySet().removeIf(k -> k.repositoryId.equals(repositoryId));
+    clearReferences(repositoryId);
   }
 
   private CacheKey cacheKey(String repositoryId, ObjId id) {
     return new CacheKey(repositoryId, id);
   }
-
-  static final class CacheKey {
-
-    static final int HEAP_OVERHEAD = 3 * JAVA_OBJ_HEADER;
-    final String repositoryId;
-    final ObjId id;
-
-    CacheKey(String repositoryId, ObjId id) {
-      this.repositoryId = repositoryId;
-      this.id = id;
-    }
-
-    int heapSize() {
-      return HEAP_OVERHEAD + id.size() + repositoryId.length();
-    }
-
-    @Override
-    public boolean equals(Object o) {
-      if (this == o) {
-        return true;
-      }
-      if (!(o instanceof CacheKey)) {
-        return false;
-      }
-      CacheKey cacheKey = (CacheKey) o;
-      return repositoryId.equals(cacheKey.repositoryId) && id.equals(cacheKey.id);
-    }
-
-    @Override
-    public int hashCode() {
-      return repositoryId.hashCode() * 31 + id.hashCode();
-    }
-
-    @Override
-    public String toString() {
-      return "CacheKey{" + repositoryId + ", " + id + '}';
-    }
-  }
 }
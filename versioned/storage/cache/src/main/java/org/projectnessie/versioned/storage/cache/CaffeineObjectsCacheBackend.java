@@ -0,0 +1,97 @@
+/*
+ * Copyright (C) 2023 Dremio
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.projectnessie.versioned.storage.cache;
+
+import static org.projectnessie.versioned.storage.cache.ObjSizes.objHeapSize;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import javax.annotation.Nonnull;
+import org.immutables.value.Value;
+import org.projectnessie.versioned.storage.common.persist.Obj;
+import org.projectnessie.versioned.storage.common.persist.ObjId;
+import org.projectnessie.versioned.storage.common.persist.Persist;
+
+/**
+ * Cache backend that holds deserialized {@link Obj} instances, entries are weighed using {@link
+ * ObjSizes#objHeapSize(Obj)}.
+ *
+ * <p>All {@link Obj} implementations are immutable, so it is safe to hand out the same instance to
+ * multiple callers.
+ */
+@Value.Immutable
+abstract class CaffeineObjectsCacheBackend extends AbstractCacheBackend {
+
+  static ImmutableCaffeineObjectsCacheBackend.Builder builder() {
+    return ImmutableCaffeineObjectsCacheBackend.builder();
+  }
+
+  abstract long capacity();
+
+  @Value.Derived
+  Cache<CacheKey, Obj> cache() {
+    // IMPORTANT!
+    // When changing the configuration of the Caffeine cache, make sure to run the
+    // _native_ Quarkus tests and adopt the `@ReflectionConfig` in
+    // org.projectnessie.quarkus.providers.PersistProvider.
+    return Caffeine.newBuilder()
+        .maximumWeight(capacity())
+        .recordStats()
+        .weigher(this::weigher)
+        .build();
+  }
+
+  @Override
+  public Persist wrap(@Nonnull @jakarta.annotation.Nonnull Persist persist) {
+    ObjCacheImpl cache = new ObjCacheImpl(this, persist.config().repositoryId());
+    return new CachingPersistImpl(persist, cache);
+  }
+
+  private int weigher(CacheKey key, Obj obj) {
+    return key.heapSize() + objHeapSize(obj);
+  }
+
+  @Override
+  public Obj get(
+      @Nonnull @jakarta.annotation.Nonnull String repositoryId,
+      @Nonnull @jakarta.annotation.Nonnull ObjId id) {
+    return cache().getIfPresent(cacheKey(repositoryId, id));
+  }
+
+  @Override
+  public void put(
+      @Nonnull @jakarta.annotation.Nonnull String repositoryId,
+      @Nonnull @jakarta.annotation.Nonnull Obj obj) {
+    cache().put(cacheKey(repositoryId, obj.id()), obj);
+  }
+
+  @Override
+  public void remove(
+      @Nonnull @jakarta.annotation.Nonnull String repositoryId,
+      @Nonnull @jakarta.annotation.Nonnull ObjId id) {
+    cache().invalidate(cacheKey(repositoryId, id));
+  }
+
+  @Override
+  public void clear(@Nonnull @jakarta.annotation.Nonnull String repositoryId) {
+    cache().asMap().keySet().removeIf(k -> k.repositoryId.equals(repositoryId));
+    clearReferences(repositoryId);
+  }
+
+  private CacheKey cacheKey(String repositoryId, ObjId id) {
+    return new CacheKey(repositoryId, id);
+  }
+}
@@ -0,0 +1,95 @@
+/*
+ * Copyright (C) 2023 Dremio
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.projectnessie.versioned.storage.cache;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import javax.annotation.Nonnull;
+import org.projectnessie.versioned.storage.common.persist.ObjId;
+
+/**
+ * {@link CacheInvalidationBus} that delivers invalidations synchronously to all other buses created
+ * from the same {@link Group}, intended to simulate multiple Nessie instances in a single JVM in
+ * tests.
+ */
+public final class InJvmCacheInvalidationBus implements CacheInvalidationBus {
+
+  /** A set of connected {@link InJvmCacheInvalidationBus} instances. */
+  public static final class Group {
+    private final List<InJvmCacheInvalidationBus> members = new CopyOnWriteArrayList<>();
+
+    public InJvmCacheInvalidationBus newBus() {
+      InJvmCacheInvalidationBus bus = new InJvmCacheInvalidationBus(this);
+      members.add(bus);
+      return bus;
+    }
+  }
+
+  private final Group group;
+  private volatile Receiver receiver;
+
+  private InJvmCacheInvalidationBus(Group group) {
+    this.group = group;
+  }
+
+  public static Group newGroup() {
+    return new Group();
+  }
+
+  @Override
+  public void receiver(@Nonnull @jakarta.annotation.Nonnull Receiver receiver) {
+    this.receiver = receiver;
+  }
+
+  @Override
+  public void sendObjInvalidation(
+      @Nonnull @jakarta.annotation.Nonnull String repositoryId,
+      @Nonnull @jakarta.annotation.Nonnull ObjId id) {
+    for (InJvmCacheInvalidationBus member : group.members) {
+      Receiver r = member.receiver;
+      if (member != this && r != null) {
+        r.objInvalidated(repositoryId, id);
+      }
+    }
+  }
+
+  @Override
+  public void sendReferenceInvalidation(
+      @Nonnull @jakarta.annotation.Nonnull String repositoryId,
+      @Nonnull @jakarta.annotation.Nonnull String name) {
+    for (InJvmCacheInvalidationBus member : group.members) {
+      Receiver r = member.receiver;
+      if (member != this && r != null) {
+        r.referenceInvalidated(repositoryId, name);
+      }
+    }
+  }
+
+  @Override
+  public void sendRepositoryInvalidation(@Nonnull @jakarta.annotation.Nonnull String repositoryId) {
+    for (InJvmCacheInvalidationBus member : group.members) {
+      Receiver r = member.receiver;
+      if (member != this && r != null) {
+        r.repositoryInvalidated(repositoryId);
+      }
+    }
+  }
+
+  @Override
+  public void close() {
+    group.members.remove(this);
+  }
+}
@@ -0,0 +1,147 @@
+/*
+ * Copyright (C) 2023 Dremio
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.projectnessie.versioned.storage.cache;
+
+import javax.annotation.Nonnull;
+import org.projectnessie.versioned.storage.common.persist.Obj;
+import org.projectnessie.versioned.storage.common.persist.ObjId;
+import org.projectnessie.versioned.storage.common.persist.Persist;
+import org.projectnessie.versioned.storage.common.persist.Reference;
+
+/**
+ * Cache backend that forwards all operations to a local cache backend and sends removals of
+ * objects and references via a {@link CacheInvalidationBus} to other Nessie instances.
+ * Invalidations received from other Nessie instances are applied to the local cache backend.
+ *
+ * <p>Adding objects or references to the cache does not send invalidations, callers that change a
+ * reference or an object must remove it from the cache.
+ */
+final class InvalidatingCacheBackend implements CacheBackend, CacheInvalidationBus.Receiver {
+  private final CacheBackend local;
+  private final CacheInvalidationBus bus;
+
+  InvalidatingCacheBackend(CacheBackend local, CacheInvalidationBus bus) {
+    this.local = local;
+    this.bus = bus;
+    bus.receiver(this);
+  }
+
+  @Override
+  public Persist wrap(@Nonnull @jakarta.annotation.Nonnull Persist persist) {
+    ObjCacheImpl cache = new ObjCacheImpl(this, persist.config().repositoryId());
+    return new CachingPersistImpl(persist, cache);
+  }
+
+  @Override
+  public Obj get(
+      @Nonnull @jakarta.annotation.Nonnull String repositoryId,
+      @Nonnull @jakarta.annotation.Nonnull ObjId id) {
+    return local.get(repositoryId, id);
+  }
+
+  @Override
+  public void put(
+      @Nonnull @jakarta.annotation.Nonnull String repositoryId,
+      @Nonnull @jakarta.annotation.Nonnull Obj obj) {
+    local.put(repositoryId, obj);
+  }
+
+  @Override
+  public void remove(
+      @Nonnull @jakarta.annotation.Nonnull String repositoryId,
+      @Nonnull @jakarta.annotation.Nonnull ObjId id) {
+    try {
+      local.remove(repositoryId, id);
+    } finally {
+      bus.sendObjInvalidation(repositoryId, id);
+    }
+  }
+
+  @Override
+  public void clear(@Nonnull @jakarta.annotation.Nonnull String repositoryId) {
+    try {
+      local.clear(repositoryId);
+    } finally {
+      bus.sendRepositoryInvalidation(repositoryId);
+    }
+  }
+
+  @Override
+  public Reference getReference(
+      @Nonnull @jakarta.annotation.Nonnull String repositoryId,
+      @Nonnull @jakarta.annotation.Nonnull String name) {
+    return local.getReference(repositoryId, name);
+  }
+
+  @Override
+  public void putReference(
+      @Nonnull @jakarta.annotation.Nonnull String repositoryId,
+      @Nonnull @jakarta.annotation.Nonnull Reference reference) {
+    local.putReference(repositoryId, reference);
+  }
+
+  @Override
+  public void removeReference(
+      @Nonnull @jakarta.annotation.Nonnull String repositoryId,
+      @Nonnull @jakarta.annotation.Nonnull String name) {
+    try {
+      local.removeReference(repositoryId, name);
+    } finally {
+      bus.sendReferenceInvalidation(repositoryId, name);
+    }
+  }
+
+  @Override
+  public long referenceGeneration(
+      @Nonnull @jakarta.annotation.Nonnull String repositoryId,
+      @Nonnull @jakarta.annotation.Nonnull String name) {
+    return local.referenceGeneration(repositoryId, name);
+  }
+
+  @Override
+  public void putFetchedReference(
+      @Nonnull @jakarta.annotation.Nonnull String repositoryId,
+      @Nonnull @jakarta.annotation.Nonnull Reference reference,
+      long generation) {
+    local.putFetchedReference(repositoryId, reference, generation);
+  }
+
+  // CacheInvalidationBus.Receiver
+
+  @Override
+  public void close() {
+    local.close();
+  }
+
+  @Override
+  public void objInvalidated(
+      @Nonnull @jakarta.annotation.Nonnull String repositoryId,
+      @Nonnull @jakarta.annotation.Nonnull ObjId id) {
+    local.remove(repositoryId, id);
+  }
+
+  @Override
+  public void referenceInvalidated(
+      @Nonnull @jakarta.annotation.Nonnull String repositoryId,
+      @Nonnull @jakarta.annotation.Nonnull String name) {
+    local.removeReference(repositoryId, name);
+  }
+
+  @Override
+  public void repositoryInvalidated(@Nonnull @jakarta.annotation.Nonnull String repositoryId) {
+    local.clear(repositoryId);
+  }
+}
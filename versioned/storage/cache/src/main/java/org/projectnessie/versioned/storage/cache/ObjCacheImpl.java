@@ -18,6 +18,7 @@ package org.projectnessie.versioned.storage.cache;
 import javax.annotation.Nonnull;
 import org.projectnessie.versioned.storage.common.persist.Obj;
 import org.projectnessie.versioned.storage.common.persist.ObjId;
+import org.projectnessie.versioned.storage.common.persist.Reference;
 
 final class ObjCacheImpl implements ObjCache {
   private final CacheBackend backend;
@@ -47,4 +48,30 @@ final class ObjCacheImpl implements ObjCache {
   public void clear() {
     backend.clear(repositoryId);
   }
+
+  @Override
+  public Reference getReference(@Nonnull @jakarta.annotation.Nonnull String name) {
+    return backend.getReference(repositoryId, name);
+  }
+
+  @Override
+  public void putReference(@Nonnull @jakarta.annotation.Nonnull Reference reference) {
+    backend.putReference(repositoryId, reference);
+  }
+
+  @Override
+  public void removeReference(@Nonnull @jakarta.annotation.Nonnull String name) {
+    backend.removeReference(repositoryId, name);
+  }
+
+  @Override
+  public long referenceGeneration(@Nonnull @jakarta.annotation.Nonnull String name) {
+    return backend.referenceGeneration(repositoryId, name);
+  }
+
+  @Override
+  public void putFetchedReference(
+      @Nonnull @jakarta.annotation.Nonnull Reference reference, long generation) {
+    backend.putFetchedReference(repositoryId, reference, generation);
+  }
 }
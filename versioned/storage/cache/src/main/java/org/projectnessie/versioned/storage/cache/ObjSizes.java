@@ -0,0 +1,158 @@
+/*
+ * Copyright (C) 2023 Dremio
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.projectnessie.versioned.storage.cache;
+
+import static org.projectnessie.versioned.storage.cache.CaffeineCacheBackend.JAVA_OBJ_HEADER;
+
+import java.util.List;
+import org.projectnessie.nessie.relocated.protobuf.ByteString;
+import org.projectnessie.versioned.storage.common.indexes.StoreKey;
+import org.projectnessie.versioned.storage.common.objtypes.CommitHeaders;
+import org.projectnessie.versioned.storage.common.objtypes.CommitObj;
+import org.projectnessie.versioned.storage.common.objtypes.ContentValueObj;
+import org.projectnessie.versioned.storage.common.objtypes.IndexObj;
+import org.projectnessie.versioned.storage.common.objtypes.IndexSegmentsObj;
+import org.projectnessie.versioned.storage.common.objtypes.IndexStripe;
+import org.projectnessie.versioned.storage.common.objtypes.RefObj;
+import org.projectnessie.versioned.storage.common.objtypes.StringObj;
+import org.projectnessie.versioned.storage.common.objtypes.TagObj;
+import org.projectnessie.versioned.storage.common.persist.Obj;
+import org.projectnessie.versioned.storage.common.persist.ObjId;
+
+/**
+ * Estimates the Java heap retained by deserialized {@link Obj} instances, used to weigh cache
+ * entries that hold objects instead of their serialized representation.
+ *
+ * <p>The estimates are intentionally coarse: exact numbers depend on the JVM, compressed oops and
+ * the implementation classes generated by Immutables. What matters is that the estimate grows
+ * proportionally with the "variable" parts of each object type.
+ */
+final class ObjSizes {
+  private ObjSizes() {}
+
+  static final int REFERENCE = 8;
+  static final int ARRAY_HEADER = 16;
+  static final int LIST_OVERHEAD = JAVA_OBJ_HEADER + ARRAY_HEADER;
+  static final int OBJ_ID_OVERHEAD = JAVA_OBJ_HEADER;
+
+  static int objHeapSize(Obj obj) {
+    switch (obj.type()) {
+      case COMMIT:
+        return commitHeapSize((CommitObj) obj);
+      case VALUE:
+        ContentValueObj value = (ContentValueObj) obj;
+        return JAVA_OBJ_HEADER
+            + objIdHeapSize(value.id())
+            + stringHeapSize(value.contentId())
+            + byteStringHeapSize(value.data());
+      case INDEX:
+        IndexObj index = (IndexObj) obj;
+        return JAVA_OBJ_HEADER + objIdHeapSize(index.id()) + byteStringHeapSize(index.index());
+      case INDEX_SEGMENTS:
+        IndexSegmentsObj segments = (IndexSegmentsObj) obj;
+        return JAVA_OBJ_HEADER + objIdHeapSize(segments.id()) + stripesHeapSize(segments.stripes());
+      case REF:
+        RefObj ref = (RefObj) obj;
+        return JAVA_OBJ_HEADER
+            + objIdHeapSize(ref.id())
+            + stringHeapSize(ref.name())
+            + objIdHeapSize(ref.initialPointer())
+            + objIdHeapSize(ref.extendedInfoObj());
+      case STRING:
+        StringObj string = (StringObj) obj;
+        return JAVA_OBJ_HEADER
+            + objIdHeapSize(string.id())
+            + stringHeapSize(string.contentType())
+            + stringHeapSize(string.filename())
+            + objIdsHeapSize(string.predecessors())
+            + byteStringHeapSize(string.text());
+      case TAG:
+        TagObj tag = (TagObj) obj;
+        return JAVA_OBJ_HEADER
+            + objIdHeapSize(tag.id())
+            + stringHeapSize(tag.message())
+            + headersHeapSize(tag.headers())
+            + byteStringHeapSize(tag.signature());
+      default:
+        throw new UnsupportedOperationException("Unknown object type " + obj.type());
+    }
+  }
+
+  private static int commitHeapSize(CommitObj commit) {
+    return JAVA_OBJ_HEADER
+        + 2 * Long.BYTES
+        + objIdHeapSize(commit.id())
+        + objIdsHeapSize(commit.tail())
+        + objIdsHeapSize(commit.secondaryParents())
+        + headersHeapSize(commit.headers())
+        + stringHeapSize(commit.message())
+        + objIdHeapSize(commit.referenceIndex())
+        + stripesHeapSize(commit.referenceIndexStripes())
+        + byteStringHeapSize(commit.incrementalIndex());
+  }
+
+  private static int stripesHeapSize(List<IndexStripe> stripes) {
+    int size = LIST_OVERHEAD;
+    for (IndexStripe stripe : stripes) {
+      size +=
+          REFERENCE
+              + JAVA_OBJ_HEADER
+              + storeKeyHeapSize(stripe.firstKey())
+              + storeKeyHeapSize(stripe.lastKey())
+              + objIdHeapSize(stripe.segment());
+    }
+    return size;
+  }
+
+  private static int headersHeapSize(CommitHeaders headers) {
+    if (headers == null) {
+      return 0;
+    }
+    int size = JAVA_OBJ_HEADER + LIST_OVERHEAD;
+    for (String name : headers.keySet()) {
+      size += 2 * REFERENCE + stringHeapSize(name) + LIST_OVERHEAD;
+      for (String value : headers.getAll(name)) {
+        size += REFERENCE + stringHeapSize(value);
+      }
+    }
+    return size;
+  }
+
+  private static int objIdsHeapSize(List<ObjId> ids) {
+    int size = LIST_OVERHEAD;
+    for (ObjId id : ids) {
+      size += REFERENCE + objIdHeapSize(id);
+    }
+    return size;
+  }
+
+  static int objIdHeapSize(ObjId id) {
+    return id != null ? OBJ_ID_OVERHEAD + id.size() : 0;
+  }
+
+  private static int storeKeyHeapSize(StoreKey key) {
+    return JAVA_OBJ_HEADER + stringHeapSize(key.rawString());
+  }
+
+  private static int stringHeapSize(String s) {
+    // Assumes compact (Latin-1) strings, which is the common case for names and messages.
+    return s != null ? JAVA_OBJ_HEADER + ARRAY_HEADER + s.length() : 0;
+  }
+
+  private static int byteStringHeapSize(ByteString bytes) {
+    return bytes != null ? JAVA_OBJ_HEADER + ARRAY_HEADER + bytes.size() : 0;
+  }
+}
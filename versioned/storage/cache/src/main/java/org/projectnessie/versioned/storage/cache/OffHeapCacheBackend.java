@@ -0,0 +1,409 @@
+/*
+ * Copyright (C) 2023 Dremio
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.projectnessie.versioned.storage.cache;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static org.projectnessie.versioned.storage.serialize.ProtoSerialization.serializeObj;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.StampedLock;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import org.projectnessie.versioned.storage.common.exceptions.ObjTooLargeException;
+import org.projectnessie.versioned.storage.common.persist.Obj;
+import org.projectnessie.versioned.storage.common.persist.ObjId;
+import org.projectnessie.versioned.storage.common.persist.Persist;
+import org.projectnessie.versioned.storage.serialize.ProtoSerialization;
+
+/**
+ * Cache backend that holds serialized objects in direct (off-heap) {@link ByteBuffer} slabs, only
+ * the index from {@link CacheKey} to the location of the serialized object lives on the Java heap.
+ *
+ * <p>Slabs are used as a ring: new objects are appended to the current slab. When the current slab
+ * is full, the next slab is reclaimed and becomes the current one. Reclaiming a slab implements a
+ * clock (second chance) eviction policy: objects that have been read since they were written to the
+ * slab are moved to the beginning of the reclaimed slab (up to half its size), all other objects in
+ * the slab are evicted.
+ *
+ * <p>Writes and evictions are serialized via a lock. Reads are lock-free, using an optimistic read
+ * stamp per slab, to detect whether a slab has been reclaimed while an object was being read.
+ *
+ * <p>Slabs are allocated lazily. Slabs that no longer hold any object after {@link #clear(String)}
+ * are released, except the current slab, which is reused from its beginning. {@link #close()}
+ * releases all slabs. Mind that the JVM limits the amount of direct memory via the {@code
+ * -XX:MaxDirectMemorySize} option.
+ */
+final class OffHeapCacheBackend extends AbstractCacheBackend {
+
+  static final int DEFAULT_SLAB_SIZE = 4 * 1024 * 1024;
+
+  private static final AtomicInteger INSTANCE_COUNTER = new AtomicInteger();
+
+  private final int slabSize;
+  private final ByteBuffer[] slabs;
+  private final StampedLock[] slabLocks;
+  private final long[] slabGenerations;
+  private final List<List<Entry>> slabEntries;
+  private final Map<CacheKey, Entry> index = new ConcurrentHashMap<>();
+  private final ReentrantLock writeLock = new ReentrantLock();
+  private final AtomicLong usedBytes = new AtomicLong();
+  private final AtomicLong allocatedBytes = new AtomicLong();
+  @Nullable private final ReferenceCache referenceCache;
+  private final List<Meter> meters = new ArrayList<>();
+  private MeterRegistry meterRegistry;
+
+  private int currentSlab;
+  private int writeOffset;
+  private boolean closed;
+
+  OffHeapCacheBackend(
+      long capacity, int slabSize, @Nullable @jakarta.annotation.Nullable ReferenceCache refCache) {
+    checkArgument(capacity > 0L, "Capacity must be positive");
+    checkArgument(slabSize > 0, "Slab size must be positive");
+    // Use at least two slabs, the ring does not work with a single slab
+    slabSize = (int) Math.max(1L, Math.min(slabSize, capacity / 2));
+    long numSlabs = capacity / slabSize;
+    checkArgument(numSlabs <= Integer.MAX_VALUE, "Too many slabs, increase the slab size");
+    this.slabSize = slabSize;
+    this.slabs = new ByteBuffer[(int) numSlabs];
+    this.slabLocks = new StampedLock[slabs.length];
+    this.slabGenerations = new long[slabs.length];
+    this.slabEntries = new ArrayList<>(slabs.length);
+    for (int i = 0; i < slabs.length; i++) {
+      slabLocks[i] = new StampedLock();
+      slabEntries.add(new ArrayList<>());
+    }
+    this.referenceCache = refCache;
+  }
+
+  /**
+   * Registers gauges for this backend in the given registry, tagged with a {@code cache} tag that
+   * is unique per backend instance. The gauges are removed from the registry by {@link #close()}.
+   */
+  void registerMetrics(@Nonnull @jakarta.annotation.Nonnull MeterRegistry registry) {
+    Tags tags = Tags.of("cache", "offheap-" + INSTANCE_COUNTER.incrementAndGet());
+    List<Meter> registered =
+        List.of(
+            Gauge.builder("nessie.storage.cache.offheap.used-bytes", usedBytes, AtomicLong::get)
+                .description("Off-heap bytes used by cached objects")
+                .baseUnit("bytes")
+                .tags(tags)
+                .register(registry),
+            Gauge.builder(
+                    "nessie.storage.cache.offheap.allocated-bytes", allocatedBytes, AtomicLong::get)
+                .description("Off-heap bytes allocated for cache slabs")
+                .baseUnit("bytes")
+                .tags(tags)
+                .register(registry),
+            Gauge.builder(
+                    "nessie.storage.cache.offheap.capacity-bytes", this, b -> b.capacityBytes())
+                .description("Maximum off-heap bytes for cache slabs")
+                .baseUnit("bytes")
+                .tags(tags)
+                .register(registry),
+            Gauge.builder("nessie.storage.cache.offheap.entries", index, Map::size)
+                .description("Number of cached objects held off-heap")
+                .tags(tags)
+                .register(registry));
+    synchronized (meters) {
+      meterRegistry = registry;
+      meters.addAll(registered);
+    }
+  }
+
+  @Override
+  public void close() {
+    synchronized (meters) {
+      if (meterRegistry != null) {
+        meters.forEach(meterRegistry::remove);
+      }
+      meters.clear();
+    }
+
+    writeLock.lock();
+    try {
+      closed = true;
+      index.clear();
+      usedBytes.set(0L);
+      for (int slab = 0; slab < slabs.length; slab++) {
+        releaseSlab(slab);
+      }
+      writeOffset = 0;
+    } finally {
+      writeLock.unlock();
+    }
+  }
+
+  long usedBytes() {
+    return usedBytes.get();
+  }
+
+  long allocatedBytes() {
+    return allocatedBytes.get();
+  }
+
+  long capacityBytes() {
+    return (long) slabs.length * slabSize;
+  }
+
+  @Override
+  public Persist wrap(@Nonnull @jakarta.annotation.Nonnull Persist persist) {
+    ObjCacheImpl cache = new ObjCacheImpl(this, persist.config().repositoryId());
+    return new CachingPersistImpl(persist, cache);
+  }
+
+  @Override
+  public Obj get(
+      @Nonnull @jakarta.annotation.Nonnull String repositoryId,
+      @Nonnull @jakarta.annotation.Nonnull ObjId id) {
+    Entry entry = index.get(new CacheKey(repositoryId, id));
+    if (entry == null) {
+      return null;
+    }
+    byte[] bytes = read(entry);
+    if (bytes == null) {
+      return null;
+    }
+    if (!entry.referenced) {
+      entry.referenced = true;
+    }
+    return ProtoSerialization.deserializeObj(id, bytes);
+  }
+
+  private byte[] read(Entry entry) {
+    StampedLock lock = slabLocks[entry.slab];
+    long stamp = lock.tryOptimisticRead();
+    if (stamp == 0L || slabGenerations[entry.slab] != entry.generation) {
+      // slab is being or has been reclaimed
+      return null;
+    }
+    ByteBuffer slab = slabs[entry.slab];
+    if (slab == null) {
+      // slab has been released
+      return null;
+    }
+    ByteBuffer buffer = slab.duplicate();
+    buffer.position(entry.offset);
+    byte[] bytes = new byte[entry.length];
+    buffer.get(bytes);
+    return lock.validate(stamp) ? bytes : null;
+  }
+
+  @Override
+  public void put(
+      @Nonnull @jakarta.annotation.Nonnull String repositoryId,
+      @Nonnull @jakarta.annotation.Nonnull Obj obj) {
+    byte[] serialized;
+    try {
+      serialized = serializeObj(obj, Integer.MAX_VALUE, Integer.MAX_VALUE);
+    } catch (ObjTooLargeException e) {
+      // this should never happen
+      throw new RuntimeException(e);
+    }
+    if (serialized.length > slabSize) {
+      // not cacheable
+      return;
+    }
+
+    CacheKey key = new CacheKey(repositoryId, obj.id());
+    writeLock.lock();
+    try {
+      if (closed) {
+        return;
+      }
+      if (writeOffset + serialized.length > slabSize) {
+        nextSlab(serialized.length);
+      }
+      Entry entry = append(key, serialized);
+      Entry previous = index.put(key, entry);
+      usedBytes.addAndGet(entry.length);
+      if (previous != null) {
+        usedBytes.addAndGet(-previous.length);
+      }
+    } finally {
+      writeLock.unlock();
+    }
+  }
+
+  /** Appends the serialized object to the current slab, must be called while holding the lock. */
+  private Entry append(CacheKey key, byte[] serialized) {
+    int slab = currentSlab;
+    ByteBuffer buffer = slabs[slab];
+    if (buffer == null) {
+      buffer = slabs[slab] = ByteBuffer.allocateDirect(slabSize);
+      allocatedBytes.addAndGet(slabSize);
+    }
+    ByteBuffer target = buffer.duplicate();
+    target.position(writeOffset);
+    target.put(serialized);
+
+    Entry entry = new Entry(key, slab, slabGenerations[slab], writeOffset, serialized.length);
+    slabEntries.get(slab).add(entry);
+    writeOffset += serialized.length;
+    return entry;
+  }
+
+  /**
+   * Reclaims the next slab in the ring and makes it the current slab, must be called while holding
+   * the lock.
+   *
+   * @param required number of bytes that must be available in the reclaimed slab
+   */
+  private void nextSlab(int required) {
+    int slab = (currentSlab + 1) % slabs.length;
+    List<Entry> entries = slabEntries.get(slab);
+
+    // Second chance: keep recently read objects, up to half of the slab.
+    int keepBudget = Math.min(slabSize / 2, slabSize - required);
+    List<Entry> keep = new ArrayList<>();
+    List<byte[]> keepBytes = new ArrayList<>();
+    int keepSize = 0;
+    for (Entry entry : entries) {
+      if (index.get(entry.key) != entry) {
+        // removed or replaced
+        continue;
+      }
+      if (entry.referenced && keepSize + entry.length <= keepBudget) {
+        byte[] bytes = new byte[entry.length];
+        ByteBuffer buffer = slabs[slab].duplicate();
+        buffer.position(entry.offset);
+        buffer.get(bytes);
+        keep.add(entry);
+        keepBytes.add(bytes);
+        keepSize += entry.length;
+      } else if (index.remove(entry.key, entry)) {
+        usedBytes.addAndGet(-entry.length);
+      }
+    }
+    entries.clear();
+    invalidateReads(slab);
+
+    currentSlab = slab;
+    writeOffset = 0;
+
+    for (int i = 0; i < keep.size(); i++) {
+      Entry old = keep.get(i);
+      Entry moved = append(old.key, keepBytes.get(i));
+      if (!index.replace(old.key, old, moved)) {
+        // concurrently removed or replaced
+        entries.remove(moved);
+      }
+    }
+  }
+
+  /**
+   * Releases the slabs that no longer hold any cached object, the current slab is reused from its
+   * beginning instead. Must be called while holding the lock.
+   */
+  private void releaseUnusedSlabs() {
+    for (int slab = 0; slab < slabs.length; slab++) {
+      List<Entry> entries = slabEntries.get(slab);
+      entries.removeIf(entry -> index.get(entry.key) != entry);
+      if (!entries.isEmpty()) {
+        continue;
+      }
+      if (slab == currentSlab) {
+        invalidateReads(slab);
+        writeOffset = 0;
+      } else {
+        releaseSlab(slab);
+      }
+    }
+  }
+
+  /** Drops the reference to a slab, must be called while holding the lock. */
+  private void releaseSlab(int slab) {
+    slabEntries.get(slab).clear();
+    invalidateReads(slab);
+    if (slabs[slab] != null) {
+      slabs[slab] = null;
+      allocatedBytes.addAndGet(-slabSize);
+    }
+  }
+
+  /** Invalidates concurrent optimistic reads of the slab. */
+  private void invalidateReads(int slab) {
+    StampedLock lock = slabLocks[slab];
+    long stamp = lock.writeLock();
+    try {
+      slabGenerations[slab]++;
+    } finally {
+      lock.unlockWrite(stamp);
+    }
+  }
+
+  @Override
+  public void remove(
+      @Nonnull @jakarta.annotation.Nonnull String repositoryId,
+      @Nonnull @jakarta.annotation.Nonnull ObjId id) {
+    Entry entry = index.remove(new CacheKey(repositoryId, id));
+    if (entry != null) {
+      usedBytes.addAndGet(-entry.length);
+    }
+  }
+
+  @Override
+  public void clear(@Nonnull @jakarta.annotation.Nonnull String repositoryId) {
+    writeLock.lock();
+    try {
+      for (Map.Entry<CacheKey, Entry> e : index.entrySet()) {
+        CacheKey key = e.getKey();
+        if (key.repositoryId.equals(repositoryId) && index.remove(key, e.getValue())) {
+          usedBytes.addAndGet(-e.getValue().length);
+        }
+      }
+      releaseUnusedSlabs();
+    } finally {
+      writeLock.unlock();
+    }
+    clearReferences(repositoryId);
+  }
+
+  @Nullable
+  @jakarta.annotation.Nullable
+  @Override
+  ReferenceCache referenceCache() {
+    return referenceCache;
+  }
+
+  static final class Entry {
+    final CacheKey key;
+    final int slab;
+    final long generation;
+    final int offset;
+    final int length;
+    volatile boolean referenced;
+
+    Entry(CacheKey key, int slab, long generation, int offset, int length) {
+      this.key = key;
+      this.slab = slab;
+      this.generation = generation;
+      this.offset = offset;
+      this.length = length;
+    }
+  }
+}
@@ -15,11 +15,58 @@
  */
 package org.projectnessie.versioned.storage.cache;
 
+import io.micrometer.core.instrument.MeterRegistry;
+
 public final class PersistCaches {
   private PersistCaches() {}
 
   /** Produces a {@link CacheBackend} with the given maximum capacity. */
   public static CacheBackend newBackend(long capacity) {
-    return CaffeineCacheBackend.builder().capacity(capacity).build();
+    return newBackend(CacheConfig.builder().capacity(capacity).build());
+  }
+
+  /** Produces a {@link CacheBackend} according to the given configuration. */
+  public static CacheBackend newBackend(CacheConfig config) {
+    CacheBackend backend = newLocalBackend(config);
+    CacheInvalidationBus bus = config.invalidationBus();
+    return bus != null ? new InvalidatingCacheBackend(backend, bus) : backend;
+  }
+
+  private static CacheBackend newLocalBackend(CacheConfig config) {
+    long capacity = config.capacity();
+    ReferenceCache referenceCache =
+        config.referenceTtl().isZero()
+            ? null
+            : new ReferenceCache(config.referenceTtl(), config.referenceCacheMaxSize());
+    switch (config.mode()) {
+      case SERIALIZED:
+        return CaffeineCacheBackend.builder()
+            .capacity(capacity)
+            .referenceCache(referenceCache)
+            .build();
+      case OBJECTS:
+        return CaffeineObjectsCacheBackend.builder()
+            .capacity(capacity)
+            .referenceCache(referenceCache)
+            .build();
+      case TIERED:
+        long objectsCapacity = capacity * config.objectsTierPercent() / 100L;
+        return new TieredCacheBackend(
+            CaffeineObjectsCacheBackend.builder().capacity(objectsCapacity).build(),
+            CaffeineCacheBackend.builder()
+                .capacity(capacity - objectsCapacity)
+                .referenceCache(referenceCache)
+                .build());
+      case OFF_HEAP:
+        OffHeapCacheBackend offHeap =
+            new OffHeapCacheBackend(capacity, config.offHeapSlabSize(), referenceCache);
+        MeterRegistry meterRegistry = config.meterRegistry();
+        if (meterRegistry != null) {
+          offHeap.registerMetrics(meterRegistry);
+        }
+        return offHeap;
+      default:
+        throw new IllegalArgumentException("Unknown cache mode " + config.mode());
+    }
   }
 }
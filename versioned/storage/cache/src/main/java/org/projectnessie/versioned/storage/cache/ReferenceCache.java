@@ -0,0 +1,129 @@
+/*
+ * Copyright (C) 2023 Dremio
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.projectnessie.versioned.storage.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLongArray;
+import org.projectnessie.versioned.storage.common.persist.Reference;
+
+/**
+ * Caches {@link Reference}s for a bounded amount of time.
+ *
+ * <p>References are mutable, cached values may be stale for up to the configured time-to-live, if
+ * the reference has been updated by another Nessie instance. Updates via the same {@link
+ * CacheBackend} are reflected immediately.
+ *
+ * <p>A reference fetched from the database might be outdated by the time it is put into the cache,
+ * if the reference has been updated concurrently. Such references are therefore cached via {@link
+ * #putFetched(String, Reference, long)}, which only caches the reference if the cache entry has
+ * not been changed since the fetch started, tracked by a generation counter that is incremented by
+ * every {@link #put(String, Reference)} and {@link #remove(String, String)}. Generation counters
+ * are striped by the hash of the cache key, so unrelated changes can cause a fetched reference not
+ * being cached, but never cause an outdated reference to be cached.
+ */
+final class ReferenceCache {
+  private static final int GENERATION_STRIPES = 1024;
+
+  private final Cache<ReferenceCacheKey, Reference> cache;
+  private final AtomicLongArray generations = new AtomicLongArray(GENERATION_STRIPES);
+
+  ReferenceCache(Duration ttl, long maxSize) {
+    // IMPORTANT!
+    // When changing the configuration of the Caffeine cache, make sure to run the
+    // _native_ Quarkus tests and adopt the `@ReflectionConfig` in
+    // org.projectnessie.quarkus.providers.PersistProvider.
+    this.cache =
+        Caffeine.newBuilder().maximumSize(maxSize).expireAfterWrite(ttl).recordStats().build();
+  }
+
+  Reference get(String repositoryId, String name) {
+    return cache.getIfPresent(new ReferenceCacheKey(repositoryId, name));
+  }
+
+  /** Returns the current generation for {@link #putFetched(String, Reference, long)}. */
+  long generation(String repositoryId, String name) {
+    return generations.get(stripe(new ReferenceCacheKey(repositoryId, name)));
+  }
+
+  void put(String repositoryId, Reference reference) {
+    ReferenceCacheKey key = new ReferenceCacheKey(repositoryId, reference.name());
+    generations.incrementAndGet(stripe(key));
+    cache.put(key, reference);
+  }
+
+  /**
+   * Caches a reference that has been fetched from the database, unless the cache entry has been
+   * changed since {@link #generation(String, String)} returned the given generation.
+   */
+  void putFetched(String repositoryId, Reference reference, long generation) {
+    ReferenceCacheKey key = new ReferenceCacheKey(repositoryId, reference.name());
+    int stripe = stripe(key);
+    cache
+        .asMap()
+        .compute(key, (k, current) -> generations.get(stripe) == generation ? reference : current);
+  }
+
+  void remove(String repositoryId, String name) {
+    ReferenceCacheKey key = new ReferenceCacheKey(repositoryId, name);
+    generations.incrementAndGet(stripe(key));
+    cache.invalidate(key);
+  }
+
+  void clear(String repositoryId) {
+    for (int i = 0; i < GENERATION_STRIPES; i++) {
+      generations.incrementAndGet(i);
+    }
+    cache.asMap().keySet().removeIf(k -> k.repositoryId.equals(repositoryId));
+  }
+
+  private static int stripe(ReferenceCacheKey key) {
+    return key.hashCode() & (GENERATION_STRIPES - 1);
+  }
+
+  static final class ReferenceCacheKey {
+    final String repositoryId;
+    final String name;
+
+    ReferenceCacheKey(String repositoryId, String name) {
+      this.repositoryId = repositoryId;
+      this.name = name;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (!(o instanceof ReferenceCacheKey)) {
+        return false;
+      }
+      ReferenceCacheKey that = (ReferenceCacheKey) o;
+      return repositoryId.equals(that.repositoryId) && name.equals(that.name);
+    }
+
+    @Override
+    public int hashCode() {
+      return repositoryId.hashCode() * 31 + name.hashCode();
+    }
+
+    @Override
+    public String toString() {
+      return "ReferenceCacheKey{" + repositoryId + ", " + name + '}';
+    }
+  }
+}
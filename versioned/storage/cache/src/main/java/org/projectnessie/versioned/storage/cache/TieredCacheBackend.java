@@ -0,0 +1,130 @@
+/*
+ * Copyright (C) 2023 Dremio
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.projectnessie.versioned.storage.cache;
+
+import javax.annotation.Nonnull;
+import org.projectnessie.versioned.storage.common.persist.Obj;
+import org.projectnessie.versioned.storage.common.persist.ObjId;
+import org.projectnessie.versioned.storage.common.persist.Persist;
+import org.projectnessie.versioned.storage.common.persist.Reference;
+
+/**
+ * Two-tier cache backend: a (usually small) tier holding deserialized objects in front of a
+ * (usually larger) tier holding serialized objects.
+ *
+ * <p>The tiers are inclusive, every object is put into both tiers, so objects evicted from the
+ * objects tier can still be served, with the cost of deserialization, from the serialized tier.
+ * Hits in the serialized tier promote the object to the objects tier.
+ */
+final class TieredCacheBackend implements CacheBackend {
+  private final CacheBackend objectsTier;
+  private final CacheBackend serializedTier;
+
+  TieredCacheBackend(CacheBackend objectsTier, CacheBackend serializedTier) {
+    this.objectsTier = objectsTier;
+    this.serializedTier = serializedTier;
+  }
+
+  @Override
+  public Persist wrap(@Nonnull @jakarta.annotation.Nonnull Persist persist) {
+    ObjCacheImpl cache = new ObjCacheImpl(this, persist.config().repositoryId());
+    return new CachingPersistImpl(persist, cache);
+  }
+
+  @Override
+  public Obj get(
+      @Nonnull @jakarta.annotation.Nonnull String repositoryId,
+      @Nonnull @jakarta.annotation.Nonnull ObjId id) {
+    Obj obj = objectsTier.get(repositoryId, id);
+    if (obj == null) {
+      obj = serializedTier.get(repositoryId, id);
+      if (obj != null) {
+        objectsTier.put(repositoryId, obj);
+      }
+    }
+    return obj;
+  }
+
+  @Override
+  public void put(
+      @Nonnull @jakarta.annotation.Nonnull String repositoryId,
+      @Nonnull @jakarta.annotation.Nonnull Obj obj) {
+    serializedTier.put(repositoryId, obj);
+    objectsTier.put(repositoryId, obj);
+  }
+
+  @Override
+  public void remove(
+      @Nonnull @jakarta.annotation.Nonnull String repositoryId,
+      @Nonnull @jakarta.annotation.Nonnull ObjId id) {
+    try {
+      serializedTier.remove(repositoryId, id);
+    } finally {
+      objectsTier.remove(repositoryId, id);
+    }
+  }
+
+  @Override
+  public void clear(@Nonnull @jakarta.annotation.Nonnull String repositoryId) {
+    try {
+      serializedTier.clear(repositoryId);
+    } finally {
+      objectsTier.clear(repositoryId);
+    }
+  }
+
+  @Override
+  public Reference getReference(
+      @Nonnull @jakarta.annotation.Nonnull String repositoryId,
+      @Nonnull @jakarta.annotation.Nonnull String name) {
+    return serializedTier.getReference(repositoryId, name);
+  }
+
+  @Override
+  public void putReference(
+      @Nonnull @jakarta.annotation.Nonnull String repositoryId,
+      @Nonnull @jakarta.annotation.Nonnull Reference reference) {
+    serializedTier.putReference(repositoryId, reference);
+  }
+
+  @Override
+  public void removeReference(
+      @Nonnull @jakarta.annotation.Nonnull String repositoryId,
+      @Nonnull @jakarta.annotation.Nonnull String name) {
+    serializedTier.removeReference(repositoryId, name);
+  }
+
+  @Override
+  public long referenceGeneration(
+      @Nonnull @jakarta.annotation.Nonnull String repositoryId,
+      @Nonnull @jakarta.annotation.Nonnull String name) {
+    return serializedTier.referenceGeneration(repositoryId, name);
+  }
+
+  @Override
+  public void putFetchedReference(
+      @Nonnull @jakarta.annotation.Nonnull String repositoryId,
+      @Nonnull @jakarta.annotation.Nonnull Reference reference,
+      long generation) {
+    serializedTier.putFetchedReference(repositoryId, reference, generation);
+  }
+
+  @Override
+  public void close() {
+    objectsTier.close();
+    serializedTier.close();
+  }
+}
@@ -0,0 +1,268 @@
+/*
+ * Copyright (C) 2023 Dremio
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.projectnessie.versioned.storage.cache;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.projectnessie.versioned.storage.common.persist.ObjId.objIdFromByteArray;
+
+import com.google.common.collect.ImmutableList;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.DatagramPacket;
+import java.net.DatagramSocket;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.MulticastSocket;
+import java.net.SocketException;
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import org.projectnessie.versioned.storage.common.persist.ObjId;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * {@link CacheInvalidationBus} that sends invalidations as UDP datagrams to a multicast group
+ * and/or to a static list of peers, and receives invalidations on a local port.
+ *
+ * <p>UDP does not guarantee delivery. Lost invalidations lead to stale cache entries, so the
+ * reference cache should still be configured with a reasonable time-to-live. Messages are not
+ * authenticated, the port should only be reachable from the Nessie instances.
+ */
+public final class UdpCacheInvalidationBus implements CacheInvalidationBus {
+  private static final Logger LOGGER = LoggerFactory.getLogger(UdpCacheInvalidationBus.class);
+
+  static final byte MAGIC = (byte) 'N';
+  static final byte VERSION = 1;
+  static final byte TYPE_OBJ = 1;
+  static final byte TYPE_REFERENCE = 2;
+  static final byte TYPE_REPOSITORY = 3;
+  static final int MAX_MESSAGE_SIZE = 2048;
+  /** Size of magic, version, sender ID and message type. */
+  private static final int HEADER_SIZE = 1 + 1 + 8 + 1;
+
+  private final long senderId = ThreadLocalRandom.current().nextLong();
+  private final DatagramSocket socket;
+  private final List<InetSocketAddress> targets;
+  private final Thread receiverThread;
+  private volatile Receiver receiver;
+  private volatile boolean closed;
+
+  /**
+   * Creates a new bus listening on the given port.
+   *
+   * @param port local UDP port to receive invalidations on
+   * @param multicastGroup optional multicast group to join and to send invalidations to, using the
+   *     same {@code port}
+   * @param peers addresses of other Nessie instances to send invalidations to
+   */
+  public UdpCacheInvalidationBus(
+      int port,
+      @Nullable @jakarta.annotation.Nullable InetAddress multicastGroup,
+      @Nonnull @jakarta.annotation.Nonnull List<InetSocketAddress> peers) {
+    checkArgument(
+        multicastGroup == null || multicastGroup.isMulticastAddress(),
+        "Not a multicast address: %s",
+        multicastGroup);
+    try {
+      if (multicastGroup != null) {
+        MulticastSocket multicastSocket = new MulticastSocket(port);
+        multicastSocket.joinGroup(multicastGroup);
+        this.socket = multicastSocket;
+      } else {
+        this.socket = new DatagramSocket(port);
+      }
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+
+    ImmutableList.Builder<InetSocketAddress> targetsBuilder =
+        ImmutableList.<InetSocketAddress>builder().addAll(peers);
+    if (multicastGroup != null) {
+      targetsBuilder.add(new InetSocketAddress(multicastGroup, port));
+    }
+    this.targets = targetsBuilder.build();
+
+    this.receiverThread = new Thread(this::receiveLoop, "nessie-cache-invalidation-receiver");
+    this.receiverThread.setDaemon(true);
+    this.receiverThread.start();
+  }
+
+  /** The local port on which invalidations are received. */
+  public int localPort() {
+    return socket.getLocalPort();
+  }
+
+  @Override
+  public void receiver(@Nonnull @jakarta.annotation.Nonnull Receiver receiver) {
+    this.receiver = receiver;
+  }
+
+  @Override
+  public void sendObjInvalidation(
+      @Nonnull @jakarta.annotation.Nonnull String repositoryId,
+      @Nonnull @jakarta.annotation.Nonnull ObjId id) {
+    byte[] repo = repositoryId.getBytes(UTF_8);
+    byte[] idBytes = id.asByteArray();
+    if (!fits(HEADER_SIZE + 2 + repo.length + 1 + idBytes.length) || idBytes.length > 255) {
+      sendRepositoryInvalidation(repositoryId);
+      return;
+    }
+    ByteBuffer msg = newMessage(TYPE_OBJ, repo);
+    msg.put((byte) idBytes.length);
+    msg.put(idBytes);
+    send(msg);
+  }
+
+  @Override
+  public void sendReferenceInvalidation(
+      @Nonnull @jakarta.annotation.Nonnull String repositoryId,
+      @Nonnull @jakarta.annotation.Nonnull String name) {
+    byte[] repo = repositoryId.getBytes(UTF_8);
+    byte[] nameBytes = name.getBytes(UTF_8);
+    if (!fits(HEADER_SIZE + 2 + repo.length + 2 + nameBytes.length)) {
+      // Too large for a single datagram, invalidating the whole repository is the safe choice
+      sendRepositoryInvalidation(repositoryId);
+      return;
+    }
+    ByteBuffer msg = newMessage(TYPE_REFERENCE, repo);
+    putString(msg, nameBytes);
+    send(msg);
+  }
+
+  @Override
+  public void sendRepositoryInvalidation(@Nonnull @jakarta.annotation.Nonnull String repositoryId) {
+    byte[] repo = repositoryId.getBytes(UTF_8);
+    if (!fits(HEADER_SIZE + 2 + repo.length)) {
+      LOGGER.warn(
+          "Not sending cache invalidation for repository '{}', the repository ID is too long",
+          repositoryId);
+      return;
+    }
+    send(newMessage(TYPE_REPOSITORY, repo));
+  }
+
+  /**
+   * Checks whether a message of the given size can be sent. Invalidations are sent after the
+   * storage operation has succeeded, so an oversized message must not fail the caller.
+   */
+  private static boolean fits(int messageSize) {
+    return messageSize <= MAX_MESSAGE_SIZE;
+  }
+
+  private ByteBuffer newMessage(byte type, byte[] repositoryId) {
+    ByteBuffer msg = ByteBuffer.allocate(MAX_MESSAGE_SIZE);
+    msg.put(MAGIC);
+    msg.put(VERSION);
+    msg.putLong(senderId);
+    msg.put(type);
+    putString(msg, repositoryId);
+    return msg;
+  }
+
+  private static void putString(ByteBuffer msg, byte[] bytes) {
+    msg.putShort((short) bytes.length);
+    msg.put(bytes);
+  }
+
+  private static String getString(ByteBuffer msg) {
+    byte[] bytes = new byte[msg.getShort() & 0xffff];
+    msg.get(bytes);
+    return new String(bytes, UTF_8);
+  }
+
+  private void send(ByteBuffer msg) {
+    if (closed) {
+      return;
+    }
+    msg.flip();
+    for (InetSocketAddress target : targets) {
+      try {
+        socket.send(new DatagramPacket(msg.array(), msg.limit(), target));
+      } catch (IOException e) {
+        LOGGER.warn("Failed to send cache invalidation to {}: {}", target, e.toString());
+      }
+    }
+  }
+
+  private void receiveLoop() {
+    byte[] buffer = new byte[MAX_MESSAGE_SIZE];
+    while (!closed) {
+      DatagramPacket packet = new DatagramPacket(buffer, buffer.length);
+      try {
+        socket.receive(packet);
+      } catch (SocketException e) {
+        // socket closed
+        break;
+      } catch (IOException e) {
+        LOGGER.warn("Failed to receive cache invalidation: {}", e.toString());
+        continue;
+      }
+      try {
+        dispatch(ByteBuffer.wrap(packet.getData(), packet.getOffset(), packet.getLength()));
+      } catch (RuntimeException e) {
+        LOGGER.warn(
+            "Failed to process cache invalidation from {}: {}", packet.getAddress(), e.toString());
+      }
+    }
+  }
+
+  void dispatch(ByteBuffer msg) {
+    if (msg.get() != MAGIC || msg.get() != VERSION) {
+      return;
+    }
+    if (msg.getLong() == senderId) {
+      // own message, received via multicast loopback
+      return;
+    }
+    Receiver r = receiver;
+    if (r == null) {
+      return;
+    }
+    byte type = msg.get();
+    String repositoryId = getString(msg);
+    switch (type) {
+      case TYPE_OBJ:
+        byte[] idBytes = new byte[msg.get() & 0xff];
+        msg.get(idBytes);
+        r.objInvalidated(repositoryId, objIdFromByteArray(idBytes));
+        break;
+      case TYPE_REFERENCE:
+        r.referenceInvalidated(repositoryId, getString(msg));
+        break;
+      case TYPE_REPOSITORY:
+        r.repositoryInvalidated(repositoryId);
+        break;
+      default:
+        // unknown message type, ignore
+        break;
+    }
+  }
+
+  @Override
+  public void close() {
+    closed = true;
+    socket.close();
+    try {
+      receiverThread.join(1000L);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+}
@@ -0,0 +1,96 @@
+/*
+ * Copyright (C) 2023 Dremio
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.projectnessie.versioned.storage.cache;
+
+import static org.projectnessie.versioned.storage.common.objtypes.ContentValueObj.contentValue;
+import static org.projectnessie.versioned.storage.common.persist.ObjId.randomObjId;
+import static org.projectnessie.versioned.storage.common.persist.Reference.reference;
+
+import java.time.Duration;
+import org.assertj.core.api.SoftAssertions;
+import org.assertj.core.api.junit.jupiter.InjectSoftAssertions;
+import org.assertj.core.api.junit.jupiter.SoftAssertionsExtension;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.projectnessie.nessie.relocated.protobuf.ByteString;
+import org.projectnessie.versioned.storage.common.exceptions.ObjNotFoundException;
+import org.projectnessie.versioned.storage.common.objtypes.ContentValueObj;
+import org.projectnessie.versioned.storage.common.persist.Persist;
+import org.projectnessie.versioned.storage.common.persist.Reference;
+import org.projectnessie.versioned.storage.testextension.NessiePersist;
+import org.projectnessie.versioned.storage.testextension.PersistExtension;
+
+/** Simulates two Nessie instances that share the same database and exchange invalidations. */
+@ExtendWith({PersistExtension.class, SoftAssertionsExtension.class})
+public class TestCacheInvalidation {
+  @InjectSoftAssertions protected SoftAssertions soft;
+
+  @NessiePersist protected Persist persist;
+
+  private Persist instance1;
+  private Persist instance2;
+
+  @BeforeEach
+  void setup() {
+    InJvmCacheInvalidationBus.Group group = InJvmCacheInvalidationBus.newGroup();
+    instance1 = newCachingPersist(group);
+    instance2 = newCachingPersist(group);
+  }
+
+  private Persist newCachingPersist(InJvmCacheInvalidationBus.Group group) {
+    return PersistCaches.newBackend(
+            CacheConfig.builder()
+                .capacity(1024 * 1024)
+                .referenceTtl(Duration.ofHours(1))
+                .invalidationBus(group.newBus())
+                .build())
+        .wrap(persist);
+  }
+
+  @Test
+  public void references() throws Exception {
+    Reference ref =
+        instance1.addReference(reference("refs/heads/inval", randomObjId(), false, 42L, null));
+    soft.assertThat(instance2.fetchReference(ref.name())).isEqualTo(ref);
+
+    Reference updated = instance1.updateReferencePointer(ref, randomObjId());
+    soft.assertThat(instance2.fetchReference(ref.name())).isEqualTo(updated);
+    soft.assertThat(instance2.fetchReferences(new String[] {ref.name()})).containsExactly(updated);
+
+    Reference deleted = instance1.markReferenceAsDeleted(updated);
+    soft.assertThat(instance2.fetchReference(ref.name())).isEqualTo(deleted);
+
+    instance1.purgeReference(deleted);
+    soft.assertThat(instance2.fetchReference(ref.name())).isNull();
+  }
+
+  @Test
+  public void mutableObjects() throws Exception {
+    ContentValueObj obj = contentValue(randomObjId(), "cid", 1, ByteString.copyFromUtf8("one"));
+    ContentValueObj changed = contentValue(obj.id(), "cid", 1, ByteString.copyFromUtf8("changed"));
+
+    instance1.storeObj(obj);
+    soft.assertThat(instance2.fetchObj(obj.id())).isEqualTo(obj);
+
+    instance1.upsertObj(changed);
+    soft.assertThat(instance2.fetchObj(obj.id())).isEqualTo(changed);
+
+    instance1.deleteObj(obj.id());
+    soft.assertThatThrownBy(() -> instance2.fetchObj(obj.id()))
+        .isInstanceOf(ObjNotFoundException.class);
+  }
+}
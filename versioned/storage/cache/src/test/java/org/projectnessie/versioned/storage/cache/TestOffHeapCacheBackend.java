@@ -0,0 +1,157 @@
+/*
+ * Copyright (C) 2023 Dremio
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.projectnessie.versioned.storage.cache;
+
+import static org.projectnessie.versioned.storage.common.objtypes.ContentValueObj.contentValue;
+import static org.projectnessie.versioned.storage.common.persist.ObjId.randomObjId;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.ArrayList;
+import java.util.List;
+import org.assertj.core.api.SoftAssertions;
+import org.assertj.core.api.junit.jupiter.InjectSoftAssertions;
+import org.assertj.core.api.junit.jupiter.SoftAssertionsExtension;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.projectnessie.nessie.relocated.protobuf.ByteString;
+import org.projectnessie.versioned.storage.common.persist.Obj;
+import org.projectnessie.versioned.storage.common.persist.ObjId;
+
+@ExtendWith(SoftAssertionsExtension.class)
+public class TestOffHeapCacheBackend {
+  @InjectSoftAssertions protected SoftAssertions soft;
+
+  static final String REPO = "repo";
+
+  static Obj obj(int size) {
+    return contentValue(randomObjId(), "cid", 1, ByteString.copyFrom(new byte[size]));
+  }
+
+  @Test
+  public void putGetRemove() {
+    OffHeapCacheBackend backend = new OffHeapCacheBackend(64 * 1024, 8 * 1024, null);
+
+    Obj obj = obj(100);
+    soft.assertThat(backend.get(REPO, obj.id())).isNull();
+    backend.put(REPO, obj);
+    soft.assertThat(backend.get(REPO, obj.id())).isEqualTo(obj);
+    soft.assertThat(backend.get("other", obj.id())).isNull();
+    soft.assertThat(backend.usedBytes()).isGreaterThan(100L);
+    soft.assertThat(backend.allocatedBytes()).isEqualTo(8 * 1024L);
+
+    backend.remove(REPO, obj.id());
+    soft.assertThat(backend.get(REPO, obj.id())).isNull();
+    soft.assertThat(backend.usedBytes()).isEqualTo(0L);
+
+    backend.put(REPO, obj);
+    backend.clear(REPO);
+    soft.assertThat(backend.get(REPO, obj.id())).isNull();
+    soft.assertThat(backend.usedBytes()).isEqualTo(0L);
+  }
+
+  @Test
+  public void tooLarge() {
+    OffHeapCacheBackend backend = new OffHeapCacheBackend(64 * 1024, 8 * 1024, null);
+
+    Obj obj = obj(10 * 1024);
+    backend.put(REPO, obj);
+    soft.assertThat(backend.get(REPO, obj.id())).isNull();
+    soft.assertThat(backend.usedBytes()).isEqualTo(0L);
+  }
+
+  @Test
+  public void evictionSecondChance() {
+    int slabSize = 8 * 1024;
+    OffHeapCacheBackend backend = new OffHeapCacheBackend(4 * slabSize, slabSize, null);
+
+    Obj hot = obj(500);
+    backend.put(REPO, hot);
+    List<ObjId> ids = new ArrayList<>();
+    for (int i = 0; i < 500; i++) {
+      // keep 'hot' referenced
+      soft.assertThat(backend.get(REPO, hot.id())).isEqualTo(hot);
+      Obj obj = obj(500);
+      backend.put(REPO, obj);
+      ids.add(obj.id());
+    }
+
+    soft.assertThat(backend.get(REPO, hot.id())).isEqualTo(hot);
+    soft.assertThat(backend.get(REPO, ids.get(0))).isNull();
+    soft.assertThat(backend.get(REPO, ids.get(ids.size() - 1))).isNotNull();
+    soft.assertThat(backend.usedBytes()).isLessThanOrEqualTo(backend.capacityBytes());
+    soft.assertThat(backend.allocatedBytes()).isEqualTo(backend.capacityBytes());
+  }
+
+  @Test
+  public void clearAndCloseReleaseSlabs() {
+    int slabSize = 8 * 1024;
+    OffHeapCacheBackend backend = new OffHeapCacheBackend(4 * slabSize, slabSize, null);
+
+    Obj other = obj(600);
+    backend.put("other", other);
+    for (int i = 0; i < 30; i++) {
+      backend.put(REPO, obj(600));
+    }
+    soft.assertThat(backend.allocatedBytes()).isEqualTo(3L * slabSize);
+
+    // Slabs that only held objects of the cleared repository are released, the current slab is
+    // reused
+    backend.clear(REPO);
+    soft.assertThat(backend.allocatedBytes()).isEqualTo(2L * slabSize);
+    soft.assertThat(backend.get("other", other.id())).isEqualTo(other);
+
+    Obj obj = obj(600);
+    backend.put(REPO, obj);
+    soft.assertThat(backend.get(REPO, obj.id())).isEqualTo(obj);
+    soft.assertThat(backend.allocatedBytes()).isEqualTo(2L * slabSize);
+
+    backend.close();
+    soft.assertThat(backend.allocatedBytes()).isEqualTo(0L);
+    soft.assertThat(backend.usedBytes()).isEqualTo(0L);
+    soft.assertThat(backend.get(REPO, obj.id())).isNull();
+
+    // No slabs are allocated after close
+    backend.put(REPO, obj);
+    soft.assertThat(backend.get(REPO, obj.id())).isNull();
+    soft.assertThat(backend.allocatedBytes()).isEqualTo(0L);
+  }
+
+  @Test
+  public void metricsPerInstance() {
+    MeterRegistry registry = new SimpleMeterRegistry();
+    OffHeapCacheBackend first = new OffHeapCacheBackend(64 * 1024, 8 * 1024, null);
+    OffHeapCacheBackend second = new OffHeapCacheBackend(64 * 1024, 8 * 1024, null);
+    first.registerMetrics(registry);
+    second.registerMetrics(registry);
+
+    first.put(REPO, obj(100));
+
+    soft.assertThat(registry.find("nessie.storage.cache.offheap.entries").gauges())
+        .hasSize(2)
+        .extracting(g -> g.value())
+        .containsExactlyInAnyOrder(1d, 0d);
+
+    first.close();
+    soft.assertThat(registry.find("nessie.storage.cache.offheap.entries").gauges())
+        .hasSize(1)
+        .extracting(g -> g.value())
+        .containsExactly(0d);
+
+    second.close();
+    soft.assertThat(registry.getMeters()).isEmpty();
+  }
+}
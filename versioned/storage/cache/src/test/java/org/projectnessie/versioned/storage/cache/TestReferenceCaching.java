@@ -0,0 +1,96 @@
+/*
+ * Copyright (C) 2023 Dremio
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.projectnessie.versioned.storage.cache;
+
+import static org.projectnessie.versioned.storage.common.persist.ObjId.randomObjId;
+import static org.projectnessie.versioned.storage.common.persist.Reference.reference;
+
+import org.assertj.core.api.SoftAssertions;
+import org.assertj.core.api.junit.jupiter.InjectSoftAssertions;
+import org.assertj.core.api.junit.jupiter.SoftAssertionsExtension;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.projectnessie.versioned.storage.common.exceptions.RefConditionFailedException;
+import org.projectnessie.versioned.storage.common.persist.Persist;
+import org.projectnessie.versioned.storage.common.persist.Reference;
+import org.projectnessie.versioned.storage.testextension.NessiePersist;
+import org.projectnessie.versioned.storage.testextension.NessiePersistCache;
+import org.projectnessie.versioned.storage.testextension.PersistExtension;
+
+@ExtendWith({PersistExtension.class, SoftAssertionsExtension.class})
+@NessiePersistCache(referenceTtlMillis = 60_000L)
+public class TestReferenceCaching {
+  @InjectSoftAssertions protected SoftAssertions soft;
+
+  @NessiePersist protected Persist persist;
+
+  @Test
+  public void localUpdatesAreVisible() throws Exception {
+    Reference ref =
+        persist.addReference(reference("refs/heads/local", randomObjId(), false, 42L, null));
+    soft.assertThat(persist.fetchReference(ref.name())).isEqualTo(ref);
+
+    Reference updated = persist.updateReferencePointer(ref, randomObjId());
+    soft.assertThat(persist.fetchReference(ref.name())).isEqualTo(updated);
+    soft.assertThat(persist.fetchReferences(new String[] {ref.name(), null}))
+        .containsExactly(updated, null);
+
+    Reference deleted = persist.markReferenceAsDeleted(updated);
+    soft.assertThat(persist.fetchReference(ref.name())).isEqualTo(deleted);
+
+    persist.purgeReference(deleted);
+    soft.assertThat(persist.fetchReference(ref.name())).isNull();
+  }
+
+  @Test
+  public void staleReferenceRemovedOnConditionFailure() throws Exception {
+    Persist uncached = ((CachingPersistImpl) persist).persist;
+
+    Reference ref =
+        persist.addReference(reference("refs/heads/stale", randomObjId(), false, 42L, null));
+    soft.assertThat(persist.fetchReference(ref.name())).isEqualTo(ref);
+
+    // Simulates an update performed by another Nessie instance
+    Reference updated = uncached.updateReferencePointer(ref, randomObjId());
+    soft.assertThat(persist.fetchReference(ref.name())).isEqualTo(ref);
+    soft.assertThat(persist.fetchReferences(new String[] {ref.name()})).containsExactly(ref);
+
+    soft.assertThatThrownBy(() -> persist.updateReferencePointer(ref, randomObjId()))
+        .isInstanceOf(RefConditionFailedException.class);
+    soft.assertThat(persist.fetchReference(ref.name())).isEqualTo(updated);
+  }
+
+  @Test
+  public void concurrentlyFetchedReferenceDoesNotOverwriteUpdate() throws Exception {
+    ObjCache cache = ((CachingPersistImpl) persist).cache;
+
+    Reference ref =
+        persist.addReference(reference("refs/heads/racy", randomObjId(), false, 42L, null));
+    cache.removeReference(ref.name());
+
+    // Simulates a fetch that misses the cache and reads the reference from the database, while
+    // the reference is updated before the fetched reference is put into the cache.
+    long generation = cache.referenceGeneration(ref.name());
+    Reference updated = persist.updateReferencePointer(ref, randomObjId());
+    cache.putFetchedReference(ref, generation);
+    soft.assertThat(persist.fetchReference(ref.name())).isEqualTo(updated);
+
+    cache.removeReference(ref.name());
+    generation = cache.referenceGeneration(ref.name());
+    cache.putFetchedReference(updated, generation);
+    soft.assertThat(cache.getReference(ref.name())).isEqualTo(updated);
+  }
+}
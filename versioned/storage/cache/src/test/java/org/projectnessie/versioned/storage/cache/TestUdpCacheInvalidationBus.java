@@ -0,0 +1,105 @@
+/*
+ * Copyright (C) 2023 Dremio
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.projectnessie.versioned.storage.cache;
+
+import static java.util.Collections.emptyList;
+import static java.util.Collections.singletonList;
+import static org.awaitility.Awaitility.await;
+import static org.projectnessie.versioned.storage.common.persist.ObjId.randomObjId;
+
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import org.assertj.core.api.SoftAssertions;
+import org.assertj.core.api.junit.jupiter.InjectSoftAssertions;
+import org.assertj.core.api.junit.jupiter.SoftAssertionsExtension;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.projectnessie.versioned.storage.common.persist.ObjId;
+
+@ExtendWith(SoftAssertionsExtension.class)
+public class TestUdpCacheInvalidationBus {
+  @InjectSoftAssertions protected SoftAssertions soft;
+
+  @Test
+  public void sendReceive() throws Exception {
+    List<String> received = new CopyOnWriteArrayList<>();
+    ObjId id = randomObjId();
+
+    try (UdpCacheInvalidationBus receiving = new UdpCacheInvalidationBus(0, null, emptyList())) {
+      receiving.receiver(recordingReceiver(received));
+
+      InetSocketAddress target =
+          new InetSocketAddress(InetAddress.getLoopbackAddress(), receiving.localPort());
+      try (UdpCacheInvalidationBus sending =
+          new UdpCacheInvalidationBus(0, null, singletonList(target))) {
+        sending.sendObjInvalidation("repo", id);
+        sending.sendReferenceInvalidation("repo", "refs/heads/main");
+        sending.sendRepositoryInvalidation("other");
+
+        await().atMost(Duration.ofSeconds(10)).until(() -> received.size() == 3);
+      }
+    }
+
+    soft.assertThat(received)
+        .containsExactlyInAnyOrder("obj:repo:" + id, "ref:repo:refs/heads/main", "repo:other");
+  }
+
+  @Test
+  public void oversizedReferenceInvalidation() throws Exception {
+    List<String> received = new CopyOnWriteArrayList<>();
+    String longName = "refs/heads/" + "x".repeat(UdpCacheInvalidationBus.MAX_MESSAGE_SIZE);
+
+    try (UdpCacheInvalidationBus receiving = new UdpCacheInvalidationBus(0, null, emptyList())) {
+      receiving.receiver(recordingReceiver(received));
+
+      InetSocketAddress target =
+          new InetSocketAddress(InetAddress.getLoopbackAddress(), receiving.localPort());
+      try (UdpCacheInvalidationBus sending =
+          new UdpCacheInvalidationBus(0, null, singletonList(target))) {
+        // Must not throw, falls back to invalidating the whole repository
+        sending.sendReferenceInvalidation("repo", longName);
+        // Cannot be sent at all, must not throw either
+        sending.sendRepositoryInvalidation(longName);
+
+        await().atMost(Duration.ofSeconds(10)).until(() -> received.size() == 1);
+      }
+    }
+
+    soft.assertThat(received).containsExactly("repo:repo");
+  }
+
+  private static CacheInvalidationBus.Receiver recordingReceiver(List<String> received) {
+    return new CacheInvalidationBus.Receiver() {
+      @Override
+      public void objInvalidated(String repositoryId, ObjId id) {
+        received.add("obj:" + repositoryId + ":" + id);
+      }
+
+      @Override
+      public void referenceInvalidated(String repositoryId, String name) {
+        received.add("ref:" + repositoryId + ":" + name);
+      }
+
+      @Override
+      public void repositoryInvalidated(String repositoryId) {
+        received.add("repo:" + repositoryId);
+      }
+    };
+  }
+}
@@ -21,6 +21,10 @@ import static org.projectnessie.versioned.storage.common.indexes.StoreIndexEleme
 import static org.projectnessie.versioned.storage.common.objtypes.CommitOp.commitOp;
 import static org.projectnessie.versioned.storage.common.persist.ObjId.randomObjId;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
 import org.openjdk.jmh.annotations.Benchmark;
 import org.openjdk.jmh.annotations.BenchmarkMode;
 import org.openjdk.jmh.annotations.Fork;
@@ -41,7 +45,11 @@ import org.projectnessie.versioned.storage.commontests.KeyIndexTestSet;
 import org.projectnessie.versioned.storage.commontests.KeyIndexTestSet.IndexTestSetGenerator;
 import org.projectnessie.versioned.storage.commontests.KeyIndexTestSet.RandomUuidKeySet;
 
-/** Benchmark that uses {@link RandomUuidKeySet} to generate keys. */
+/**
+ * Benchmark that uses {@link RandomUuidKeySet} to generate keys.
+ *
+ * <p>Run with {@code -prof gc} to see the bytes allocated per operation.
+ */
 @Warmup(iterations = 2, time = 2000, timeUnit = MILLISECONDS)
 @Measurement(iterations = 3, time = 1000, timeUnit = MILLISECONDS)
 @Fork(1)
@@ -57,6 +65,12 @@ public class RandomUuidKeyIndexImplBench {
 
     private KeyIndexTestSet<CommitOp> keyIndexTestSet;
 
+    /** All keys in random order. */
+    private List<StoreKey> shuffledKeys;
+
+    /** 1000 keys that are not in the index, in random order. */
+    private List<StoreKey> keysToAdd;
+
     @Setup
     public void init() {
       IndexTestSetGenerator<CommitOp> builder =
@@ -68,6 +82,16 @@ public class RandomUuidKeyIndexImplBench {
 
       this.keyIndexTestSet = builder.generateIndexTestSet();
 
+      Random random = new Random(42L);
+      List<StoreKey> shuffled = new ArrayList<>(keyIndexTestSet.keys());
+      Collections.shuffle(shuffled, random);
+      this.shuffledKeys = shuffled;
+      List<StoreKey> toAdd = new ArrayList<>();
+      for (int i = 0; i < 1000; i++) {
+        toAdd.add(StoreKey.keyFromString(shuffled.get(i % shuffled.size()).rawString() + "_" + i));
+      }
+      this.keysToAdd = toAdd;
+
       System.err.printf(
           "%nNumber of tables: %d%nSerialized size: %d%n",
           keyIndexTestSet.keys().size(), keyIndexTestSet.serialized().size());
@@ -88,4 +112,40 @@ public class RandomUuidKeyIndexImplBench {
   public void randomGetKey(BenchmarkParam param, Blackhole bh) {
     bh.consume(param.keyIndexTestSet.randomGetKey());
   }
+
+  @Benchmark
+  public void buildFromRandomOrder(BenchmarkParam param, Blackhole bh) {
+    StoreIndex<CommitOp> index = StoreIndexes.newStoreIndex(CommitOp.COMMIT_OP_SERIALIZER);
+    for (StoreKey key : param.shuffledKeys) {
+      index.add(indexElement(key, commitOp(Action.ADD, 1, randomObjId())));
+    }
+    bh.consume(index.serialize());
+  }
+
+  @Benchmark
+  public void deserializeAdd1000(BenchmarkParam param, Blackhole bh) {
+    StoreIndex<CommitOp> index = param.keyIndexTestSet.deserialize();
+    for (StoreKey key : param.keysToAdd) {
+      index.add(indexElement(key, commitOp(Action.ADD, 1, randomObjId())));
+    }
+    bh.consume(index);
+  }
+
+  @Benchmark
+  public void deserializeAdd1000Serialize(BenchmarkParam param, Blackhole bh) {
+    StoreIndex<CommitOp> index = param.keyIndexTestSet.deserialize();
+    for (StoreKey key : param.keysToAdd) {
+      index.add(indexElement(key, commitOp(Action.ADD, 1, randomObjId())));
+    }
+    bh.consume(index.serialize());
+  }
+
+  @Benchmark
+  public void deserializeAdd1000Get(BenchmarkParam param, Blackhole bh) {
+    StoreIndex<CommitOp> index = param.keyIndexTestSet.deserialize();
+    for (StoreKey key : param.keysToAdd) {
+      index.add(indexElement(key, commitOp(Action.ADD, 1, randomObjId())));
+      bh.consume(index.get(key));
+    }
+  }
 }
@@ -23,7 +23,11 @@ import static org.projectnessie.versioned.storage.common.objtypes.CommitOp.Actio
 import static org.projectnessie.versioned.storage.common.objtypes.CommitOp.commitOp;
 import static org.projectnessie.versioned.storage.common.persist.ObjId.randomObjId;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
 import org.openjdk.jmh.annotations.Benchmark;
 import org.openjdk.jmh.annotations.BenchmarkMode;
 import org.openjdk.jmh.annotations.Fork;
@@ -43,7 +47,11 @@ import org.projectnessie.versioned.storage.commontests.ImmutableRealisticKeySet;
 import org.projectnessie.versioned.storage.commontests.KeyIndexTestSet;
 import org.projectnessie.versioned.storage.commontests.KeyIndexTestSet.IndexTestSetGenerator;
 
-/** Benchmark that uses {@link RealisticKeySet} to generate keys. */
+/**
+ * Benchmark that uses {@link RealisticKeySet} to generate keys.
+ *
+ * <p>Run with {@code -prof gc} to see the bytes allocated per operation.
+ */
 @Warmup(iterations = 2, time = 2000, timeUnit = MILLISECONDS)
 @Measurement(iterations = 3, time = 1000, timeUnit = MILLISECONDS)
 @Fork(1)
@@ -68,6 +76,9 @@ public class RealisticKeyIndexImplBench {
 
     private KeyIndexTestSet<CommitOp> keyIndexTestSet;
 
+    /** Keys that are not in the index, spread across the whole index, in random order. */
+    private List<StoreKey> keysToAdd;
+
     @Setup
     public void init() {
       IndexTestSetGenerator<CommitOp> builder =
@@ -85,6 +96,14 @@ public class RealisticKeyIndexImplBench {
 
       this.keyIndexTestSet = builder.generateIndexTestSet();
 
+      List<StoreKey> keys = keyIndexTestSet.keys();
+      List<StoreKey> toAdd = new ArrayList<>();
+      for (int i = 0; i < keys.size(); i += 2) {
+        toAdd.add(StoreKey.keyFromString(keys.get(i).rawString() + "_added"));
+      }
+      Collections.shuffle(toAdd, new Random(42L));
+      this.keysToAdd = toAdd;
+
       System.err.printf(
           "%nNumber of tables: %d%nSerialized size: %d%n",
           keyIndexTestSet.keys().size(), keyIndexTestSet.serialized().size());
@@ -140,4 +159,31 @@ public class RealisticKeyIndexImplBench {
       bh.consume(iter.next());
     }
   }
+
+  @Benchmark
+  public Object deserializeAddSpread(BenchmarkParam param) {
+    StoreIndex<CommitOp> deserialized = param.keyIndexTestSet.deserialize();
+    for (StoreKey key : param.keysToAdd) {
+      deserialized.add(indexElement(key, commitOp(ADD, 1, randomObjId())));
+    }
+    return deserialized;
+  }
+
+  @Benchmark
+  public Object deserializeAddSpreadSerialize(BenchmarkParam param) {
+    StoreIndex<CommitOp> deserialized = param.keyIndexTestSet.deserialize();
+    for (StoreKey key : param.keysToAdd) {
+      deserialized.add(indexElement(key, commitOp(ADD, 1, randomObjId())));
+    }
+    return deserialized.serialize();
+  }
+
+  @Benchmark
+  public void deserializeAddSpreadGet(BenchmarkParam param, Blackhole bh) {
+    StoreIndex<CommitOp> deserialized = param.keyIndexTestSet.deserialize();
+    for (StoreKey key : param.keysToAdd) {
+      deserialized.add(indexElement(key, commitOp(ADD, 1, randomObjId())));
+      bh.consume(deserialized.get(param.keyIndexTestSet.randomKey()));
+    }
+  }
 }
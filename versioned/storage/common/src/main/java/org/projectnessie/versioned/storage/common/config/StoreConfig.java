@@ -50,6 +50,18 @@ public interface StoreConfig {
   String CONFIG_RETRY_MAX_SLEEP_MILLIS = "retry-max-sleep-millis";
   int DEFAULT_RETRY_MAX_SLEEP_MILLIS = 250;
 
+  String CONFIG_COMMIT_ADMISSION_PERMITS = "commit-admission-permits";
+  int DEFAULT_COMMIT_ADMISSION_PERMITS = 0;
+
+  String CONFIG_GROUP_COMMIT_WINDOW_MILLIS = "group-commit-window-millis";
+  int DEFAULT_GROUP_COMMIT_WINDOW_MILLIS = 0;
+
+  String CONFIG_GROUP_COMMIT_MAX_COMMITS = "group-commit-max-commits";
+  int DEFAULT_GROUP_COMMIT_MAX_COMMITS = 20;
+
+  String CONFIG_GET_KEYS_CONTENT_READ_AHEAD = "get-keys-content-read-ahead";
+  int DEFAULT_GET_KEYS_CONTENT_READ_AHEAD = 4;
+
   String CONFIG_MAX_INCREMENTAL_INDEX_SIZE = "max-incremental-index-size";
   int DEFAULT_MAX_INCREMENTAL_INDEX_SIZE = 50 * 1024;
 
@@ -172,6 +184,53 @@ public interface StoreConfig {
     return DEFAULT_RETRY_MAX_SLEEP_MILLIS;
   }
 
+  /**
+   * The number of commit operations against the same branch that may run concurrently within one
+   * Nessie instance, further commit operations wait for their turn. Commits that race each other
+   * against the same branch cause retries, letting them take turns is cheaper. The time spent
+   * waiting counts against the {@link #commitTimeoutMillis() commit timeout}. A value of {@code 0}
+   * disables waiting, which is the default.
+   */
+  @Value.Default
+  default int commitAdmissionPermits() {
+    return DEFAULT_COMMIT_ADMISSION_PERMITS;
+  }
+
+  /**
+   * Enables "group commits", if greater than {@code 0}: commits to the same branch that arrive
+   * within this amount of milliseconds are written together and published with a single update of
+   * the branch's reference pointer. Each commit is still validated individually and gets its own
+   * commit ID. Group commits trade a little latency for fewer reference pointer conflicts, when
+   * many clients commit to the same branch concurrently. Default is {@value
+   * #DEFAULT_GROUP_COMMIT_WINDOW_MILLIS}, which disables group commits.
+   *
+   * @see #groupCommitMaxCommits()
+   */
+  @Value.Default
+  default long groupCommitWindowMillis() {
+    return DEFAULT_GROUP_COMMIT_WINDOW_MILLIS;
+  }
+
+  /**
+   * The maximum number of commits in a group commit, see {@link #groupCommitWindowMillis()}.
+   * Default is {@value #DEFAULT_GROUP_COMMIT_MAX_COMMITS}.
+   */
+  @Value.Default
+  default int groupCommitMaxCommits() {
+    return DEFAULT_GROUP_COMMIT_MAX_COMMITS;
+  }
+
+  /**
+   * The number of batches of content objects that are fetched ahead in the background, while the
+   * caller consumes the result of a "get keys" operation that requests the content objects. Reading
+   * ahead starts after the caller consumed the first batch. Default is {@value
+   * #DEFAULT_GET_KEYS_CONTENT_READ_AHEAD}, {@code 0} disables the read-ahead.
+   */
+  @Value.Default
+  default int getKeysContentReadAhead() {
+    return DEFAULT_GET_KEYS_CONTENT_READ_AHEAD;
+  }
+
   /**
    * The number of parent-commit-hashes stored in {@link CommitObj#tail()}. Defaults to {@value
    * #DEFAULT_PARENTS_PER_COMMIT}.
@@ -289,6 +348,22 @@ public interface StoreConfig {
       if (v != null) {
         a = a.withRetryMaxSleepMillis(Long.parseLong(v.trim()));
       }
+      v = configFunction.apply(CONFIG_COMMIT_ADMISSION_PERMITS);
+      if (v != null) {
+        a = a.withCommitAdmissionPermits(Integer.parseInt(v.trim()));
+      }
+      v = configFunction.apply(CONFIG_GROUP_COMMIT_WINDOW_MILLIS);
+      if (v != null) {
+        a = a.withGroupCommitWindowMillis(Long.parseLong(v.trim()));
+      }
+      v = configFunction.apply(CONFIG_GROUP_COMMIT_MAX_COMMITS);
+      if (v != null) {
+        a = a.withGroupCommitMaxCommits(Integer.parseInt(v.trim()));
+      }
+      v = configFunction.apply(CONFIG_GET_KEYS_CONTENT_READ_AHEAD);
+      if (v != null) {
+        a = a.withGetKeysContentReadAhead(Integer.parseInt(v.trim()));
+      }
       v = configFunction.apply(CONFIG_PARENTS_PER_COMMIT);
       if (v != null) {
         a = a.withParentsPerCommit(Integer.parseInt(v.trim()));
@@ -334,6 +409,18 @@ public interface StoreConfig {
     /** See {@link StoreConfig#retryMaxSleepMillis()}. */
     Adjustable withRetryMaxSleepMillis(long retryMaxSleepMillis);
 
+    /** See {@link StoreConfig#commitAdmissionPermits()}. */
+    Adjustable withCommitAdmissionPermits(int commitAdmissionPermits);
+
+    /** See {@link StoreConfig#groupCommitWindowMillis()}. */
+    Adjustable withGroupCommitWindowMillis(long groupCommitWindowMillis);
+
+    /** See {@link StoreConfig#groupCommitMaxCommits()}. */
+    Adjustable withGroupCommitMaxCommits(int groupCommitMaxCommits);
+
+    /** See {@link StoreConfig#getKeysContentReadAhead()}. */
+    Adjustable withGetKeysContentReadAhead(int getKeysContentReadAhead);
+
     /** See {@link StoreConfig#parentsPerCommit()}. */
     Adjustable withParentsPerCommit(int parentsPerCommit);
 
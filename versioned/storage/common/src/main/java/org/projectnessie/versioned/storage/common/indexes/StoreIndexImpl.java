@@ -36,7 +36,9 @@ import java.util.ArrayList;
 import java.util.Comparator;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.TreeMap;
 import java.util.function.Function;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
@@ -97,7 +99,8 @@ import org.projectnessie.versioned.storage.common.persist.ObjId;
  *       might save one (or two) row reads of a bulk read. The savings do not feel worth the extra
  *       complexity.
  *   <li>Have another implementation that is similar to this one, but uses a {@link
- *       java.util.TreeMap} to build indexes, when there are many elements to add to the index
+ *       java.util.TreeMap} to build indexes, when there are many elements to add to the index.
+ *       <em>Implemented as the {@link #pendingAdds} overlay, see below.</em>
  *   <li>Cross check whether the left-truncation used in the serialized representation of this
  *       implementation is really legit in real life. <em>It still feels valid and legit and
  *       efficient.</em>
@@ -134,6 +137,13 @@ final class StoreIndexImpl<V> implements StoreIndex<V> {
 
   private int estimatedSerializedSizeDiff;
   private final List<StoreIndexElement<V>> elements;
+
+  /**
+   * Elements with keys that are not present in {@link #elements}, which have been added "in the
+   * middle" of the index. Those are merged into {@link #elements} in a single pass, when the
+   * elements need to be accessed in index order.
+   */
+  private final TreeMap<StoreKey, StoreIndexElement<V>> pendingAdds = new TreeMap<>();
   private final ElementSerializer<V> serializer;
 
   /**
@@ -155,7 +165,9 @@ final class StoreIndexImpl<V> implements StoreIndex<V> {
 
   // NOTE: The implementation uses j.u.ArrayList to optimize for reads. Additions to this data
   // structure are rather inefficient, when elements need to be added "in the middle" of the
-  // 'elements' j.u.ArrayList.
+  // 'elements' j.u.ArrayList, because each insertion shifts all following elements. Such
+  // additions are collected in 'pendingAdds' and merged with all other elements at once, see
+  // 'elements()'.
 
   StoreIndexImpl(ElementSerializer<V> serializer) {
     this(new ArrayList<>(), 2, serializer, false);
@@ -217,7 +229,7 @@ final class StoreIndexImpl<V> implements StoreIndex<V> {
 
   @Override
   public List<StoreIndex<V>> divide(int parts) {
-    List<StoreIndexElement<V>> elems = elements;
+    List<StoreIndexElement<V>> elems = elements();
     int size = elems.size();
     checkArgument(
         parts > 0 && parts <= size,
@@ -231,7 +243,7 @@ final class StoreIndexImpl<V> implements StoreIndex<V> {
     int index = 0;
     for (int i = 0; i < parts; i++) {
       int end = i < parts - 1 ? index + partSize : elems.size();
-      List<StoreIndexElement<V>> partElements = new ArrayList<>(elements.subList(index, end));
+      List<StoreIndexElement<V>> partElements = new ArrayList<>(elems.subList(index, end));
       StoreIndexImpl<V> part = new StoreIndexImpl<>(partElements, serializedMax, serializer, true);
       result.add(part);
       index = end;
@@ -246,12 +258,12 @@ final class StoreIndexImpl<V> implements StoreIndex<V> {
 
   @Override
   public int elementCount() {
-    return elements.size();
+    return elements.size() + pendingAdds.size();
   }
 
   @Override
   public void updateAll(Function<StoreIndexElement<V>, V> updater) {
-    List<StoreIndexElement<V>> e = elements;
+    List<StoreIndexElement<V>> e = elements();
     ElementSerializer<V> serializer = this.serializer;
     int size = e.size();
     for (int i = 0; i < size; i++) {
@@ -291,23 +303,72 @@ final class StoreIndexImpl<V> implements StoreIndex<V> {
       return false;
     }
 
-    estimatedSerializedSizeDiff += addElementDiff(element, elementSerializedSize);
-
     int insertionPoint = -idx - 1;
-    if (insertionPoint == e.size()) {
+    Map<StoreKey, StoreIndexElement<V>> pending = pendingAdds;
+    if (insertionPoint == e.size() && pending.isEmpty()) {
+      // Appending to the end of the index is cheap, no need to go through 'pendingAdds'.
       e.add(element);
     } else {
-      e.add(insertionPoint, element);
+      StoreIndexElement<V> prev = pending.put(element.key(), element);
+      if (prev != null) {
+        int prevSerializedSize = prev.contentSerializedSize(serializer);
+        estimatedSerializedSizeDiff += elementSerializedSize - prevSerializedSize;
+        return false;
+      }
     }
+
+    estimatedSerializedSizeDiff += addElementDiff(element, elementSerializedSize);
     return true;
   }
 
+  /**
+   * Returns {@link #elements} after merging the {@link #pendingAdds}. The merge happens in-place,
+   * starting at the end of the list, so each existing element is moved at most once.
+   */
+  private List<StoreIndexElement<V>> elements() {
+    List<StoreIndexElement<V>> e = elements;
+    TreeMap<StoreKey, StoreIndexElement<V>> pending = pendingAdds;
+    int numPending = pending.size();
+    if (numPending == 0) {
+      return e;
+    }
+
+    int i = e.size() - 1;
+    for (int n = 0; n < numPending; n++) {
+      e.add(null);
+    }
+    int target = e.size() - 1;
+    for (StoreIndexElement<V> add : pending.descendingMap().values()) {
+      StoreKey addKey = add.key();
+      for (; i >= 0; i--) {
+        StoreIndexElement<V> existing = e.get(i);
+        if (existing.key().compareTo(addKey) < 0) {
+          break;
+        }
+        e.set(target--, existing);
+      }
+      e.set(target--, add);
+    }
+    pending.clear();
+
+    return e;
+  }
+
   private static <V> int addElementDiff(StoreIndexElement<V> element, int elementSerializedSize) {
     return serializedSize(element.key()) + ASSUMED_PER_ENTRY_OVERHEAD + elementSerializedSize;
   }
 
   @Override
   public boolean remove(@Nonnull @jakarta.annotation.Nonnull StoreKey key) {
+    Map<StoreKey, StoreIndexElement<V>> pending = pendingAdds;
+    if (!pending.isEmpty()) {
+      StoreIndexElement<V> element = pending.remove(key);
+      if (element != null) {
+        estimatedSerializedSizeDiff -= removeSizeDiff(element);
+        return true;
+      }
+    }
+
     List<StoreIndexElement<V>> e = elements;
     int idx = search(e, key);
     if (idx < 0) {
@@ -329,6 +390,9 @@ final class StoreIndexImpl<V> implements StoreIndex<V> {
 
   @Override
   public boolean contains(@Nonnull @jakarta.annotation.Nonnull StoreKey key) {
+    if (!pendingAdds.isEmpty() && pendingAdds.containsKey(key)) {
+      return true;
+    }
     int idx = search(elements, key);
     return idx >= 0;
   }
@@ -336,6 +400,12 @@ final class StoreIndexImpl<V> implements StoreIndex<V> {
   @Override
   public @Nullable @jakarta.annotation.Nullable StoreIndexElement<V> get(
       @Nonnull @jakarta.annotation.Nonnull StoreKey key) {
+    if (!pendingAdds.isEmpty()) {
+      StoreIndexElement<V> pending = pendingAdds.get(key);
+      if (pending != null) {
+        return pending;
+      }
+    }
     List<StoreIndexElement<V>> e = elements;
     int idx = search(e, key);
     if (idx < 0) {
@@ -348,7 +418,7 @@ final class StoreIndexImpl<V> implements StoreIndex<V> {
   @jakarta.annotation.Nullable
   @Override
   public StoreKey first() {
-    List<StoreIndexElement<V>> e = elements;
+    List<StoreIndexElement<V>> e = elements();
     return e.isEmpty() ? null : e.get(0).key();
   }
 
@@ -356,7 +426,7 @@ final class StoreIndexImpl<V> implements StoreIndex<V> {
   @jakarta.annotation.Nullable
   @Override
   public StoreKey last() {
-    List<StoreIndexElement<V>> e = elements;
+    List<StoreIndexElement<V>> e = elements();
     return e.isEmpty() ? null : e.get(e.size() - 1).key();
   }
 
@@ -365,7 +435,7 @@ final class StoreIndexImpl<V> implements StoreIndex<V> {
       @Nullable @jakarta.annotation.Nullable StoreKey begin,
       @Nullable @jakarta.annotation.Nullable StoreKey end,
       boolean prefetch) {
-    List<StoreIndexElement<V>> e = elements;
+    List<StoreIndexElement<V>> e = elements();
 
     if (begin == null && end == null) {
       return e.iterator();
@@ -418,13 +488,13 @@ final class StoreIndexImpl<V> implements StoreIndex<V> {
     }
     @SuppressWarnings("unchecked")
     StoreIndexImpl<V> that = (StoreIndexImpl<V>) o;
-    return elements.equals(that.elements);
+    return elements().equals(that.elements());
   }
 
   @Override
   @VisibleForTesting
   public int hashCode() {
-    return elements.hashCode();
+    return elements().hashCode();
   }
 
   @Override
@@ -441,12 +511,12 @@ final class StoreIndexImpl<V> implements StoreIndex<V> {
     return new AbstractList<>() {
       @Override
       public StoreKey get(int index) {
-        return elements.get(index).key();
+        return elements().get(index).key();
       }
 
       @Override
       public int size() {
-        return elements.size();
+        return elementCount();
       }
     };
   }
@@ -476,7 +546,7 @@ final class StoreIndexImpl<V> implements StoreIndex<V> {
       @SuppressWarnings("UnnecessaryLocalVariable")
       ElementSerializer<V> ser = serializer;
 
-      List<StoreIndexElement<V>> elements = this.elements;
+      List<StoreIndexElement<V>> elements = elements();
       boolean onlyLazy;
       StoreIndexElement<V> previous = null;
       for (int i = 0; i < elements.size(); i++) {
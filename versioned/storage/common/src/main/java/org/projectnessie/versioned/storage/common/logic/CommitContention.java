@@ -0,0 +1,254 @@
+/*
+ * Copyright (C) 2023 Dremio
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.projectnessie.versioned.storage.common.logic;
+
+import static java.util.Objects.requireNonNull;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
+import com.google.common.cache.RemovalListener;
+import java.time.Duration;
+import java.util.Objects;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import javax.annotation.Nonnull;
+import org.projectnessie.versioned.storage.common.config.StoreConfig;
+import org.projectnessie.versioned.storage.common.persist.Persist;
+
+/**
+ * In-process bookkeeping of the contention on references, used by {@link CommitRetry}. The state is
+ * held per {@link Persist} instance, see {@link #commitContention(Persist)}.
+ *
+ * <p>If enabled via {@link StoreConfig#commitAdmissionPermits()}, commit attempts against the same
+ * reference are admitted via a fair semaphore per reference, so that concurrent commits on one
+ * Nessie instance take turns instead of racing each other and losing the
+ * reference-pointer-update. The observed conflict rate of a reference scales the initial retry
+ * backoff.
+ *
+ * <p>Entries for references that have not been committed to for a while are dropped.
+ */
+public final class CommitContention {
+
+  /** Weight of the most recent commit attempt in the exponentially weighted conflict rate. */
+  static final double CONFLICT_RATE_ALPHA = 0.1d;
+
+  /** Maximum factor applied to the initial retry backoff bounds for a fully contended reference. */
+  static final int MAX_BACKOFF_FACTOR = 8;
+
+  static final Duration EXPIRE_AFTER_ACCESS = Duration.ofMinutes(10);
+
+  private static final Listener NOOP_LISTENER =
+      new Listener() {
+        @Override
+        public void added(@Nonnull @jakarta.annotation.Nonnull ReferenceContention contention) {}
+
+        @Override
+        public void removed(@Nonnull @jakarta.annotation.Nonnull ReferenceContention contention) {}
+      };
+
+  /** Contention state per {@link Persist} instance, compared by identity. */
+  private static final LoadingCache<Persist, CommitContention> INSTANCES =
+      CacheBuilder.newBuilder().weakKeys().build(CacheLoader.from(p -> new CommitContention()));
+
+  private volatile Listener listener = NOOP_LISTENER;
+
+  private final Cache<ContentionKey, ReferenceContention> contentions =
+      CacheBuilder.newBuilder()
+          .expireAfterAccess(EXPIRE_AFTER_ACCESS)
+          .removalListener(
+              (RemovalListener<ContentionKey, ReferenceContention>)
+                  notification -> listener.removed(requireNonNull(notification.getValue())))
+          .build();
+
+  private CommitContention() {}
+
+  /** Returns the contention state for the given {@link Persist} instance. */
+  public static CommitContention commitContention(
+      @Nonnull @jakarta.annotation.Nonnull Persist persist) {
+    return INSTANCES.getUnchecked(persist);
+  }
+
+  /**
+   * Registers the listener that gets notified about new and dropped per-reference contention
+   * entries, used to expose the per-reference metrics. Only one listener is supported.
+   */
+  public void setListener(@Nonnull @jakarta.annotation.Nonnull Listener newListener) {
+    listener = requireNonNull(newListener);
+  }
+
+  ReferenceContention referenceContention(
+      String repositoryId, String reference, int admissionPermits) {
+    try {
+      return contentions.get(
+          new ContentionKey(repositoryId, reference),
+          () -> {
+            ReferenceContention contention =
+                new ReferenceContention(repositoryId, reference, admissionPermits);
+            listener.added(contention);
+            return contention;
+          });
+    } catch (ExecutionException e) {
+      throw new RuntimeException(e.getCause());
+    }
+  }
+
+  @VisibleForTesting
+  void clear() {
+    contentions.invalidateAll();
+  }
+
+  /** Gets notified about new and dropped per-reference contention entries. */
+  public interface Listener {
+    void added(@Nonnull @jakarta.annotation.Nonnull ReferenceContention contention);
+
+    void removed(@Nonnull @jakarta.annotation.Nonnull ReferenceContention contention);
+  }
+
+  /** Admission and conflict statistics for a single reference in a repository. */
+  public static final class ReferenceContention {
+    private final String repositoryId;
+    private final String reference;
+    private final Semaphore admission;
+    private final LongAdder attempts = new LongAdder();
+    private final LongAdder conflicts = new LongAdder();
+    private final LongAdder retries = new LongAdder();
+    private final LongAdder sleepMillis = new LongAdder();
+    private final LongAdder admissionWaitNanos = new LongAdder();
+    private double conflictRate;
+
+    ReferenceContention(String repositoryId, String reference, int admissionPermits) {
+      this.repositoryId = repositoryId;
+      this.reference = reference;
+      this.admission = admissionPermits > 0 ? new Semaphore(admissionPermits, true) : null;
+    }
+
+    public String repositoryId() {
+      return repositoryId;
+    }
+
+    public String reference() {
+      return reference;
+    }
+
+    /** Number of commit attempts. */
+    public long attempts() {
+      return attempts.sum();
+    }
+
+    /** Number of commit attempts that failed due to a concurrent update of the reference. */
+    public long conflicts() {
+      return conflicts.sum();
+    }
+
+    /** Number of retried commit attempts. */
+    public long retries() {
+      return retries.sum();
+    }
+
+    /** Total time in milliseconds spent sleeping before retrying a commit attempt. */
+    public long sleepMillis() {
+      return sleepMillis.sum();
+    }
+
+    /** Total time in nanoseconds spent waiting for admission. */
+    public long admissionWaitNanos() {
+      return admissionWaitNanos.sum();
+    }
+
+    /** Exponentially weighted rate of conflicting commit attempts, between 0 and 1. */
+    public synchronized double conflictRate() {
+      return conflictRate;
+    }
+
+    synchronized void recordAttempt(boolean conflict) {
+      attempts.increment();
+      if (conflict) {
+        conflicts.increment();
+      }
+      conflictRate += CONFLICT_RATE_ALPHA * ((conflict ? 1d : 0d) - conflictRate);
+    }
+
+    void recordRetry(long sleptMillis) {
+      retries.increment();
+      sleepMillis.add(sleptMillis);
+    }
+
+    /** Factor applied to the initial retry backoff bounds, depending on the conflict rate. */
+    int backoffFactor() {
+      return 1 + (int) Math.round(conflictRate() * (MAX_BACKOFF_FACTOR - 1));
+    }
+
+    /**
+     * Waits until the current thread is admitted to commit to this reference.
+     *
+     * @return {@code true} if admitted, {@code false} if the timeout elapsed or the thread has been
+     *     interrupted
+     */
+    boolean admit(long timeoutNanos) {
+      if (admission == null) {
+        return true;
+      }
+      long t0 = System.nanoTime();
+      try {
+        return admission.tryAcquire(Math.max(timeoutNanos, 0L), TimeUnit.NANOSECONDS);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        return false;
+      } finally {
+        admissionWaitNanos.add(System.nanoTime() - t0);
+      }
+    }
+
+    void release() {
+      if (admission != null) {
+        admission.release();
+      }
+    }
+  }
+
+  private static final class ContentionKey {
+    private final String repositoryId;
+    private final String reference;
+
+    ContentionKey(String repositoryId, String reference) {
+      this.repositoryId = repositoryId;
+      this.reference = reference;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (!(o instanceof ContentionKey)) {
+        return false;
+      }
+      ContentionKey that = (ContentionKey) o;
+      return Objects.equals(repositoryId, that.repositoryId)
+          && Objects.equals(reference, that.reference);
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(repositoryId, reference);
+    }
+  }
+}
@@ -843,14 +843,8 @@ final class CommitLogicImpl implements CommitLogic {
 
   private ObjId identifyMergeBase(ObjId targetId, ObjId sourceId, boolean respectMergeParents) {
     return MergeBase.builder()
-        .loadCommit(
-            commitId -> {
-              try {
-                return fetchCommit(commitId);
-              } catch (ObjNotFoundException e) {
-                return null;
-              }
-            })
+        .loadCommit(this::fetchCommitOrNull)
+        .loadCommits(this::fetchCommitsOrNull)
         .targetCommitId(targetId)
         .fromCommitId(sourceId)
         .respectMergeParents(respectMergeParents)
@@ -858,6 +852,55 @@ final class CommitLogicImpl implements CommitLogic {
         .identifyMergeBase();
   }
 
+  private CommitObj fetchCommitOrNull(ObjId commitId) {
+    try {
+      return fetchCommit(commitId);
+    } catch (ObjNotFoundException e) {
+      return null;
+    }
+  }
+
+  /**
+   * Fetches the given commits in a single bulk request, yielding {@code null} for the non-existing
+   * ones. If any of the objects does not exist, the bulk request is repeated without the IDs of the
+   * non-existing objects.
+   */
+  private CommitObj[] fetchCommitsOrNull(ObjId[] commitIds) {
+    CommitObj[] commits = new CommitObj[commitIds.length];
+    ObjId[] ids = commitIds;
+    while (true) {
+      try {
+        Obj[] objs = persist.fetchObjs(ids);
+        for (int i = 0; i < objs.length; i++) {
+          Obj obj = objs[i];
+          if (obj instanceof CommitObj) {
+            commits[i] = (CommitObj) obj;
+          }
+        }
+        return commits;
+      } catch (ObjNotFoundException e) {
+        Set<ObjId> missing = new HashSet<>(e.objIds());
+        ObjId[] remaining = new ObjId[ids.length];
+        boolean removed = false;
+        for (int i = 0; i < ids.length; i++) {
+          if (ids[i] != null && missing.contains(ids[i])) {
+            removed = true;
+          } else {
+            remaining[i] = ids[i];
+          }
+        }
+        if (!removed) {
+          // should not happen, fetch the commits individually
+          for (int i = 0; i < commitIds.length; i++) {
+            commits[i] = fetchCommitOrNull(commitIds[i]);
+          }
+          return commits;
+        }
+        ids = remaining;
+      }
+    }
+  }
+
   @Nullable
   @jakarta.annotation.Nullable
   @Override
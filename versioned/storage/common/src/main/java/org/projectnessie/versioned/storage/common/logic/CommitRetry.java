@@ -17,16 +17,19 @@ package org.projectnessie.versioned.storage.common.logic;
 
 import static java.util.concurrent.TimeUnit.MILLISECONDS;
 import static java.util.concurrent.TimeUnit.NANOSECONDS;
+import static org.projectnessie.versioned.storage.common.logic.CommitContention.commitContention;
 import static org.projectnessie.versioned.storage.common.logic.CommitRetry.TryLoopState.newTryLoopState;
 
 import com.google.common.annotations.VisibleForTesting;
 import java.util.Optional;
 import java.util.concurrent.ThreadLocalRandom;
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 import org.projectnessie.versioned.storage.common.config.StoreConfig;
 import org.projectnessie.versioned.storage.common.exceptions.CommitConflictException;
 import org.projectnessie.versioned.storage.common.exceptions.CommitWrappedException;
 import org.projectnessie.versioned.storage.common.exceptions.RetryTimeoutException;
+import org.projectnessie.versioned.storage.common.logic.CommitContention.ReferenceContention;
 import org.projectnessie.versioned.storage.common.persist.Persist;
 
 public class CommitRetry {
@@ -35,7 +38,34 @@ public class CommitRetry {
 
   public static <T> T commitRetry(Persist persist, CommitAttempt<T> attempt)
       throws CommitWrappedException, CommitConflictException, RetryTimeoutException {
-    return commitRetry(persist, attempt, newTryLoopState(persist));
+    return commitRetry(persist, attempt, newTryLoopState(persist.config(), null));
+  }
+
+  /**
+   * Like {@link #commitRetry(Persist, CommitAttempt)}, but for operations that update the given
+   * reference.
+   *
+   * <p>If enabled, concurrent attempts against the same reference via the same {@link Persist}
+   * have to be admitted first, see {@link StoreConfig#commitAdmissionPermits()}, the time waiting
+   * for admission counts against the {@link StoreConfig#commitTimeoutMillis() commit timeout}. The
+   * initial retry backoff is scaled by the recently observed conflict rate of the reference.
+   */
+  public static <T> T commitRetry(Persist persist, String referenceName, CommitAttempt<T> attempt)
+      throws CommitWrappedException, CommitConflictException, RetryTimeoutException {
+    StoreConfig config = persist.config();
+    ReferenceContention contention =
+        commitContention(persist)
+            .referenceContention(
+                config.repositoryId(), referenceName, config.commitAdmissionPermits());
+    TryLoopState tls = newTryLoopState(config, contention);
+    if (!contention.admit(MILLISECONDS.toNanos(config.commitTimeoutMillis()))) {
+      throw new RetryTimeoutException(0, tls.currentNanos() - tls.t0);
+    }
+    try {
+      return commitRetry(persist, attempt, tls);
+    } finally {
+      contention.release();
+    }
   }
 
   @VisibleForTesting
@@ -47,8 +77,11 @@ public class CommitRetry {
     long t1 = t0;
     for (int i = 0; true; i++, t1 = tls.currentNanos()) {
       try {
-        return attempt.attempt(persist, retryState);
+        T result = attempt.attempt(persist, retryState);
+        tls.attemptSucceeded();
+        return result;
       } catch (RetryException e) {
+        tls.attemptConflicted();
         if (!tls.retry(t1)) {
           throw new RetryTimeoutException(i, tls.currentNanos() - t0);
         }
@@ -92,6 +125,7 @@ public class CommitRetry {
   static final class TryLoopState {
 
     private final MonotonicClock monotonicClock;
+    @Nullable private final ReferenceContention contention;
     private final long t0;
     private final long maxTime;
     private final int maxRetries;
@@ -102,18 +136,30 @@ public class CommitRetry {
     private boolean unsuccessful;
 
     TryLoopState(StoreConfig config, MonotonicClock monotonicClock) {
+      this(config, monotonicClock, null);
+    }
+
+    TryLoopState(
+        StoreConfig config,
+        MonotonicClock monotonicClock,
+        @Nullable @jakarta.annotation.Nullable ReferenceContention contention) {
       this.maxTime = MILLISECONDS.toNanos(config.commitTimeoutMillis());
       this.maxRetries = config.commitRetries();
       this.monotonicClock = monotonicClock;
+      this.contention = contention;
       this.t0 = monotonicClock.currentNanos();
-      this.lowerBound = config.retryInitialSleepMillisLower();
-      this.upperBound = config.retryInitialSleepMillisUpper();
       this.maxSleep = config.retryMaxSleepMillis();
+
+      // Back off longer right from the start, if recent attempts against the reference conflicted
+      long factor = contention != null ? contention.backoffFactor() : 1L;
+      this.lowerBound = Math.min(config.retryInitialSleepMillisLower() * factor, maxSleep);
+      this.upperBound = Math.min(config.retryInitialSleepMillisUpper() * factor, maxSleep);
     }
 
-    public static TryLoopState newTryLoopState(Persist persist) {
+    static TryLoopState newTryLoopState(
+        StoreConfig config, @Nullable @jakarta.annotation.Nullable ReferenceContention contention) {
       return new TryLoopState(
-          persist.config(),
+          config,
           new MonotonicClock() {
             @Override
             public long currentNanos() {
@@ -128,13 +174,26 @@ public class CommitRetry {
                 Thread.currentThread().interrupt();
               }
             }
-          });
+          },
+          contention);
     }
 
     long currentNanos() {
       return monotonicClock.currentNanos();
     }
 
+    void attemptSucceeded() {
+      if (contention != null) {
+        contention.recordAttempt(false);
+      }
+    }
+
+    void attemptConflicted() {
+      if (contention != null) {
+        contention.recordAttempt(true);
+      }
+    }
+
     public boolean retry(long timeAttemptStarted) {
       if (unsuccessful) {
         return false;
@@ -169,6 +228,9 @@ public class CommitRetry {
       sleepMillis = Math.max(1L, sleepMillis - NANOSECONDS.toMillis(attemptElapsed));
 
       monotonicClock.sleepMillis(sleepMillis);
+      if (contention != null) {
+        contention.recordRetry(sleepMillis);
+      }
 
       upper = upper * 2;
       long max = maxSleep;
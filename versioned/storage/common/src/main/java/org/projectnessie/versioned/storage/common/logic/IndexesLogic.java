@@ -20,6 +20,7 @@ import static org.projectnessie.versioned.storage.common.objtypes.CommitOp.COMMI
 
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.Executor;
 import java.util.function.Supplier;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
@@ -117,4 +118,17 @@ public interface IndexesLogic {
   void completeIndexesInCommitChain(
       @Nonnull @jakarta.annotation.Nonnull ObjId commitId, Runnable progressCallback)
       throws ObjNotFoundException;
+
+  /**
+   * Like {@link #completeIndexesInCommitChain(ObjId, Runnable)} for multiple commits, processes
+   * independent parts of the commit graph concurrently using the given executor, commits that are
+   * reachable from multiple commit chains are updated only once.
+   *
+   * @param progressCallback called concurrently for each updated commit, must be thread-safe
+   */
+  void completeIndexesInCommitChains(
+      @Nonnull @jakarta.annotation.Nonnull List<ObjId> commitIds,
+      @Nonnull @jakarta.annotation.Nonnull Executor executor,
+      Runnable progressCallback)
+      throws ObjNotFoundException;
 }
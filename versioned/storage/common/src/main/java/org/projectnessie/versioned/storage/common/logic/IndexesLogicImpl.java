@@ -49,6 +49,15 @@ import java.util.Deque;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
 import java.util.function.IntFunction;
 import java.util.function.Supplier;
 import javax.annotation.Nonnull;
@@ -74,6 +83,10 @@ import org.slf4j.LoggerFactory;
 
 final class IndexesLogicImpl implements IndexesLogic {
   private static final Logger LOGGER = LoggerFactory.getLogger(IndexesLogicImpl.class);
+
+  /** Number of commits that are fetched and written at once when completing commit indexes. */
+  static final int COMPLETE_INDEXES_BATCH_SIZE = 100;
+
   private final Persist persist;
 
   IndexesLogicImpl(Persist persist) {
@@ -463,12 +476,46 @@ final class IndexesLogicImpl implements IndexesLogic {
     }
   }
 
+  @Override
+  public void completeIndexesInCommitChains(
+      @Nonnull @jakarta.annotation.Nonnull List<ObjId> commitIds,
+      @Nonnull @jakarta.annotation.Nonnull Executor executor,
+      Runnable progressCallback)
+      throws ObjNotFoundException {
+    ConcurrentIndexCompletion completion =
+        new ConcurrentIndexCompletion(executor, progressCallback);
+    commitIds.forEach(completion::submit);
+    completion.await();
+  }
+
   @VisibleForTesting
   void completeIndexesInCommitChain(
       @Nonnull @jakarta.annotation.Nonnull ObjId commitId,
       @Nonnull @jakarta.annotation.Nonnull Deque<ObjId> idsToProcess,
       Runnable progressCallback)
       throws ObjNotFoundException {
+    completeIndexesInCommitChain(commitId, idsToProcess::add, progressCallback, null);
+  }
+
+  /**
+   * Completes the indexes of the given commit and its predecessors with incomplete indexes, oldest
+   * commit first.
+   *
+   * <p>The incremental index of each updated commit is carried forward in memory to the next
+   * commit, the updated commits are written in batches via {@link Persist#upsertObjs(Obj[])}.
+   *
+   * @param secondaryParents receives the secondary parents of all updated commits, those need to
+   *     be processed as well
+   * @param claims if not {@code null}, the commits that are being updated by all concurrently
+   *     running invocations, each invocation only updates the commits that it successfully claimed,
+   *     and uses the result of the claiming invocation for the other commits
+   */
+  private void completeIndexesInCommitChain(
+      ObjId commitId,
+      Consumer<ObjId> secondaryParents,
+      Runnable progressCallback,
+      @Nullable ConcurrentMap<ObjId, CompletableFuture<CommitObj>> claims)
+      throws ObjNotFoundException {
     CommitLogic commitLogic = commitLogic(persist);
 
     // Handle the case when 'commitId' accidentally points to a CommitObjReference, e.g. TagObj
@@ -494,82 +541,245 @@ final class IndexesLogicImpl implements IndexesLogic {
     Collections.reverse(commitsToUpdate);
 
     int totalCommits = commitsToUpdate.size();
-    ObjId oldestCommitId = commitsToUpdate.get(0);
 
     IntFunction<ObjId[]> prefetchIds =
-        i -> commitsToUpdate.subList(i, Math.min(totalCommits, i + 100)).toArray(new ObjId[0]);
+        i ->
+            commitsToUpdate
+                .subList(i, Math.min(totalCommits, i + COMPLETE_INDEXES_BATCH_SIZE))
+                .toArray(new ObjId[0]);
+
+    int first = 0;
+    CommitObj parent = null;
+    if (claims != null) {
+      // Commits are claimed oldest first, so all commits up to the newest claimed commit have
+      // been or are being updated by another invocation.
+      for (int i = totalCommits - 1; i >= 0; i--) {
+        CompletableFuture<CommitObj> claimed = claims.get(commitsToUpdate.get(i));
+        if (claimed != null) {
+          parent = claimed.join();
+          first = i + 1;
+          break;
+        }
+      }
+      if (first == totalCommits) {
+        return;
+      }
+    }
 
     // perform a bulk-load against the database, populates the cache
-    persist.fetchObjs(prefetchIds.apply(0));
-
-    CommitObj current = persist.fetchTypedObj(oldestCommitId, COMMIT, CommitObj.class);
-    CommitObj parent =
-        EMPTY_OBJ_ID.equals(current.directParent())
-            ? null
-            : persist.fetchTypedObj(current.directParent(), COMMIT, CommitObj.class);
+    persist.fetchObjs(prefetchIds.apply(first));
+
+    CommitObj current = persist.fetchTypedObj(commitsToUpdate.get(first), COMMIT, CommitObj.class);
+    if (first == 0) {
+      parent =
+          EMPTY_OBJ_ID.equals(current.directParent())
+              ? null
+              : persist.fetchTypedObj(current.directParent(), COMMIT, CommitObj.class);
+    }
 
     int parentsPerCommit = persist.config().parentsPerCommit();
+    int incrementalIndexSizeLimit = persist.effectiveIncrementalIndexSizeLimit();
+
+    // The incremental index of 'parent', if it is still the same as the serialized one
+    StoreIndex<CommitOp> parentIndex = null;
+    List<CommitObj> updatedCommits = new ArrayList<>(COMPLETE_INDEXES_BATCH_SIZE);
 
-    for (int i = 0; i < totalCommits; i++) {
-      if (i > 0 && (i % 100) == 0) {
+    for (int i = first; i < totalCommits; i++) {
+      if (i > first && ((i - first) % COMPLETE_INDEXES_BATCH_SIZE) == 0) {
         // perform a bulk-load against the database, populates the cache
         persist.fetchObjs(prefetchIds.apply(i));
       }
 
       ObjId currentId = commitsToUpdate.get(i);
-      if (current == null) {
-        try {
-          current = commitLogic.fetchCommit(currentId);
-        } catch (ObjNotFoundException e) {
-          throw new IllegalStateException(
-              format(
-                  "Commit %s has been seen while walking the commit log, but no longer exists",
-                  currentId));
+
+      CompletableFuture<CommitObj> claim = null;
+      if (claims != null) {
+        claim = new CompletableFuture<>();
+        CompletableFuture<CommitObj> claimed = claims.putIfAbsent(currentId, claim);
+        if (claimed != null) {
+          // Another invocation updates this commit, continue with its result
+          parent = claimed.join();
+          parentIndex = null;
+          current = null;
+          continue;
         }
       }
 
-      checkState(
-          current != null,
-          "Commit %s has been seen while walking the commit log, but no longer exists",
-          currentId);
+      try {
+        if (current == null) {
+          try {
+            current = commitLogic.fetchCommit(currentId);
+          } catch (ObjNotFoundException e) {
+            throw new IllegalStateException(
+                format(
+                    "Commit %s has been seen while walking the commit log, but no longer exists",
+                    currentId));
+          }
+        }
 
-      progressCallback.run();
+        checkState(
+            current != null,
+            "Commit %s has been seen while walking the commit log, but no longer exists",
+            currentId);
+
+        progressCallback.run();
+
+        current.secondaryParents().forEach(secondaryParents);
+
+        StoreIndex<CommitOp> newIndex;
+        ObjId referenceIndex;
+        List<IndexStripe> indexStripes;
+        if (parent != null) {
+          newIndex = incrementalIndexForUpdate(parent, Optional.ofNullable(parentIndex));
+          referenceIndex = parent.referenceIndex();
+          indexStripes = parent.referenceIndexStripes();
+        } else {
+          newIndex = newStoreIndex(COMMIT_OP_SERIALIZER);
+          referenceIndex = null;
+          indexStripes = Collections.emptyList();
+        }
 
-      idsToProcess.addAll(current.secondaryParents());
+        commitOperations(current).forEach(newIndex::add);
+
+        CommitObj.Builder c =
+            commitBuilder()
+                .from(current)
+                .incompleteIndex(false)
+                .referenceIndex(referenceIndex)
+                .referenceIndexStripes(indexStripes)
+                .incrementalIndex(newIndex.serialize());
+
+        if (parent != null) {
+          int parents = Math.min(parentsPerCommit - 1, parent.tail().size());
+          List<ObjId> tail = new ArrayList<>(parents + 1);
+          tail.add(parent.id());
+          tail.addAll(parent.tail().subList(0, parents));
+          c.tail(tail);
+        }
 
-      StoreIndex<CommitOp> newIndex;
-      ObjId referenceIndex;
-      List<IndexStripe> indexStripes;
-      if (parent != null) {
-        newIndex = incrementalIndexForUpdate(parent, Optional.empty());
-        referenceIndex = parent.referenceIndex();
-        indexStripes = parent.referenceIndexStripes();
-      } else {
-        newIndex = newStoreIndex(COMMIT_OP_SERIALIZER);
-        referenceIndex = null;
-        indexStripes = Collections.emptyList();
+        CommitObj updated = c.build();
+        if (updated.incrementalIndex().size() > incrementalIndexSizeLimit) {
+          // Let CommitLogic spill out the incremental index to the reference index
+          upsertCommits(updatedCommits);
+          updated = commitLogic.updateCommit(updated);
+          parentIndex = null;
+        } else {
+          updatedCommits.add(updated);
+          if (updatedCommits.size() == COMPLETE_INDEXES_BATCH_SIZE) {
+            upsertCommits(updatedCommits);
+          }
+          parentIndex = newIndex;
+        }
+
+        if (claim != null) {
+          claim.complete(updated);
+        }
+        parent = updated;
+        current = null;
+      } catch (RuntimeException | Error e) {
+        if (claim != null) {
+          claim.completeExceptionally(e);
+        }
+        throw e;
+      }
+    }
+
+    upsertCommits(updatedCommits);
+  }
+
+  private void upsertCommits(List<CommitObj> updatedCommits) {
+    if (updatedCommits.isEmpty()) {
+      return;
+    }
+    try {
+      persist.upsertObjs(updatedCommits.toArray(new Obj[0]));
+    } catch (ObjTooLargeException e) {
+      // Hit the "Hard database object size limit"
+      throw new RuntimeException(e);
+    }
+    updatedCommits.clear();
+  }
+
+  /**
+   * Completes the indexes of multiple commit chains, including the chains of secondary parents,
+   * concurrently. Commits that are shared by multiple chains are updated only once, see the {@code
+   * claims} parameter of {@link #completeIndexesInCommitChain(ObjId, Consumer, Runnable,
+   * ConcurrentMap)}.
+   */
+  private final class ConcurrentIndexCompletion {
+    private final Executor executor;
+    private final Runnable progressCallback;
+    private final ConcurrentMap<ObjId, CompletableFuture<CommitObj>> claims =
+        new ConcurrentHashMap<>();
+    private final AtomicInteger pending = new AtomicInteger(1);
+    private final AtomicReference<Throwable> failure = new AtomicReference<>();
+    private final CountDownLatch done = new CountDownLatch(1);
+
+    ConcurrentIndexCompletion(Executor executor, Runnable progressCallback) {
+      this.executor = executor;
+      this.progressCallback = progressCallback;
+    }
+
+    void submit(ObjId commitId) {
+      pending.incrementAndGet();
+      try {
+        executor.execute(() -> complete(commitId));
+      } catch (RuntimeException e) {
+        failed(e);
+        finished();
+      }
+    }
+
+    private void complete(ObjId commitId) {
+      try {
+        if (failure.get() == null) {
+          completeIndexesInCommitChain(commitId, this::submit, progressCallback, claims);
+        }
+      } catch (Throwable e) {
+        failed(e);
+      } finally {
+        finished();
       }
+    }
 
-      commitOperations(current).forEach(newIndex::add);
-
-      CommitObj.Builder c =
-          commitBuilder()
-              .from(current)
-              .incompleteIndex(false)
-              .referenceIndex(referenceIndex)
-              .referenceIndexStripes(indexStripes)
-              .incrementalIndex(newIndex.serialize());
-
-      if (parent != null) {
-        int parents = Math.min(parentsPerCommit - 1, parent.tail().size());
-        List<ObjId> tail = new ArrayList<>(parents + 1);
-        tail.add(parent.id());
-        tail.addAll(parent.tail().subList(0, parents));
-        c.tail(tail);
+    private void failed(Throwable e) {
+      if (e instanceof CompletionException && e.getCause() != null) {
+        e = e.getCause();
       }
+      if (!failure.compareAndSet(null, e) && failure.get() != e) {
+        failure.get().addSuppressed(e);
+      }
+    }
 
-      parent = commitLogic.updateCommit(c.build());
-      current = null;
+    private void finished() {
+      if (pending.decrementAndGet() == 0) {
+        done.countDown();
+      }
+    }
+
+    void await() throws ObjNotFoundException {
+      // release the initial 'pending' count, which prevents finishing before all ids are submitted
+      finished();
+      try {
+        done.await();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new RuntimeException(e);
+      }
+
+      Throwable f = failure.get();
+      if (f instanceof ObjNotFoundException) {
+        throw (ObjNotFoundException) f;
+      }
+      if (f instanceof RuntimeException) {
+        throw (RuntimeException) f;
+      }
+      if (f instanceof Error) {
+        throw (Error) f;
+      }
+      if (f != null) {
+        throw new RuntimeException(f);
+      }
     }
   }
 
@@ -24,14 +24,17 @@ import static org.projectnessie.versioned.storage.common.logic.ShallowCommit.BOT
 import static org.projectnessie.versioned.storage.common.logic.ShallowCommit.CANDIDATE;
 import static org.projectnessie.versioned.storage.common.persist.ObjId.EMPTY_OBJ_ID;
 
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Deque;
 import java.util.List;
 import java.util.NoSuchElementException;
 import java.util.Objects;
 import java.util.PriorityQueue;
 import java.util.function.Function;
 import java.util.stream.Stream;
+import javax.annotation.Nullable;
 import org.agrona.collections.Object2ObjectHashMap;
 import org.immutables.value.Value;
 import org.projectnessie.versioned.storage.common.objtypes.CommitObj;
@@ -43,11 +46,28 @@ import org.projectnessie.versioned.storage.common.persist.ObjId;
  *
  * <p>This class also supports finding the base commit for N-way merges, although N-way merges are
  * not implemented for Nessie (yet).
+ *
+ * <p>If {@link #loadCommits()} is provided, commits are loaded in bulk: every loaded commit
+ * contributes the IDs in its {@link CommitObj#tail() tail} and its {@link
+ * CommitObj#secondaryParents() secondary parents} as prefetch candidates. When a commit that has
+ * not been loaded yet is needed, it is loaded together with up to {@link #PREFETCH_BATCH_SIZE}
+ * candidates in breadth-first order, which covers several generations of both sides of the merge
+ * per round trip.
  */
 @Value.Immutable
 public abstract class MergeBase {
+  static final int PREFETCH_BATCH_SIZE = 50;
+
   public abstract Function<ObjId, CommitObj> loadCommit();
 
+  /**
+   * Optional function to load multiple commits at once, the returned array must have the same
+   * length and order as the given IDs, with {@code null} elements for commits that do not exist.
+   */
+  @Nullable
+  @jakarta.annotation.Nullable
+  public abstract Function<ObjId[], CommitObj[]> loadCommits();
+
   public abstract ObjId targetCommitId();
 
   public abstract ObjId fromCommitId();
@@ -310,7 +330,10 @@ public abstract class MergeBase {
     return commits.computeIfAbsent(
         objId,
         id -> {
-          CommitObj commit = loadCommit().apply(id);
+          CommitObj commit = prefetched.remove(id);
+          if (commit == null) {
+            commit = load(id);
+          }
           if (commit == null) {
             throw new NoSuchElementException("Commit '" + id + "' not found");
           }
@@ -323,12 +346,48 @@ public abstract class MergeBase {
               parents[i] = secondary.get(i);
             }
             parents[end] = commit.directParent();
+            prefetchCandidates.addAll(secondary);
           } else {
             parents = new ObjId[] {commit.directParent()};
           }
+          prefetchCandidates.addAll(commit.tail());
           return new ShallowCommit(commit.id(), parents, commit.seq());
         });
   }
 
+  private CommitObj load(ObjId id) {
+    Function<ObjId[], CommitObj[]> bulk = loadCommits();
+    if (bulk == null) {
+      return loadCommit().apply(id);
+    }
+
+    List<ObjId> wave = new ArrayList<>(PREFETCH_BATCH_SIZE);
+    wave.add(id);
+    while (wave.size() < PREFETCH_BATCH_SIZE && !prefetchCandidates.isEmpty()) {
+      ObjId candidate = prefetchCandidates.removeFirst();
+      if (!EMPTY_OBJ_ID.equals(candidate)
+          && !commits.containsKey(candidate)
+          && !prefetched.containsKey(candidate)
+          && !wave.contains(candidate)) {
+        wave.add(candidate);
+      }
+    }
+
+    CommitObj[] loaded = bulk.apply(wave.toArray(new ObjId[0]));
+    for (int i = 1; i < loaded.length; i++) {
+      CommitObj c = loaded[i];
+      if (c != null) {
+        prefetched.put(c.id(), c);
+      }
+    }
+    return loaded[0];
+  }
+
   private final Object2ObjectHashMap<ObjId, ShallowCommit> commits = new Object2ObjectHashMap<>();
+
+  /** Commits that have been loaded in bulk, but are not yet needed. */
+  private final Object2ObjectHashMap<ObjId, CommitObj> prefetched = new Object2ObjectHashMap<>();
+
+  /** IDs of commits that will likely be needed, in breadth-first order. */
+  private final Deque<ObjId> prefetchCandidates = new ArrayDeque<>();
 }
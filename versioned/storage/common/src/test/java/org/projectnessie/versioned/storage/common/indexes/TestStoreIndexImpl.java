@@ -25,6 +25,7 @@ import static org.projectnessie.versioned.storage.common.indexes.StoreIndexEleme
 import static org.projectnessie.versioned.storage.common.indexes.StoreIndexes.deserializeStoreIndex;
 import static org.projectnessie.versioned.storage.common.indexes.StoreIndexes.newStoreIndex;
 import static org.projectnessie.versioned.storage.common.indexes.StoreKey.key;
+import static org.projectnessie.versioned.storage.common.indexes.StoreKey.keyFromString;
 import static org.projectnessie.versioned.storage.common.objtypes.CommitOp.Action.ADD;
 import static org.projectnessie.versioned.storage.common.objtypes.CommitOp.Action.NONE;
 import static org.projectnessie.versioned.storage.common.objtypes.CommitOp.COMMIT_OP_SERIALIZER;
@@ -38,6 +39,8 @@ import static org.projectnessie.versioned.storage.commontests.KeyIndexTestSet.ba
 
 import java.nio.ByteBuffer;
 import java.util.List;
+import java.util.Random;
+import java.util.TreeMap;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
@@ -206,6 +209,64 @@ public class TestStoreIndexImpl {
     soft.assertThat(reserialized).containsExactlyElementsOf(deserialized);
   }
 
+  @Test
+  public void addRemoveKeysInRandomOrder() {
+    KeyIndexTestSet.IndexTestSetGenerator<CommitOp> builder =
+        KeyIndexTestSet.<CommitOp>newGenerator()
+            .keySet(
+                ImmutableRealisticKeySet.builder()
+                    .namespaceLevels(3)
+                    .foldersPerLevel(3)
+                    .tablesPerNamespace(5)
+                    .deterministic(false)
+                    .build())
+            .elementSupplier(
+                key -> indexElement(key, commitOp(CommitOp.Action.ADD, 1, randomObjId())))
+            .elementSerializer(COMMIT_OP_SERIALIZER)
+            .build();
+
+    KeyIndexTestSet<CommitOp> keyIndexTestSet = builder.generateIndexTestSet();
+
+    StoreIndex<CommitOp> deserialized = keyIndexTestSet.deserialize();
+    TreeMap<StoreKey, StoreIndexElement<CommitOp>> expected = new TreeMap<>();
+    deserialized.forEach(el -> expected.put(el.key(), el));
+
+    List<StoreKey> allKeys = keyIndexTestSet.keys();
+    Random random = new Random(42L);
+    for (int i = 0; i < 500; i++) {
+      StoreKey existing = allKeys.get(random.nextInt(allKeys.size()));
+      StoreKey added = keyFromString(existing.rawString() + "_" + i);
+      StoreIndexElement<CommitOp> el = indexElement(added, commitOp(ADD, 1, randomObjId()));
+      soft.assertThat(deserialized.add(el)).isTrue();
+      expected.put(added, el);
+      soft.assertThat(deserialized.get(added)).isSameAs(el);
+
+      if (i % 3 == 0) {
+        StoreIndexElement<CommitOp> replaced = indexElement(added, commitOp(ADD, 2, randomObjId()));
+        soft.assertThat(deserialized.add(replaced)).isFalse();
+        expected.put(added, replaced);
+      }
+      if (i % 5 == 0) {
+        soft.assertThat(deserialized.remove(added)).isTrue();
+        soft.assertThat(deserialized.contains(added)).isFalse();
+        expected.remove(added);
+      }
+      if (i % 100 == 0) {
+        // intermediate merge
+        soft.assertThat(deserialized.asKeyList()).containsExactlyElementsOf(expected.keySet());
+      }
+    }
+
+    soft.assertThat(deserialized.elementCount()).isEqualTo(expected.size());
+    soft.assertThat(deserialized.asKeyList()).containsExactlyElementsOf(expected.keySet());
+    soft.assertThat(deserialized).containsExactlyElementsOf(expected.values());
+
+    StoreIndex<CommitOp> reserialized =
+        StoreIndexes.deserializeStoreIndex(deserialized.serialize(), COMMIT_OP_SERIALIZER);
+    soft.assertThat(reserialized.asKeyList()).containsExactlyElementsOf(expected.keySet());
+    soft.assertThat(reserialized).containsExactlyElementsOf(deserialized);
+  }
+
   @Test
   public void randomGetKey() {
     KeyIndexTestSet.IndexTestSetGenerator<CommitOp> builder =
@@ -347,6 +347,100 @@ public class TestCommitRetry {
     soft.assertThat(tryLoopState.retry(0L)).isFalse();
   }
 
+  @Test
+  public void backoffAdaptsToConflictRate() {
+    CommitContention.ReferenceContention contention =
+        new CommitContention.ReferenceContention("repo", "refs/heads/main", 1);
+    soft.assertThat(contention.backoffFactor()).isEqualTo(1);
+
+    for (int i = 0; i < 100; i++) {
+      contention.recordAttempt(true);
+    }
+    soft.assertThat(contention.conflictRate()).isGreaterThan(0.99d);
+    soft.assertThat(contention.backoffFactor()).isEqualTo(CommitContention.MAX_BACKOFF_FACTOR);
+
+    MonotonicClock clock = mockedClock(3);
+    CommitRetry.TryLoopState tryLoopState =
+        new CommitRetry.TryLoopState(
+            mockedConfig(Integer.MAX_VALUE, Long.MAX_VALUE, 10, 10, 50), clock, contention);
+
+    // initial bounds scaled by the backoff factor, but capped by the max sleep time
+    soft.assertThat(tryLoopState.retry(0L)).isTrue();
+    verify(clock, times(1)).sleepMillis(50L);
+    soft.assertThat(contention.retries()).isEqualTo(1L);
+    soft.assertThat(contention.sleepMillis()).isEqualTo(50L);
+
+    for (int i = 0; i < 100; i++) {
+      contention.recordAttempt(false);
+    }
+    soft.assertThat(contention.conflictRate()).isLessThan(0.01d);
+    soft.assertThat(contention.backoffFactor()).isEqualTo(1);
+    soft.assertThat(contention.attempts()).isEqualTo(200L);
+    soft.assertThat(contention.conflicts()).isEqualTo(100L);
+  }
+
+  @Test
+  public void referenceAdmission() {
+    StoreConfig config = mockedConfig(3, 50L, 1, 1, 1);
+    when(config.repositoryId()).thenReturn("referenceAdmission");
+    when(config.commitAdmissionPermits()).thenReturn(1);
+    Persist persist = mock(Persist.class);
+    when(persist.config()).thenReturn(config);
+
+    String ref = "refs/heads/main";
+    CommitContention.ReferenceContention contention =
+        CommitContention.commitContention(persist)
+            .referenceContention("referenceAdmission", ref, 1);
+
+    // Another commit against the same reference is in progress
+    soft.assertThat(contention.admit(0L)).isTrue();
+    AtomicInteger attempts = new AtomicInteger();
+    soft.assertThatThrownBy(
+            () ->
+                commitRetry(
+                    persist,
+                    ref,
+                    (p, retryState) -> {
+                      attempts.incrementAndGet();
+                      return "foo";
+                    }))
+        .isInstanceOf(RetryTimeoutException.class);
+    soft.assertThat(attempts).hasValue(0);
+    soft.assertThat(contention.admissionWaitNanos()).isGreaterThan(0L);
+
+    // Other references are not affected
+    soft.assertThatCode(() -> commitRetry(persist, "refs/heads/other", (p, retryState) -> "bar"))
+        .doesNotThrowAnyException();
+
+    // Other Persist instances are not affected
+    Persist otherPersist = mock(Persist.class);
+    when(otherPersist.config()).thenReturn(config);
+    soft.assertThatCode(() -> commitRetry(otherPersist, ref, (p, retryState) -> "baz"))
+        .doesNotThrowAnyException();
+
+    contention.release();
+    soft.assertThatCode(
+            () ->
+                commitRetry(
+                    persist,
+                    ref,
+                    (p, retryState) -> {
+                      if (attempts.incrementAndGet() == 1) {
+                        throw new RetryException();
+                      }
+                      return "foo";
+                    }))
+        .doesNotThrowAnyException();
+    soft.assertThat(attempts).hasValue(2);
+    soft.assertThat(contention.attempts()).isEqualTo(2L);
+    soft.assertThat(contention.conflicts()).isEqualTo(1L);
+    soft.assertThat(contention.retries()).isEqualTo(1L);
+
+    // permit has been released
+    soft.assertThat(contention.admit(0L)).isTrue();
+    contention.release();
+  }
+
   MonotonicClock mockedClock(int retries) {
     Long[] times = new Long[retries];
     Arrays.fill(times, 0L);
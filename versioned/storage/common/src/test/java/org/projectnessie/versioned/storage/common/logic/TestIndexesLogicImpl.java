@@ -16,6 +16,7 @@
 package org.projectnessie.versioned.storage.common.logic;
 
 import static java.util.Collections.emptyList;
+import static java.util.Collections.singletonList;
 import static java.util.Objects.requireNonNull;
 import static org.projectnessie.versioned.storage.common.indexes.StoreIndexElement.indexElement;
 import static org.projectnessie.versioned.storage.common.indexes.StoreIndexes.newStoreIndex;
@@ -39,9 +40,13 @@ import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Consumer;
 import org.assertj.core.api.InstanceOfAssertFactories;
 import org.assertj.core.api.junit.jupiter.SoftAssertionsExtension;
+import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.ValueSource;
@@ -159,6 +164,63 @@ public class TestIndexesLogicImpl extends AbstractIndexesLogicTests {
     }
   }
 
+  @Test
+  public void completeIndexesInCommitChainsConcurrently() throws Exception {
+    CommitLogic commitLogic = commitLogic(persist);
+    IndexesLogicImpl indexesLogic = new IndexesLogicImpl(persist);
+
+    Map<StoreKey, ObjId> keyValue = new HashMap<>();
+
+    // 5 commits, all "complete"
+    List<ObjId> shared = fiveCompleteCommits(keyValue);
+
+    // 10 commits with "incomplete" indexes, shared by all branches
+    for (int i = 0; i < 10; i++) {
+      incompleteCommit(shared, "shared" + i, keyValue, 6 + i, b -> {});
+    }
+
+    // 5 branches with 10 commits with "incomplete" indexes each
+    List<ObjId> heads = new ArrayList<>();
+    List<ObjId> incomplete = new ArrayList<>(shared.subList(0, 10));
+    for (int branch = 0; branch < 5; branch++) {
+      List<ObjId> tail = new ArrayList<>(shared);
+      for (int i = 0; i < 10; i++) {
+        incompleteCommit(tail, "branch" + branch + "-" + i, keyValue, 16 + i, b -> {});
+      }
+      heads.add(tail.get(0));
+      incomplete.addAll(tail.subList(0, 10));
+    }
+    // same HEAD twice
+    heads.add(heads.get(0));
+
+    AtomicInteger progress = new AtomicInteger();
+    ExecutorService executor = Executors.newFixedThreadPool(4);
+    try {
+      soft.assertThatThrownBy(
+              () ->
+                  indexesLogic.completeIndexesInCommitChains(
+                      singletonList(randomObjId()), executor, () -> {}))
+          .isInstanceOf(ObjNotFoundException.class);
+
+      indexesLogic.completeIndexesInCommitChains(heads, executor, progress::incrementAndGet);
+    } finally {
+      executor.shutdown();
+    }
+
+    // Each commit has been updated exactly once
+    soft.assertThat(progress).hasValue(incomplete.size());
+
+    for (ObjId id : incomplete) {
+      CommitObj commit = requireNonNull(commitLogic.fetchCommit(id));
+      soft.assertThat(commit)
+          .describedAs("commit %s", id)
+          .extracting(CommitObj::incompleteIndex, InstanceOfAssertFactories.BOOLEAN)
+          .isFalse();
+      soft.assertThatCode(() -> indexesLogic.buildCompleteIndex(commit, Optional.empty()))
+          .doesNotThrowAnyException();
+    }
+  }
+
   private void incompleteCommit(
       List<ObjId> tail,
       String key,
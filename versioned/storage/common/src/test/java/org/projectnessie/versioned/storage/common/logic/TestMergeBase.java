@@ -16,6 +16,7 @@
 package org.projectnessie.versioned.storage.common.logic;
 
 import static org.projectnessie.versioned.storage.common.logic.CommitLogicImpl.NO_COMMON_ANCESTOR_IN_PARENTS_OF;
+import static org.projectnessie.versioned.storage.common.logic.MergeBase.PREFETCH_BATCH_SIZE;
 import static org.projectnessie.versioned.storage.common.logic.ShallowCommit.ALL_FLAGS;
 import static org.projectnessie.versioned.storage.common.logic.ShallowCommit.CANDIDATE;
 import static org.projectnessie.versioned.storage.common.logic.ShallowCommit.COMMIT_A;
@@ -26,8 +27,10 @@ import static org.projectnessie.versioned.storage.common.persist.ObjId.EMPTY_OBJ
 import static org.projectnessie.versioned.storage.common.persist.ObjId.randomObjId;
 
 import java.nio.ByteBuffer;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.NoSuchElementException;
 import java.util.Set;
@@ -381,6 +384,65 @@ public class TestMergeBase {
     soft.assertThat(repo.loaded).doesNotContain(repo.root);
   }
 
+  /**
+   * Long diverged branches, with a merge from the target branch into the source branch, loaded in
+   * bulk. <code><pre>
+   *       ----B1---...---B150------Bm---...---B300
+   *      /                       /
+   * ----A-----C1---...---C100---...---C300
+   * </pre></code>
+   */
+  @ParameterizedTest
+  @ValueSource(booleans = {true, false})
+  void bulkLoad(boolean respectMergeParents) {
+    CommitObj a = repo.add(repo.initialCommit());
+    CommitObj b = a;
+    CommitObj c = a;
+    CommitObj c100 = null;
+    for (int i = 1; i <= 300; i++) {
+      c = repo.add(repo.buildCommitWithTail("c" + i, c));
+      if (i == 100) {
+        c100 = c;
+      }
+    }
+    for (int i = 1; i <= 300; i++) {
+      CommitObj.Builder builder = repo.buildCommitWithTail("b" + i, b);
+      if (i == 151) {
+        builder.addSecondaryParents(c100.id());
+      }
+      b = repo.add(builder);
+    }
+
+    ObjId expected =
+        MergeBase.builder()
+            .loadCommit(repo::loadCommit)
+            .respectMergeParents(respectMergeParents)
+            .targetCommitId(c.id())
+            .fromCommitId(b.id())
+            .build()
+            .identifyMergeBase();
+    soft.assertThat(expected).isEqualTo(respectMergeParents ? c100.id() : a.id());
+
+    int[] bulkLoads = new int[1];
+    soft.assertThat(
+            MergeBase.builder()
+                .loadCommit(repo::loadCommit)
+                .loadCommits(
+                    ids -> {
+                      bulkLoads[0]++;
+                      soft.assertThat(ids.length).isLessThanOrEqualTo(PREFETCH_BATCH_SIZE);
+                      return Arrays.stream(ids).map(repo::loadCommit).toArray(CommitObj[]::new);
+                    })
+                .respectMergeParents(respectMergeParents)
+                .targetCommitId(c.id())
+                .fromCommitId(b.id())
+                .build()
+                .identifyMergeBase())
+        .isEqualTo(expected);
+    // Without bulk loading, there would be a round trip for each of the hundreds of visited commits.
+    soft.assertThat(bulkLoads[0]).isBetween(1, 60);
+  }
+
   @Test
   void shallowCommitFlags() {
     ShallowCommit commit = new ShallowCommit(randomObjId(), new ObjId[] {randomObjId()}, 1L);
@@ -459,6 +521,16 @@ public class TestMergeBase {
       return buildCommit(name, testRoot);
     }
 
+    /** Builds a commit with a tail of up to 20 ancestors, like the real commit logic does. */
+    CommitObj.Builder buildCommitWithTail(String msg, CommitObj parent) {
+      CommitObj.Builder commit = buildCommit(msg, parent);
+      List<ObjId> parentTail = parent.tail();
+      for (int i = 0; i < parentTail.size() && i < 19; i++) {
+        commit.addTail(parentTail.get(i));
+      }
+      return commit;
+    }
+
     CommitObj.Builder buildCommit(String msg, CommitObj parent) {
       CommitObj.Builder commit =
           commitBuilder()
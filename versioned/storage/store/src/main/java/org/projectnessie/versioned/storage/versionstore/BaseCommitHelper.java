@@ -33,6 +33,7 @@ import static org.projectnessie.versioned.storage.common.logic.CommitRetry.commi
 import static org.projectnessie.versioned.storage.common.logic.Logics.commitLogic;
 import static org.projectnessie.versioned.storage.common.logic.Logics.indexesLogic;
 import static org.projectnessie.versioned.storage.common.persist.ObjId.EMPTY_OBJ_ID;
+import static org.projectnessie.versioned.storage.versionstore.RefMapping.REFS_HEADS;
 import static org.projectnessie.versioned.storage.versionstore.RefMapping.commitConflictToConflict;
 import static org.projectnessie.versioned.storage.versionstore.RefMapping.referenceConflictException;
 import static org.projectnessie.versioned.storage.versionstore.RefMapping.referenceNotFound;
@@ -45,6 +46,7 @@ import static org.projectnessie.versioned.store.DefaultStoreWorker.payloadForCon
 
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
@@ -205,6 +207,7 @@ class BaseCommitHelper {
     try {
       return commitRetry(
           persist,
+          REFS_HEADS + branch.getName(),
           (p, retryState) -> {
             RefMapping refMapping = new RefMapping(p);
             Reference reference;
@@ -382,7 +385,7 @@ class BaseCommitHelper {
   void verifyMergeTransplantCommitPolicies(
       StoreIndex<CommitOp> headIndex, CommitObj inspectedCommit) throws ReferenceConflictException {
 
-    Map<ContentKey, Content> checkContents = new HashMap<>();
+    Map<ContentKey, ObjId> addedValues = new HashMap<>();
     Object2IntHashMap<ContentKey> deletedKeysAndPayload = new Object2IntHashMap<>(-1);
 
     IndexesLogic indexesLogic = indexesLogic(persist);
@@ -408,12 +411,7 @@ class BaseCommitHelper {
               contentKey != null,
               "Merge/transplant with non-content-object store-keys is not implemented.");
 
-          try {
-            Content content = new ContentMapping(persist).fetchContent(value);
-            checkContents.put(contentKey, content);
-          } catch (ObjNotFoundException e) {
-            throw new RuntimeException(e);
-          }
+          addedValues.put(contentKey, value);
         }
       } else {
         ContentKey contentKey = storeKeyToKey(el.key());
@@ -426,6 +424,26 @@ class BaseCommitHelper {
       }
     }
 
+    // Fetch the added contents in bulk, instead of one round trip per content key.
+    Map<ContentKey, Content> checkContents = newHashMapWithExpectedSize(addedValues.size());
+    if (!addedValues.isEmpty()) {
+      try {
+        Map<ObjId, Content> contents =
+            new ContentMapping(persist).fetchContents(new HashSet<>(addedValues.values()));
+        for (Map.Entry<ContentKey, ObjId> added : addedValues.entrySet()) {
+          ObjId value = added.getValue();
+          Content content = contents.get(value);
+          if (content == null) {
+            // Not a content object, fail like a single typed fetch of the content would do.
+            throw new ObjNotFoundException(value);
+          }
+          checkContents.put(added.getKey(), content);
+        }
+      } catch (ObjNotFoundException e) {
+        throw new RuntimeException(e);
+      }
+    }
+
     validateNamespaces(checkContents, deletedKeysAndPayload, headIndex);
   }
 
@@ -616,6 +634,7 @@ class BaseCommitHelper {
     } catch (RefNotFoundException e) {
       throw new RuntimeException("Internal reference not found", e);
     }
+    CommitTimeIndex.headUpdated(persist, head, newHead);
   }
 
   boolean recordKeyDetailsAndCheckConflicts(
@@ -19,6 +19,7 @@ import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkState;
 import static com.google.common.collect.Maps.newHashMapWithExpectedSize;
 import static com.google.common.collect.Sets.newHashSetWithExpectedSize;
+import static java.util.Collections.emptyMap;
 import static java.util.Objects.requireNonNull;
 import static org.agrona.collections.Hashing.DEFAULT_LOAD_FACTOR;
 import static org.projectnessie.versioned.CommitValidation.CommitOperation.commitOperation;
@@ -156,12 +157,31 @@ class CommitImpl extends BaseCommitHelper {
           ReferenceConflictException,
           RetryException,
           ObjTooLargeException {
-    CreateCommit.Builder commit = newCommitBuilder().parentCommitId(headId());
-    List<Obj> objectsToStore = new ArrayList<>(operations.size() + 1);
-
     CommitRetryState commitRetryState =
         retryState.map(x -> (CommitRetryState) x).orElseGet(CommitRetryState::new);
 
+    CommitObj newHead = storeCommit(commitRetryState, metadata, operations, validator);
+
+    bumpReferencePointer(newHead.id(), Optional.of(commitRetryState));
+
+    commitRetryState.generatedContentIds.forEach(addedContents);
+
+    return commitResult(newHead);
+  }
+
+  /**
+   * Builds the commit for the given operations on top of the current head and stores it including
+   * the new content values, but does <em>not</em> update the reference pointer.
+   */
+  CommitObj storeCommit(
+      @Nonnull @jakarta.annotation.Nonnull CommitRetryState commitRetryState,
+      @Nonnull @jakarta.annotation.Nonnull CommitMeta metadata,
+      @Nonnull @jakarta.annotation.Nonnull List<Operation> operations,
+      @Nonnull @jakarta.annotation.Nonnull CommitValidator validator)
+      throws ReferenceNotFoundException, ReferenceConflictException {
+    CreateCommit.Builder commit = newCommitBuilder().parentCommitId(headId());
+    List<Obj> objectsToStore = new ArrayList<>(operations.size() + 1);
+
     Consumer<Obj> valueConsumer =
         obj -> {
           if (commitRetryState.storedContents.add(obj.id())) {
@@ -193,17 +213,21 @@ class CommitImpl extends BaseCommitHelper {
           "Hash collision detected, a commit with the same parent commit, commit message, "
               + "headers/commit-metadata and operations already exists");
 
-      bumpReferencePointer(newHead.id(), Optional.of(commitRetryState));
-
-      commitRetryState.generatedContentIds.forEach(addedContents);
+      return newHead;
+    } catch (CommitConflictException e) {
+      throw referenceConflictException(e);
+    } catch (ObjNotFoundException e) {
+      throw referenceNotFound(e);
+    }
+  }
 
+  CommitResult<Commit> commitResult(@Nonnull @jakarta.annotation.Nonnull CommitObj newHead)
+      throws ReferenceNotFoundException {
+    try {
       return ImmutableCommitResult.<Commit>builder()
           .commit(contentMapping.commitObjToCommit(true, newHead))
           .targetBranch((BranchName) RefMapping.referenceToNamedRef(reference))
           .build();
-
-    } catch (CommitConflictException e) {
-      throw referenceConflictException(e);
     } catch (ObjNotFoundException e) {
       throw referenceNotFound(e);
     }
@@ -240,6 +264,8 @@ class CommitImpl extends BaseCommitHelper {
       headIndex().loadIfNecessary(storeKeysForHead);
     }
 
+    Map<ObjId, Content> legacyContents = fetchLegacyContents(expectedIndex(), storeKeys);
+
     Map<UUID, StoreKey> deleted = new HashMap<>();
     Map<ContentKey, Content> newContent = new HashMap<>();
     Object2IntHashMap<ContentKey> deletedKeysAndPayload =
@@ -274,6 +300,7 @@ class CommitImpl extends BaseCommitHelper {
             commitRetryState,
             deleted,
             newContent,
+            legacyContents,
             commitValidation);
       } else if (operation instanceof Delete) {
         // handled above
@@ -288,6 +315,29 @@ class CommitImpl extends BaseCommitHelper {
     validateNamespaces(newContent, deletedKeysAndPayload, headIndex());
   }
 
+  /**
+   * Bulk-fetches the existing contents for the given keys that have no content ID in the index,
+   * which can be the case for repositories imported from a legacy Nessie version. The content IDs
+   * of those are taken from the content objects.
+   */
+  private Map<ObjId, Content> fetchLegacyContents(
+      StoreIndex<CommitOp> expectedIndex, List<StoreKey> storeKeys) throws ObjNotFoundException {
+    Set<ObjId> legacyValues = null;
+    for (StoreKey storeKey : storeKeys) {
+      StoreIndexElement<CommitOp> existing = expectedIndex.get(storeKey);
+      if (existing != null) {
+        CommitOp content = existing.content();
+        if (content.action().exists() && content.contentId() == null) {
+          if (legacyValues == null) {
+            legacyValues = new HashSet<>();
+          }
+          legacyValues.add(requireNonNull(content.value()));
+        }
+      }
+    }
+    return legacyValues != null ? contentMapping.fetchContents(legacyValues) : emptyMap();
+  }
+
   private static void checkDuplicateKey(Operation previous, Operation current) {
     if (previous != null) {
       boolean reAdd =
@@ -398,6 +448,7 @@ class CommitImpl extends BaseCommitHelper {
       CommitRetryState commitRetryState,
       Map<UUID, StoreKey> deleted,
       Map<ContentKey, Content> newContent,
+      Map<ObjId, Content> legacyContents,
       ImmutableCommitValidation.Builder commitValidation)
       throws ObjNotFoundException {
     Content putValue = put.getValue();
@@ -435,7 +486,7 @@ class CommitImpl extends BaseCommitHelper {
         expectedContentIDString =
             existingContentID != null
                 ? existingContentID.toString()
-                : contentIdFromContent(existingValue);
+                : contentIdFromContent(existingValue, legacyContents);
 
         if (putValueId == null) {
 
@@ -501,10 +552,14 @@ class CommitImpl extends BaseCommitHelper {
             exists ? UPDATE : CREATE));
   }
 
-  private String contentIdFromContent(@Nonnull @jakarta.annotation.Nonnull ObjId contentValueId)
+  private String contentIdFromContent(
+      @Nonnull @jakarta.annotation.Nonnull ObjId contentValueId,
+      Map<ObjId, Content> legacyContents)
       throws ObjNotFoundException {
-    // TODO pre-load these objects, so they are bulk-loaded and in turn available via the cache
-    // https://github.com/projectnessie/nessie/issues/6673
-    return contentMapping.fetchContent(contentValueId).getId();
+    Content content = legacyContents.get(contentValueId);
+    if (content == null) {
+      content = contentMapping.fetchContent(contentValueId);
+    }
+    return content.getId();
   }
 }
@@ -0,0 +1,442 @@
+/*
+ * Copyright (C) 2023 Dremio
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.projectnessie.versioned.storage.versionstore;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.Collections.emptyList;
+import static org.projectnessie.versioned.storage.common.logic.CommitLogQuery.commitLogQuery;
+import static org.projectnessie.versioned.storage.common.logic.Logics.commitLogic;
+import static org.projectnessie.versioned.storage.common.logic.Logics.referenceLogic;
+import static org.projectnessie.versioned.storage.common.logic.ReferencesQuery.referencesQuery;
+import static org.projectnessie.versioned.storage.common.objtypes.Hashes.hashAsObjId;
+import static org.projectnessie.versioned.storage.common.objtypes.Hashes.newHasher;
+import static org.projectnessie.versioned.storage.common.objtypes.StringObj.stringData;
+import static org.projectnessie.versioned.storage.common.persist.ObjId.EMPTY_OBJ_ID;
+import static org.projectnessie.versioned.storage.common.persist.ObjId.objIdFromString;
+import static org.projectnessie.versioned.storage.common.persist.ObjType.STRING;
+import static org.projectnessie.versioned.storage.versionstore.RefMapping.commitCreatedTimestamp;
+import static org.projectnessie.versioned.storage.versionstore.RefMapping.createdTimestampMatches;
+
+import com.google.common.annotations.VisibleForTesting;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.function.Predicate;
+import javax.annotation.Nullable;
+import org.projectnessie.nessie.relocated.protobuf.ByteString;
+import org.projectnessie.versioned.storage.common.exceptions.ObjNotFoundException;
+import org.projectnessie.versioned.storage.common.exceptions.ObjTooLargeException;
+import org.projectnessie.versioned.storage.common.logic.CommitLogic;
+import org.projectnessie.versioned.storage.common.logic.PagedResult;
+import org.projectnessie.versioned.storage.common.objtypes.CommitObj;
+import org.projectnessie.versioned.storage.common.objtypes.Compression;
+import org.projectnessie.versioned.storage.common.objtypes.StringObj;
+import org.projectnessie.versioned.storage.common.persist.ObjId;
+import org.projectnessie.versioned.storage.common.persist.Persist;
+import org.projectnessie.versioned.storage.common.persist.Reference;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Sparse index over the direct-parent chain of commits, used to find the commit for a timestamp or
+ * the n-th predecessor of a commit without walking the whole commit log.
+ *
+ * <p>Every commit with a {@link CommitObj#seq() sequence number} that is a multiple of the
+ * checkpoint interval {@code K} is a <em>checkpoint commit</em>. The checkpoint of such a commit
+ * stores the sequence number, ID and creation timestamp of the checkpoint commits {@code K * 2^i}
+ * commits before it, for each level {@code i}. A lookup walks the commit log to the nearest
+ * checkpoint commit, then jumps backwards through the checkpoints, skipping half of the remaining
+ * distance at each level, and finally walks the commit log for less than {@code K} commits.
+ *
+ * <p>Checkpoints only depend on the (immutable) history of a commit. They are stored as {@link
+ * StringObj}s with an ID derived from the ID of the checkpoint commit, so no reference is needed.
+ * Missing checkpoints are built oldest first. Lookups never build checkpoints, they only use the
+ * existing ones. When the head of a branch has been updated, up to {@link
+ * #MAX_CHECKPOINTS_BUILT_PER_COMMIT} missing checkpoints are built for the new commits, which
+ * extends the index. If more checkpoints are missing, for example for repositories created before
+ * this index existed, lookups walk the commit log instead. Those checkpoints are built by {@link
+ * #backfillCheckpoints(Persist)}, which is run by the {@code maintenance} command of the Nessie
+ * CLI.
+ *
+ * <p>Timestamp lookups assume that the creation timestamps of the commits in the direct-parent
+ * chain do not increase towards older commits.
+ */
+public final class CommitTimeIndex {
+
+  static final int CHECKPOINT_INTERVAL = 64;
+  static final int MAX_CHECKPOINTS_BUILT_PER_COMMIT = 2;
+  static final String CONTENT_TYPE = "application/x-nessie-commit-time-index";
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(CommitTimeIndex.class);
+
+  private final Persist persist;
+  private final CommitLogic commitLogic;
+  private final int interval;
+  private final int maxCheckpointsBuilt;
+  private long checkpointsBuilt;
+
+  @VisibleForTesting
+  CommitTimeIndex(Persist persist, CommitLogic commitLogic, int interval, int maxCheckpointsBuilt) {
+    this.persist = persist;
+    this.commitLogic = commitLogic;
+    this.interval = interval;
+    this.maxCheckpointsBuilt = maxCheckpointsBuilt;
+  }
+
+  /** Returns an index that only uses existing checkpoints and never builds missing ones. */
+  static CommitTimeIndex existingCheckpoints(Persist persist, CommitLogic commitLogic) {
+    return new CommitTimeIndex(persist, commitLogic, CHECKPOINT_INTERVAL, 0);
+  }
+
+  /**
+   * Builds the missing checkpoints for the commits added to a branch, called after the reference
+   * pointer of the branch has been updated from {@code previousHead} to {@code newHead}. Failures
+   * are only logged, the checkpoints are then built by a later update or by {@link
+   * #backfillCheckpoints(Persist)}.
+   */
+  static void headUpdated(Persist persist, @Nullable CommitObj previousHead, ObjId newHead) {
+    try {
+      CommitLogic commitLogic = commitLogic(persist);
+      CommitObj head = commitLogic.fetchCommit(newHead);
+      if (head != null) {
+        new CommitTimeIndex(
+                persist, commitLogic, CHECKPOINT_INTERVAL, MAX_CHECKPOINTS_BUILT_PER_COMMIT)
+            .commitsAdded(previousHead != null ? previousHead.seq() : 0L, head);
+      }
+    } catch (ObjNotFoundException | RuntimeException e) {
+      LOGGER.warn("Failed to build commit time index checkpoints for commit {}", newHead, e);
+    }
+  }
+
+  /**
+   * Builds all missing checkpoints for the heads of all branches and tags in the repository, which
+   * may walk the whole commit log of every reference.
+   *
+   * @return the number of built checkpoints
+   */
+  public static long backfillCheckpoints(Persist persist) throws ObjNotFoundException {
+    CommitLogic commitLogic = commitLogic(persist);
+    CommitTimeIndex index =
+        new CommitTimeIndex(persist, commitLogic, CHECKPOINT_INTERVAL, Integer.MAX_VALUE);
+    PagedResult<Reference, String> refs =
+        referenceLogic(persist).queryReferences(referencesQuery(RefMapping.REFS));
+    while (refs.hasNext()) {
+      Reference ref = refs.next();
+      if (EMPTY_OBJ_ID.equals(ref.pointer())) {
+        continue;
+      }
+      CommitObj head = commitLogic.fetchCommit(ref.pointer());
+      if (head != null) {
+        index.backfill(head);
+      }
+    }
+    return index.checkpointsBuilt;
+  }
+
+  /**
+   * Builds the checkpoint of the newest checkpoint commit after {@code previousSeq} up to {@code
+   * head}, if any, and up to {@code maxCheckpointsBuilt} missing checkpoints in total. Only walks
+   * the commit log for the added commits.
+   */
+  @VisibleForTesting
+  void commitsAdded(long previousSeq, CommitObj head) throws ObjNotFoundException {
+    long toCheckpoint = head.seq() % interval;
+    if (head.seq() - toCheckpoint <= previousSeq) {
+      // no checkpoint commit has been added
+      return;
+    }
+    CommitObj checkpointCommit =
+        toCheckpoint == 0L ? head : nthPredecessor(head.id(), toCheckpoint);
+    if (checkpointCommit != null
+        && checkpointCommit.seq() == head.seq() - toCheckpoint
+        && isCheckpointCommit(checkpointCommit)) {
+      checkpoint(checkpointCommit, maxCheckpointsBuilt);
+    }
+  }
+
+  /** Builds all missing checkpoints in the direct-parent chain of {@code head}. */
+  @VisibleForTesting
+  void backfill(CommitObj head) throws ObjNotFoundException {
+    long toCheckpoint = head.seq() % interval;
+    if (head.seq() - toCheckpoint < interval) {
+      return;
+    }
+    CommitObj checkpointCommit =
+        toCheckpoint == 0L ? head : nthPredecessor(head.id(), toCheckpoint);
+    if (checkpointCommit != null && isCheckpointCommit(checkpointCommit)) {
+      checkpoint(checkpointCommit, Integer.MAX_VALUE);
+    }
+  }
+
+  /**
+   * Returns the first commit in the direct-parent chain of {@code startCommit}, including {@code
+   * startCommit}, that has been created at or before the given timestamp.
+   */
+  @Nullable
+  CommitObj findWithSmallerTimestamp(CommitObj startCommit, Instant timestamp)
+      throws ObjNotFoundException {
+    if (createdTimestampMatches(startCommit, timestamp)) {
+      return startCommit;
+    }
+    boolean jumped = false;
+    PagedResult<CommitObj, ObjId> log =
+        commitLogic.commitLog(commitLogQuery(startCommit.directParent()));
+    while (log.hasNext()) {
+      CommitObj commit = log.next();
+      if (createdTimestampMatches(commit, timestamp)) {
+        return commit;
+      }
+      if (!jumped && isCheckpointCommit(commit)) {
+        jumped = true;
+        Checkpoint checkpoint = loadCheckpoint(commit.id());
+        if (checkpoint != null) {
+          checkpoint = jump(checkpoint, e -> e.created.compareTo(timestamp) > 0);
+          if (!checkpoint.self.commitId.equals(commit.id())) {
+            log = commitLogic.commitLog(commitLogQuery(checkpoint.self.commitId));
+          }
+        }
+        // else: the checkpoint is missing, continue walking the commit log
+      }
+    }
+    return null;
+  }
+
+  /** Returns the n-th predecessor in the direct-parent chain of {@code startCommit}. */
+  @Nullable
+  CommitObj findNthPredecessor(CommitObj startCommit, long nthPredecessor)
+      throws ObjNotFoundException {
+    if (nthPredecessor < 1L) {
+      return null;
+    }
+    long targetSeq = startCommit.seq() - nthPredecessor;
+    long toCheckpoint = startCommit.seq() % interval;
+    if (targetSeq < 1L || nthPredecessor <= toCheckpoint + interval) {
+      return nthPredecessor(startCommit.id(), nthPredecessor);
+    }
+
+    CommitObj checkpointCommit =
+        toCheckpoint == 0L ? startCommit : nthPredecessor(startCommit.id(), toCheckpoint);
+    if (checkpointCommit == null || checkpointCommit.seq() != startCommit.seq() - toCheckpoint) {
+      // Sequence numbers are not consistent, cannot use the index
+      return nthPredecessor(startCommit.id(), nthPredecessor);
+    }
+
+    Checkpoint checkpoint = loadCheckpoint(checkpointCommit.id());
+    if (checkpoint == null) {
+      // The checkpoint is missing, walk the commit log
+      return nthPredecessor(checkpointCommit.id(), nthPredecessor - toCheckpoint);
+    }
+    checkpoint = jump(checkpoint, e -> e.seq >= targetSeq);
+    CommitObj commit =
+        nthPredecessor(checkpoint.self.commitId, checkpoint.self.seq - targetSeq);
+    if (commit == null || commit.seq() != targetSeq) {
+      return nthPredecessor(startCommit.id(), nthPredecessor);
+    }
+    return commit;
+  }
+
+  private boolean isCheckpointCommit(CommitObj commit) {
+    return commit.seq() > 0L && commit.seq() % interval == 0L;
+  }
+
+  /** Jumps backwards through the checkpoints, as long as the predicate matches. */
+  private Checkpoint jump(Checkpoint checkpoint, Predicate<Entry> predicate) {
+    for (int level = checkpoint.levels.size() - 1; level >= 0; level--) {
+      if (level < checkpoint.levels.size()) {
+        Entry entry = checkpoint.levels.get(level);
+        if (predicate.test(entry)) {
+          // Older checkpoints are always built before newer ones, so the target exists
+          Checkpoint target = loadCheckpoint(entry.commitId);
+          if (target == null) {
+            break;
+          }
+          checkpoint = target;
+        }
+      }
+    }
+    return checkpoint;
+  }
+
+  /**
+   * Returns the checkpoint for the given checkpoint commit, building up to {@code maxBuilt} missing
+   * checkpoints, or {@code null} if more checkpoints are missing.
+   */
+  @Nullable
+  private Checkpoint checkpoint(CommitObj commit, int maxBuilt) throws ObjNotFoundException {
+    Checkpoint checkpoint = loadCheckpoint(commit.id());
+    if (checkpoint != null || maxBuilt <= 0) {
+      return checkpoint;
+    }
+
+    // Collect the checkpoint commits that have no checkpoint yet, newest first
+    Deque<CommitObj> missing = new ArrayDeque<>();
+    missing.push(commit);
+    Checkpoint previous = null;
+    for (CommitObj c = commit; ; ) {
+      c = previousCheckpointCommit(c);
+      if (c == null) {
+        break;
+      }
+      previous = loadCheckpoint(c.id());
+      if (previous != null) {
+        break;
+      }
+      if (missing.size() >= maxBuilt) {
+        return null;
+      }
+      missing.push(c);
+    }
+
+    // Build the missing checkpoints, oldest first
+    while (!missing.isEmpty()) {
+      previous = buildCheckpoint(missing.pop(), previous);
+    }
+    return previous;
+  }
+
+  @Nullable
+  private CommitObj previousCheckpointCommit(CommitObj commit) throws ObjNotFoundException {
+    if (commit.seq() <= interval) {
+      return null;
+    }
+    CommitObj previous = nthPredecessor(commit.id(), interval);
+    return previous != null && previous.seq() == commit.seq() - interval ? previous : null;
+  }
+
+  private Checkpoint buildCheckpoint(CommitObj commit, @Nullable Checkpoint previous)
+      throws ObjNotFoundException {
+    List<Entry> levels = new ArrayList<>();
+    if (previous != null) {
+      // level 0 is the previous checkpoint commit, level i is level i-1 of level i-1
+      levels.add(previous.self);
+      Checkpoint checkpoint = previous;
+      for (int level = 1; checkpoint != null && checkpoint.levels.size() >= level; level++) {
+        Entry entry = checkpoint.levels.get(level - 1);
+        levels.add(entry);
+        checkpoint = loadCheckpoint(entry.commitId);
+      }
+    }
+    Checkpoint checkpoint =
+        new Checkpoint(
+            new Entry(commit.seq(), commit.id(), commitCreatedTimestamp(commit)), levels);
+
+    try {
+      persist.storeObj(
+          stringData(
+              checkpointId(commit.id()),
+              CONTENT_TYPE,
+              Compression.NONE,
+              null,
+              emptyList(),
+              ByteString.copyFromUtf8(checkpoint.serialize())));
+    } catch (ObjTooLargeException e) {
+      throw new RuntimeException(e);
+    }
+    checkpointsBuilt++;
+    return checkpoint;
+  }
+
+  @Nullable
+  private Checkpoint loadCheckpoint(ObjId commitId) {
+    StringObj obj;
+    try {
+      obj = persist.fetchTypedObj(checkpointId(commitId), STRING, StringObj.class);
+    } catch (ObjNotFoundException e) {
+      return null;
+    }
+    return Checkpoint.deserialize(obj.text().toString(UTF_8));
+  }
+
+  @Nullable
+  private CommitObj nthPredecessor(ObjId commitId, long nthPredecessor)
+      throws ObjNotFoundException {
+    if (nthPredecessor == 0L) {
+      return commitLogic.fetchCommit(commitId);
+    }
+    PagedResult<ObjId, ObjId> log = commitLogic.commitIdLog(commitLogQuery(commitId));
+    // skip the commit itself
+    log.next();
+    while (log.hasNext()) {
+      ObjId id = log.next();
+      if (--nthPredecessor == 0L) {
+        return commitLogic.fetchCommit(id);
+      }
+    }
+    return null;
+  }
+
+  @VisibleForTesting
+  static ObjId checkpointId(ObjId commitId) {
+    return hashAsObjId(
+        newHasher().putString(CONTENT_TYPE, UTF_8).putBytes(commitId.asByteArray()));
+  }
+
+  private static final class Entry {
+    final long seq;
+    final ObjId commitId;
+    final Instant created;
+
+    Entry(long seq, ObjId commitId, Instant created) {
+      this.seq = seq;
+      this.commitId = commitId;
+      this.created = created;
+    }
+  }
+
+  private static final class Checkpoint {
+    final Entry self;
+    final List<Entry> levels;
+
+    Checkpoint(Entry self, List<Entry> levels) {
+      this.self = self;
+      this.levels = levels;
+    }
+
+    /** One line per entry, the first line is the checkpoint commit itself. */
+    String serialize() {
+      StringBuilder sb = new StringBuilder();
+      serialize(sb, self);
+      levels.forEach(e -> serialize(sb, e));
+      return sb.toString();
+    }
+
+    private static void serialize(StringBuilder sb, Entry entry) {
+      sb.append(entry.seq)
+          .append(' ')
+          .append(entry.commitId)
+          .append(' ')
+          .append(entry.created.getEpochSecond())
+          .append(' ')
+          .append(entry.created.getNano())
+          .append('\n');
+    }
+
+    static Checkpoint deserialize(String text) {
+      List<Entry> entries = new ArrayList<>();
+      for (String line : text.split("\n")) {
+        String[] parts = line.split(" ");
+        entries.add(
+            new Entry(
+                Long.parseLong(parts[0]),
+                objIdFromString(parts[1]),
+                Instant.ofEpochSecond(Long.parseLong(parts[2]), Long.parseLong(parts[3]))));
+      }
+      return new Checkpoint(entries.get(0), entries.subList(1, entries.size()));
+    }
+  }
+}
@@ -0,0 +1,183 @@
+/*
+ * Copyright (C) 2023 Dremio
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.projectnessie.versioned.storage.versionstore;
+
+import static org.projectnessie.versioned.storage.common.logic.CommitLogQuery.commitLogQuery;
+import static org.projectnessie.versioned.storage.common.persist.ObjId.EMPTY_OBJ_ID;
+import static org.projectnessie.versioned.storage.versionstore.CommitTimeIndex.existingCheckpoints;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import javax.annotation.Nullable;
+import org.projectnessie.versioned.storage.common.exceptions.ObjNotFoundException;
+import org.projectnessie.versioned.storage.common.logic.CommitLogic;
+import org.projectnessie.versioned.storage.common.objtypes.CommitObj;
+import org.projectnessie.versioned.storage.common.persist.ObjId;
+import org.projectnessie.versioned.storage.common.persist.Persist;
+
+/**
+ * Computes the common ancestors of many commits with the head of one base reference, sharing the
+ * traversal of the base reference's commit log between all commits.
+ *
+ * <p>Common ancestors are determined along the direct-parent chains, like {@link
+ * CommitLogic#findCommonAncestor(ObjId, ObjId)}. Since two direct-parent chains are identical below
+ * the commit where they meet, the common ancestor is the commit with the highest {@link
+ * CommitObj#seq() sequence number} that is in both chains, and a commit is in the chain of the base
+ * head, if the base head's predecessor with the same sequence number has the same ID.
+ *
+ * <p>The IDs in the base head's chain are collected once, lazily, only as deep as needed. For each
+ * other commit, the predecessor with the sequence number of the base head is looked up via the
+ * existing checkpoints of the {@link CommitTimeIndex}, then the commit log is walked until the
+ * first commit that is in the base head's chain. The result is remembered for all walked commits,
+ * so references that share history, for example branches created from the same feature branch, do
+ * not walk it again.
+ *
+ * <p>Instances are not thread-safe and are meant to be used for a single request.
+ */
+final class CommonAncestors {
+
+  /** Remembered for walked commits that have no common ancestor with the base head. */
+  private static final CommonAncestor NONE = new CommonAncestor(EMPTY_OBJ_ID, 0L);
+
+  private final Persist persist;
+  private final CommitLogic commitLogic;
+  private final CommitObj baseHead;
+
+  /**
+   * IDs in the base head's direct-parent chain, the element at index {@code i} has the sequence
+   * number {@code baseHead.seq() - i}.
+   */
+  private final List<ObjId> baseChain = new ArrayList<>();
+
+  private final Map<ObjId, Long> baseChainSeqs = new HashMap<>();
+  private final Iterator<ObjId> baseLog;
+
+  /** Common ancestors of already walked commits that are not in the base head's chain. */
+  private final Map<ObjId, CommonAncestor> walked = new HashMap<>();
+
+  CommonAncestors(Persist persist, CommitLogic commitLogic, CommitObj baseHead) {
+    this.persist = persist;
+    this.commitLogic = commitLogic;
+    this.baseHead = baseHead;
+    this.baseLog = commitLogic.commitIdLog(commitLogQuery(baseHead.id()));
+  }
+
+  CommitObj baseHead() {
+    return baseHead;
+  }
+
+  /**
+   * Returns the common ancestor of the given commit and the base head, or {@code null}, if there is
+   * no common ancestor.
+   */
+  @Nullable
+  CommonAncestor commonAncestor(CommitObj head) throws ObjNotFoundException {
+    CommonAncestor known = knownAncestor(head.id());
+    if (known != null) {
+      return known != NONE ? known : null;
+    }
+
+    ObjId start = head.id();
+    long seq = head.seq();
+    if (seq > baseHead.seq()) {
+      // Commits with a higher sequence number than the base head cannot be in its chain.
+      CommitObj commit =
+          existingCheckpoints(persist, commitLogic).findNthPredecessor(head, seq - baseHead.seq());
+      if (commit == null || commit.seq() != baseHead.seq()) {
+        return fallback(head);
+      }
+      start = commit.id();
+      seq = commit.seq();
+    }
+
+    List<ObjId> visited = new ArrayList<>();
+    CommonAncestor result = NONE;
+    for (Iterator<ObjId> log = commitLogic.commitIdLog(commitLogQuery(start));
+        log.hasNext();
+        seq--) {
+      ObjId id = log.next();
+      if (seq < 1L) {
+        // Sequence numbers are not consistent
+        return fallback(head);
+      }
+      CommonAncestor ancestor = knownAncestor(id);
+      if (ancestor == null && id.equals(baseChainId(seq))) {
+        ancestor = new CommonAncestor(id, seq);
+      }
+      if (ancestor != null) {
+        result = ancestor;
+        break;
+      }
+      visited.add(id);
+    }
+
+    for (ObjId id : visited) {
+      walked.put(id, result);
+    }
+    return result != NONE ? result : null;
+  }
+
+  @Nullable
+  private CommonAncestor knownAncestor(ObjId id) {
+    Long seq = baseChainSeqs.get(id);
+    if (seq != null) {
+      return new CommonAncestor(id, seq);
+    }
+    return walked.get(id);
+  }
+
+  /** Returns the ID in the base head's chain with the given sequence number. */
+  @Nullable
+  private ObjId baseChainId(long seq) {
+    long index = baseHead.seq() - seq;
+    if (index < 0L) {
+      return null;
+    }
+    while (baseChain.size() <= index && baseLog.hasNext()) {
+      ObjId id = baseLog.next();
+      baseChainSeqs.put(id, baseHead.seq() - baseChain.size());
+      baseChain.add(id);
+    }
+    return index < baseChain.size() ? baseChain.get((int) index) : null;
+  }
+
+  /** Used when the sequence numbers in a direct-parent chain are not consistent. */
+  @Nullable
+  private CommonAncestor fallback(CommitObj head) throws ObjNotFoundException {
+    ObjId id;
+    try {
+      id = commitLogic.findCommonAncestor(baseHead.id(), head.id());
+    } catch (NoSuchElementException e) {
+      return null;
+    }
+    CommitObj commit = commitLogic.fetchCommit(id);
+    return commit != null ? new CommonAncestor(id, commit.seq()) : null;
+  }
+
+  static final class CommonAncestor {
+    final ObjId id;
+    final long seq;
+
+    CommonAncestor(ObjId id, long seq) {
+      this.id = id;
+      this.seq = seq;
+    }
+  }
+}
@@ -26,10 +26,12 @@ import static org.projectnessie.versioned.storage.versionstore.TypeMapping.objId
 import static org.projectnessie.versioned.storage.versionstore.TypeMapping.storeKeyToKey;
 import static org.projectnessie.versioned.storage.versionstore.TypeMapping.toCommitMeta;
 
+import com.google.common.collect.Iterables;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.stream.Collectors;
 import javax.annotation.Nonnull;
 import org.projectnessie.model.CommitMeta;
@@ -57,6 +59,10 @@ import org.projectnessie.versioned.store.DefaultStoreWorker;
 public final class ContentMapping {
 
   static final StoreWorker STORE_WORKER = DefaultStoreWorker.instance();
+
+  /** Maximum number of content objects requested with a single bulk fetch. */
+  static final int FETCH_CONTENTS_BATCH_SIZE = 500;
+
   private final Persist persist;
 
   public ContentMapping(Persist persist) {
@@ -71,6 +77,26 @@ public final class ContentMapping {
     return valueToContent(contentValue);
   }
 
+  /**
+   * Bulk-fetches the content objects with the given IDs, in batches of up to {@value
+   * #FETCH_CONTENTS_BATCH_SIZE} objects, returns the contents by the IDs of the content objects.
+   */
+  @Nonnull
+  @jakarta.annotation.Nonnull
+  public Map<ObjId, Content> fetchContents(@Nonnull @jakarta.annotation.Nonnull Set<ObjId> ids)
+      throws ObjNotFoundException {
+    Map<ObjId, Content> r = newHashMapWithExpectedSize(ids.size());
+    for (List<ObjId> batch : Iterables.partition(ids, FETCH_CONTENTS_BATCH_SIZE)) {
+      Obj[] objs = persist.fetchObjs(batch.toArray(new ObjId[0]));
+      for (Obj obj : objs) {
+        if (obj instanceof ContentValueObj) {
+          r.put(obj.id(), valueToContent((ContentValueObj) obj));
+        }
+      }
+    }
+    return r;
+  }
+
   @Nonnull
   @jakarta.annotation.Nonnull
   public Map<ContentKey, Content> fetchContents(
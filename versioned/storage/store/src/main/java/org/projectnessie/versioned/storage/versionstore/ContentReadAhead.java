@@ -0,0 +1,190 @@
+/*
+ * Copyright (C) 2023 Dremio
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.projectnessie.versioned.storage.versionstore;
+
+import static java.util.Collections.emptyIterator;
+import static java.util.Objects.requireNonNull;
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+import com.google.common.collect.AbstractIterator;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.ThreadPoolExecutor.CallerRunsPolicy;
+import org.projectnessie.model.Content;
+import org.projectnessie.versioned.storage.common.exceptions.ObjNotFoundException;
+import org.projectnessie.versioned.storage.common.persist.ObjId;
+import org.projectnessie.versioned.storage.versionstore.VersionStoreImpl.ContentKeyWithCommitOp;
+
+/**
+ * Fetches the content objects for the keys yielded by a "get keys" operation in batches, keeping up
+ * to {@code readAhead} batches in flight while the caller consumes the current batch.
+ *
+ * <p>The keys are taken from the given iterator on the calling thread, because store indexes are
+ * not thread-safe. Taking the keys for the batches that are read ahead also loads the index
+ * stripes for the next key range, while content objects are being fetched. Only the bulk fetches
+ * of the content objects run on the given executor, see {@link #newFetchExecutor()}.
+ *
+ * <p>Reading ahead only starts after the caller has consumed the first batch, so a paged request
+ * that only needs the first batch does not fetch contents that it does not return.
+ *
+ * <p>A {@code readAhead} value of {@code 0} fetches each batch on the calling thread, when it is
+ * needed.
+ */
+final class ContentReadAhead extends AbstractIterator<ContentKeyWithCommitOp>
+    implements AutoCloseable {
+
+  private final Iterator<ContentKeyWithCommitOp> keys;
+  private final ContentMapping contentMapping;
+  private final int batchSize;
+  private final int readAhead;
+  private final Executor executor;
+  private final Deque<Batch> inFlight = new ArrayDeque<>();
+  private Iterator<ContentKeyWithCommitOp> current = emptyIterator();
+  private boolean firstBatch = true;
+
+  ContentReadAhead(
+      Iterator<ContentKeyWithCommitOp> keys,
+      ContentMapping contentMapping,
+      int batchSize,
+      int readAhead,
+      Executor executor) {
+    this.keys = keys;
+    this.contentMapping = contentMapping;
+    this.batchSize = batchSize;
+    this.readAhead = Math.max(readAhead, 0);
+    this.executor = readAhead > 0 ? executor : MoreExecutors.directExecutor();
+  }
+
+  /**
+   * Creates a bounded thread pool to fetch content objects. If all threads of the pool are busy,
+   * content objects are fetched on the calling thread. The pool must be shut down by its owner.
+   */
+  static ExecutorService newFetchExecutor() {
+    return new ThreadPoolExecutor(
+        0,
+        Math.max(4, 2 * Runtime.getRuntime().availableProcessors()),
+        60L,
+        SECONDS,
+        new SynchronousQueue<>(),
+        new ThreadFactoryBuilder()
+            .setDaemon(true)
+            .setNameFormat("nessie-get-keys-content-%d")
+            .build(),
+        new CallerRunsPolicy());
+  }
+
+  @Override
+  protected ContentKeyWithCommitOp computeNext() {
+    while (true) {
+      if (current.hasNext()) {
+        return current.next();
+      }
+
+      if (inFlight.isEmpty()) {
+        fill(1);
+      }
+      Batch batch = inFlight.poll();
+      if (batch == null) {
+        return endOfData();
+      }
+      if (firstBatch) {
+        firstBatch = false;
+      } else {
+        // The caller consumed a whole batch, keep the configured number of batches in flight,
+        // while this batch is being consumed.
+        fill(readAhead);
+      }
+      current = batch.await();
+    }
+  }
+
+  private void fill(int maxInFlight) {
+    while (inFlight.size() < maxInFlight && keys.hasNext()) {
+      List<ContentKeyWithCommitOp> ops = new ArrayList<>(batchSize);
+      Set<ObjId> ids = new HashSet<>();
+      while (ops.size() < batchSize && keys.hasNext()) {
+        ContentKeyWithCommitOp op = keys.next();
+        ops.add(op);
+        ids.add(requireNonNull(op.commitOp.value(), "Required value pointer is null"));
+      }
+      inFlight.add(new Batch(ops, CompletableFuture.supplyAsync(() -> fetch(ids), executor)));
+    }
+  }
+
+  private Map<ObjId, Content> fetch(Set<ObjId> ids) {
+    try {
+      return contentMapping.fetchContents(ids);
+    } catch (ObjNotFoundException e) {
+      throw new CompletionException(e);
+    }
+  }
+
+  /** Cancels the batches that are still in flight. */
+  @Override
+  public void close() {
+    for (Batch batch = inFlight.poll(); batch != null; batch = inFlight.poll()) {
+      batch.contents.cancel(false);
+    }
+    current = emptyIterator();
+  }
+
+  private static final class Batch {
+    final List<ContentKeyWithCommitOp> ops;
+    final CompletableFuture<Map<ObjId, Content>> contents;
+
+    Batch(List<ContentKeyWithCommitOp> ops, CompletableFuture<Map<ObjId, Content>> contents) {
+      this.ops = ops;
+      this.contents = contents;
+    }
+
+    Iterator<ContentKeyWithCommitOp> await() {
+      Map<ObjId, Content> c;
+      try {
+        c = contents.join();
+      } catch (CompletionException e) {
+        Throwable cause = e.getCause();
+        if (cause instanceof ObjNotFoundException) {
+          throw new RuntimeException("Could not fetch or map content", cause);
+        }
+        if (cause instanceof RuntimeException) {
+          throw (RuntimeException) cause;
+        }
+        if (cause instanceof Error) {
+          throw (Error) cause;
+        }
+        throw e;
+      }
+      for (ContentKeyWithCommitOp op : ops) {
+        op.content = c.get(op.commitOp.value());
+      }
+      return ops.iterator();
+    }
+  }
+}
@@ -0,0 +1,301 @@
+/*
+ * Copyright (C) 2023 Dremio
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.projectnessie.versioned.storage.versionstore;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+import static org.projectnessie.versioned.storage.common.logic.Logics.commitLogic;
+
+import com.google.common.annotations.VisibleForTesting;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BiConsumer;
+import javax.annotation.Nonnull;
+import org.projectnessie.model.CommitMeta;
+import org.projectnessie.model.ContentKey;
+import org.projectnessie.versioned.BranchName;
+import org.projectnessie.versioned.Commit;
+import org.projectnessie.versioned.CommitResult;
+import org.projectnessie.versioned.Hash;
+import org.projectnessie.versioned.Operation;
+import org.projectnessie.versioned.ReferenceConflictException;
+import org.projectnessie.versioned.ReferenceNotFoundException;
+import org.projectnessie.versioned.VersionStore.CommitValidator;
+import org.projectnessie.versioned.storage.batching.BatchingPersist;
+import org.projectnessie.versioned.storage.batching.WriteBatching;
+import org.projectnessie.versioned.storage.common.exceptions.ObjNotFoundException;
+import org.projectnessie.versioned.storage.common.exceptions.RefConditionFailedException;
+import org.projectnessie.versioned.storage.common.exceptions.RefNotFoundException;
+import org.projectnessie.versioned.storage.common.objtypes.CommitObj;
+import org.projectnessie.versioned.storage.common.persist.Persist;
+import org.projectnessie.versioned.storage.common.persist.Reference;
+import org.projectnessie.versioned.storage.versionstore.CommitImpl.CommitRetryState;
+
+/**
+ * Folds concurrent commits to the same branch into a single update of the branch's reference
+ * pointer, see {@link
+ * org.projectnessie.versioned.storage.common.config.StoreConfig#groupCommitWindowMillis()}.
+ *
+ * <p>The first commit to a branch opens a group and becomes its leader, subsequent commits to the
+ * same branch join the group until the group commit window elapsed or the group is full. Each
+ * member builds its commit in its own thread, one after the other, on top of the commit of the
+ * previous member. Validation and conflict detection happens for each member individually, a
+ * failing member does not affect the other members. The commit objects and content values of all
+ * members are buffered and written in one batch, when the leader publishes the group.
+ *
+ * <p>Since the objects are only buffered while building the commits, hash collisions of commit
+ * objects are not detected for group commits.
+ *
+ * <p>A group stays registered for its branch until it has been published, so that the leader of
+ * the next group always builds on top of the published head of the previous group. The leader does
+ * not wait for the group commit window, if no other commit to the same branch is in flight.
+ *
+ * <p>If the group cannot be published, for example because the branch has been updated
+ * concurrently by another Nessie instance, all members of the group fall back to regular,
+ * individual commits.
+ */
+final class GroupCommit {
+  private final Persist persist;
+
+  /** The latest, not yet published group per branch, guarded by {@code this}. */
+  private final Map<String, Group> lastGroups = new HashMap<>();
+
+  /** Number of commits in flight per branch, guarded by {@code this}. */
+  private final Map<String, Integer> inFlight = new HashMap<>();
+
+  private final LongAdder individualFallbacks = new LongAdder();
+
+  GroupCommit(@Nonnull @jakarta.annotation.Nonnull Persist persist) {
+    this.persist = persist;
+  }
+
+  CommitResult<Commit> commit(
+      @Nonnull @jakarta.annotation.Nonnull BranchName branch,
+      @Nonnull @jakarta.annotation.Nonnull Optional<Hash> referenceHash,
+      @Nonnull @jakarta.annotation.Nonnull CommitMeta metadata,
+      @Nonnull @jakarta.annotation.Nonnull List<Operation> operations,
+      @Nonnull @jakarta.annotation.Nonnull CommitValidator validator,
+      @Nonnull @jakarta.annotation.Nonnull BiConsumer<ContentKey, String> addedContents)
+      throws ReferenceNotFoundException, ReferenceConflictException {
+
+    String name = branch.getName();
+    synchronized (this) {
+      inFlight.merge(name, 1, Integer::sum);
+    }
+    try {
+      return commitInGroup(branch, referenceHash, metadata, operations, validator, addedContents);
+    } finally {
+      synchronized (this) {
+        inFlight.computeIfPresent(name, (k, v) -> v == 1 ? null : v - 1);
+      }
+    }
+  }
+
+  private CommitResult<Commit> commitInGroup(
+      BranchName branch,
+      Optional<Hash> referenceHash,
+      CommitMeta metadata,
+      List<Operation> operations,
+      CommitValidator validator,
+      BiConsumer<ContentKey, String> addedContents)
+      throws ReferenceNotFoundException, ReferenceConflictException {
+
+    Group group;
+    boolean leader;
+    synchronized (this) {
+      Group last = lastGroups.get(branch.getName());
+      if (last != null && last.join()) {
+        group = last;
+        leader = false;
+      } else {
+        // The new group has to wait until the previous group has been published.
+        group = new Group(branch, last);
+        lastGroups.put(branch.getName(), group);
+        leader = true;
+      }
+    }
+
+    if (leader) {
+      try {
+        group.resolveHead();
+      } catch (RuntimeException e) {
+        group.failed = true;
+        group.buildLock.unlock();
+        publish(group);
+        throw e;
+      }
+    } else {
+      group.buildLock.lock();
+    }
+
+    CommitImpl member = null;
+    CommitRetryState state = new CommitRetryState();
+    CommitObj newHead = null;
+    try {
+      if (!group.failed && !group.published.isDone()) {
+        BatchingPersist memberPersist = buffering(group.persist);
+        member = new CommitImpl(branch, referenceHash, memberPersist, group.reference, group.head);
+        newHead = member.storeCommit(state, metadata, operations, validator);
+        memberPersist.flush();
+        group.head = newHead;
+      }
+    } finally {
+      group.buildLock.unlock();
+      if (leader) {
+        publish(group);
+      }
+    }
+
+    if (newHead == null || !group.published.join()) {
+      individualFallbacks.increment();
+      return VersionStoreImpl.individualCommit(
+          persist, branch, referenceHash, metadata, operations, validator, addedContents);
+    }
+
+    state.generatedContentIds.forEach(addedContents);
+    return member.commitResult(newHead);
+  }
+
+  @VisibleForTesting
+  long individualFallbacks() {
+    return individualFallbacks.sum();
+  }
+
+  private void publish(Group group) {
+    if (!group.failed && otherCommitsInFlight(group.branch)) {
+      group.awaitWindow();
+    }
+
+    synchronized (this) {
+      group.closed = true;
+    }
+
+    // Wait for members that are currently building their commits.
+    group.buildLock.lock();
+    try {
+      boolean published = false;
+      if (!group.failed && group.head != group.base) {
+        try {
+          group.persist.flush();
+          persist.updateReferencePointer(group.reference, group.head.id());
+          published = true;
+        } catch (RefConditionFailedException | RefNotFoundException | RuntimeException e) {
+          // members fall back to individual commits
+        }
+      }
+      group.published.complete(published);
+      if (published) {
+        CommitTimeIndex.headUpdated(persist, group.base, group.head.id());
+      }
+    } finally {
+      group.buildLock.unlock();
+      synchronized (this) {
+        lastGroups.remove(group.branch.getName(), group);
+      }
+    }
+  }
+
+  private synchronized boolean otherCommitsInFlight(BranchName branch) {
+    return inFlight.getOrDefault(branch.getName(), 0) > 1;
+  }
+
+  private static BatchingPersist buffering(Persist persist) {
+    return WriteBatching.builder().persist(persist).batchSize(Integer.MAX_VALUE).build().create();
+  }
+
+  private final class Group {
+    final BranchName branch;
+    final BatchingPersist persist;
+    final long deadline;
+    final int maxCommits;
+    final CompletableFuture<Boolean> published = new CompletableFuture<>();
+
+    /**
+     * Serializes the members building their commits, held by the leader until the head of the
+     * branch has been resolved.
+     */
+    final ReentrantLock buildLock = new ReentrantLock(true);
+
+    Group previous;
+    Reference reference;
+    CommitObj base;
+    CommitObj head;
+    boolean failed;
+    boolean closed;
+    volatile int members = 1;
+
+    Group(BranchName branch, Group previous) {
+      this.branch = branch;
+      this.previous = previous;
+      this.persist = buffering(GroupCommit.this.persist);
+      this.maxCommits = GroupCommit.this.persist.config().groupCommitMaxCommits();
+      this.deadline =
+          System.nanoTime()
+              + MILLISECONDS.toNanos(GroupCommit.this.persist.config().groupCommitWindowMillis());
+      buildLock.lock();
+    }
+
+    /** Must be called while holding the lock on the enclosing {@link GroupCommit}. */
+    boolean join() {
+      if (closed || members >= maxCommits) {
+        return false;
+      }
+      members++;
+      if (members >= maxCommits) {
+        synchronized (this) {
+          notifyAll();
+        }
+      }
+      return true;
+    }
+
+    void resolveHead() {
+      if (previous != null) {
+        previous.published.join();
+        previous = null;
+      }
+      try {
+        reference = new RefMapping(GroupCommit.this.persist).resolveNamedRef(branch);
+        base = head = commitLogic(GroupCommit.this.persist).headCommit(reference);
+      } catch (ReferenceNotFoundException | ObjNotFoundException e) {
+        // members fall back to individual commits, which report the failure
+        failed = true;
+      }
+    }
+
+    synchronized void awaitWindow() {
+      try {
+        while (true) {
+          if (members >= maxCommits) {
+            return;
+          }
+          long remaining = deadline - System.nanoTime();
+          if (remaining <= 0L) {
+            return;
+          }
+          NANOSECONDS.timedWait(this, remaining);
+        }
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+    }
+  }
+}
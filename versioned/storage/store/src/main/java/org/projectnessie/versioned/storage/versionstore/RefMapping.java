@@ -25,6 +25,7 @@ import static org.projectnessie.versioned.storage.common.logic.CommitLogQuery.co
 import static org.projectnessie.versioned.storage.common.logic.Logics.commitLogic;
 import static org.projectnessie.versioned.storage.common.logic.Logics.referenceLogic;
 import static org.projectnessie.versioned.storage.common.persist.ObjId.EMPTY_OBJ_ID;
+import static org.projectnessie.versioned.storage.versionstore.CommitTimeIndex.existingCheckpoints;
 import static org.projectnessie.versioned.storage.versionstore.TypeMapping.COMMIT_TIME;
 import static org.projectnessie.versioned.storage.versionstore.TypeMapping.hashToObjId;
 import static org.projectnessie.versioned.storage.versionstore.TypeMapping.headerValueToInstant;
@@ -32,6 +33,10 @@ import static org.projectnessie.versioned.storage.versionstore.TypeMapping.objId
 import static org.projectnessie.versioned.storage.versionstore.TypeMapping.storeKeyToKey;
 
 import com.google.common.annotations.VisibleForTesting;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
 import java.time.Instant;
 import java.util.List;
 import java.util.Optional;
@@ -73,10 +78,27 @@ public class RefMapping {
   public static final String REFS_HEADS = REFS + "heads/";
   public static final Hash NO_ANCESTOR = objIdToHash(EMPTY_OBJ_ID);
 
+  static final int VERIFIED_ANCESTORS_CACHE_SIZE = 10_000;
+
+  /**
+   * Recently verified (head commit ID, ancestor commit ID) pairs per {@link Persist} instance,
+   * which is compared by identity and serves exactly one repository.
+   */
+  private static final LoadingCache<Persist, Cache<List<ObjId>, Boolean>> VERIFIED_ANCESTORS =
+      CacheBuilder.newBuilder()
+          .weakKeys()
+          .build(CacheLoader.from(RefMapping::newVerifiedAncestors));
+
   private final Persist persist;
+  private final Cache<List<ObjId>, Boolean> verifiedAncestors;
 
   public RefMapping(Persist persist) {
     this.persist = persist;
+    this.verifiedAncestors = VERIFIED_ANCESTORS.getUnchecked(persist);
+  }
+
+  private static Cache<List<ObjId>, Boolean> newVerifiedAncestors() {
+    return CacheBuilder.newBuilder().maximumSize(VERIFIED_ANCESTORS_CACHE_SIZE).build();
   }
 
   public static ReferenceNotFoundException referenceNotFound(String ref) {
@@ -326,45 +348,34 @@ public class RefMapping {
   CommitObj relativeSpec(CommitObj startCommit, List<RelativeCommitSpec> relativespecs)
       throws ReferenceNotFoundException {
     CommitLogic commitLogic = commitLogic(persist);
+    CommitTimeIndex commitTimeIndex = existingCheckpoints(persist, commitLogic);
     for (RelativeCommitSpec spec : relativespecs) {
       if (startCommit == null) {
         break;
       }
 
-      switch (spec.type()) {
-        case TIMESTAMP_MILLIS_EPOCH:
-          startCommit = findWithSmallerTimestamp(startCommit, commitLogic, spec.instantValue());
-          break;
-        case N_TH_PREDECESSOR:
-          startCommit = findNthPredecessor(startCommit, commitLogic, (int) spec.longValue());
-          break;
-        case N_TH_PARENT:
-          startCommit = findNthParent(startCommit, commitLogic, (int) spec.longValue());
-          break;
-        default:
-          throw new IllegalArgumentException("Unknown lookup type " + spec.type());
+      try {
+        switch (spec.type()) {
+          case TIMESTAMP_MILLIS_EPOCH:
+            startCommit =
+                commitTimeIndex.findWithSmallerTimestamp(startCommit, spec.instantValue());
+            break;
+          case N_TH_PREDECESSOR:
+            startCommit = commitTimeIndex.findNthPredecessor(startCommit, spec.longValue());
+            break;
+          case N_TH_PARENT:
+            startCommit = findNthParent(startCommit, commitLogic, (int) spec.longValue());
+            break;
+          default:
+            throw new IllegalArgumentException("Unknown lookup type " + spec.type());
+        }
+      } catch (ObjNotFoundException e) {
+        throw referenceNotFound(e);
       }
     }
     return startCommit;
   }
 
-  @Nullable
-  private static CommitObj findWithSmallerTimestamp(
-      CommitObj startCommit, CommitLogic commitLogic, Instant timestampMillisEpoch) {
-    if (createdTimestampMatches(startCommit, timestampMillisEpoch)) {
-      return startCommit;
-    }
-    PagedResult<CommitObj, ObjId> log =
-        commitLogic.commitLog(commitLogQuery(startCommit.directParent()));
-    while (log.hasNext()) {
-      CommitObj commit = log.next();
-      if (createdTimestampMatches(commit, timestampMillisEpoch)) {
-        return commit;
-      }
-    }
-    return null;
-  }
-
   @VisibleForTesting
   static boolean createdTimestampMatches(CommitObj commit, Instant timestampMillisEpoch) {
     Instant commitCreated = commitCreatedTimestamp(commit);
@@ -413,38 +424,73 @@ public class RefMapping {
     }
   }
 
-  @Nullable
-  private static CommitObj findNthPredecessor(
-      CommitObj startCommit, CommitLogic commitLogic, int nthPredecessor)
-      throws ReferenceNotFoundException {
-    PagedResult<ObjId, ObjId> log =
-        commitLogic.commitIdLog(commitLogQuery(startCommit.directParent()));
-    while (log.hasNext()) {
-      ObjId id = log.next();
-      if (--nthPredecessor == 0) {
-        try {
-          return commitLogic.fetchCommit(id);
-        } catch (ObjNotFoundException e) {
-          throw referenceNotFound(e);
-        }
-      }
-    }
-    return null;
-  }
-
+  /**
+   * Returns the commit {@code verifyId}, if it is {@code commitId} or one of its predecessors in
+   * the direct-parent chain, otherwise {@code null}.
+   *
+   * <p>Since sequence numbers strictly decrease along the direct-parent chain, the only candidate
+   * is the predecessor at the distance of the sequence numbers of both commits. It is looked up via
+   * the existing checkpoints of the {@link CommitTimeIndex}, if any, otherwise by walking the
+   * commit log for that distance. If the sequence numbers are not consistent, for example because
+   * the commit of {@code verifyId} does not have a smaller sequence number, the whole commit log
+   * of {@code commitId} is searched. Positive results are remembered in a bounded cache per {@link
+   * Persist}, which is safe, because commit IDs are derived from the commit contents including the
+   * parent IDs.
+   */
   public CommitObj commitInChain(ObjId commitId, ObjId verifyId) throws ReferenceNotFoundException {
     CommitLogic commitLogic = commitLogic(persist);
-    PagedResult<ObjId, ObjId> log = commitLogic.commitIdLog(commitLogQuery(commitId));
-    while (log.hasNext()) {
-      ObjId current = log.next();
-      if (verifyId.equals(current)) {
-        try {
-          return commitLogic.fetchCommit(current);
-        } catch (ObjNotFoundException e) {
-          throw referenceNotFound(e);
+    try {
+      CommitObj verify;
+      try {
+        verify = commitLogic.fetchCommit(verifyId);
+      } catch (ObjNotFoundException e) {
+        return null;
+      }
+      if (verify == null) {
+        return null;
+      }
+      if (verifyId.equals(commitId)) {
+        return verify;
+      }
+
+      List<ObjId> cacheKey = asList(commitId, verifyId);
+      if (verifiedAncestors.getIfPresent(cacheKey) != null) {
+        return verify;
+      }
+
+      CommitObj head = commitLogic.fetchCommit(commitId);
+      if (head == null) {
+        return null;
+      }
+
+      // Do not build missing checkpoints, walk the commit log for the distance instead
+      CommitObj candidate =
+          head.seq() > verify.seq()
+              ? existingCheckpoints(persist, commitLogic)
+                  .findNthPredecessor(head, head.seq() - verify.seq())
+              : null;
+      boolean found;
+      if (candidate != null && candidate.seq() == verify.seq()) {
+        found = candidate.id().equals(verifyId);
+      } else {
+        // Sequence numbers are not consistent, walk the commit log
+        found = false;
+        PagedResult<ObjId, ObjId> log = commitLogic.commitIdLog(commitLogQuery(commitId));
+        while (log.hasNext()) {
+          if (verifyId.equals(log.next())) {
+            found = true;
+            break;
+          }
         }
       }
+
+      if (!found) {
+        return null;
+      }
+      verifiedAncestors.put(cacheKey, Boolean.TRUE);
+      return verify;
+    } catch (ObjNotFoundException e) {
+      throw referenceNotFound(e);
     }
-    return null;
   }
 }
@@ -16,6 +16,8 @@
 package org.projectnessie.versioned.storage.versionstore;
 
 import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkState;
+import static com.google.common.util.concurrent.MoreExecutors.directExecutor;
 import static java.util.Collections.emptyList;
 import static java.util.Collections.emptyMap;
 import static java.util.Collections.singleton;
@@ -58,17 +60,17 @@ import static org.projectnessie.versioned.storage.versionstore.TypeMapping.store
 import static org.projectnessie.versioned.storage.versionstore.TypeMapping.toCommitMeta;
 import static org.projectnessie.versioned.store.DefaultStoreWorker.contentTypeForPayload;
 
+import com.google.common.annotations.VisibleForTesting;
 import com.google.common.collect.AbstractIterator;
-import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
-import java.util.NoSuchElementException;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.ExecutorService;
 import java.util.function.BiConsumer;
 import java.util.function.BiPredicate;
 import java.util.function.Function;
@@ -139,11 +141,15 @@ import org.projectnessie.versioned.storage.common.persist.ObjId;
 import org.projectnessie.versioned.storage.common.persist.Persist;
 import org.projectnessie.versioned.storage.common.persist.Reference;
 import org.projectnessie.versioned.storage.versionstore.BaseCommitHelper.CommitterSupplier;
+import org.projectnessie.versioned.storage.versionstore.CommonAncestors.CommonAncestor;
 
-public class VersionStoreImpl implements VersionStore {
+public class VersionStoreImpl implements VersionStore, AutoCloseable {
 
   public static final int GET_KEYS_CONTENT_BATCH_SIZE = 50;
   private final Persist persist;
+  private volatile GroupCommit groupCommit;
+  private volatile ExecutorService contentFetchExecutor;
+  private boolean closed;
 
   @SuppressWarnings("unused")
   public VersionStoreImpl() {
@@ -322,16 +328,25 @@ public class VersionStoreImpl implements VersionStore {
 
     CommitObj head = refMapping.resolveNamedRefHead(reference);
 
-    Optional<CommitObj> baseRefHead = headForBaseReference(refMapping, params);
+    Optional<CommonAncestors> commonAncestors = commonAncestors(refMapping, params);
 
-    CommitLogic commitLogic = commitLogic(persist);
     try {
-      return buildReferenceInfo(params, baseRefHead, commitLogic, namedRef, head);
+      return buildReferenceInfo(params, commonAncestors, namedRef, head);
     } catch (ObjNotFoundException e) {
       throw referenceNotFound(e);
     }
   }
 
+  /**
+   * Returns the {@link CommonAncestors} for the head of the base reference, shared by all
+   * references for which ahead/behind or the common ancestor are requested.
+   */
+  private Optional<CommonAncestors> commonAncestors(
+      RefMapping refMapping, GetNamedRefsParams params) throws ReferenceNotFoundException {
+    return headForBaseReference(refMapping, params)
+        .map(baseHead -> new CommonAncestors(persist, commitLogic(persist), baseHead));
+  }
+
   private Optional<CommitObj> headForBaseReference(RefMapping refMapping, GetNamedRefsParams params)
       throws ReferenceNotFoundException {
     NamedRef baseReference = params.getBaseReference();
@@ -369,7 +384,7 @@ public class VersionStoreImpl implements VersionStore {
     PagedResult<Reference, String> result =
         referenceLogic.queryReferences(referencesQuery(token, prefix, false));
 
-    Optional<CommitObj> baseRefHead = headForBaseReference(refMapping, params);
+    Optional<CommonAncestors> commonAncestors = commonAncestors(refMapping, params);
 
     CommitLogic commitLogic = commitLogic(persist);
 
@@ -378,9 +393,9 @@ public class VersionStoreImpl implements VersionStore {
         reference -> {
           try {
             NamedRef namedRef = referenceToNamedRef(reference);
-            CommitObj head = commitLogic(persist).headCommit(reference);
-            return buildReferenceInfo(params, baseRefHead, commitLogic, namedRef, head);
-          } catch (ReferenceNotFoundException | ObjNotFoundException e) {
+            CommitObj head = commitLogic.headCommit(reference);
+            return buildReferenceInfo(params, commonAncestors, namedRef, head);
+          } catch (ObjNotFoundException e) {
             throw new RuntimeException("Could not resolve reference " + reference, e);
           }
         }) {
@@ -404,11 +419,10 @@ public class VersionStoreImpl implements VersionStore {
 
   private ReferenceInfo<CommitMeta> buildReferenceInfo(
       GetNamedRefsParams params,
-      Optional<CommitObj> baseRefHead,
-      CommitLogic commitLogic,
+      Optional<CommonAncestors> commonAncestors,
       NamedRef namedRef,
       CommitObj head)
-      throws ObjNotFoundException, ReferenceNotFoundException {
+      throws ObjNotFoundException {
     ImmutableReferenceInfo.Builder<CommitMeta> refInfo =
         ReferenceInfo.<CommitMeta>builder().namedRef(namedRef);
 
@@ -428,21 +442,19 @@ public class VersionStoreImpl implements VersionStore {
 
       if (!namedRef.equals(params.getBaseReference())
           && (opts.isComputeAheadBehind() || opts.isComputeCommonAncestor())) {
-        if (baseRefHead.isPresent()) {
-          CommitObj baseHead = baseRefHead.get();
-          try {
-            ObjId commonAncestorId = commitLogic.findCommonAncestor(baseHead.id(), head.id());
-            refInfo.commonAncestor(objIdToHash(commonAncestorId));
+        if (commonAncestors.isPresent()) {
+          CommitObj baseHead = commonAncestors.get().baseHead();
+          CommonAncestor commonAncestor = commonAncestors.get().commonAncestor(head);
+          if (commonAncestor != null) {
+            refInfo.commonAncestor(objIdToHash(commonAncestor.id));
 
             if (opts.isComputeAheadBehind()) {
-              CommitObj commonAncestor = commitLogic.fetchCommit(commonAncestorId);
-              long commonAncestorSeq = commonAncestor.seq();
               refInfo.aheadBehind(
                   CommitsAheadBehind.of(
-                      (int) (head.seq() - commonAncestorSeq),
-                      (int) (baseHead.seq() - commonAncestorSeq)));
+                      (int) (head.seq() - commonAncestor.seq),
+                      (int) (baseHead.seq() - commonAncestor.seq)));
             }
-          } catch (NoSuchElementException e) {
+          } else {
             // no common ancestor
             refInfo.commonAncestor(NO_ANCESTOR);
 
@@ -609,51 +621,19 @@ public class VersionStoreImpl implements VersionStore {
         };
 
     // "Fetch content" iterator - same as the "base" iterator when not fetching the content,
-    // fetches contents in batches if 'withContent == true'.
-    Iterator<ContentKeyWithCommitOp> fetchContent =
+    // fetches contents in batches, reading ahead, if 'withContent == true'.
+    int readAhead = persist.config().getKeysContentReadAhead();
+    ContentReadAhead contentReadAhead =
         withContent
-            ? new AbstractIterator<>() {
-              final List<ContentKeyWithCommitOp> batch =
-                  new ArrayList<>(GET_KEYS_CONTENT_BATCH_SIZE);
-
-              Iterator<ContentKeyWithCommitOp> current;
-
-              @CheckForNull
-              @Override
-              protected ContentKeyWithCommitOp computeNext() {
-                Iterator<ContentKeyWithCommitOp> c = current;
-                if (c != null && c.hasNext()) {
-                  return c.next();
-                }
-
-                for (int i = 0; i < GET_KEYS_CONTENT_BATCH_SIZE; i++) {
-                  if (!keyAndOp.hasNext()) {
-                    break;
-                  }
-                  batch.add(keyAndOp.next());
-                }
-
-                if (batch.isEmpty()) {
-                  current = null;
-                  return endOfData();
-                }
-
-                try {
-                  Map<ContentKey, Content> contents =
-                      contentMapping.fetchContents(
-                          index, batch.stream().map(op -> op.key).collect(Collectors.toList()));
-                  for (ContentKeyWithCommitOp op : batch) {
-                    op.content = contents.get(op.key);
-                  }
-                } catch (ObjNotFoundException e) {
-                  throw new RuntimeException("Could not fetch or map content", e);
-                }
-                current = new ArrayList<>(batch).iterator();
-                batch.clear();
-                return current.next();
-              }
-            }
-            : keyAndOp;
+            ? new ContentReadAhead(
+                keyAndOp,
+                contentMapping,
+                GET_KEYS_CONTENT_BATCH_SIZE,
+                readAhead,
+                readAhead > 0 ? contentFetchExecutor() : directExecutor())
+            : null;
+    Iterator<ContentKeyWithCommitOp> fetchContent =
+        contentReadAhead != null ? contentReadAhead : keyAndOp;
 
     // "Final" iterator, adding functionality for paging. Needs to be a separate instance, because
     // we cannot use the "base" iterator to provide the token for the "current" entry.
@@ -710,7 +690,11 @@ public class VersionStoreImpl implements VersionStore {
       }
 
       @Override
-      public void close() {}
+      public void close() {
+        if (contentReadAhead != null) {
+          contentReadAhead.close();
+        }
+      }
     };
   }
 
@@ -839,6 +823,62 @@ public class VersionStoreImpl implements VersionStore {
       @Nonnull @jakarta.annotation.Nonnull CommitValidator validator,
       @Nonnull @jakarta.annotation.Nonnull BiConsumer<ContentKey, String> addedContents)
       throws ReferenceNotFoundException, ReferenceConflictException {
+    if (persist.config().groupCommitWindowMillis() > 0L) {
+      return groupCommit()
+          .commit(branch, referenceHash, metadata, operations, validator, addedContents);
+    }
+    return individualCommit(
+        persist, branch, referenceHash, metadata, operations, validator, addedContents);
+  }
+
+  @VisibleForTesting
+  GroupCommit groupCommit() {
+    GroupCommit g = groupCommit;
+    if (g == null) {
+      synchronized (this) {
+        g = groupCommit;
+        if (g == null) {
+          groupCommit = g = new GroupCommit(persist);
+        }
+      }
+    }
+    return g;
+  }
+
+  /** Returns the executor to fetch contents in {@link #getKeys}, created on first use. */
+  private ExecutorService contentFetchExecutor() {
+    ExecutorService e = contentFetchExecutor;
+    if (e == null) {
+      synchronized (this) {
+        checkState(!closed, "Version store has been closed");
+        e = contentFetchExecutor;
+        if (e == null) {
+          contentFetchExecutor = e = ContentReadAhead.newFetchExecutor();
+        }
+      }
+    }
+    return e;
+  }
+
+  /** Shuts down the threads used by this version store. */
+  @Override
+  public synchronized void close() {
+    closed = true;
+    if (contentFetchExecutor != null) {
+      contentFetchExecutor.shutdown();
+      contentFetchExecutor = null;
+    }
+  }
+
+  static CommitResult<Commit> individualCommit(
+      @Nonnull @jakarta.annotation.Nonnull Persist persist,
+      @Nonnull @jakarta.annotation.Nonnull BranchName branch,
+      @Nonnull @jakarta.annotation.Nonnull Optional<Hash> referenceHash,
+      @Nonnull @jakarta.annotation.Nonnull CommitMeta metadata,
+      @Nonnull @jakarta.annotation.Nonnull List<Operation> operations,
+      @Nonnull @jakarta.annotation.Nonnull CommitValidator validator,
+      @Nonnull @jakarta.annotation.Nonnull BiConsumer<ContentKey, String> addedContents)
+      throws ReferenceNotFoundException, ReferenceConflictException {
     return committingOperation(
         "commit",
         branch,
@@ -0,0 +1,155 @@
+/*
+ * Copyright (C) 2023 Dremio
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.projectnessie.versioned.storage.versionstore;
+
+import static java.time.Instant.ofEpochSecond;
+import static java.util.Collections.emptyList;
+import static java.util.Objects.requireNonNull;
+import static org.projectnessie.versioned.storage.common.logic.CreateCommit.newCommitBuilder;
+import static org.projectnessie.versioned.storage.common.logic.Logics.commitLogic;
+import static org.projectnessie.versioned.storage.common.objtypes.CommitHeaders.newCommitHeaders;
+import static org.projectnessie.versioned.storage.common.persist.ObjId.EMPTY_OBJ_ID;
+import static org.projectnessie.versioned.storage.common.persist.ObjType.STRING;
+import static org.projectnessie.versioned.storage.versionstore.CommitTimeIndex.checkpointId;
+import static org.projectnessie.versioned.storage.versionstore.TypeMapping.COMMIT_TIME;
+import static org.projectnessie.versioned.storage.versionstore.TypeMapping.instantToHeaderValue;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.assertj.core.api.SoftAssertions;
+import org.assertj.core.api.junit.jupiter.InjectSoftAssertions;
+import org.assertj.core.api.junit.jupiter.SoftAssertionsExtension;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.projectnessie.versioned.storage.common.exceptions.ObjNotFoundException;
+import org.projectnessie.versioned.storage.common.logic.CommitLogic;
+import org.projectnessie.versioned.storage.common.objtypes.CommitObj;
+import org.projectnessie.versioned.storage.common.objtypes.StringObj;
+import org.projectnessie.versioned.storage.common.persist.ObjId;
+import org.projectnessie.versioned.storage.common.persist.Persist;
+import org.projectnessie.versioned.storage.testextension.NessiePersist;
+import org.projectnessie.versioned.storage.testextension.PersistExtension;
+
+@ExtendWith({PersistExtension.class, SoftAssertionsExtension.class})
+public class TestCommitTimeIndex {
+  @NessiePersist protected static Persist persist;
+
+  @InjectSoftAssertions protected SoftAssertions soft;
+
+  static final int INTERVAL = 4;
+  static final int NUM_COMMITS = 100;
+  static final int MAX_CHECKPOINTS_BUILT = 2;
+
+  @Test
+  public void sameResultsAsCommitLog() throws Exception {
+    CommitLogic commitLogic = commitLogic(persist);
+
+    // Commit i is created at second 10 * i
+    List<CommitObj> commits = new ArrayList<>();
+    addCommits(commitLogic, commits, NUM_COMMITS);
+    CommitObj headCommit = commits.get(NUM_COMMITS - 1);
+
+    CommitTimeIndex index =
+        new CommitTimeIndex(persist, commitLogic, INTERVAL, MAX_CHECKPOINTS_BUILT);
+
+    // No checkpoints before the first lookup
+    soft.assertThat(checkpointExists(commits.get(INTERVAL - 1))).isFalse();
+
+    // Too many checkpoints are missing, lookups walk the commit log
+    assertLookups(index, commits);
+    soft.assertThat(checkpointExists(headCommit)).isFalse();
+
+    index.backfill(headCommit);
+
+    // Checkpoints have been built for all checkpoint commits
+    for (CommitObj commit : commits) {
+      if (commit.seq() % INTERVAL == 0) {
+        soft.assertThat(checkpointExists(commit)).describedAs("commit %s", commit.seq()).isTrue();
+      }
+    }
+    assertLookups(index, commits);
+
+    // Lookups do not build checkpoints for new commits, updating the head builds the few missing
+    // ones
+    CommitObj previousHead = commits.get(commits.size() - 1);
+    addCommits(commitLogic, commits, MAX_CHECKPOINTS_BUILT * INTERVAL);
+    CommitObj newHead = commits.get(commits.size() - 1);
+    soft.assertThat(index.findNthPredecessor(newHead, commits.size() - 1))
+        .isEqualTo(commits.get(0));
+    soft.assertThat(checkpointExists(newHead)).isFalse();
+    index.commitsAdded(previousHead.seq(), newHead);
+    soft.assertThat(checkpointExists(newHead)).isTrue();
+    soft.assertThat(checkpointExists(commits.get(commits.size() - 1 - INTERVAL))).isTrue();
+    assertLookups(index, commits);
+  }
+
+  private void assertLookups(CommitTimeIndex index, List<CommitObj> commits) throws Exception {
+    int num = commits.size();
+    CommitObj headCommit = commits.get(num - 1);
+
+    soft.assertThat(index.findWithSmallerTimestamp(headCommit, ofEpochSecond(-1))).isNull();
+    for (int i = 0; i < num; i++) {
+      soft.assertThat(index.findWithSmallerTimestamp(headCommit, ofEpochSecond(10L * i)))
+          .describedAs("timestamp of commit %d", i)
+          .isEqualTo(commits.get(i));
+      soft.assertThat(index.findWithSmallerTimestamp(headCommit, ofEpochSecond(10L * i + 5)))
+          .describedAs("timestamp after commit %d", i)
+          .isEqualTo(commits.get(i));
+    }
+
+    for (int start : new int[] {num - 1, num - 2, 50, 7}) {
+      CommitObj startCommit = commits.get(start);
+      for (int n = 1; n <= start; n++) {
+        soft.assertThat(index.findNthPredecessor(startCommit, n))
+            .describedAs("%d-th predecessor of commit %d", n, start)
+            .isEqualTo(commits.get(start - n));
+      }
+      soft.assertThat(index.findNthPredecessor(startCommit, start + 1)).isNull();
+      soft.assertThat(index.findNthPredecessor(startCommit, start + 100)).isNull();
+    }
+  }
+
+  private static void addCommits(CommitLogic commitLogic, List<CommitObj> commits, int num)
+      throws Exception {
+    ObjId head = commits.isEmpty() ? EMPTY_OBJ_ID : commits.get(commits.size() - 1).id();
+    for (int n = 0; n < num; n++) {
+      int i = commits.size();
+      CommitObj commit =
+          requireNonNull(
+              commitLogic.doCommit(
+                  newCommitBuilder()
+                      .parentCommitId(head)
+                      .message("commit " + i)
+                      .headers(
+                          newCommitHeaders()
+                              .add(COMMIT_TIME, instantToHeaderValue(ofEpochSecond(10L * i)))
+                              .build())
+                      .build(),
+                  emptyList()));
+      commits.add(commit);
+      head = commit.id();
+    }
+  }
+
+  private static boolean checkpointExists(CommitObj commit) {
+    try {
+      persist.fetchTypedObj(checkpointId(commit.id()), STRING, StringObj.class);
+      return true;
+    } catch (ObjNotFoundException e) {
+      return false;
+    }
+  }
+}
@@ -0,0 +1,117 @@
+/*
+ * Copyright (C) 2023 Dremio
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.projectnessie.versioned.storage.versionstore;
+
+import static java.util.Collections.emptyList;
+import static java.util.Objects.requireNonNull;
+import static org.projectnessie.versioned.storage.common.logic.CreateCommit.newCommitBuilder;
+import static org.projectnessie.versioned.storage.common.logic.Logics.commitLogic;
+import static org.projectnessie.versioned.storage.common.objtypes.CommitHeaders.EMPTY_COMMIT_HEADERS;
+import static org.projectnessie.versioned.storage.common.persist.ObjId.EMPTY_OBJ_ID;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NoSuchElementException;
+import org.assertj.core.api.SoftAssertions;
+import org.assertj.core.api.junit.jupiter.InjectSoftAssertions;
+import org.assertj.core.api.junit.jupiter.SoftAssertionsExtension;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.projectnessie.versioned.storage.common.logic.CommitLogic;
+import org.projectnessie.versioned.storage.common.objtypes.CommitObj;
+import org.projectnessie.versioned.storage.common.persist.ObjId;
+import org.projectnessie.versioned.storage.common.persist.Persist;
+import org.projectnessie.versioned.storage.testextension.NessiePersist;
+import org.projectnessie.versioned.storage.testextension.PersistExtension;
+import org.projectnessie.versioned.storage.versionstore.CommonAncestors.CommonAncestor;
+
+@ExtendWith({PersistExtension.class, SoftAssertionsExtension.class})
+public class TestCommonAncestors {
+  @NessiePersist protected static Persist persist;
+
+  @InjectSoftAssertions protected SoftAssertions soft;
+
+  @Test
+  public void sameResultsAsFindCommonAncestor() throws Exception {
+    CommitLogic commitLogic = commitLogic(persist);
+
+    List<CommitObj> base = commits(commitLogic, EMPTY_OBJ_ID, "base", 150);
+    CommitObj baseHead = base.get(base.size() - 1);
+
+    List<CommitObj> heads = new ArrayList<>();
+    heads.add(baseHead);
+    heads.add(base.get(0));
+    heads.add(base.get(100));
+    for (int forkAt : new int[] {0, 5, 63, 64, 99, 149}) {
+      for (int length : new int[] {1, 10, 200}) {
+        String name = forkAt + "-" + length;
+        List<CommitObj> branch =
+            commits(commitLogic, base.get(forkAt).id(), "fork-" + name, length);
+        heads.add(branch.get(branch.size() - 1));
+        // branch from the branch
+        List<CommitObj> nested =
+            commits(commitLogic, branch.get(branch.size() / 2).id(), "nested-" + name, 3);
+        heads.add(nested.get(nested.size() - 1));
+        heads.add(branch.get(0));
+      }
+    }
+    // unrelated history
+    List<CommitObj> unrelated = commits(commitLogic, EMPTY_OBJ_ID, "unrelated", 170);
+    heads.add(unrelated.get(unrelated.size() - 1));
+    heads.add(unrelated.get(3));
+
+    CommonAncestors commonAncestors = new CommonAncestors(persist, commitLogic, baseHead);
+    for (CommitObj head : heads) {
+      ObjId expected;
+      try {
+        expected = commitLogic.findCommonAncestor(baseHead.id(), head.id());
+      } catch (NoSuchElementException e) {
+        expected = null;
+      }
+
+      CommonAncestor commonAncestor = commonAncestors.commonAncestor(head);
+      if (expected == null) {
+        soft.assertThat(commonAncestor).describedAs("head %s", head.message()).isNull();
+      } else {
+        soft.assertThat(commonAncestor).describedAs("head %s", head.message()).isNotNull();
+        if (commonAncestor != null) {
+          soft.assertThat(commonAncestor.id).isEqualTo(expected);
+          soft.assertThat(commonAncestor.seq)
+              .isEqualTo(requireNonNull(commitLogic.fetchCommit(expected)).seq());
+        }
+      }
+    }
+  }
+
+  private static List<CommitObj> commits(
+      CommitLogic commitLogic, ObjId parent, String prefix, int num) throws Exception {
+    List<CommitObj> commits = new ArrayList<>();
+    for (int i = 0; i < num; i++) {
+      CommitObj commit =
+          requireNonNull(
+              commitLogic.doCommit(
+                  newCommitBuilder()
+                      .parentCommitId(parent)
+                      .message(prefix + " " + i)
+                      .headers(EMPTY_COMMIT_HEADERS)
+                      .build(),
+                  emptyList()));
+      commits.add(commit);
+      parent = commit.id();
+    }
+    return commits;
+  }
+}
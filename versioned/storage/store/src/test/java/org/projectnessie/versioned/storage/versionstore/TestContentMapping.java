@@ -15,6 +15,8 @@
  */
 package org.projectnessie.versioned.storage.versionstore;
 
+import static java.util.Collections.emptySet;
+import static java.util.Collections.singleton;
 import static org.projectnessie.versioned.storage.common.indexes.StoreIndexElement.indexElement;
 import static org.projectnessie.versioned.storage.common.indexes.StoreIndexes.newStoreIndex;
 import static org.projectnessie.versioned.storage.common.indexes.StoreKey.key;
@@ -31,6 +33,7 @@ import static org.projectnessie.versioned.storage.versionstore.TypeMapping.keyTo
 import static org.projectnessie.versioned.storage.versionstore.TypeMapping.objIdToHash;
 import static org.projectnessie.versioned.store.DefaultStoreWorker.payloadForContent;
 
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
@@ -58,6 +61,7 @@ import org.projectnessie.versioned.Commit;
 import org.projectnessie.versioned.Delete;
 import org.projectnessie.versioned.ImmutableCommit;
 import org.projectnessie.versioned.Put;
+import org.projectnessie.versioned.storage.common.exceptions.ObjNotFoundException;
 import org.projectnessie.versioned.storage.common.indexes.StoreIndex;
 import org.projectnessie.versioned.storage.common.objtypes.CommitObj;
 import org.projectnessie.versioned.storage.common.objtypes.CommitOp;
@@ -146,6 +150,27 @@ public class TestContentMapping {
             dupKeys.stream().collect(Collectors.toMap(Function.identity(), e -> content)));
   }
 
+  @Test
+  public void fetchContentsByIds() throws Exception {
+    ContentMapping contentMapping = new ContentMapping(persist);
+
+    // More contents than fit into one batch
+    Map<ObjId, Content> expected = new HashMap<>();
+    for (int i = 0; i < ContentMapping.FETCH_CONTENTS_BATCH_SIZE + 5; i++) {
+      Content content =
+          IcebergTable.of("/dev/null/" + i, 42, 43, 44, 45, UUID.randomUUID().toString());
+      ContentValueObj value = contentMapping.buildContent(content, payloadForContent(content));
+      persist.storeObj(value);
+      expected.put(value.id(), content);
+    }
+
+    soft.assertThat(contentMapping.fetchContents(expected.keySet()))
+        .containsExactlyInAnyOrderEntriesOf(expected);
+    soft.assertThat(contentMapping.fetchContents(emptySet())).isEmpty();
+    soft.assertThatThrownBy(() -> contentMapping.fetchContents(singleton(randomObjId())))
+        .isInstanceOf(ObjNotFoundException.class);
+  }
+
   @Test
   public void commitsWithoutAdditionalInfo() throws Exception {
     ContentMapping contentMapping = new ContentMapping(persist);
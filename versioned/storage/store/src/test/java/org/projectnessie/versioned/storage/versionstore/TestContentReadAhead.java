@@ -0,0 +1,156 @@
+/*
+ * Copyright (C) 2023 Dremio
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.projectnessie.versioned.storage.versionstore;
+
+import static org.projectnessie.versioned.storage.common.objtypes.CommitOp.commitOp;
+import static org.projectnessie.versioned.storage.common.persist.ObjId.randomObjId;
+import static org.projectnessie.versioned.storage.versionstore.TypeMapping.keyToStoreKey;
+import static org.projectnessie.versioned.store.DefaultStoreWorker.payloadForContent;
+
+import com.google.common.collect.Iterators;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.assertj.core.api.SoftAssertions;
+import org.assertj.core.api.junit.jupiter.InjectSoftAssertions;
+import org.assertj.core.api.junit.jupiter.SoftAssertionsExtension;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.projectnessie.model.Content;
+import org.projectnessie.model.ContentKey;
+import org.projectnessie.model.IcebergTable;
+import org.projectnessie.versioned.storage.common.exceptions.ObjNotFoundException;
+import org.projectnessie.versioned.storage.common.objtypes.CommitOp.Action;
+import org.projectnessie.versioned.storage.common.objtypes.ContentValueObj;
+import org.projectnessie.versioned.storage.common.persist.Persist;
+import org.projectnessie.versioned.storage.testextension.NessiePersist;
+import org.projectnessie.versioned.storage.testextension.PersistExtension;
+import org.projectnessie.versioned.storage.versionstore.VersionStoreImpl.ContentKeyWithCommitOp;
+
+@ExtendWith({PersistExtension.class, SoftAssertionsExtension.class})
+public class TestContentReadAhead {
+  @NessiePersist protected static Persist persist;
+
+  @InjectSoftAssertions protected SoftAssertions soft;
+
+  static final int BATCH_SIZE = 7;
+
+  static ExecutorService executor;
+
+  @BeforeAll
+  static void createExecutor() {
+    executor = ContentReadAhead.newFetchExecutor();
+  }
+
+  @AfterAll
+  static void shutdownExecutor() {
+    executor.shutdown();
+  }
+
+  @ParameterizedTest
+  @ValueSource(ints = {0, 1, 3})
+  public void contentsInOrder(int readAhead) throws Exception {
+    ContentMapping contentMapping = new ContentMapping(persist);
+
+    List<ContentKeyWithCommitOp> ops = new ArrayList<>();
+    List<Content> expected = new ArrayList<>();
+    storeContents(contentMapping, 10 * BATCH_SIZE + 3, ops, expected);
+
+    List<Content> contents = new ArrayList<>();
+    try (ContentReadAhead readAheadIter =
+        new ContentReadAhead(ops.iterator(), contentMapping, BATCH_SIZE, readAhead, executor)) {
+      readAheadIter.forEachRemaining(op -> contents.add(op.content));
+    }
+    soft.assertThat(contents).containsExactlyElementsOf(expected);
+  }
+
+  @ParameterizedTest
+  @ValueSource(ints = {1, 3})
+  public void readAheadAfterFirstBatch(int readAhead) throws Exception {
+    ContentMapping contentMapping = new ContentMapping(persist);
+
+    List<ContentKeyWithCommitOp> ops = new ArrayList<>();
+    storeContents(contentMapping, 10 * BATCH_SIZE, ops, new ArrayList<>());
+
+    AtomicInteger taken = new AtomicInteger();
+    Iterator<ContentKeyWithCommitOp> keys =
+        Iterators.transform(
+            ops.iterator(),
+            op -> {
+              taken.incrementAndGet();
+              return op;
+            });
+
+    try (ContentReadAhead readAheadIter =
+        new ContentReadAhead(keys, contentMapping, BATCH_SIZE, readAhead, executor)) {
+      // A caller that only needs the first batch, for example a small page, does not read ahead
+      for (int i = 0; i < BATCH_SIZE; i++) {
+        readAheadIter.next();
+      }
+      soft.assertThat(taken).hasValue(BATCH_SIZE);
+
+      readAheadIter.next();
+      soft.assertThat(taken).hasValue((2 + readAhead) * BATCH_SIZE);
+    }
+  }
+
+  private static void storeContents(
+      ContentMapping contentMapping,
+      int count,
+      List<ContentKeyWithCommitOp> ops,
+      List<Content> expected)
+      throws Exception {
+    for (int i = 0; i < count; i++) {
+      Content content =
+          IcebergTable.of("/dev/null/" + i, 42, 43, 44, 45, UUID.randomUUID().toString());
+      int payload = payloadForContent(content);
+      ContentValueObj value = contentMapping.buildContent(content, payload);
+      persist.storeObj(value);
+
+      ContentKey key = ContentKey.of("table-" + i);
+      ops.add(
+          new ContentKeyWithCommitOp(
+              keyToStoreKey(key), key, commitOp(Action.ADD, payload, value.id())));
+      expected.add(content);
+    }
+  }
+
+  @ParameterizedTest
+  @ValueSource(ints = {0, 3})
+  public void missingContent(int readAhead) {
+    ContentMapping contentMapping = new ContentMapping(persist);
+
+    ContentKey key = ContentKey.of("missing");
+    List<ContentKeyWithCommitOp> ops = new ArrayList<>();
+    ops.add(
+        new ContentKeyWithCommitOp(
+            keyToStoreKey(key), key, commitOp(Action.ADD, 1, randomObjId())));
+
+    try (ContentReadAhead readAheadIter =
+        new ContentReadAhead(ops.iterator(), contentMapping, BATCH_SIZE, readAhead, executor)) {
+      soft.assertThatThrownBy(readAheadIter::next)
+          .isInstanceOf(RuntimeException.class)
+          .hasMessage("Could not fetch or map content")
+          .hasCauseInstanceOf(ObjNotFoundException.class);
+    }
+  }
+}
@@ -0,0 +1,180 @@
+/*
+ * Copyright (C) 2023 Dremio
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.projectnessie.versioned.storage.versionstore;
+
+import static java.util.Collections.singletonList;
+import static org.projectnessie.model.CommitMeta.fromMessage;
+import static org.projectnessie.versioned.storage.common.config.StoreConfig.CONFIG_GROUP_COMMIT_WINDOW_MILLIS;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.annotation.Nonnull;
+import org.assertj.core.api.SoftAssertions;
+import org.assertj.core.api.junit.jupiter.InjectSoftAssertions;
+import org.assertj.core.api.junit.jupiter.SoftAssertionsExtension;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.projectnessie.model.ContentKey;
+import org.projectnessie.model.IcebergTable;
+import org.projectnessie.versioned.BranchName;
+import org.projectnessie.versioned.Commit;
+import org.projectnessie.versioned.CommitResult;
+import org.projectnessie.versioned.Hash;
+import org.projectnessie.versioned.Put;
+import org.projectnessie.versioned.ReferenceConflictException;
+import org.projectnessie.versioned.VersionStore;
+import org.projectnessie.versioned.paging.PaginationIterator;
+import org.projectnessie.versioned.storage.common.exceptions.RefConditionFailedException;
+import org.projectnessie.versioned.storage.common.exceptions.RefNotFoundException;
+import org.projectnessie.versioned.storage.common.persist.ObjId;
+import org.projectnessie.versioned.storage.common.persist.Persist;
+import org.projectnessie.versioned.storage.common.persist.Reference;
+import org.projectnessie.versioned.storage.testextension.NessiePersist;
+import org.projectnessie.versioned.storage.testextension.NessieStoreConfig;
+import org.projectnessie.versioned.storage.testextension.PersistExtension;
+
+@ExtendWith({PersistExtension.class, SoftAssertionsExtension.class})
+public class TestGroupCommit {
+  @InjectSoftAssertions protected SoftAssertions soft;
+
+  @NessiePersist
+  @NessieStoreConfig(name = CONFIG_GROUP_COMMIT_WINDOW_MILLIS, value = "500")
+  protected static Persist persist;
+
+  @Test
+  public void concurrentCommitsToDisjointKeys() throws Exception {
+    AtomicInteger pointerUpdates = new AtomicInteger();
+    VersionStoreImpl store = new VersionStoreImpl(countingPointerUpdates(pointerUpdates));
+
+    BranchName branch = BranchName.of("concurrentCommitsToDisjointKeys");
+    store.create(branch, Optional.empty());
+    pointerUpdates.set(0);
+
+    int numCommits = 10;
+    List<CommitResult<Commit>> results = new ArrayList<>();
+    for (Future<CommitResult<Commit>> f :
+        concurrently(numCommits, i -> commit(store, branch, Optional.empty(), "key-" + i))) {
+      results.add(f.get());
+    }
+
+    Set<Hash> hashes = new HashSet<>();
+    results.forEach(r -> hashes.add(r.getCommitHash()));
+    soft.assertThat(hashes).hasSize(numCommits);
+    // The first leader may publish alone, if it is the only commit in flight at that time, all
+    // other commits end up in the next group.
+    soft.assertThat(pointerUpdates).hasValueLessThanOrEqualTo(2);
+    soft.assertThat(store.groupCommit().individualFallbacks()).isEqualTo(0L);
+
+    Set<Hash> log = new HashSet<>();
+    try (PaginationIterator<Commit> commits = store.getCommits(branch, false)) {
+      commits.forEachRemaining(c -> log.add(c.getHash()));
+    }
+    soft.assertThat(log).containsAll(hashes);
+    soft.assertThat(store.hashOnReference(branch, Optional.empty(), List.of())).isIn(hashes);
+  }
+
+  @Test
+  public void conflictingMember() throws Exception {
+    VersionStore store = new VersionStoreImpl(persist);
+
+    BranchName branch = BranchName.of("conflictingMember");
+    Optional<Hash> initial = Optional.of(store.create(branch, Optional.empty()).getHash());
+
+    List<Future<CommitResult<Commit>>> futures =
+        concurrently(3, i -> commit(store, branch, initial, i == 1 ? "other" : "same"));
+
+    int succeeded = 0;
+    int conflicts = 0;
+    for (Future<CommitResult<Commit>> f : futures) {
+      try {
+        f.get();
+        succeeded++;
+      } catch (Exception e) {
+        soft.assertThat(e).hasCauseInstanceOf(ReferenceConflictException.class);
+        conflicts++;
+      }
+    }
+    soft.assertThat(succeeded).isEqualTo(2);
+    soft.assertThat(conflicts).isEqualTo(1);
+  }
+
+  private static CommitResult<Commit> commit(
+      VersionStore store, BranchName branch, Optional<Hash> referenceHash, String key)
+      throws Exception {
+    return store.commit(
+        branch,
+        referenceHash,
+        fromMessage("commit " + key),
+        singletonList(Put.of(ContentKey.of(key), IcebergTable.of("meta", 42, 43, 44, 45))));
+  }
+
+  @FunctionalInterface
+  interface CommitFunction {
+    CommitResult<Commit> commit(int i) throws Exception;
+  }
+
+  private static List<Future<CommitResult<Commit>>> concurrently(int num, CommitFunction function)
+      throws Exception {
+    ExecutorService executor = Executors.newFixedThreadPool(num);
+    try {
+      CountDownLatch start = new CountDownLatch(1);
+      List<Future<CommitResult<Commit>>> futures = new ArrayList<>();
+      for (int i = 0; i < num; i++) {
+        int n = i;
+        futures.add(
+            executor.submit(
+                () -> {
+                  start.await();
+                  return function.commit(n);
+                }));
+      }
+      start.countDown();
+      for (Future<CommitResult<Commit>> f : futures) {
+        try {
+          f.get();
+        } catch (Exception e) {
+          // checked by the test
+        }
+      }
+      return futures;
+    } finally {
+      executor.shutdown();
+    }
+  }
+
+  private static Persist countingPointerUpdates(AtomicInteger pointerUpdates) {
+    return new PersistDelegate(persist) {
+      @Nonnull
+      @jakarta.annotation.Nonnull
+      @Override
+      public Reference updateReferencePointer(
+          @Nonnull @jakarta.annotation.Nonnull Reference reference,
+          @Nonnull @jakarta.annotation.Nonnull ObjId newPointer)
+          throws RefNotFoundException, RefConditionFailedException {
+        pointerUpdates.incrementAndGet();
+        return super.updateReferencePointer(reference, newPointer);
+      }
+    };
+  }
+}
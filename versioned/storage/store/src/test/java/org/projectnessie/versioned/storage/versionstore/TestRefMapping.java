@@ -44,6 +44,7 @@ import static org.projectnessie.versioned.storage.common.persist.ObjId.objIdFrom
 import static org.projectnessie.versioned.storage.common.persist.ObjId.randomObjId;
 import static org.projectnessie.versioned.storage.common.persist.ObjType.COMMIT;
 import static org.projectnessie.versioned.storage.common.persist.Reference.reference;
+import static org.projectnessie.versioned.storage.versionstore.CommitTimeIndex.checkpointId;
 import static org.projectnessie.versioned.storage.versionstore.RefMapping.NO_ANCESTOR;
 import static org.projectnessie.versioned.storage.versionstore.RefMapping.REFS_HEADS;
 import static org.projectnessie.versioned.storage.versionstore.RefMapping.REFS_TAGS;
@@ -476,10 +477,86 @@ public class TestRefMapping {
     }
   }
 
+  @Test
+  public void commitInChainLongHistory() throws Exception {
+    RefMapping refMapping = new RefMapping(persist);
+
+    int num = 3 * CommitTimeIndex.CHECKPOINT_INTERVAL + 5;
+    List<ObjId> commits1 = generateCommits("foo", num);
+    ObjId commits1head = commits1.get(commits1.size() - 1);
+    List<ObjId> commits2 = generateCommits("bar", num);
+
+    for (int i = 0; i < num; i += 7) {
+      ObjId testId = commits1.get(i);
+      soft.assertThat(refMapping.commitInChain(commits1head, testId))
+          .extracting(CommitObj::id)
+          .isEqualTo(testId);
+      // served from the cache of verified ancestors
+      soft.assertThat(refMapping.commitInChain(commits1head, testId))
+          .extracting(CommitObj::id)
+          .isEqualTo(testId);
+      soft.assertThat(refMapping.commitInChain(testId, commits1head)).isNull();
+      soft.assertThat(refMapping.commitInChain(commits1head, commits2.get(i))).isNull();
+    }
+    soft.assertThat(refMapping.commitInChain(commits1head, randomObjId())).isNull();
+
+    // Validating hashes does not build commit time index checkpoints
+    ObjId checkpointCommit = commits1.get(CommitTimeIndex.CHECKPOINT_INTERVAL - 1);
+    soft.assertThatThrownBy(() -> persist.fetchObj(checkpointId(checkpointCommit)))
+        .isInstanceOf(ObjNotFoundException.class);
+
+    // ... but uses existing checkpoints, pairs not yet in the cache of verified ancestors
+    new CommitTimeIndex(persist, commitLogic(persist), CommitTimeIndex.CHECKPOINT_INTERVAL, 100)
+        .backfill(requireNonNull(commitLogic(persist).fetchCommit(commits1head)));
+    soft.assertThat(persist.fetchObj(checkpointId(checkpointCommit))).isNotNull();
+    for (int i = 3; i < num; i += 7) {
+      ObjId testId = commits1.get(i);
+      soft.assertThat(refMapping.commitInChain(commits1head, testId))
+          .extracting(CommitObj::id)
+          .isEqualTo(testId);
+      soft.assertThat(refMapping.commitInChain(commits1head, commits2.get(i))).isNull();
+    }
+  }
+
+  @Test
+  public void commitInChainInconsistentSequenceNumbers() throws Exception {
+    RefMapping refMapping = new RefMapping(persist);
+
+    // Parent and child with the same sequence number, falls back to walking the commit log
+    CommitObj parent = storeCommitWithSeq(EMPTY_OBJ_ID, 5L);
+    CommitObj child = storeCommitWithSeq(parent.id(), 5L);
+    CommitObj other = storeCommitWithSeq(EMPTY_OBJ_ID, 5L);
+
+    soft.assertThat(refMapping.commitInChain(child.id(), parent.id()))
+        .extracting(CommitObj::id)
+        .isEqualTo(parent.id());
+    soft.assertThat(refMapping.commitInChain(parent.id(), child.id())).isNull();
+    soft.assertThat(refMapping.commitInChain(child.id(), other.id())).isNull();
+  }
+
+  private CommitObj storeCommitWithSeq(ObjId parent, long seq) throws Exception {
+    CommitObj commit =
+        commitBuilder()
+            .id(randomObjId())
+            .addTail(parent)
+            .incrementalIndex(ByteString.empty())
+            .message("commit")
+            .headers(EMPTY_COMMIT_HEADERS)
+            .created(42L)
+            .seq(seq)
+            .build();
+    commitLogic(persist).storeCommit(commit, emptyList());
+    return commit;
+  }
+
   private List<ObjId> generateCommits(String msg) throws Exception {
+    return generateCommits(msg, 10);
+  }
+
+  private List<ObjId> generateCommits(String msg, int num) throws Exception {
     ObjId head = EMPTY_OBJ_ID;
     List<ObjId> r = new ArrayList<>();
-    for (int i = 0; i < 10; i++) {
+    for (int i = 0; i < num; i++) {
       head = generateCommit(head, msg, i).id();
       r.add(head);
     }
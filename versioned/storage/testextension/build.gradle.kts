@@ -25,7 +25,7 @@ description = "JUnit 5 test extension providing configurable 'Persist' instances
 
 dependencies {
   implementation(project(":nessie-versioned-storage-common"))
-  implementation(project(":nessie-versioned-storage-cache"))
+  api(project(":nessie-versioned-storage-cache"))
 
   // javax/jakarta
   compileOnly(libs.jakarta.validation.api)
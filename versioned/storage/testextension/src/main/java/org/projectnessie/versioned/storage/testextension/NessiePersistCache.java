@@ -20,6 +20,7 @@ import java.lang.annotation.Inherited;
 import java.lang.annotation.Retention;
 import java.lang.annotation.RetentionPolicy;
 import java.lang.annotation.Target;
+import org.projectnessie.versioned.storage.cache.CacheMode;
 
 /**
  * Adds a cache in front of the created {@link
@@ -31,4 +32,9 @@ import java.lang.annotation.Target;
 @Inherited
 public @interface NessiePersistCache {
   long capacity() default 1024 * 1024;
+
+  CacheMode mode() default CacheMode.SERIALIZED;
+
+  /** Time-to-live of cached references in milliseconds, references are not cached if {@code 0}. */
+  long referenceTtlMillis() default 0L;
 }
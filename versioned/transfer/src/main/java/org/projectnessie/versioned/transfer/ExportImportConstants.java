@@ -24,6 +24,8 @@ public final class ExportImportConstants {
   public static final int DEFAULT_EXPECTED_COMMIT_COUNT = 1_000_000;
   public static final int DEFAULT_COMMIT_BATCH_SIZE = 20;
   public static final int DEFAULT_ATTACHMENT_BATCH_SIZE = 20;
+  public static final int DEFAULT_EXPORT_PARALLELISM = 1;
+  public static final int DEFAULT_IMPORT_PARALLELISM = 1;
 
   private ExportImportConstants() {}
 }
@@ -28,6 +28,7 @@ import static org.projectnessie.versioned.storage.common.logic.ReferencesQuery.r
 import com.fasterxml.jackson.core.JsonProcessingException;
 import java.io.IOException;
 import java.util.ArrayDeque;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Deque;
 import java.util.Iterator;
@@ -78,13 +79,33 @@ final class ExportPersist extends ExportCommon {
   HeadsAndForks exportCommits(ExportContext exportContext) {
 
     HeadsAndForkPoints headsAndForkPoints;
-    try (Batcher<CommitObj> commitObjBatcher =
-        new Batcher<>(
-            exporter.commitBatchSize(), commits -> mapCommitObjs(commits, exportContext))) {
-      headsAndForkPoints =
-          exporter.fullScan()
-              ? scanDatabase(commitObjBatcher::add)
-              : scanAllReferences(commitObjBatcher::add);
+    Consumer<Commit> commitWriter =
+        commit -> {
+          exportContext.writeCommit(commit);
+          exporter.progressListener().progress(ProgressEvent.COMMIT_WRITTEN);
+        };
+    if (exporter.exportParallelism() > 1) {
+      // Contents are fetched and commits are mapped by multiple threads, commits are written by
+      // this thread in the order in which those have been scanned.
+      try (ParallelBatchMapper<CommitObj, Commit> mapper =
+          new ParallelBatchMapper<>(
+              exporter.exportParallelism(),
+              "nessie-export-%d",
+              this::mapCommitObjs,
+              commitWriter)) {
+        try (Batcher<CommitObj> commitObjBatcher =
+            new Batcher<>(exporter.commitBatchSize(), mapper::submit)) {
+          headsAndForkPoints = scanCommits(commitObjBatcher);
+        }
+        mapper.finish();
+      }
+    } else {
+      try (Batcher<CommitObj> commitObjBatcher =
+          new Batcher<>(
+              exporter.commitBatchSize(),
+              commits -> mapCommitObjs(commits).forEach(commitWriter))) {
+        headsAndForkPoints = scanCommits(commitObjBatcher);
+      }
     }
 
     HeadsAndForks.Builder hf =
@@ -95,6 +116,12 @@ final class ExportPersist extends ExportCommon {
     return hf.build();
   }
 
+  private HeadsAndForkPoints scanCommits(Batcher<CommitObj> commitObjBatcher) {
+    return exporter.fullScan()
+        ? scanDatabase(commitObjBatcher::add)
+        : scanAllReferences(commitObjBatcher::add);
+  }
+
   private HeadsAndForkPoints scanAllReferences(Consumer<CommitObj> commitHandler) {
     Persist persist = persist();
 
@@ -173,16 +200,16 @@ final class ExportPersist extends ExportCommon {
     }
   }
 
-  private void mapCommitObjs(List<CommitObj> commitObjs, ExportContext exportContext) {
+  private List<Commit> mapCommitObjs(List<CommitObj> commitObjs) {
     IndexesLogic indexesLogic = indexesLogic(exporter.persist());
 
     Map<ObjId, Obj> objs = fetchReferencedObjs(commitObjs, indexesLogic);
 
+    List<Commit> commits = new ArrayList<>(commitObjs.size());
     for (CommitObj c : commitObjs) {
-      Commit commit = mapCommitObj(c, indexesLogic, objs);
-      exportContext.writeCommit(commit);
-      exporter.progressListener().progress(ProgressEvent.COMMIT_WRITTEN);
+      commits.add(mapCommitObj(c, indexesLogic, objs));
     }
+    return commits;
   }
 
   private Map<ObjId, Obj> fetchReferencedObjs(
@@ -25,8 +25,13 @@ import static org.projectnessie.versioned.storage.common.objtypes.CommitOp.commi
 import static org.projectnessie.versioned.storage.common.objtypes.CommitOp.contentIdMaybe;
 import static org.projectnessie.versioned.storage.common.objtypes.ContentValueObj.contentValue;
 
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Collectors;
 import org.projectnessie.model.Content;
 import org.projectnessie.nessie.relocated.protobuf.ByteString;
 import org.projectnessie.versioned.storage.batching.BatchingPersist;
@@ -43,6 +48,7 @@ import org.projectnessie.versioned.storage.common.logic.RepositoryLogic;
 import org.projectnessie.versioned.storage.common.objtypes.CommitOp;
 import org.projectnessie.versioned.storage.common.objtypes.ContentValueObj;
 import org.projectnessie.versioned.storage.common.persist.ObjId;
+import org.projectnessie.versioned.storage.common.persist.Persist;
 import org.projectnessie.versioned.transfer.serialize.TransferTypes.Commit;
 import org.projectnessie.versioned.transfer.serialize.TransferTypes.ExportMeta;
 import org.projectnessie.versioned.transfer.serialize.TransferTypes.HeadsAndForks;
@@ -53,13 +59,16 @@ abstract class ImportPersistCommon extends ImportCommon {
 
   ImportPersistCommon(ExportMeta exportMeta, NessieImporter importer) {
     super(exportMeta, importer);
-    this.persist =
-        WriteBatching.builder()
-            .persist(requireNonNull(importer.persist()))
-            .batchSize(importer.commitBatchSize())
-            .optimistic(true)
-            .build()
-            .create();
+    this.persist = newBatchingPersist();
+  }
+
+  private BatchingPersist newBatchingPersist() {
+    return WriteBatching.builder()
+        .persist(requireNonNull(importer.persist()))
+        .batchSize(importer.commitBatchSize())
+        .optimistic(true)
+        .build()
+        .create();
   }
 
   @Override
@@ -73,6 +82,11 @@ abstract class ImportPersistCommon extends ImportCommon {
 
   @Override
   void importFinalize(HeadsAndForks headsAndForks) {
+    if (importer.importParallelism() > 1) {
+      importFinalizeParallel(headsAndForks);
+      return;
+    }
+
     try {
       IndexesLogic indexesLogic = indexesLogic(persist);
       for (ByteString head : headsAndForks.getHeadsList()) {
@@ -89,8 +103,45 @@ abstract class ImportPersistCommon extends ImportCommon {
     }
   }
 
+  /**
+   * Completes the commit indexes of independent parts of the commit graph concurrently, progress
+   * is reported by the thread that updated a commit, so calls to the progress listener are
+   * serialized.
+   */
+  private void importFinalizeParallel(HeadsAndForks headsAndForks) {
+    ExecutorService executor =
+        Executors.newFixedThreadPool(
+            importer.importParallelism(),
+            new ThreadFactoryBuilder().setDaemon(true).setNameFormat("nessie-finalize-%d").build());
+    try {
+      List<ObjId> heads =
+          headsAndForks.getHeadsList().stream()
+              .map(ObjId::objIdFromBytes)
+              .collect(Collectors.toList());
+      ProgressListener progressListener = importer.progressListener();
+      indexesLogic(persist)
+          .completeIndexesInCommitChains(
+              heads,
+              executor,
+              () -> {
+                synchronized (progressListener) {
+                  progressListener.progress(ProgressEvent.FINALIZE_PROGRESS);
+                }
+              });
+    } catch (ObjNotFoundException e) {
+      throw new RuntimeException(e);
+    } finally {
+      executor.shutdownNow();
+      persist.flush();
+    }
+  }
+
   @Override
   long importCommits() throws IOException {
+    if (importer.importParallelism() > 1) {
+      return importCommitsParallel();
+    }
+
     long commitCount = 0L;
     try {
       for (String fileName : exportMeta.getCommitsFilesList()) {
@@ -100,7 +151,8 @@ abstract class ImportPersistCommon extends ImportCommon {
             if (commit == null) {
               break;
             }
-            processCommit(commit);
+            processCommit(persist, commit);
+            importer.progressListener().progress(ProgressEvent.COMMIT_WRITTEN);
             commitCount++;
           }
         } catch (ObjTooLargeException e) {
@@ -113,6 +165,53 @@ abstract class ImportPersistCommon extends ImportCommon {
     return commitCount;
   }
 
+  /**
+   * Commits and contents are independent, content addressed objects, so batches of commits can be
+   * decoded and written concurrently, each batch via its own {@link BatchingPersist}. Commits are
+   * read from the export files and progress is reported by the calling thread.
+   */
+  private long importCommitsParallel() throws IOException {
+    long commitCount = 0L;
+    try (ParallelBatchMapper<Commit, Commit> writer =
+        new ParallelBatchMapper<>(
+            importer.importParallelism(),
+            "nessie-import-%d",
+            this::writeCommits,
+            c -> importer.progressListener().progress(ProgressEvent.COMMIT_WRITTEN))) {
+      try (Batcher<Commit> batcher = new Batcher<>(importer.commitBatchSize(), writer::submit)) {
+        for (String fileName : exportMeta.getCommitsFilesList()) {
+          try (InputStream input = importFiles.newFileInput(fileName)) {
+            while (true) {
+              Commit commit = Commit.parseDelimitedFrom(input);
+              if (commit == null) {
+                break;
+              }
+              batcher.add(commit);
+              commitCount++;
+            }
+          }
+        }
+      }
+      writer.finish();
+    }
+    return commitCount;
+  }
+
+  private List<Commit> writeCommits(List<Commit> commits) {
+    // Only flush after the whole batch has been processed, a failing flush in a 'finally' would
+    // hide the original exception, and the import fails anyway.
+    BatchingPersist batchingPersist = newBatchingPersist();
+    try {
+      for (Commit commit : commits) {
+        processCommit(batchingPersist, commit);
+      }
+    } catch (IOException | ObjTooLargeException e) {
+      throw new RuntimeException(e);
+    }
+    batchingPersist.flush();
+    return commits;
+  }
+
   @Override
   void markRepositoryImported() {
     RepositoryLogic repositoryLogic = repositoryLogic(importer.persist());
@@ -130,9 +229,12 @@ abstract class ImportPersistCommon extends ImportCommon {
     }
   }
 
-  abstract void processCommit(Commit commit) throws IOException, ObjTooLargeException;
+  /** Writes the given commit and its contents using the given {@link Persist}. */
+  abstract void processCommit(Persist persist, Commit commit)
+      throws IOException, ObjTooLargeException;
 
-  void processCommitOp(StoreIndex<CommitOp> index, Operation op, StoreKey storeKey) {
+  void processCommitOp(
+      Persist persist, StoreIndex<CommitOp> index, Operation op, StoreKey storeKey) {
     byte payload = (byte) op.getPayload();
     switch (op.getOperationType()) {
       case Delete:
@@ -36,6 +36,7 @@ import org.projectnessie.versioned.storage.common.logic.ReferenceLogic;
 import org.projectnessie.versioned.storage.common.objtypes.CommitHeaders;
 import org.projectnessie.versioned.storage.common.objtypes.CommitObj;
 import org.projectnessie.versioned.storage.common.objtypes.CommitOp;
+import org.projectnessie.versioned.storage.common.persist.Persist;
 import org.projectnessie.versioned.transfer.serialize.TransferTypes.Commit;
 import org.projectnessie.versioned.transfer.serialize.TransferTypes.ExportMeta;
 import org.projectnessie.versioned.transfer.serialize.TransferTypes.Ref;
@@ -99,7 +100,7 @@ final class ImportPersistV2 extends ImportPersistCommon {
   }
 
   @Override
-  void processCommit(Commit commit) throws ObjTooLargeException {
+  void processCommit(Persist persist, Commit commit) throws ObjTooLargeException {
     CommitHeaders.Builder headers = newCommitHeaders();
     commit
         .getHeadersList()
@@ -121,13 +122,11 @@ final class ImportPersistV2 extends ImportPersistCommon {
         .forEach(
             op -> {
               StoreKey storeKey = keyFromString(op.getContentKey(0));
-              processCommitOp(index, op, storeKey);
+              processCommitOp(persist, index, op, storeKey);
             });
 
     c.incrementalIndex(index.serialize());
 
     persist.storeObj(c.build());
-
-    importer.progressListener().progress(ProgressEvent.COMMIT_WRITTEN);
   }
 }
@@ -91,6 +91,15 @@ public abstract class NessieExporter {
      */
     Builder commitBatchSize(int commitBatchSize);
 
+    /**
+     * Optional, specify the number of threads that fetch the contents of and serialize batches of
+     * commits, defaults to {@value ExportImportConstants#DEFAULT_EXPORT_PARALLELISM}, which means
+     * that all work is done by the exporting thread. Commits are always written by the exporting
+     * thread, in the same order as with a single thread. Only applies to exports from {@link
+     * #persist(Persist)}.
+     */
+    Builder exportParallelism(int exportParallelism);
+
     NessieExporter build();
   }
 
@@ -125,6 +134,7 @@ public abstract class NessieExporter {
     checkState(
         persist() == null ^ databaseAdapter() == null,
         "Must supply either persist() or databaseAdapter(), never both");
+    checkState(exportParallelism() >= 1, "exportParallelism must be greater than 0");
   }
 
   /**
@@ -178,6 +188,11 @@ public abstract class NessieExporter {
     return ExportImportConstants.DEFAULT_COMMIT_BATCH_SIZE;
   }
 
+  @Value.Default
+  int exportParallelism() {
+    return ExportImportConstants.DEFAULT_EXPORT_PARALLELISM;
+  }
+
   abstract ExportFileSupplier exportFileSupplier();
 
   @Value.Default
@@ -18,6 +18,7 @@ package org.projectnessie.versioned.transfer;
 import static com.google.common.base.Preconditions.checkState;
 import static org.projectnessie.versioned.transfer.ExportImportConstants.DEFAULT_ATTACHMENT_BATCH_SIZE;
 import static org.projectnessie.versioned.transfer.ExportImportConstants.DEFAULT_COMMIT_BATCH_SIZE;
+import static org.projectnessie.versioned.transfer.ExportImportConstants.DEFAULT_IMPORT_PARALLELISM;
 import static org.projectnessie.versioned.transfer.ExportImportConstants.EXPORT_METADATA;
 import static org.projectnessie.versioned.transfer.ExportImportConstants.HEADS_AND_FORKS;
 import static org.projectnessie.versioned.transfer.ExportImportConstants.REPOSITORY_DESCRIPTION;
@@ -69,6 +70,16 @@ public abstract class NessieImporter {
      */
     Builder attachmentBatchSize(int attachmentBatchSize);
 
+    /**
+     * Optional, specify the number of threads that decode and write batches of {@link
+     * #commitBatchSize(int)} commits including their contents, defaults to {@value
+     * ExportImportConstants#DEFAULT_IMPORT_PARALLELISM}, which means that all work is done by the
+     * importing thread. The same number of threads completes the indexes of independent parts of
+     * the commit graph after the import. Named references are created by the importing thread.
+     * Only applies to imports into {@link #persist(Persist)}.
+     */
+    Builder importParallelism(int importParallelism);
+
     Builder progressListener(ProgressListener progressListener);
 
     Builder importFileSupplier(ImportFileSupplier importFileSupplier);
@@ -89,6 +100,7 @@ public abstract class NessieImporter {
     checkState(
         persist() == null ^ databaseAdapter() == null,
         "Must supply either persist() or databaseAdapter(), never both");
+    checkState(importParallelism() >= 1, "importParallelism must be greater than 0");
   }
 
   @Value.Default
@@ -101,6 +113,11 @@ public abstract class NessieImporter {
     return DEFAULT_ATTACHMENT_BATCH_SIZE;
   }
 
+  @Value.Default
+  int importParallelism() {
+    return DEFAULT_IMPORT_PARALLELISM;
+  }
+
   @Value.Default
   StoreWorker storeWorker() {
     return DefaultStoreWorker.instance();
@@ -0,0 +1,101 @@
+/*
+ * Copyright (C) 2023 Dremio
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.projectnessie.versioned.transfer;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Maps batches of objects using multiple threads and passes the mapped objects to a consumer in the
+ * order in which the batches were {@link #submit(List) submitted}, should be used in a
+ * <em>try-with-resource</em>.
+ *
+ * <p>The consumer is only called from the thread that submits the batches, so it does not need to
+ * be thread-safe. The number of batches that are being mapped or waiting to be consumed is bounded
+ * to twice the number of threads, {@link #submit(List)} consumes the oldest mapped batch, if that
+ * limit is reached.
+ */
+final class ParallelBatchMapper<T, R> implements AutoCloseable {
+  private final ExecutorService executor;
+  private final Function<List<T>, List<R>> mapper;
+  private final Consumer<R> consumer;
+  private final int maxPending;
+  private final Deque<Future<List<R>>> pending = new ArrayDeque<>();
+
+  ParallelBatchMapper(
+      int parallelism,
+      String threadNameFormat,
+      Function<List<T>, List<R>> mapper,
+      Consumer<R> consumer) {
+    this.executor =
+        Executors.newFixedThreadPool(
+            parallelism,
+            new ThreadFactoryBuilder().setDaemon(true).setNameFormat(threadNameFormat).build());
+    this.mapper = mapper;
+    this.consumer = consumer;
+    this.maxPending = 2 * parallelism;
+  }
+
+  void submit(List<T> batch) {
+    while (pending.size() >= maxPending) {
+      consumeOldest();
+    }
+    pending.addLast(executor.submit(() -> mapper.apply(batch)));
+  }
+
+  /** Waits for all submitted batches and consumes the mapped objects. */
+  void finish() {
+    while (!pending.isEmpty()) {
+      consumeOldest();
+    }
+  }
+
+  private void consumeOldest() {
+    List<R> mapped;
+    try {
+      mapped = pending.removeFirst().get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new RuntimeException(e);
+    } catch (ExecutionException e) {
+      Throwable cause = e.getCause();
+      if (cause instanceof RuntimeException) {
+        throw (RuntimeException) cause;
+      }
+      if (cause instanceof Error) {
+        throw (Error) cause;
+      }
+      throw new RuntimeException(cause);
+    }
+    mapped.forEach(consumer);
+  }
+
+  /** Cancels the batches that have not been consumed and stops the threads. */
+  @Override
+  public void close() {
+    pending.forEach(f -> f.cancel(true));
+    pending.clear();
+    executor.shutdownNow();
+  }
+}
@@ -81,17 +81,25 @@ public class TestExportImportV2 extends BaseExportImport {
   @Override
   ImportResult importRepo() throws IOException {
     NessieImporter importer =
-        NessieImporter.builder()
+        newImporter()
             .persist(persistImport)
             .importFileSupplier(FileImporter.builder().sourceDirectory(dir).build())
             .build();
     return importer.importNessieRepository();
   }
 
+  NessieImporter.Builder newImporter() {
+    return NessieImporter.builder();
+  }
+
+  NessieExporter.Builder newExporter() {
+    return NessieExporter.builder();
+  }
+
   @Override
   ExportMeta exportRepo(boolean fullScan) throws IOException {
     NessieExporter exporter =
-        NessieExporter.builder()
+        newExporter()
             .persist(persistExport)
             .fullScan(fullScan)
             .exportFileSupplier(FileExporter.builder().targetDirectory(dir).build())
@@ -0,0 +1,30 @@
+/*
+ * Copyright (C) 2023 Dremio
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.projectnessie.versioned.transfer;
+
+/** Runs the export/import tests with an export and an import using multiple threads. */
+public class TestExportImportV2Parallel extends TestExportImportV2 {
+  @Override
+  NessieImporter.Builder newImporter() {
+    return NessieImporter.builder().importParallelism(4).commitBatchSize(3);
+  }
+
+  @Override
+  NessieExporter.Builder newExporter() {
+    // Small batches, so that multiple batches are mapped concurrently
+    return NessieExporter.builder().exportParallelism(4).commitBatchSize(3);
+  }
+}